@@ -0,0 +1,157 @@
+#!/usr/bin/env bash
+#
+# Benchmark de tiempo de arranque y memoria residente.
+#
+# Mide el tiempo desde que se lanza el proceso hasta que /actuator/health responde UP,
+# que es exactamente lo que espera el healthcheck de compose-produccion.yaml, y la memoria
+# residente (RSS) del proceso en ese momento.
+# Los resultados se añaden a target/benchmark-arranque/resultados.csv para comparar
+# el antes/después de cada modo.
+#
+# Requisitos:
+#   - mvn -Parranque-rapido package -DskipTests   (genera target/arranque con el jar extraído y application.jsa)
+#   - mvn -Pnative package -DskipTests            (solo para el modo nativo, genera target/buenaspracticas)
+#   - Una base de datos PostgreSQL accesible (por defecto la de compose.yaml: docker compose up -d db)
+#
+# Uso:
+#   scripts/benchmark-arranque.sh [modo...]
+#
+# Modos:
+#   jvm        jar ejecutable sin optimizaciones (línea base)
+#   perezoso   jar ejecutable con el perfil arranquerapido (lazy initialization)
+#   cds        jar extraído + Spring AOT + archivo CDS generado en el build
+#   aotcache   jar extraído + Spring AOT + caché AOT de Java 24 (JEP 483), se entrena si no existe
+#   nativo     binario de GraalVM generado con el perfil Maven native
+#
+set -euo pipefail
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$RAIZ/target"
+EXTRAIDO="$TARGET/arranque"
+SALIDA="$TARGET/benchmark-arranque"
+RESULTADOS="$SALIDA/resultados.csv"
+
+REPETICIONES="${REPETICIONES:-5}"
+PUERTO="${PUERTO:-18080}"
+PERFIL="${PERFIL:-produccion}"
+TIMEOUT_SEGUNDOS="${TIMEOUT_SEGUNDOS:-120}"
+
+export SPRING_DATASOURCE_URL="${SPRING_DATASOURCE_URL:-jdbc:postgresql://localhost:5432/localdb}"
+export SPRING_DATASOURCE_USERNAME="${SPRING_DATASOURCE_USERNAME:-localuser}"
+export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-password123}"
+
+JAR="$(ls "$TARGET"/*.jar 2>/dev/null | grep -v original | head -n 1 || true)"
+JAR_EXTRAIDO="$EXTRAIDO/$(basename "${JAR:-app.jar}")"
+BINARIO_NATIVO="$TARGET/buenaspracticas"
+
+ARGS_COMUNES=(--server.port="$PUERTO" --spring.docker.compose.enabled=false)
+
+if [[ -z "$JAR" ]]; then
+    echo "No se encontró el jar en $TARGET. Ejecuta antes: mvn -Parranque-rapido package -DskipTests" >&2
+    exit 1
+fi
+
+mkdir -p "$SALIDA"
+[[ -f "$RESULTADOS" ]] || echo "fecha,modo,iteracion,milisegundos,rss_kb" > "$RESULTADOS"
+
+ahora_ms() {
+    date +%s%3N
+}
+
+mediana() {
+    printf '%s\n' "$@" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}'
+}
+
+# Genera la caché AOT de Java 24 con una ejecución de entrenamiento que termina tras el refresh.
+entrenar_aotcache() {
+    [[ -f "$EXTRAIDO/application.aot" ]] && return
+    echo "Entrenando caché AOT (JEP 483)..."
+    (cd "$EXTRAIDO" && java -XX:AOTMode=record -XX:AOTConfiguration=application.aotconf \
+        -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar "$JAR_EXTRAIDO" --spring.profiles.active="$PERFIL" "${ARGS_COMUNES[@]}" > "$SALIDA/entrenamiento-aotcache.log" 2>&1)
+    (cd "$EXTRAIDO" && java -XX:AOTMode=create -XX:AOTConfiguration=application.aotconf \
+        -XX:AOTCache=application.aot -jar "$JAR_EXTRAIDO" >> "$SALIDA/entrenamiento-aotcache.log" 2>&1)
+}
+
+comando_para() {
+    case "$1" in
+        jvm)
+            echo "java -jar $JAR --spring.profiles.active=$PERFIL"
+            ;;
+        perezoso)
+            echo "java -jar $JAR --spring.profiles.active=$PERFIL,arranquerapido"
+            ;;
+        cds)
+            echo "java -XX:SharedArchiveFile=$EXTRAIDO/application.jsa -Dspring.aot.enabled=true -jar $JAR_EXTRAIDO --spring.profiles.active=$PERFIL"
+            ;;
+        aotcache)
+            echo "java -XX:AOTCache=$EXTRAIDO/application.aot -Dspring.aot.enabled=true -jar $JAR_EXTRAIDO --spring.profiles.active=$PERFIL"
+            ;;
+        nativo)
+            echo "$BINARIO_NATIVO --spring.profiles.active=$PERFIL"
+            ;;
+        *)
+            echo "Modo desconocido: $1" >&2
+            exit 1
+            ;;
+    esac
+}
+
+medir() {
+    local modo="$1" iteracion="$2" inicio fin pid rss
+    local comando
+    comando="$(comando_para "$modo")"
+
+    inicio="$(ahora_ms)"
+    # shellcheck disable=SC2086
+    $comando "${ARGS_COMUNES[@]}" > "$SALIDA/$modo-$iteracion.log" 2>&1 &
+    pid=$!
+
+    until curl -sf "http://localhost:$PUERTO/actuator/health" | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "La aplicación terminó antes de estar disponible (ver $SALIDA/$modo-$iteracion.log)" >&2
+            exit 1
+        fi
+        if (( $(ahora_ms) - inicio > TIMEOUT_SEGUNDOS * 1000 )); then
+            kill "$pid"
+            echo "Tiempo de espera agotado en modo $modo" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    fin="$(ahora_ms)"
+    rss="$(ps -o rss= -p "$pid" | tr -d ' ')"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+
+    echo "$(date -Iseconds),$modo,$iteracion,$((fin - inicio)),$rss" >> "$RESULTADOS"
+    echo "$((fin - inicio)) $rss"
+}
+
+MODOS=("$@")
+[[ ${#MODOS[@]} -gt 0 ]] || MODOS=(jvm perezoso cds aotcache)
+
+for modo in "${MODOS[@]}"; do
+    if [[ "$modo" == "cds" || "$modo" == "aotcache" ]] && [[ ! -f "$JAR_EXTRAIDO" ]]; then
+        echo "Falta $JAR_EXTRAIDO. Ejecuta antes: mvn -Parranque-rapido package -DskipTests" >&2
+        exit 1
+    fi
+    if [[ "$modo" == "nativo" ]] && [[ ! -x "$BINARIO_NATIVO" ]]; then
+        echo "Falta $BINARIO_NATIVO. Ejecuta antes: mvn -Pnative package -DskipTests" >&2
+        exit 1
+    fi
+    [[ "$modo" == "aotcache" ]] && entrenar_aotcache
+
+    tiempos=()
+    memorias=()
+    for ((i = 1; i <= REPETICIONES; i++)); do
+        read -r tiempo rss < <(medir "$modo" "$i")
+        [[ -n "$tiempo" ]] || exit 1
+        tiempos+=("$tiempo")
+        memorias+=("$rss")
+    done
+    printf '%-10s mediana=%6d ms  rss=%7d KB  (%s)\n' "$modo" "$(mediana "${tiempos[@]}")" "$(mediana "${memorias[@]}")" "${tiempos[*]}"
+done
+
+echo "Resultados acumulados en $RESULTADOS"
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+#
+# Prueba de integración del binario nativo contra la PostgreSQL local de compose.yaml.
+#
+# Arranca target/buenaspracticas con el perfil indicado, espera a /actuator/health y recorre
+# las vistas principales (las que dependen de reflexión de entidades, plantillas Thymeleaf y
+# mensajes i18n, que son lo primero que falla si faltan pistas nativas).
+#
+# Uso:
+#   docker compose up -d db
+#   mvn -Pnative package -DskipTests
+#   scripts/prueba-nativa.sh
+#
+set -euo pipefail
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+BINARIO="$RAIZ/target/buenaspracticas"
+PUERTO="${PUERTO:-18081}"
+PERFIL="${PERFIL:-produccion}"
+LOG="$RAIZ/target/prueba-nativa.log"
+
+export SPRING_DATASOURCE_URL="${SPRING_DATASOURCE_URL:-jdbc:postgresql://localhost:5432/localdb}"
+export SPRING_DATASOURCE_USERNAME="${SPRING_DATASOURCE_USERNAME:-localuser}"
+export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-password123}"
+
+if [[ ! -x "$BINARIO" ]]; then
+    echo "Falta $BINARIO. Ejecuta antes: mvn -Pnative package -DskipTests" >&2
+    exit 1
+fi
+
+"$BINARIO" --server.port="$PUERTO" --spring.profiles.active="$PERFIL" > "$LOG" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 200); do
+    curl -sf "http://localhost:$PUERTO/actuator/health" | grep -q '"UP"' && break
+    kill -0 "$PID" 2>/dev/null || { echo "El binario terminó durante el arranque (ver $LOG)" >&2; exit 1; }
+    sleep 0.1
+done
+
+comprobar() {
+    local descripcion="$1" esperado="$2"; shift 2
+    local codigo
+    codigo="$(curl -s -o /dev/null -w '%{http_code}' "$@")"
+    if [[ "$codigo" != "$esperado" ]]; then
+        echo "FALLO: $descripcion -> HTTP $codigo (esperado $esperado). Ver $LOG" >&2
+        exit 1
+    fi
+    echo "OK: $descripcion"
+}
+
+comprobar "health" 200 "http://localhost:$PUERTO/actuator/health"
+comprobar "vista /entities (Thymeleaf + i18n)" 200 "http://localhost:$PUERTO/entities"
+comprobar "vista /protected sin credenciales" 401 "http://localhost:$PUERTO/protected"
+comprobar "vista /protected con credenciales" 200 -u user:password "http://localhost:$PUERTO/protected"
+
+echo "Binario nativo verificado. RSS actual: $(ps -o rss= -p "$PID" | tr -d ' ') KB"
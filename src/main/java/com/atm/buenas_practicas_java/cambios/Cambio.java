@@ -0,0 +1,22 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import java.time.Instant;
+
+/**
+ * Cambio de una fila de {@code entidad_padre} o {@code entidad_hija}, tal como lo publica {@link RelevoCambios}.
+ *
+ * @param posicion       posición en el flujo de cambios: consecutiva y creciente en el orden de publicación.
+ * @param entidad        {@code EntidadPadre} o {@code EntidadHija}.
+ * @param id             id de la fila cambiada.
+ * @param operacion      tipo de cambio.
+ * @param nombre         nombre tras el cambio, o el que tenía la fila borrada.
+ * @param entidadPadreId padre de la hija tras el cambio; {@code null} en los padres.
+ * @param creado         momento en que se registró el cambio en la base de datos.
+ */
+public record Cambio(long posicion, String entidad, long id, Operacion operacion, String nombre,
+                     Long entidadPadreId, Instant creado) {
+
+    public enum Operacion {
+        INSERT, UPDATE, DELETE
+    }
+}
@@ -0,0 +1,55 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Outbox de cambios de {@code EntidadPadre} y {@code EntidadHija}.
+ *
+ * Los eventos los escriben los triggers de la migración V4. Aquí se configura su lectura por posición
+ * ({@link RepositorioCambios}), el relevo que los publica ({@link RelevoCambios}) y los sumideros: eventos de
+ * Spring y el flujo SSE ({@link DifusorCambios}) siempre, y un fichero JSON Lines con
+ * {@code app.cambios.fichero.habilitado=true}. Cualquier otro bean {@link SumideroCambios} se añade al relevo.
+ */
+@Configuration
+@EnableConfigurationProperties(CambiosProperties.class)
+public class CambiosConfig {
+
+    @Bean
+    public RepositorioCambios repositorioCambios(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        return new RepositorioCambios(jdbcTemplate, transactionTemplate);
+    }
+
+    @Bean
+    public SumideroEventosAplicacion sumideroEventosAplicacion(ApplicationEventPublisher publisher) {
+        return new SumideroEventosAplicacion(publisher);
+    }
+
+    @Bean
+    public DifusorCambios difusorCambios(RepositorioCambios repositorio, CambiosProperties properties,
+                                         MeterRegistry meterRegistry) {
+        return new DifusorCambios(repositorio, properties.flujo(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cambios.fichero", name = "habilitado", havingValue = "true")
+    public SumideroFichero sumideroFichero(ObjectMapper objectMapper, CambiosProperties properties) {
+        return new SumideroFichero(objectMapper, properties.fichero().ruta());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cambios.relevo", name = "habilitado", havingValue = "true",
+            matchIfMissing = true)
+    public RelevoCambios relevoCambios(RepositorioCambios repositorio, ObjectProvider<SumideroCambios> sumideros,
+                                       CambiosProperties properties, MeterRegistry meterRegistry) {
+        return new RelevoCambios(repositorio, sumideros.orderedStream().toList(), properties.relevo(), meterRegistry);
+    }
+}
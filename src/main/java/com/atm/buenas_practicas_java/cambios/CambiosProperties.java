@@ -0,0 +1,57 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Propiedades del outbox de cambios ({@code app.cambios.*}).
+ *
+ * @param relevo  publicación de los eventos de {@code evento_cambio}.
+ * @param fichero sumidero que añade los cambios a un fichero JSON Lines.
+ * @param flujo   difusión de los cambios por Server-Sent Events.
+ */
+@ConfigurationProperties(prefix = "app.cambios")
+public record CambiosProperties(@DefaultValue Relevo relevo, @DefaultValue Fichero fichero,
+                                @DefaultValue Flujo flujo) {
+
+    /**
+     * @param habilitado   publica los eventos; si se desactiva en todas las instancias, el outbox crece sin
+     *                     límite.
+     * @param intervalo    espera entre comprobaciones cuando no hay eventos pendientes.
+     * @param tamanoLote   eventos como máximo por lote.
+     * @param retencion    tiempo que se conservan los eventos publicados para los clientes que leen por posición.
+     * @param esperaCierre tiempo máximo para terminar el lote en curso al parar la aplicación.
+     */
+    public record Relevo(
+            @DefaultValue("true") boolean habilitado,
+            @DefaultValue("200ms") Duration intervalo,
+            @DefaultValue("500") int tamanoLote,
+            @DefaultValue("7d") Duration retencion,
+            @DefaultValue("10s") Duration esperaCierre) {
+    }
+
+    /**
+     * @param habilitado activa el sumidero de fichero.
+     * @param ruta       fichero al que se añade una línea JSON por cambio.
+     */
+    public record Fichero(
+            @DefaultValue("false") boolean habilitado,
+            @DefaultValue("cambios.jsonl") Path ruta) {
+    }
+
+    /**
+     * @param buffer             cambios que se acumulan para un cliente lento antes de desconectarlo; al
+     *                           reconectar recupera lo perdido con {@code Last-Event-ID}.
+     * @param latido             intervalo de los comentarios que mantienen viva la conexión.
+     * @param maximoRecuperacion cambios como máximo que se recuperan de la base de datos al reconectar; si hay
+     *                           más, se pide al cliente que recargue la página.
+     */
+    public record Flujo(
+            @DefaultValue("256") int buffer,
+            @DefaultValue("15s") Duration latido,
+            @DefaultValue("5000") int maximoRecuperacion) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Sumidero que difunde los cambios a todos los clientes del flujo SSE desde una única fuente compartida.
+ *
+ * <p>El relevo emite cada cambio una sola vez en un {@link Sinks.Many} multicast; cada cliente se suscribe con
+ * su propio buffer acotado ({@code app.cambios.flujo.buffer}). Un cliente lento no frena al relevo ni a los
+ * demás. Cuando su buffer se llena, deja de recibir cambios nuevos. Al consumir los que tenía, su flujo termina con
+ * {@link ClienteLentoException} y el navegador reconecta con {@code Last-Event-ID}, recuperando de la base de
+ * datos lo que se perdió.</p>
+ *
+ * <p>Métricas: {@code cambios.flujo.suscriptores} y {@code cambios.flujo.desbordes} (clientes desconectados por
+ * lentos).</p>
+ */
+public class DifusorCambios implements SumideroCambios {
+
+    private final Sinks.Many<Cambio> fuente = Sinks.many().multicast().directBestEffort();
+    private final RepositorioCambios repositorio;
+    private final CambiosProperties.Flujo properties;
+    private final Counter desbordes;
+
+    public DifusorCambios(RepositorioCambios repositorio, CambiosProperties.Flujo properties,
+                          MeterRegistry meterRegistry) {
+        this.repositorio = repositorio;
+        this.properties = properties;
+        Gauge.builder("cambios.flujo.suscriptores", fuente, Sinks.Many::currentSubscriberCount)
+                .description("Clientes suscritos al flujo de cambios")
+                .register(meterRegistry);
+        this.desbordes = Counter.builder("cambios.flujo.desbordes")
+                .description("Clientes desconectados por no consumir los cambios a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Emite los cambios a los suscriptores actuales. Sincronizado porque un {@link Sinks.Many} no admite
+     * emisiones concurrentes; en la aplicación solo lo llama el hilo del relevo.
+     */
+    @Override
+    public synchronized void publicar(List<Cambio> cambios) {
+        // Sin suscriptores la emisión falla con FAIL_ZERO_SUBSCRIBER: no hay nadie a quien entregarla
+        cambios.forEach(fuente::tryEmitNext);
+    }
+
+    /**
+     * Cambios en vivo a partir de ahora, con el buffer acotado de este suscriptor.
+     */
+    public Flux<Cambio> suscribir() {
+        return fuente.asFlux().onBackpressureBuffer(properties.buffer(), cambio -> desbordes.increment(),
+                        BufferOverflowStrategy.ERROR)
+                .onErrorMap(Exceptions::isOverflow, error -> new ClienteLentoException(properties.buffer()));
+    }
+
+    /**
+     * Cambios posteriores a {@code desde}: primero los que ya están en la base de datos y después los que
+     * lleguen en vivo, sin huecos ni duplicados.
+     *
+     * <p>La suscripción en vivo empieza a la vez que la lectura de la base de datos y se guarda hasta que esta
+     * termina. Como el relevo confirma antes de difundir, lo que se publique antes de suscribirse ya está en la
+     * base de datos, y lo que llegue por las dos vías se descarta por posición.</p>
+     *
+     * @param desde última posición que tiene el cliente, o {@code null} para recibir solo los cambios en vivo.
+     * @return los cambios; termina con {@link ReinicioNecesarioException} si hay más cambios perdidos de los que
+     * se recuperan o ya no se conservan.
+     */
+    public Flux<Cambio> flujo(Long desde) {
+        if (desde == null) {
+            return suscribir();
+        }
+        int maximo = properties.maximoRecuperacion();
+        Flux<Cambio> perdidos = Mono.fromCallable(() -> repositorio.leerDesde(desde, maximo))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(pagina -> pagina.reiniciar() || pagina.cambios().size() == maximo
+                        ? Flux.error(new ReinicioNecesarioException())
+                        : Flux.fromIterable(pagina.cambios()));
+        long[] ultima = {desde};
+        return Flux.mergeSequential(perdidos, suscribir())
+                .filter(cambio -> {
+                    if (cambio.posicion() <= ultima[0]) {
+                        return false;
+                    }
+                    ultima[0] = cambio.posicion();
+                    return true;
+                });
+    }
+
+    /**
+     * El cliente no consumió los cambios a tiempo y se llenó su buffer.
+     */
+    public static class ClienteLentoException extends RuntimeException {
+
+        ClienteLentoException(int buffer) {
+            super("El cliente acumuló más de " + buffer + " cambios sin consumir");
+        }
+    }
+
+    /**
+     * Los cambios perdidos por el cliente no se pueden recuperar: debe recargar los datos completos.
+     */
+    public static class ReinicioNecesarioException extends RuntimeException {
+
+        ReinicioNecesarioException() {
+            super("Los cambios pendientes ya no se conservan o son demasiados");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relevo del outbox: publica los eventos de {@code evento_cambio} en los {@link SumideroCambios}.
+ *
+ * <p>Un único hilo reclama lotes de eventos pendientes ({@link RepositorioCambios#publicarPendientes}), les asigna
+ * posición en la misma transacción y, ya confirmada, los entrega a cada sumidero. Mientras los lotes salen llenos
+ * sigue sin esperar; si no, espera {@code intervalo}. Una vez por hora borra los eventos fuera de la retención.</p>
+ *
+ * <p>Arranca y se para con el contexto ({@link SmartLifecycle}). Al parar no empieza más lotes y espera a que
+ * termine el que esté en curso, como mucho {@code esperaCierre}: así no se corta una entrega a medias ni se usa la
+ * base de datos cuando ya se está cerrando. Se para después que la cola de escritura diferida, para publicar
+ * también lo que esta escriba al vaciarse.</p>
+ *
+ * <p>La entrega a los sumideros es como mucho una vez: si el proceso muere entre la confirmación y la entrega,
+ * esos cambios no llegan a los sumideros, pero siguen disponibles por posición en {@code GET /api/cambios}.</p>
+ *
+ * <p>Métricas: {@code cambios.relevo.publicados}, {@code cambios.relevo.lote} (duración de reclamar un lote),
+ * {@code cambios.relevo.lote.eventos}, {@code cambios.relevo.retraso} (desde que se registró el cambio hasta que
+ * se publica), {@code cambios.relevo.posicion} y {@code cambios.relevo.errores} por sumidero.</p>
+ */
+@Log4j2
+public class RelevoCambios implements SmartLifecycle {
+
+    private static final Duration INTERVALO_PURGA = Duration.ofHours(1);
+
+    private final RepositorioCambios repositorio;
+    private final List<SumideroCambios> sumideros;
+    private final CambiosProperties.Relevo properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong ultimaPosicion = new AtomicLong();
+    private final Counter publicados;
+    private final Timer duracionLote;
+    private final DistributionSummary eventosPorLote;
+    private final Timer retraso;
+    private volatile ScheduledExecutorService hilo;
+    private Instant ultimaPurga = Instant.EPOCH;
+
+    public RelevoCambios(RepositorioCambios repositorio, List<SumideroCambios> sumideros,
+                         CambiosProperties.Relevo properties, MeterRegistry meterRegistry) {
+        this.repositorio = repositorio;
+        this.sumideros = List.copyOf(sumideros);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.publicados = Counter.builder("cambios.relevo.publicados")
+                .description("Eventos de cambio publicados")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("cambios.relevo.lote")
+                .description("Duración de reclamar y numerar un lote de eventos")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.eventosPorLote = DistributionSummary.builder("cambios.relevo.lote.eventos")
+                .description("Eventos por lote publicado")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retraso = Timer.builder("cambios.relevo.retraso")
+                .description("Tiempo desde que se registra un cambio hasta que se publica")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("cambios.relevo.posicion", ultimaPosicion, AtomicLong::get)
+                .description("Última posición publicada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Empieza a publicar cada {@code intervalo}.
+     */
+    @Override
+    public void start() {
+        long intervalo = properties.intervalo().toMillis();
+        hilo = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("relevo-cambios").daemon().factory());
+        hilo.scheduleWithFixedDelay(this::publicar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deja de programar lotes y espera al que esté en curso, como mucho {@code esperaCierre}. Lo que quede sin
+     * publicar lo publica el relevo del siguiente arranque.
+     */
+    @Override
+    public void stop() {
+        ScheduledExecutorService actual = hilo;
+        actual.shutdown();
+        try {
+            if (!actual.awaitTermination(properties.esperaCierre().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.error("El relevo de cambios no terminó su lote en {}; se interrumpe", properties.esperaCierre());
+                actual.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            actual.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return hilo != null && !hilo.isShutdown();
+    }
+
+    /**
+     * Se para después de la cola de escritura diferida ({@code DEFAULT_PHASE - 4096}).
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 8192;
+    }
+
+    /**
+     * Publica los eventos pendientes hasta que un lote sale incompleto.
+     *
+     * @return eventos publicados.
+     */
+    public int publicar() {
+        int total = 0;
+        try {
+            List<Cambio> lote;
+            do {
+                lote = duracionLote.record(() -> repositorio.publicarPendientes(properties.tamanoLote()));
+                if (!lote.isEmpty()) {
+                    entregar(lote);
+                    total += lote.size();
+                }
+            } while (lote.size() == properties.tamanoLote());
+            purgarSiToca();
+        } catch (RuntimeException e) {
+            log.error("No se pudieron publicar los eventos de cambio", e);
+        }
+        return total;
+    }
+
+    private void entregar(List<Cambio> lote) {
+        Instant ahora = Instant.now();
+        lote.forEach(cambio -> retraso.record(Duration.between(cambio.creado(), ahora)));
+        publicados.increment(lote.size());
+        eventosPorLote.record(lote.size());
+        ultimaPosicion.set(lote.getLast().posicion());
+        for (SumideroCambios sumidero : sumideros) {
+            try {
+                sumidero.publicar(lote);
+            } catch (RuntimeException e) {
+                log.error("El sumidero {} no aceptó {} cambios", sumidero.getClass().getSimpleName(), lote.size(), e);
+                meterRegistry.counter("cambios.relevo.errores", "sumidero", sumidero.getClass().getSimpleName())
+                        .increment();
+            }
+        }
+    }
+
+    private void purgarSiToca() {
+        Instant ahora = Instant.now();
+        if (ultimaPurga.plus(INTERVALO_PURGA).isAfter(ahora)) {
+            return;
+        }
+        ultimaPurga = ahora;
+        int borrados = repositorio.purgar(ahora.minus(properties.retencion()));
+        if (borrados > 0) {
+            log.info("Purgados {} eventos de cambio con más de {}", borrados, properties.retencion());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import com.atm.buenas_practicas_java.dtos.PaginaCambios;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Acceso a la tabla {@code evento_cambio} (outbox), que rellenan los triggers de la migración V4.
+ */
+public class RepositorioCambios {
+
+    private static final String COLUMNAS = """
+            posicion, entidad, entidad_id, operacion, datos ->> 'nombre' as nombre,
+            (datos ->> 'entidad_padre_id')::bigint as entidad_padre_id, creado""";
+
+    /**
+     * Asigna posiciones consecutivas, a continuación de la última, a los eventos pendientes más antiguos.
+     * Un evento de una transacción que confirma tarde recibe una posición mayor que otros con id mayor: así un
+     * cliente que ya leyó hasta una posición nunca se salta un cambio.
+     */
+    private static final String PUBLICAR = """
+            with pendientes as (select id, row_number() over (order by id) as orden
+                                from evento_cambio
+                                where posicion is null
+                                order by id
+                                limit ?),
+                 ultima as (select coalesce(max(posicion), 0) as posicion from evento_cambio)
+            update evento_cambio e
+            set posicion  = ultima.posicion + pendientes.orden,
+                publicado = clock_timestamp()
+            from pendientes, ultima
+            where e.id = pendientes.id
+            returning\s""" + COLUMNAS;
+
+    private static final RowMapper<Cambio> CAMBIO = (fila, numero) -> new Cambio(
+            fila.getLong("posicion"),
+            fila.getString("entidad"),
+            fila.getLong("entidad_id"),
+            Cambio.Operacion.valueOf(fila.getString("operacion")),
+            fila.getString("nombre"),
+            fila.getObject("entidad_padre_id", Long.class),
+            fila.getTimestamp("creado").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RepositorioCambios(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Publica, como mucho, {@code limite} eventos pendientes. Un bloqueo consultivo de la transacción garantiza
+     * que solo una instancia asigna posiciones a la vez; las demás reciben una lista vacía.
+     *
+     * @return los eventos publicados, ordenados por posición.
+     */
+    public List<Cambio> publicarPendientes(int limite) {
+        return transactionTemplate.execute(estado -> {
+            Boolean bloqueado = jdbcTemplate.queryForObject(
+                    "select pg_try_advisory_xact_lock(hashtext('evento_cambio'))", Boolean.class);
+            if (!Boolean.TRUE.equals(bloqueado)) {
+                return List.of();
+            }
+            List<Cambio> cambios = jdbcTemplate.query(PUBLICAR, CAMBIO, limite);
+            return cambios.stream().sorted((a, b) -> Long.compare(a.posicion(), b.posicion())).toList();
+        });
+    }
+
+    /**
+     * Cambios publicados con posición mayor que {@code desde}.
+     *
+     * Si {@code desde} es anterior a los eventos que se conservan, se devuelve una página vacía con
+     * {@code reiniciar} y la última posición: el cliente recarga los datos completos y sigue desde ella. Los
+     * cambios que se publiquen mientras recarga tendrán una posición mayor, así que no se pierde ninguno.
+     */
+    public PaginaCambios leerDesde(long desde, int limite) {
+        var extremos = jdbcTemplate.queryForMap(
+                "select min(posicion) as primera, max(posicion) as ultima from evento_cambio");
+        Long primera = (Long) extremos.get("primera");
+        if (primera != null && desde < primera - 1) {
+            return new PaginaCambios(List.of(), (Long) extremos.get("ultima"), true);
+        }
+        List<Cambio> cambios = jdbcTemplate.query(
+                "select " + COLUMNAS + " from evento_cambio where posicion > ? order by posicion limit ?",
+                CAMBIO, desde, limite);
+        long siguiente = cambios.isEmpty() ? desde : cambios.getLast().posicion();
+        return new PaginaCambios(cambios, siguiente, false);
+    }
+
+    /**
+     * Última posición publicada, o 0 si no hay ninguna. Las vistas la entregan al navegador para que el flujo de
+     * cambios empiece justo después de lo que se ha renderizado.
+     */
+    public long ultimaPosicion() {
+        return jdbcTemplate.queryForObject("select coalesce(max(posicion), 0) from evento_cambio", Long.class);
+    }
+
+    /**
+     * Borra los eventos publicados antes de {@code antesDe}. Conserva siempre el último, del que parte la
+     * numeración de las posiciones siguientes.
+     *
+     * @return eventos borrados.
+     */
+    public int purgar(Instant antesDe) {
+        return jdbcTemplate.update("""
+                delete from evento_cambio
+                where publicado < ? and posicion < (select max(posicion) from evento_cambio)""",
+                Timestamp.from(antesDe));
+    }
+}
@@ -0,0 +1,16 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import java.util.List;
+
+/**
+ * Destino al que {@link RelevoCambios} publica cada lote de cambios ya confirmados y con posición asignada.
+ *
+ * Basta con declarar un bean que implemente esta interfaz para recibir los cambios. Se invoca desde el hilo del
+ * relevo, así que no debe bloquearse. Si lanza una excepción, el relevo la registra y sigue con los demás
+ * sumideros: los cambios no se reintentan, pero se pueden volver a leer desde su posición con
+ * {@code GET /api/cambios}.
+ */
+public interface SumideroCambios {
+
+    void publicar(List<Cambio> cambios);
+}
@@ -0,0 +1,29 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Publica cada {@link Cambio} como evento de Spring, para los componentes de la propia aplicación:
+ *
+ * <pre>
+ * &#64;EventListener
+ * void alCambiar(Cambio cambio) { ... }
+ * </pre>
+ *
+ * Los listeners se ejecutan en el hilo del relevo: los que hagan trabajo lento deben pasarlo a otro hilo.
+ */
+public class SumideroEventosAplicacion implements SumideroCambios {
+
+    private final ApplicationEventPublisher publisher;
+
+    public SumideroEventosAplicacion(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publicar(List<Cambio> cambios) {
+        cambios.forEach(publisher::publishEvent);
+    }
+}
@@ -0,0 +1,53 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Añade los cambios a un fichero JSON Lines, una línea por cambio, para procesos externos que lo sigan
+ * ({@code tail -F}). Cada lote se vuelca al sistema operativo de una vez.
+ */
+public class SumideroFichero implements SumideroCambios, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter escritor;
+
+    public SumideroFichero(ObjectMapper objectMapper, Path ruta) {
+        this.objectMapper = objectMapper;
+        try {
+            if (ruta.getParent() != null) {
+                Files.createDirectories(ruta.getParent());
+            }
+            this.escritor = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void publicar(List<Cambio> cambios) {
+        try {
+            for (Cambio cambio : cambios) {
+                escritor.write(objectMapper.writeValueAsString(cambio));
+                escritor.newLine();
+            }
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        escritor.close();
+    }
+}
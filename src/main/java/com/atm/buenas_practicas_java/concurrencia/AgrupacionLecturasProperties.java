@@ -0,0 +1,13 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Agrupación de lecturas iguales y simultáneas de los servicios ({@code app.agrupacion-lecturas.*}).
+ *
+ * @param habilitado si es {@code false} cada llamada hace su propia lectura.
+ */
+@ConfigurationProperties(prefix = "app.agrupacion-lecturas")
+public record AgrupacionLecturasProperties(@DefaultValue("true") boolean habilitado) {
+}
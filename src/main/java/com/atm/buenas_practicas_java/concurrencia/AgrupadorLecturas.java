@@ -0,0 +1,191 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa las lecturas iguales que llegan a la vez (<i>single-flight</i>): la primera llamada para una operación y
+ * una clave hace la lectura y las que se unen a ella esperan su {@link CompletableFuture} en lugar de repetir la
+ * consulta. Todas reciben el mismo resultado o, si falla, la misma excepción. Al terminar la lectura la clave se
+ * libera, así que una llamada posterior vuelve a leer: no es una caché.
+ *
+ * <p>Una llamada solo se une a una lectura que empezó después de que ella llegara. Una lectura que ya estaba en
+ * curso pudo empezar antes de que se confirmara lo que quien llama acaba de escribir (un alta seguida de la
+ * redirección al listado), y su resultado no lo incluiría. Esas llamadas esperan a que termine, sin usar su
+ * resultado, y comparten la siguiente: así cada llamada ve al menos todo lo confirmado antes de llegar, y una
+ * ráfaga sigue costando como mucho dos consultas.</p>
+ *
+ * <p>Solo se agrupa fuera de una transacción: la lectura se hace en una transacción de solo lectura propia y lo
+ * que devuelve ya está separado de su contexto de persistencia, con las asociaciones cargadas. Dentro de una
+ * transacción ajena la lectura se hace siempre, para que las entidades sean las de su contexto de persistencia.</p>
+ *
+ * <p>Un resultado mutable, como una entidad, no se comparte: con {@link #ejecutar(String, Object, Supplier,
+ * UnaryOperator)} cada llamada agrupada recibe su propia copia, y también la que hizo la lectura si alguna otra se
+ * unió a ella. El resultado original no sale del agrupador, así que las copias se hacen siempre de un objeto que
+ * nadie modifica. Copiar en memoria sigue siendo mucho más barato que repetir la consulta.</p>
+ *
+ * <p>Métrica: {@code agrupacion.lecturas}, etiquetada por operación y con {@code resultado} {@code ejecutada}
+ * (lecturas hechas), {@code agrupada} (llamadas que recibieron la de otra) o {@code esperada} (llamadas que
+ * encontraron una lectura empezada antes que ellas y esperaron a la siguiente). La proporción de agrupadas sobre el
+ * total es lo que se ahorra.</p>
+ */
+public class AgrupadorLecturas {
+
+    private final ConcurrentMap<Clave, Vuelo> enCurso = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Contadores> contadores = new ConcurrentHashMap<>();
+    private final TransactionTemplate soloLectura;
+    private final AgrupacionLecturasProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AgrupadorLecturas(TransactionTemplate transactionTemplate, AgrupacionLecturasProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.soloLectura = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.soloLectura.setReadOnly(true);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Hace la lectura o se une a la que esté en curso para la misma operación y clave, si empezó después de esta
+     * llamada; si empezó antes, espera a que termine y lee o se une a la siguiente. El resultado incluye todo lo
+     * confirmado antes de la llamada. Todas las llamadas agrupadas reciben la misma instancia: solo para resultados
+     * inmutables.
+     *
+     * @param operacion nombre de la operación, para la clave y las métricas.
+     * @param clave     argumentos de la lectura; deben tener {@code equals} y {@code hashCode}.
+     * @param lectura   consulta a ejecutar; no debe volver a pedir la misma operación y clave.
+     * @return el resultado de la lectura, compartido con las llamadas agrupadas.
+     */
+    public <T> T ejecutar(String operacion, Object clave, Supplier<T> lectura) {
+        return ejecutar(operacion, clave, lectura, UnaryOperator.identity());
+    }
+
+    /**
+     * Como {@link #ejecutar(String, Object, Supplier)}, pero cada llamada agrupada recibe su propia copia del
+     * resultado.
+     *
+     * @param copia copia profunda del resultado: lo que una llamada modifique no debe verse en las demás.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String operacion, Object clave, Supplier<T> lectura, UnaryOperator<T> copia) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return lectura.get();
+        }
+        if (!properties.habilitado()) {
+            return soloLectura.execute(estado -> lectura.get());
+        }
+        Clave enVuelo = new Clave(operacion, clave);
+        long llegada = System.nanoTime();
+        boolean esperada = false;
+        while (true) {
+            Vuelo propio = new Vuelo();
+            Vuelo existente = enCurso.putIfAbsent(enVuelo, propio);
+            if (existente == null) {
+                return leer(enVuelo, propio, lectura, copia);
+            }
+            if (existente.inicio - llegada < 0) {
+                // Puede no ver lo que se confirmó justo antes de esta llamada
+                if (!esperada) {
+                    esperada = true;
+                    contadores(operacion).esperadas().increment();
+                }
+                existente.resultado.handle((resultado, error) -> null).join();
+                continue;
+            }
+            if (existente.unirse()) {
+                contadores(operacion).agrupadas().increment();
+                return copia.apply((T) esperar(existente.resultado));
+            }
+            // La lectura terminó sin nadie más: se quita del mapa enseguida
+            Thread.onSpinWait();
+        }
+    }
+
+    private <T> T leer(Clave enVuelo, Vuelo propio, Supplier<T> lectura, UnaryOperator<T> copia) {
+        contadores(enVuelo.operacion()).ejecutadas().increment();
+        try {
+            T resultado = soloLectura.execute(estado -> lectura.get());
+            propio.resultado.complete(resultado);
+            // Si nadie se unió ya no puede hacerlo y el resultado es solo de esta llamada
+            return propio.cerrar() ? resultado : copia.apply(resultado);
+        } catch (RuntimeException | Error e) {
+            propio.cerrar();
+            propio.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(enVuelo, propio);
+        }
+    }
+
+    /**
+     * Lecturas en curso en este momento.
+     */
+    public int enCurso() {
+        return enCurso.size();
+    }
+
+    private static Object esperar(CompletableFuture<Object> futura) {
+        try {
+            return futura.join();
+        } catch (CompletionException e) {
+            // La excepción original de la lectura, no el envoltorio de CompletableFuture
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private Contadores contadores(String operacion) {
+        return contadores.computeIfAbsent(operacion, nombre -> new Contadores(
+                meterRegistry.counter("agrupacion.lecturas", "operacion", nombre, "resultado", "ejecutada"),
+                meterRegistry.counter("agrupacion.lecturas", "operacion", nombre, "resultado", "agrupada"),
+                meterRegistry.counter("agrupacion.lecturas", "operacion", nombre, "resultado", "esperada")));
+    }
+
+    private record Clave(String operacion, Object argumentos) {
+    }
+
+    /**
+     * Una lectura en curso, cuándo empezó y cuántas llamadas se han unido a ella; -1 cuando ya no admite más.
+     */
+    private static final class Vuelo {
+
+        /** Antes de abrir la transacción de la lectura. */
+        private final long inicio = System.nanoTime();
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        private final AtomicInteger unidas = new AtomicInteger();
+
+        boolean unirse() {
+            for (int actuales = unidas.get(); actuales >= 0; actuales = unidas.get()) {
+                if (unidas.compareAndSet(actuales, actuales + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return si no se había unido ninguna llamada.
+         */
+        boolean cerrar() {
+            return unidas.compareAndSet(0, -1);
+        }
+    }
+
+    private record Contadores(Counter ejecutadas, Counter agrupadas, Counter esperadas) {
+    }
+}
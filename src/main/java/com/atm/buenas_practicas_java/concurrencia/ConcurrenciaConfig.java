@@ -0,0 +1,31 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reintentos de las escrituras que chocan por el bloqueo optimista ({@code @Version} de las entidades).
+ * Los servicios los usan en las operaciones que leen y modifican una entidad, como renombrar o borrar.
+ *
+ * También publica el {@link AgrupadorLecturas}, con el que los servicios comparten una misma lectura entre las
+ * llamadas iguales que llegan a la vez.
+ */
+@Configuration
+@EnableConfigurationProperties({ReintentosProperties.class, AgrupacionLecturasProperties.class})
+public class ConcurrenciaConfig {
+
+    @Bean
+    public ReintentadorOptimista reintentadorOptimista(TransactionTemplate transactionTemplate,
+                                                       ReintentosProperties properties, MeterRegistry meterRegistry) {
+        return new ReintentadorOptimista(transactionTemplate, properties, meterRegistry);
+    }
+
+    @Bean
+    public AgrupadorLecturas agrupadorLecturas(TransactionTemplate transactionTemplate,
+                                               AgrupacionLecturasProperties properties, MeterRegistry meterRegistry) {
+        return new AgrupadorLecturas(transactionTemplate, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Repite una escritura de leer-modificar-escribir cuando choca con otra por el bloqueo optimista.
+ *
+ * <p>Cada intento es una transacción nueva: vuelve a leer la entidad, con la versión que dejó la escritura que
+ * ganó, y aplica el cambio sobre ella. Entre intentos espera un tiempo aleatorio entre cero y
+ * {@code espera * 2^(intento - 1)}, con tope {@code esperaMaxima}, para que los perdedores no vuelvan a chocar
+ * entre sí. Agotados los intentos se propaga la {@link OptimisticLockingFailureException}.</p>
+ *
+ * <p>Si ya hay una transacción en curso la operación se ejecuta una sola vez dentro de ella: repetir solo una
+ * parte de una transacción ajena no es seguro, así que el reintento corresponde a quien la abrió.</p>
+ *
+ * <p>Métricas: {@code concurrencia.reintentos} (reintentos hechos) y {@code concurrencia.conflictos} (operaciones
+ * que agotaron los intentos), etiquetadas por operación.</p>
+ */
+@Log4j2
+public class ReintentadorOptimista {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReintentosProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ReintentadorOptimista(TransactionTemplate transactionTemplate, ReintentosProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Ejecuta {@code accion} en una transacción, repitiéndola si falla por el bloqueo optimista.
+     *
+     * @param operacion nombre de la operación para las métricas y el log.
+     * @param accion    escritura a ejecutar; debe leer lo que modifica, porque se repite entera.
+     * @return el resultado del intento que tuvo éxito.
+     */
+    public <T> T ejecutar(String operacion, Supplier<T> accion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return accion.get();
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(estado -> accion.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (intento >= properties.intentos()) {
+                    contador("concurrencia.conflictos", operacion).increment();
+                    log.warn("{}: conflicto de concurrencia tras {} intentos", operacion, intento);
+                    throw e;
+                }
+                contador("concurrencia.reintentos", operacion).increment();
+                esperar(intento, e);
+            }
+        }
+    }
+
+    private void esperar(int intento, OptimisticLockingFailureException conflicto) {
+        long tope = Math.min(properties.espera().toNanos() << (intento - 1), properties.esperaMaxima().toNanos());
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(tope + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflicto;
+        }
+    }
+
+    private Counter contador(String nombre, String operacion) {
+        return meterRegistry.counter(nombre, "operacion", operacion);
+    }
+}
@@ -0,0 +1,20 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Reintentos de las escrituras que fallan por el bloqueo optimista ({@code app.reintentos-optimistas.*}).
+ *
+ * @param intentos     intentos como máximo, contando el primero.
+ * @param espera       espera base antes del primer reintento; se dobla en cada uno.
+ * @param esperaMaxima tope de la espera entre reintentos.
+ */
+@ConfigurationProperties(prefix = "app.reintentos-optimistas")
+public record ReintentosProperties(
+        @DefaultValue("5") int intentos,
+        @DefaultValue("10ms") Duration espera,
+        @DefaultValue("200ms") Duration esperaMaxima) {
+}
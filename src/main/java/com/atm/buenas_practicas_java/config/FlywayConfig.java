@@ -0,0 +1,98 @@
+package com.atm.buenas_practicas_java.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Configuración de las migraciones de Flyway ({@code src/main/resources/db/migration}).
+ *
+ * Por defecto Flyway solo aplica las migraciones pendientes y Hibernate valida el esquema
+ * ({@code ddl-auto=validate}). Con {@code app.flyway.limpiar-al-arrancar=true} (perfiles {@code local},
+ * {@code desarrollo} y tests) el esquema se borra y se vuelve a crear en cada arranque, como hacía
+ * {@code ddl-auto=create}, para que los loaders de datos partan de tablas vacías.
+ *
+ * <p>Una base de datos creada por Hibernate antes de las migraciones tiene las tablas pero no el historial de
+ * Flyway, que se negaría a migrar un esquema no vacío. La primera vez se adopta: {@code db/adopcion/esquema_hibernate.sql}
+ * la deja como la crearía V1, se registra como versión 1 ({@code baseline}) y se aplican las demás.</p>
+ */
+@Log4j2
+@Configuration
+public class FlywayConfig {
+
+    static final String ADOPCION = "db/adopcion/esquema_hibernate.sql";
+
+    /**
+     * Flyway no permite {@code clean} salvo que se habilite explícitamente.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.flyway", name = "limpiar-al-arrancar", havingValue = "true")
+    public FlywayConfigurationCustomizer permitirLimpieza() {
+        return configuracion -> configuracion.cleanDisabled(false);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.flyway", name = "limpiar-al-arrancar", havingValue = "true")
+    public FlywayMigrationStrategy limpiarYMigrar() {
+        return flyway -> {
+            log.warn("app.flyway.limpiar-al-arrancar=true: se borra el esquema {}",
+                    String.join(",", flyway.getConfiguration().getSchemas()));
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.flyway", name = "limpiar-al-arrancar", havingValue = "false",
+            matchIfMissing = true)
+    public FlywayMigrationStrategy adoptarYMigrar() {
+        return flyway -> {
+            adoptarEsquemaDeHibernate(flyway);
+            flyway.migrate();
+        };
+    }
+
+    /**
+     * Si el esquema no tiene historial de Flyway pero sí las tablas de V1, lo adapta a V1 y lo registra como
+     * versión 1. No hace nada en un esquema vacío ni en uno que ya migra Flyway.
+     *
+     * @return si se ha adoptado el esquema
+     */
+    static boolean adoptarEsquemaDeHibernate(Flyway flyway) {
+        if (flyway.info().current() != null) {
+            return false;
+        }
+        String esquema = flyway.getConfiguration().getDefaultSchema();
+        try (var conexion = flyway.getConfiguration().getDataSource().getConnection();
+             var sentencia = conexion.createStatement()) {
+            if (esquema != null) {
+                conexion.setSchema(esquema);
+            }
+            try (var filas = sentencia.executeQuery("select to_regclass('entidad_padre') is not null")) {
+                if (!filas.next() || !filas.getBoolean(1)) {
+                    return false;
+                }
+            }
+            log.warn("El esquema {} no tiene historial de Flyway: se adapta el creado por Hibernate y se registra"
+                    + " como versión 1", conexion.getSchema());
+            // Todo o nada: si falla a medias, el siguiente arranque vuelve a partir del esquema de Hibernate
+            conexion.setAutoCommit(false);
+            sentencia.execute(new ClassPathResource(ADOPCION).getContentAsString(StandardCharsets.UTF_8));
+            conexion.commit();
+        } catch (SQLException | IOException e) {
+            throw new FlywayException("No se ha podido adaptar el esquema creado por Hibernate", e);
+        }
+        flyway.baseline();
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.atm.buenas_practicas_java.config;
+
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.entities.Usuario;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Configuración de las pistas (runtime hints) necesarias para compilar la aplicación
+ * como imagen nativa de GraalVM.
+ *
+ * En una imagen nativa solo existe la reflexión y los recursos que se declaran en tiempo
+ * de compilación. Spring AOT e Hibernate registran por su cuenta la mayor parte de lo que
+ * necesitan, pero hay accesos que no pueden deducir:
+ * <ul>
+ *   <li>Thymeleaf evalúa expresiones como {@code ${entity.nombre}} con SpEL, que invoca por
+ *       reflexión los getters generados por Lombok en las entidades.</li>
+ *   <li>Los ficheros de mensajes {@code i18n/messages*.properties} se cargan como
+ *       {@link java.util.ResourceBundle} a partir de la propiedad {@code spring.messages.basename}.</li>
+ *   <li>Las plantillas y los recursos estáticos se resuelven por nombre en tiempo de ejecución.</li>
+ * </ul>
+ *
+ * En la JVM estas pistas no tienen ningún efecto.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.EntidadesRuntimeHints.class)
+public class NativeHintsConfig {
+
+    /**
+     * Registra la reflexión sobre las entidades y los recursos de plantillas e i18n.
+     */
+    static class EntidadesRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entidad : new Class<?>[]{EntidadPadre.class, EntidadHija.class, Usuario.class}) {
+                hints.reflection().registerType(entidad,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+
+            hints.resources().registerResourceBundle("i18n.messages");
+            hints.resources().registerPattern("i18n/messages*.properties");
+            hints.resources().registerPattern("templates/*.html");
+            hints.resources().registerPattern("static/**");
+        }
+    }
+}
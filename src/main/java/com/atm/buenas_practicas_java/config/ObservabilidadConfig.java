@@ -0,0 +1,38 @@
+package com.atm.buenas_practicas_java.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la capa de observabilidad basada en Micrometer.
+ *
+ * Las métricas que publica la aplicación son:
+ * <ul>
+ *   <li>{@code entidades.servicio}: temporizador por método de servicio (etiquetas {@code class} y
+ *       {@code method}), generado por {@link TimedAspect} a partir de la anotación
+ *       {@link io.micrometer.core.annotation.Timed} de los servicios.</li>
+ *   <li>{@code entidades.findall.filas}: distribución del número de filas devueltas por {@code findAll}.</li>
+ *   <li>{@code spring.data.repository.invocations}: temporizador por consulta de repositorio,
+ *       autoconfigurado por Spring Boot.</li>
+ *   <li>{@code hibernate.*}: estadísticas de Hibernate (sentencias, cargas de entidades, aciertos de caché L2).</li>
+ * </ul>
+ *
+ * Los histogramas de percentiles se activan en {@code application.properties} y se exponen en
+ * {@code /actuator/prometheus}, protegido por una cadena de seguridad propia en {@link SecurityConfig}.
+ */
+@Configuration
+public class ObservabilidadConfig {
+
+    /**
+     * Aspecto que registra un temporizador para cada método de las clases anotadas con {@code @Timed}.
+     *
+     * @param registry registro de métricas de la aplicación.
+     * @return el aspecto que intercepta los métodos anotados.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
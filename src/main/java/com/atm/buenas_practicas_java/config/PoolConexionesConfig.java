@@ -0,0 +1,31 @@
+package com.atm.buenas_practicas_java.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración del pool de conexiones.
+ *
+ * Los tiempos de espera, la detección de fugas y la caché de sentencias preparadas de pgjdbc se fijan por
+ * perfil en {@code spring.datasource.hikari.*}; aquí solo se calcula el tamaño del pool a partir de los
+ * núcleos ({@link PoolConexionesProperties}).
+ *
+ * Las métricas {@code hikaricp.connections.*} (activas, pendientes, tiempo de adquisición y de uso) las
+ * registra Spring Boot; sus histogramas se activan en {@code application.properties}.
+ */
+@Configuration
+public class PoolConexionesConfig {
+
+    /**
+     * Post-procesador del pool. Es estático y enlaza sus propiedades con el {@link Binder} porque se crea
+     * antes que los beans de {@code @ConfigurationProperties}.
+     */
+    @Bean
+    public static PoolConexionesPostProcessor poolConexionesPostProcessor(Environment environment) {
+        PoolConexionesProperties properties = Binder.get(environment)
+                .bindOrCreate("app.pool", PoolConexionesProperties.class);
+        return new PoolConexionesPostProcessor(environment, properties);
+    }
+}
@@ -0,0 +1,51 @@
+package com.atm.buenas_practicas_java.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+
+/**
+ * Ajusta el tamaño de los pools de Hikari a los núcleos disponibles.
+ *
+ * Se ejecuta después de que Spring Boot haya enlazado {@code spring.datasource.hikari.*} y antes de que
+ * el pool se inicie (Hikari abre las conexiones con la primera petición), y antes de que el inspector SQL
+ * envuelva el {@code DataSource}.
+ */
+@Log4j2
+public class PoolConexionesPostProcessor implements BeanPostProcessor {
+
+    static final String TAMANO_EXPLICITO = "spring.datasource.hikari.maximum-pool-size";
+
+    private final Environment environment;
+    private final PoolConexionesProperties properties;
+
+    public PoolConexionesPostProcessor(Environment environment, PoolConexionesProperties properties) {
+        this.environment = environment;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            ajustar(hikari, beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * Aplica el tamaño calculado a un pool que no es un bean, como los de las réplicas de lectura.
+     *
+     * @param hikari pool todavía sin iniciar.
+     * @param nombre nombre del pool para el log.
+     */
+    public void ajustar(HikariDataSource hikari, String nombre) {
+        if (environment.containsProperty(TAMANO_EXPLICITO)) {
+            return;
+        }
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int tamano = properties.tamanoPara(nucleos);
+        hikari.setMaximumPoolSize(tamano);
+        log.info("Pool {}: {} conexiones para {} núcleos", nombre, tamano, nucleos);
+    }
+}
@@ -0,0 +1,34 @@
+package com.atm.buenas_practicas_java.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Dimensionado del pool de conexiones ({@code app.pool.*}).
+ *
+ * El tamaño máximo se calcula como {@code núcleos * conexionesPorNucleo + conexionesExtra} y se acota
+ * entre {@code minimo} y {@code maximo}. Con un valor explícito en
+ * {@code spring.datasource.hikari.maximum-pool-size} el cálculo no se aplica.
+ *
+ * @param conexionesPorNucleo conexiones por núcleo disponible para la JVM.
+ * @param conexionesExtra     conexiones adicionales (el "número de discos" de la fórmula de PostgreSQL).
+ * @param minimo              tamaño mínimo del pool.
+ * @param maximo              tamaño máximo del pool, para no agotar {@code max_connections} de PostgreSQL.
+ */
+@ConfigurationProperties(prefix = "app.pool")
+public record PoolConexionesProperties(
+        @DefaultValue("2") int conexionesPorNucleo,
+        @DefaultValue("1") int conexionesExtra,
+        @DefaultValue("2") int minimo,
+        @DefaultValue("50") int maximo) {
+
+    /**
+     * Tamaño del pool para un número de núcleos dado.
+     *
+     * @param nucleos núcleos disponibles, normalmente {@link Runtime#availableProcessors()}.
+     * @return el tamaño calculado, dentro de los límites configurados.
+     */
+    public int tamanoPara(int nucleos) {
+        return Math.clamp((long) nucleos * conexionesPorNucleo + conexionesExtra, minimo, maximo);
+    }
+}
@@ -2,13 +2,17 @@ package com.atm.buenas_practicas_java.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
@@ -63,6 +67,65 @@ public class SecurityConfig {
         return new InMemoryUserDetailsManager(user);
     }
 
+    /**
+     * Cadena de filtros exclusiva para los endpoints de actuator que no deben ser públicos:
+     * el scrape de Prometheus, el estado de los límites de peticiones y las grabaciones de JFR.
+     *
+     * <p>Se evalúa antes que la cadena general (que permite {@code /actuator/*} sin autenticar) y
+     * tiene su propio {@link AuthenticationManager} con dos usuarios técnicos: el de métricas
+     * ({@code app.metricas.usuario} / {@code app.metricas.password}) y el de perfilado
+     * ({@code app.jfr.usuario} / {@code app.jfr.password}), que es el único que puede iniciar y
+     * descargar grabaciones. Así, las credenciales de la aplicación no dan acceso a estos endpoints
+     * y viceversa. Es una cadena sin sesión y solo con autenticación HTTP básica.</p>
+     *
+     * <p>Las contraseñas no tienen valor por defecto: si falta alguna, la aplicación no arranca, en lugar de
+     * quedar abierta con una contraseña conocida.</p>
+     *
+     * @param http Objeto {@link HttpSecurity} provisto por Spring Security.
+     * @return La cadena de filtros para los endpoints de actuator protegidos.
+     * @throws Exception En caso de que ocurra algún error durante la configuración.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorProtegidoFilterChain(HttpSecurity http) throws Exception {
+        var metricas = User.withUsername(environment.getProperty("app.metricas.usuario", "prometheus"))
+                .password("{noop}" + credencial("app.metricas.password", "APP_METRICAS_PASSWORD"))
+                .roles("METRICAS")
+                .build();
+        var perfilado = User.withUsername(environment.getProperty("app.jfr.usuario", "jfr"))
+                .password("{noop}" + credencial("app.jfr.password", "APP_JFR_PASSWORD"))
+                .roles("PERFILADO")
+                .build();
+        var proveedor = new DaoAuthenticationProvider();
+        proveedor.setUserDetailsService(new InMemoryUserDetailsManager(metricas, perfilado));
+
+        http
+                .securityMatcher("/actuator/prometheus", "/actuator/limites", "/actuator/jfr", "/actuator/jfr/**")
+                .authenticationManager(new ProviderManager(proveedor))
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults())
+                .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers("/actuator/prometheus", "/actuator/limites").hasRole("METRICAS")
+                        .anyRequest().hasRole("PERFILADO"));
+
+        return http.build();
+    }
+
+    /**
+     * Contraseña obligatoria de un usuario técnico.
+     *
+     * @throws IllegalStateException si la propiedad no está definida o está vacía.
+     */
+    private String credencial(String propiedad, String variable) {
+        String valor = environment.getProperty(propiedad);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalStateException("Falta la contraseña " + propiedad + " (variable de entorno " + variable
+                    + "). No tiene valor por defecto para no exponer el endpoint con una contraseña conocida.");
+        }
+        return valor;
+    }
+
     /**
      * Configura una cadena de filtros de seguridad para gestionar la seguridad HTTP de la aplicación.
      * Permite personalizar los comportamientos de seguridad como protección CSRF, autenticación básica,
@@ -95,6 +158,9 @@ public class SecurityConfig {
                         .requestMatchers("/entities").permitAll()
                         .requestMatchers("/entities/*").permitAll()
                         .requestMatchers("/css/*").permitAll()
+                        .requestMatchers("/js/*").permitAll()
+                        // Los anónimos solo reciben los cambios de EntidadHija (ver CambiosController)
+                        .requestMatchers(HttpMethod.GET, "/api/cambios/flujo").permitAll()
                         .requestMatchers("/actuator/*").permitAll()
                         .requestMatchers(HttpMethod.POST,"/entidades/deleteHija/*").authenticated()
                         .anyRequest().authenticated()
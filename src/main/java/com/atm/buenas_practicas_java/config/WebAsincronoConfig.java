@@ -0,0 +1,23 @@
+package com.atm.buenas_practicas_java.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Ejecutor de las respuestas asíncronas de Spring MVC, como el flujo SSE de {@code /api/cambios/flujo}.
+ *
+ * Spring MVC escribe cada evento de un {@code Flux} desde este ejecutor. Con hilos virtuales, un cliente cuyo socket
+ * está lleno bloquea solo su propio hilo. Con el pool por defecto (8 hilos de plataforma), unos pocos clientes
+ * lentos frenarían la entrega a miles de suscriptores. El tiempo máximo de la respuesta lo fija
+ * {@code spring.mvc.async.request-timeout}.
+ */
+@Configuration
+public class WebAsincronoConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new VirtualThreadTaskExecutor("mvc-asincrono-"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.cambios.CambiosProperties;
+import com.atm.buenas_practicas_java.cambios.DifusorCambios;
+import com.atm.buenas_practicas_java.cambios.RepositorioCambios;
+import com.atm.buenas_practicas_java.dtos.PaginaCambios;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.security.Principal;
+
+/**
+ * Lectura incremental del flujo de cambios de {@code EntidadPadre} y {@code EntidadHija}.
+ *
+ * <ul>
+ *   <li>{@code GET /api/cambios?desde=0&limite=500} devuelve los cambios con posición mayor que {@code desde}.
+ *       El cliente guarda {@code siguiente} y lo usa como {@code desde} en la próxima llamada, en lugar de
+ *       recargarlo todo. Si la respuesta trae {@code reiniciar}, la posición ya no se conserva y toca una recarga
+ *       completa.</li>
+ *   <li>{@code GET /api/cambios/flujo?desde=N&entidad=EntidadHija} abre un flujo Server-Sent Events. Cada evento
+ *       lleva la posición como {@code id} y la entidad como nombre, así que al reconectar el navegador envía
+ *       {@code Last-Event-ID} y recibe lo que se perdió. El evento {@code reiniciar} pide recargar la página.
+ *       Los usuarios anónimos solo reciben los cambios de {@code EntidadHija}, la única que ven en
+ *       {@code /entities}.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/cambios")
+public class CambiosController {
+
+    static final int LIMITE_MAXIMO = 5000;
+
+    private final RepositorioCambios repositorioCambios;
+    private final DifusorCambios difusorCambios;
+    private final CambiosProperties properties;
+
+    public CambiosController(RepositorioCambios repositorioCambios, DifusorCambios difusorCambios,
+                             CambiosProperties properties) {
+        this.repositorioCambios = repositorioCambios;
+        this.difusorCambios = difusorCambios;
+        this.properties = properties;
+    }
+
+    @GetMapping
+    public PaginaCambios cambios(@RequestParam(defaultValue = "0") long desde,
+                                 @RequestParam(defaultValue = "500") int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        return repositorioCambios.leerDesde(desde, limite);
+    }
+
+    @GetMapping(path = "/flujo", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> flujo(@RequestHeader(name = "Last-Event-ID", required = false) Long ultimoId,
+                                               @RequestParam(required = false) Long desde,
+                                               @RequestParam(required = false) String entidad,
+                                               Principal principal) {
+        String filtro = principal == null ? "EntidadHija" : entidad;
+        Flux<ServerSentEvent<Object>> cambios = difusorCambios.flujo(ultimoId != null ? ultimoId : desde)
+                .filter(cambio -> filtro == null || filtro.equals(cambio.entidad()))
+                .map(cambio -> ServerSentEvent.builder((Object) cambio)
+                        .id(String.valueOf(cambio.posicion()))
+                        .event(cambio.entidad())
+                        .build())
+                .onErrorResume(DifusorCambios.ReinicioNecesarioException.class, error -> Flux.just(
+                        ServerSentEvent.builder((Object) error.getMessage()).event("reiniciar").build()));
+        Flux<ServerSentEvent<Object>> latidos = Flux.interval(properties.flujo().latido())
+                .map(latido -> ServerSentEvent.builder().comment("latido").build());
+        // Los latidos terminan con el flujo de cambios (p. ej. tras un reiniciar), que se comparte sin resuscribirlo
+        return cambios.publish(compartidos -> Flux.merge(compartidos, latidos.takeUntilOther(compartidos.then())));
+    }
+}
@@ -1,10 +1,17 @@
 package com.atm.buenas_practicas_java.controllers;
 
 
+import com.atm.buenas_practicas_java.cambios.RepositorioCambios;
+import com.atm.buenas_practicas_java.lectura.ModeloLectura;
 import com.atm.buenas_practicas_java.services.EntidadHijaService;
 import com.atm.buenas_practicas_java.services.EntidadPadreService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -37,6 +44,8 @@ public class DefaultController {
 
     private final EntidadHijaService entidadHijaService;
     private final EntidadPadreService entidadPadreService;
+    private final RepositorioCambios repositorioCambios;
+    private final ObjectProvider<ModeloLectura> modeloLectura;
 
     /**
      * Constructor de la clase DefaultController.
@@ -48,16 +57,27 @@ public class DefaultController {
      *                            funcionalidades adicionales relacionadas con la entidad EntidadHija.
      * @param entidadPadreService instancia de {@link EntidadPadreService} que proporciona
      *                            funcionalidades adicionales relacionadas con la entidad EntidadPadre.
+     * @param repositorioCambios  instancia de {@link RepositorioCambios} que da la posición del flujo de cambios
+     *                            desde la que las vistas se actualizan en vivo.
+     * @param modeloLectura       el {@link ModeloLectura} en memoria, si está habilitado; los listados lo usan en
+     *                            lugar de los servicios en cuanto termina su carga.
      */
-    public DefaultController(EntidadHijaService entidadHijaService, EntidadPadreService entidadPadreService) {
+    public DefaultController(EntidadHijaService entidadHijaService, EntidadPadreService entidadPadreService,
+                             RepositorioCambios repositorioCambios, ObjectProvider<ModeloLectura> modeloLectura) {
         this.entidadHijaService = entidadHijaService;
         this.entidadPadreService = entidadPadreService;
+        this.repositorioCambios = repositorioCambios;
+        this.modeloLectura = modeloLectura;
     }
 
     /**
      * Método que lista las entidades disponibles y las añade al modelo para ser utilizadas en la vista.
      * Recupera todas las entidades de un repositorio y las presenta en una vista específica.
      *
+     * La posición del flujo de cambios se lee antes que las entidades: la vista se suscribe desde ella y, si algo
+     * cambia entre ambas lecturas, lo recibe de nuevo en lugar de perderlo. Con el modelo de lectura, la posición
+     * es la suya: hasta dónde le han llegado los cambios del relevo.
+     *
      * @param model El objeto del modelo que se utiliza para compartir datos entre el backend y la vista.
      *              Aquí se añade un atributo llamado "entities" con la lista obtenida del repositorio.
      * @return Una cadena que representa el nombre de la vista ("entitiesList") donde se renderizarán las entidades.
@@ -65,6 +85,13 @@ public class DefaultController {
     @GetMapping("/entities")
     public String listEntities(Model model)
     {
+        ModeloLectura modelo = modeloLectura.getIfAvailable();
+        if (modelo != null && modelo.listo()) {
+            model.addAttribute("posicionCambios", modelo.posicion());
+            model.addAttribute("entidades", modelo.hijas());
+            return "entidadesHijas";
+        }
+        model.addAttribute("posicionCambios", repositorioCambios.ultimaPosicion());
         model.addAttribute("entidades", entidadHijaService.findAll());
         return "entidadesHijas"; // View name
     }
@@ -80,6 +107,13 @@ public class DefaultController {
     @GetMapping("/protected")
     public String protectedList(Model model)
     {
+        ModeloLectura modelo = modeloLectura.getIfAvailable();
+        if (modelo != null && modelo.listo()) {
+            model.addAttribute("posicionCambios", modelo.posicion());
+            model.addAttribute("entidades", modelo.padres());
+            return "entidadesPadre";
+        }
+        model.addAttribute("posicionCambios", repositorioCambios.ultimaPosicion());
         model.addAttribute("entidades", entidadPadreService.findAll());
         return "entidadesPadre"; // View name
     }
@@ -110,4 +144,16 @@ public class DefaultController {
         return "redirect:/entities";
     }
 
+    /**
+     * Responde 409 cuando un borrado sigue chocando con otras escrituras de la misma entidad tras agotar los
+     * reintentos.
+     *
+     * @param e el conflicto de concurrencia.
+     * @return 409 con el motivo.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflicto(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("La entidad se está modificando; inténtalo de nuevo");
+    }
+
 }
@@ -0,0 +1,142 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.PaginaHijas;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.lotes.CargadorEntidades;
+import com.atm.buenas_practicas_java.services.EntidadHijaService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API JSON de hijas por padre.
+ *
+ * Las dos consultas devuelven {@link EntidadHijaResumen}, que se lee del índice cubriente
+ * {@code entidad_hija_uk} sin cargar entidades ni el padre:
+ * <ul>
+ *   <li>{@code GET /api/entidades/padres/{id}/hijas?despuesDe=&tamano=}: una página de hijas de un padre,
+ *       paginada por clave. La respuesta trae en {@code siguiente} el valor de {@code despuesDe} de la
+ *       página siguiente.</li>
+ *   <li>{@code GET /api/entidades/hijas?padres=1,2,3}: las hijas de varios padres en una sola consulta,
+ *       agrupadas por padre.</li>
+ *   <li>{@code GET /api/entidades/hijas/lote?ids=1,2,3}: varias hijas por id, en el orden pedido y sin las que no
+ *       existen. Se leen con {@link CargadorEntidades}, con una consulta {@code IN} por lote de ids.</li>
+ * </ul>
+ *
+ * {@code PATCH /api/entidades/hijas/{id}} con {@code {"nombre": ...}} renombra una hija sobre su versión actual,
+ * reintentando si otra escritura se adelanta (ver {@link EntidadHijaService#renombrar}).
+ */
+@RestController
+@RequestMapping("/api/entidades")
+public class EntidadHijaApiController {
+
+    static final int TAMANO_MAXIMO = 500;
+    static final int PADRES_MAXIMO = 1000;
+    static final int IDS_MAXIMO = 1000;
+
+    private final EntidadHijaService entidadHijaService;
+    private final CargadorEntidades cargadorEntidades;
+
+    public EntidadHijaApiController(EntidadHijaService entidadHijaService, CargadorEntidades cargadorEntidades) {
+        this.entidadHijaService = entidadHijaService;
+        this.cargadorEntidades = cargadorEntidades;
+    }
+
+    /**
+     * Página de hijas de un padre.
+     *
+     * @param id        identificador del padre.
+     * @param despuesDe id de la última hija de la página anterior; 0 para la primera página.
+     * @param tamano    número de hijas por página, entre 1 y {@value #TAMANO_MAXIMO}.
+     * @return las hijas de la página y el cursor de la siguiente.
+     */
+    @GetMapping("/padres/{id}/hijas")
+    public PaginaHijas hijasDePadre(@PathVariable Long id,
+                                    @RequestParam(defaultValue = "0") long despuesDe,
+                                    @RequestParam(defaultValue = "50") int tamano) {
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "tamano debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+        return entidadHijaService.findResumenByEntidadPadreId(id, despuesDe, tamano);
+    }
+
+    /**
+     * Hijas de varios padres en una sola consulta.
+     *
+     * @param padres identificadores de los padres, como máximo {@value #PADRES_MAXIMO}.
+     * @return las hijas de cada padre, en el orden pedido.
+     */
+    @GetMapping("/hijas")
+    public Map<Long, List<EntidadHijaResumen>> hijasDePadres(@RequestParam List<Long> padres) {
+        if (padres.size() > PADRES_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Como máximo " + PADRES_MAXIMO + " padres por consulta");
+        }
+        return entidadHijaService.findResumenByEntidadPadreIds(padres);
+    }
+
+    /**
+     * Varias hijas por id.
+     *
+     * @param ids identificadores de las hijas, como máximo {@value #IDS_MAXIMO}; sin huecos ({@code ids=1,,2}).
+     * @return las hijas que existen, en el orden pedido.
+     */
+    @GetMapping("/hijas/lote")
+    public List<EntidadHijaResumen> hijas(@RequestParam List<Long> ids) {
+        if (ids.size() > IDS_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Como máximo " + IDS_MAXIMO + " ids por consulta");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids no puede tener valores vacíos");
+        }
+        return cargadorEntidades.hijas().obtenerTodas(ids).stream()
+                .map(EntidadHijaApiController::resumen)
+                .toList();
+    }
+
+    /**
+     * Renombra una hija.
+     *
+     * @param id     identificador de la hija.
+     * @param cambio nuevo nombre.
+     * @return la hija renombrada, o 404 si no existe.
+     */
+    @PatchMapping("/hijas/{id}")
+    public ResponseEntity<EntidadHijaResumen> renombrar(@PathVariable Long id, @RequestBody CambioNombre cambio) {
+        return ResponseEntity.of(entidadHijaService.renombrar(id, cambio.nombre())
+                .map(EntidadHijaApiController::resumen));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflicto(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("La hija se está modificando; inténtalo de nuevo");
+    }
+
+    private static EntidadHijaResumen resumen(EntidadHija hija) {
+        return new EntidadHijaResumen(hija.getId(),
+                hija.getEntidadPadre() != null ? hija.getEntidadPadre().getId() : null, hija.getNombre());
+    }
+
+    /**
+     * Cuerpo del renombrado.
+     *
+     * @param nombre nuevo nombre.
+     */
+    public record CambioNombre(String nombre) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
+import com.atm.buenas_practicas_java.lotes.CargadorEntidades;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * API JSON de padres.
+ *
+ * {@code GET /api/entidades/padres/lote?ids=1,2,3}: varios padres por id, en el orden pedido y sin los que no
+ * existen. Se leen con {@link CargadorEntidades}, con una consulta {@code IN} por lote de ids.
+ */
+@RestController
+@RequestMapping("/api/entidades/padres")
+public class EntidadPadreApiController {
+
+    static final int IDS_MAXIMO = 1000;
+
+    private final CargadorEntidades cargadorEntidades;
+
+    public EntidadPadreApiController(CargadorEntidades cargadorEntidades) {
+        this.cargadorEntidades = cargadorEntidades;
+    }
+
+    /**
+     * Varios padres por id.
+     *
+     * @param ids identificadores de los padres, como máximo {@value #IDS_MAXIMO}; sin huecos ({@code ids=1,,2}).
+     * @return los padres que existen, en el orden pedido.
+     */
+    @GetMapping("/lote")
+    public List<EntidadPadreResumen> padres(@RequestParam List<Long> ids) {
+        if (ids.size() > IDS_MAXIMO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Como máximo " + IDS_MAXIMO + " ids por consulta");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids no puede tener valores vacíos");
+        }
+        return cargadorEntidades.padres().obtenerTodas(ids).stream()
+                .map(padre -> new EntidadPadreResumen(padre.getId(), padre.getNombre()))
+                .toList();
+    }
+}
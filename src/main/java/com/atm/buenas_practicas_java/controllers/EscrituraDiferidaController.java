@@ -0,0 +1,78 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.escritura.ColaEscrituraHija;
+import com.atm.buenas_practicas_java.escritura.ColaLlenaException;
+import com.atm.buenas_practicas_java.escritura.ColaParadaException;
+import com.atm.buenas_practicas_java.escritura.EstadoEscritura;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.UUID;
+
+/**
+ * Altas de hijas con escritura diferida ({@code app.escritura-diferida.habilitado=true}).
+ *
+ * <ul>
+ *   <li>{@code POST /api/entidades/hijas/diferidas} con {@code {"nombre": ..., "entidadPadreId": ...}}:
+ *       responde 202 con el ticket y su URL en {@code Location}. Con la cola llena responde 429 con
+ *       {@code Retry-After}, y 503 si la aplicación se está parando.</li>
+ *   <li>{@code GET /api/entidades/hijas/diferidas/{ticket}}: estado del alta, o 404 si el ticket no existe
+ *       o ya caducó.</li>
+ * </ul>
+ *
+ * Un 202 no garantiza que la hija llegue a la base de datos: ver la durabilidad en {@link ColaEscrituraHija}.
+ */
+@RestController
+@RequestMapping("/api/entidades/hijas/diferidas")
+@ConditionalOnProperty(prefix = "app.escritura-diferida", name = "habilitado", havingValue = "true")
+public class EscrituraDiferidaController {
+
+    private final ColaEscrituraHija cola;
+
+    public EscrituraDiferidaController(ColaEscrituraHija cola) {
+        this.cola = cola;
+    }
+
+    @PostMapping
+    public ResponseEntity<EstadoEscritura> encolar(@RequestBody AltaHijaRequest alta) {
+        UUID ticket = cola.encolar(alta.nombre(), alta.entidadPadreId());
+        var ubicacion = ServletUriComponentsBuilder.fromCurrentRequest().path("/{ticket}").build(ticket);
+        return ResponseEntity.accepted().location(ubicacion).body(cola.estado(ticket).orElseThrow());
+    }
+
+    @GetMapping("/{ticket}")
+    public ResponseEntity<EstadoEscritura> estado(@PathVariable UUID ticket) {
+        return ResponseEntity.of(cola.estado(ticket));
+    }
+
+    @ExceptionHandler(ColaLlenaException.class)
+    public ResponseEntity<String> colaLlena(ColaLlenaException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(ColaParadaException.class)
+    public ResponseEntity<String> colaParada(ColaParadaException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    /**
+     * Cuerpo del alta diferida.
+     *
+     * @param nombre         nombre de la hija.
+     * @param entidadPadreId padre, o {@code null}.
+     */
+    public record AltaHijaRequest(String nombre, Long entidadPadreId) {
+    }
+}
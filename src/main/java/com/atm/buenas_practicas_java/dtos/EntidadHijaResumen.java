@@ -0,0 +1,12 @@
+package com.atm.buenas_practicas_java.dtos;
+
+/**
+ * Proyección de {@link com.atm.buenas_practicas_java.entities.EntidadHija} con las columnas del índice
+ * cubriente {@code entidad_hija_uk}: se lee sin acceder a la tabla ni cargar el padre.
+ *
+ * @param id             identificador de la hija.
+ * @param entidadPadreId identificador del padre.
+ * @param nombre         nombre de la hija.
+ */
+public record EntidadHijaResumen(long id, Long entidadPadreId, String nombre) {
+}
@@ -0,0 +1,10 @@
+package com.atm.buenas_practicas_java.dtos;
+
+/**
+ * Datos propios de {@link com.atm.buenas_practicas_java.entities.EntidadPadre}, sin sus hijas.
+ *
+ * @param id     identificador del padre.
+ * @param nombre nombre del padre.
+ */
+public record EntidadPadreResumen(Long id, String nombre) {
+}
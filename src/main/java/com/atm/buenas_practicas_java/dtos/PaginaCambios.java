@@ -0,0 +1,16 @@
+package com.atm.buenas_practicas_java.dtos;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+
+import java.util.List;
+
+/**
+ * Cambios posteriores a una posición del flujo de cambios.
+ *
+ * @param cambios   cambios ordenados por posición.
+ * @param siguiente posición desde la que pedir la página siguiente.
+ * @param reiniciar la posición pedida ya no se conserva: el cliente debe recargar los datos completos y seguir
+ *                  desde {@code siguiente}.
+ */
+public record PaginaCambios(List<Cambio> cambios, long siguiente, boolean reiniciar) {
+}
@@ -0,0 +1,12 @@
+package com.atm.buenas_practicas_java.dtos;
+
+import java.util.List;
+
+/**
+ * Página de hijas de un padre, paginada por clave: la siguiente página se pide con {@code despuesDe = siguiente}.
+ *
+ * @param hijas     hijas de la página, ordenadas por id.
+ * @param siguiente último id de la página si hay más hijas, o {@code null} si es la última.
+ */
+public record PaginaHijas(List<EntidadHijaResumen> hijas, Long siguiente) {
+}
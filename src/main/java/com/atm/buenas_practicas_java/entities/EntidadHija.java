@@ -33,12 +33,21 @@ import lombok.Setter;
  * - {@code nombre}:
  *   - Descripción: Almacena el nombre asociado a esta entidad hija.
  *
+ * - {@code version}:
+ *   - Descripción: Versión de la fila para el bloqueo optimista. Hibernate la incrementa en cada actualización y
+ *     la comprueba en el {@code UPDATE} y el {@code DELETE}: si otra transacción modificó la fila después de
+ *     leerla, la escritura falla con {@code ObjectOptimisticLockingFailureException} en lugar de pisar el cambio.
+ *   - Anotaciones:
+ *     - {@code @Version}: Marca la propiedad como la versión de la entidad.
+ *
  * - {@code entidadPadre}:
  *   - Descripción: Relación de muchos-a-uno con la entidad {@code EntidadPadre}.
  *   - Anotaciones:
  *     - {@code @ManyToOne(fetch = FetchType.EAGER)}: Define la relación de muchos-a-uno con la tabla asociada
  *       de {@code EntidadPadre}. La estrategia de carga {@code EAGER} asegura que los datos de la entidad
  *       padre sean cargados inmediatamente al acceder a la entidad hija.
+ *     - Los padres de varias hijas se cargan de 100 en 100 gracias al {@code @BatchSize} de {@code EntidadPadre}:
+ *       la anotación va en la clase de destino, no en la asociación.
  *
  * Constructores:
  *
@@ -64,6 +73,9 @@ public class EntidadHija  {
     private long id;
     private String nombre;
 
+    @Version
+    private long version;
+
     @ManyToOne(fetch = FetchType.EAGER)
     private EntidadPadre entidadPadre;
 
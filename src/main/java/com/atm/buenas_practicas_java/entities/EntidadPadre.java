@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -41,6 +42,11 @@ import java.util.List;
  *
  * - {@code nombre}: Un campo que almacena el nombre asociado con esta entidad.
  *
+ * - {@code version}: Versión de la fila para el bloqueo optimista. Hibernate la incrementa en cada actualización
+ *   y la comprueba en el {@code UPDATE} y el {@code DELETE}, de modo que una escritura basada en una lectura antigua
+ *   falla con {@code ObjectOptimisticLockingFailureException} en lugar de pisar el cambio de otra transacción.
+ *   Spring Data REST la publica además como {@code ETag} y atiende {@code If-Match}.
+ *
  * - {@code entidadesHijas}: Una lista que representa la relación asociativa uno-a-muchos (One-to-Many) con la clase
  *   `EntidadHija`. En este caso, una instancia de `EntidadPadre` puede tener asociadas múltiples instancias de `EntidadHija`.
  *
@@ -49,6 +55,11 @@ import java.util.List;
  *       y que el mapeo recíproco en `EntidadHija` está definido por el atributo `entidadPadre`. Con el uso de
  *       {@code cascade = CascadeType.ALL}, todas las operaciones realizadas sobre la entidad padre (como insertar o eliminar)
  *       se propagarán automáticamente a las entidades hijas asociadas.
+ *     - {@code @BatchSize(size = 100)}: Cuando se cargan varios padres, sus listas de hijas se leen juntas, con una
+ *       consulta por cada 100 padres en lugar de una por padre.
+ *
+ * - {@code @BatchSize(size = 100)} en la clase: Los padres que se cargan a través de sus hijas
+ *   ({@code EntidadHija.entidadPadre}) se leen también de 100 en 100.
  *
  * Funcionalidad:
  *
@@ -60,13 +71,17 @@ import java.util.List;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-
+@BatchSize(size = 100)
 public class EntidadPadre {
 
     @Id @GeneratedValue(strategy= GenerationType.IDENTITY)
     private Long id;
     private String nombre;
 
+    @Version
+    private long version;
+
+    @BatchSize(size = 100)
     @OneToMany( mappedBy = "entidadPadre", fetch = FetchType.EAGER,  cascade = CascadeType.ALL, orphanRemoval = true)
     private List<EntidadHija> entidadesHijas;
 
@@ -0,0 +1,272 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import com.atm.buenas_practicas_java.escritura.EscritorLotesHija.AltaHija;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cola de altas de hijas con escritura diferida.
+ *
+ * <p>{@link #encolar} deja el alta en una cola en memoria sin bloqueos ({@link ConcurrentLinkedQueue} acotada con
+ * un contador atómico) y devuelve un ticket en el acto. Un único hilo escritor agrupa las altas en lotes de hasta
+ * {@code tamanoLote} filas, o las que haya tras esperar {@code esperaLote}, y los inserta con
+ * {@link EscritorLotesHija}. Con la cola llena, {@link #encolar} lanza {@link ColaLlenaException}, y con la cola
+ * parada, {@link ColaParadaException}.</p>
+ *
+ * <p>Durabilidad: un alta aceptada solo está en memoria hasta que su ticket pasa a
+ * {@link EstadoEscritura.Estado#ESCRITA}. En un cierre ordenado se deja de aceptar altas y se vacía la cola,
+ * esperando como mucho {@code esperaCierre}. La cola se para después que el servidor web, así que no llegan
+ * altas nuevas mientras se vacía. Si el proceso muere, o el vaciado supera la espera, las altas pendientes se
+ * pierden.</p>
+ *
+ * <p>Memoria: se guarda el estado de como mucho {@code capacidad} tickets pendientes y otros tantos terminados. Un
+ * ticket escrito o fallido se olvida pasado {@code retencion} o, antes, cuando ya hay {@code capacidad} terminados
+ * más recientes, así que con mucho tráfico la retención efectiva es menor.</p>
+ */
+@Log4j2
+public class ColaEscrituraHija implements SmartLifecycle {
+
+    private final ConcurrentLinkedQueue<Pendiente> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ocupacion = new AtomicInteger();
+    private final ConcurrentHashMap<UUID, EstadoEscritura> estados = new ConcurrentHashMap<>();
+    /** Tickets terminados, del más antiguo al más reciente; solo los toca el hilo escritor. */
+    private final ArrayDeque<UUID> terminados = new ArrayDeque<>();
+    private final EscritorLotesHija escritor;
+    private final EscrituraDiferidaProperties properties;
+    private final Counter rechazadas;
+    private final Counter fallidas;
+    private final DistributionSummary filasPorLote;
+    private final Timer escrituraLotes;
+
+    private volatile boolean aceptando;
+    private volatile boolean abandonar;
+    private volatile Thread hilo;
+    private long ultimaPurga;
+
+    public ColaEscrituraHija(EscritorLotesHija escritor, EscrituraDiferidaProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.escritor = escritor;
+        this.properties = properties;
+        Gauge.builder("escritura.diferida.cola", ocupacion, AtomicInteger::get)
+                .description("Altas de hijas aceptadas y todavía no escritas")
+                .register(meterRegistry);
+        this.rechazadas = Counter.builder("escritura.diferida.rechazadas")
+                .description("Altas rechazadas por tener la cola llena")
+                .register(meterRegistry);
+        this.fallidas = Counter.builder("escritura.diferida.fallidas")
+                .description("Altas que la base de datos no aceptó")
+                .register(meterRegistry);
+        this.filasPorLote = DistributionSummary.builder("escritura.diferida.lote.filas")
+                .description("Filas insertadas por lote")
+                .baseUnit("filas")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.escrituraLotes = Timer.builder("escritura.diferida.lote")
+                .description("Duración de la inserción de cada lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Acepta un alta para escribirla más tarde.
+     *
+     * @param nombre         nombre de la hija.
+     * @param entidadPadreId padre, o {@code null}.
+     * @return el ticket con el que consultar el estado del alta.
+     * @throws ColaLlenaException  si la cola está llena.
+     * @throws ColaParadaException si la cola está parada o parándose.
+     */
+    public UUID encolar(String nombre, Long entidadPadreId) {
+        if (!aceptando) {
+            throw new ColaParadaException("La cola de escritura diferida está parada");
+        }
+        if (ocupacion.incrementAndGet() > properties.capacidad()) {
+            ocupacion.decrementAndGet();
+            rechazadas.increment();
+            throw new ColaLlenaException("La cola de escritura diferida está llena (" + properties.capacidad() + ")");
+        }
+        // Se vuelve a comprobar tras reservar el hueco: si stop() ya empezó a vaciar, el escritor podría no verla
+        if (!aceptando) {
+            ocupacion.decrementAndGet();
+            throw new ColaParadaException("La cola de escritura diferida está parada");
+        }
+        UUID ticket = UUID.randomUUID();
+        estados.put(ticket, EstadoEscritura.pendiente(ticket));
+        cola.offer(new Pendiente(ticket, new AltaHija(nombre, entidadPadreId)));
+        if (ocupacion.get() >= properties.tamanoLote()) {
+            LockSupport.unpark(hilo);
+        }
+        return ticket;
+    }
+
+    /**
+     * Estado de un alta. Los tickets escritos o fallidos se olvidan pasado {@code retencion}, o antes si después
+     * han terminado {@code capacidad} más.
+     */
+    public Optional<EstadoEscritura> estado(UUID ticket) {
+        return Optional.ofNullable(estados.get(ticket));
+    }
+
+    /**
+     * Altas aceptadas todavía no escritas.
+     */
+    public int pendientes() {
+        return ocupacion.get();
+    }
+
+    @Override
+    public void start() {
+        aceptando = true;
+        abandonar = false;
+        hilo = Thread.ofPlatform().name("escritura-diferida-hija").start(this::escribir);
+    }
+
+    /**
+     * Deja de aceptar altas y espera a que se escriban las pendientes, como mucho {@code esperaCierre}.
+     */
+    @Override
+    public void stop() {
+        aceptando = false;
+        Thread escritorActual = hilo;
+        LockSupport.unpark(escritorActual);
+        try {
+            if (!escritorActual.join(properties.esperaCierre())) {
+                abandonar = true;
+                log.error("Se pierden {} altas de hijas sin escribir: el vaciado superó {}",
+                        ocupacion.get(), properties.esperaCierre());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonar = true;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return hilo != null && hilo.isAlive();
+    }
+
+    /**
+     * Se para después del servidor web (fases {@code DEFAULT_PHASE - 1024} y {@code - 2048}), cuando ya no
+     * pueden llegar altas nuevas.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void escribir() {
+        long esperaLote = properties.esperaLote().toNanos();
+        List<Pendiente> lote = new ArrayList<>(properties.tamanoLote());
+        long limite = 0;
+        while (!abandonar) {
+            Pendiente siguiente = cola.poll();
+            if (siguiente != null) {
+                if (lote.isEmpty()) {
+                    limite = System.nanoTime() + esperaLote;
+                }
+                lote.add(siguiente);
+                if (lote.size() < properties.tamanoLote()) {
+                    continue;
+                }
+            } else if (lote.isEmpty()) {
+                if (!aceptando && ocupacion.get() == 0) {
+                    return;
+                }
+                purgar();
+                LockSupport.parkNanos(this, esperaLote);
+                continue;
+            } else if (aceptando && System.nanoTime() < limite) {
+                LockSupport.parkNanos(this, limite - System.nanoTime());
+                continue;
+            }
+            escribirLote(lote);
+            lote.clear();
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        try {
+            List<Long> ids = escrituraLotes.record(() -> escritor.insertar(lote.stream().map(Pendiente::alta).toList()));
+            for (int i = 0; i < lote.size(); i++) {
+                long id = ids.get(i);
+                terminar(lote.get(i).ticket(), estado -> estado.escrita(id));
+            }
+            filasPorLote.record(lote.size());
+        } catch (DataIntegrityViolationException e) {
+            // Una fila inválida (p. ej. un padre inexistente) no debe hacer fallar al resto: se escriben una a una
+            lote.forEach(this::escribirSola);
+        } catch (RuntimeException e) {
+            log.error("No se pudo escribir un lote de {} hijas", lote.size(), e);
+            lote.forEach(pendiente -> fallar(pendiente, e));
+        } finally {
+            ocupacion.addAndGet(-lote.size());
+            purgar();
+        }
+    }
+
+    private void escribirSola(Pendiente pendiente) {
+        try {
+            long id = escritor.insertar(List.of(pendiente.alta())).getFirst();
+            terminar(pendiente.ticket(), estado -> estado.escrita(id));
+            filasPorLote.record(1);
+        } catch (DataAccessException e) {
+            fallar(pendiente, e);
+        }
+    }
+
+    private void fallar(Pendiente pendiente, RuntimeException e) {
+        fallidas.increment();
+        String motivo = e instanceof DataAccessException acceso && acceso.getMostSpecificCause() != null
+                ? acceso.getMostSpecificCause().getMessage()
+                : e.getMessage();
+        terminar(pendiente.ticket(), estado -> estado.fallida(motivo));
+    }
+
+    private void terminar(UUID ticket, UnaryOperator<EstadoEscritura> cambio) {
+        estados.computeIfPresent(ticket, (clave, estado) -> cambio.apply(estado));
+        terminados.addLast(ticket);
+        if (terminados.size() > properties.capacidad()) {
+            estados.remove(terminados.removeFirst());
+        }
+    }
+
+    private void purgar() {
+        long ahora = System.nanoTime();
+        if (ahora - ultimaPurga < 1_000_000_000L) {
+            return;
+        }
+        ultimaPurga = ahora;
+        Instant caducidad = Instant.now().minus(properties.retencion());
+        // Los terminados van en orden, así que los caducados están al principio
+        while (!terminados.isEmpty()) {
+            EstadoEscritura estado = estados.get(terminados.peekFirst());
+            if (estado != null && !estado.actualizado().isBefore(caducidad)) {
+                break;
+            }
+            estados.remove(terminados.removeFirst());
+        }
+    }
+
+    private record Pendiente(UUID ticket, AltaHija alta) {
+    }
+}
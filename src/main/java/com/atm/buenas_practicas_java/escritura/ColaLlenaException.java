@@ -0,0 +1,11 @@
+package com.atm.buenas_practicas_java.escritura;
+
+/**
+ * La cola de escritura diferida está llena. El cliente debe reintentar más tarde (HTTP 429).
+ */
+public class ColaLlenaException extends RuntimeException {
+
+    public ColaLlenaException(String mensaje) {
+        super(mensaje);
+    }
+}
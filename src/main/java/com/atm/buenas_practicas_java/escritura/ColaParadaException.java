@@ -0,0 +1,11 @@
+package com.atm.buenas_practicas_java.escritura;
+
+/**
+ * La cola de escritura diferida está parada o parándose: la aplicación se está cerrando (HTTP 503).
+ */
+public class ColaParadaException extends RuntimeException {
+
+    public ColaParadaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,62 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Inserta lotes de hijas con una sola sentencia.
+ *
+ * Los ids se reservan primero en la secuencia de la identidad, de modo que cada alta conoce su id sin depender del
+ * orden de {@code RETURNING}. Como la identidad es {@code GENERATED ALWAYS}, el {@code INSERT} declara que trae
+ * sus propios ids ({@code OVERRIDING SYSTEM VALUE}). La inserción usa {@code unnest} sobre arrays: es un
+ * {@code INSERT} de varias filas con el mismo texto para cualquier tamaño de lote, así que pgjdbc reutiliza una
+ * única sentencia preparada.
+ */
+public class EscritorLotesHija {
+
+    private static final String RESERVAR_IDS = """
+            select nextval(pg_get_serial_sequence('entidad_hija', 'id')) from generate_series(1, ?)""";
+    private static final String INSERTAR = """
+            insert into entidad_hija (id, nombre, entidad_padre_id) overriding system value
+            select * from unnest(?::bigint[], ?::varchar[], ?::bigint[])""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public EscritorLotesHija(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Inserta el lote en una transacción. Si una fila falla, no se inserta ninguna.
+     *
+     * @param altas hijas a insertar.
+     * @return los ids asignados, en el mismo orden que {@code altas}.
+     */
+    public List<Long> insertar(List<AltaHija> altas) {
+        return transactionTemplate.execute(estado -> {
+            List<Long> ids = jdbcTemplate.queryForList(RESERVAR_IDS, Long.class, altas.size());
+            jdbcTemplate.update(INSERTAR, sentencia -> {
+                var conexion = sentencia.getConnection();
+                sentencia.setArray(1, conexion.createArrayOf("bigint", ids.toArray()));
+                sentencia.setArray(2, conexion.createArrayOf("varchar",
+                        altas.stream().map(AltaHija::nombre).toArray()));
+                sentencia.setArray(3, conexion.createArrayOf("bigint",
+                        altas.stream().map(AltaHija::entidadPadreId).toArray()));
+            });
+            return ids;
+        });
+    }
+
+    /**
+     * Datos de una hija pendiente de insertar.
+     *
+     * @param nombre         nombre de la hija.
+     * @param entidadPadreId padre, o {@code null} si no tiene.
+     */
+    public record AltaHija(String nombre, Long entidadPadreId) {
+    }
+}
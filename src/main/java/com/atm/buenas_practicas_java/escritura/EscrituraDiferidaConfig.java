@@ -0,0 +1,32 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Escritura diferida de altas de hijas ({@code app.escritura-diferida.habilitado=true}).
+ *
+ * Publica {@link ColaEscrituraHija}, que usa {@code EscrituraDiferidaController} para aceptar altas con un ticket
+ * en lugar de insertarlas en el hilo de la petición.
+ */
+@Configuration
+@EnableConfigurationProperties(EscrituraDiferidaProperties.class)
+@ConditionalOnProperty(prefix = "app.escritura-diferida", name = "habilitado", havingValue = "true")
+public class EscrituraDiferidaConfig {
+
+    @Bean
+    public EscritorLotesHija escritorLotesHija(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        return new EscritorLotesHija(jdbcTemplate, transactionTemplate);
+    }
+
+    @Bean
+    public ColaEscrituraHija colaEscrituraHija(EscritorLotesHija escritor, EscrituraDiferidaProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new ColaEscrituraHija(escritor, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de la escritura diferida de hijas ({@code app.escritura-diferida.*}).
+ *
+ * @param habilitado   activa la cola y el endpoint {@code /api/entidades/hijas/diferidas}.
+ * @param capacidad    altas que caben en memoria a la espera de escribirse; con la cola llena se responde 429.
+ * @param tamanoLote   filas como máximo por cada {@code INSERT}.
+ * @param esperaLote   tiempo que el escritor espera a completar un lote antes de escribir lo que tenga.
+ * @param retencion    tiempo que se conserva, como mucho, el estado de un ticket ya escrito o fallido; también se
+ *                     olvida cuando hay {@code capacidad} terminados más recientes.
+ * @param esperaCierre tiempo máximo para vaciar la cola al parar la aplicación.
+ */
+@ConfigurationProperties(prefix = "app.escritura-diferida")
+public record EscrituraDiferidaProperties(
+        @DefaultValue("false") boolean habilitado,
+        @DefaultValue("10000") int capacidad,
+        @DefaultValue("500") int tamanoLote,
+        @DefaultValue("20ms") Duration esperaLote,
+        @DefaultValue("10m") Duration retencion,
+        @DefaultValue("30s") Duration esperaCierre) {
+}
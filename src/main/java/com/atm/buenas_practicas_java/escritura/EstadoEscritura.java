@@ -0,0 +1,37 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Estado de un alta diferida, consultable por su ticket.
+ *
+ * @param ticket     identificador devuelto al encolar el alta.
+ * @param estado     situación del alta.
+ * @param id         id de la hija creada, cuando ya está {@link Estado#ESCRITA}.
+ * @param error      motivo del fallo, cuando está {@link Estado#FALLIDA}.
+ * @param actualizado momento del último cambio de estado.
+ */
+public record EstadoEscritura(UUID ticket, Estado estado, Long id, String error, Instant actualizado) {
+
+    public enum Estado {
+        /** En la cola, todavía en memoria: se pierde si el proceso termina sin un cierre ordenado. */
+        PENDIENTE,
+        /** Confirmada en la base de datos. */
+        ESCRITA,
+        /** Rechazada por la base de datos (por ejemplo, un padre inexistente). */
+        FALLIDA
+    }
+
+    static EstadoEscritura pendiente(UUID ticket) {
+        return new EstadoEscritura(ticket, Estado.PENDIENTE, null, null, Instant.now());
+    }
+
+    EstadoEscritura escrita(long id) {
+        return new EstadoEscritura(ticket, Estado.ESCRITA, id, null, Instant.now());
+    }
+
+    EstadoEscritura fallida(String error) {
+        return new EstadoEscritura(ticket, Estado.FALLIDA, null, error, Instant.now());
+    }
+}
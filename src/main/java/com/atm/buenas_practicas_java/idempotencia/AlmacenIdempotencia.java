@@ -0,0 +1,141 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import com.atm.buenas_practicas_java.idempotencia.RegistroIdempotencia.RespuestaGuardada;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Claves de idempotencia y sus respuestas: en memoria las más recientes y en {@code clave_idempotencia} todas.
+ *
+ * <p>La memoria es una caché acotada a {@code capacidad} claves que descarta la usada hace más tiempo. Una
+ * repetición de una clave que está en ella se responde sin tocar la base de datos. La tabla es la que manda:
+ * {@link #reservar} inserta la clave con {@code ON CONFLICT}, así que entre varias peticiones simultáneas con la
+ * misma clave, en esta instancia o en otra, solo una la consigue. También conserva las respuestas tras un
+ * reinicio.</p>
+ *
+ * <p>Las claves caducan pasado {@code retencion}. Las filas caducadas se borran al reservar, como mucho una vez
+ * por minuto.</p>
+ */
+public class AlmacenIdempotencia {
+
+    private static final String BUSCAR = """
+            select huella, codigo, tipo_contenido, ubicacion, cuerpo, creada
+            from clave_idempotencia
+            where usuario = ? and clave = ? and creada > ?""";
+    // Una clave existente solo se puede ocupar si caducó o si su petición quedó abandonada sin respuesta
+    private static final String RESERVAR = """
+            insert into clave_idempotencia (usuario, clave, huella, creada) values (?, ?, ?, ?)
+            on conflict (usuario, clave) do update
+                set huella = excluded.huella, codigo = null, tipo_contenido = null, ubicacion = null, cuerpo = null,
+                    creada = excluded.creada
+                where clave_idempotencia.creada <= ?
+                   or (clave_idempotencia.codigo is null and clave_idempotencia.creada <= ?)""";
+    private static final String COMPLETAR = """
+            update clave_idempotencia set codigo = ?, tipo_contenido = ?, ubicacion = ?, cuerpo = ?
+            where usuario = ? and clave = ?""";
+    private static final String LIBERAR = "delete from clave_idempotencia where usuario = ? and clave = ? and codigo is null";
+    private static final String PURGAR = "delete from clave_idempotencia where creada <= ?";
+    private static final long INTERVALO_PURGA = 60_000_000_000L;
+
+    private static final RowMapper<RegistroIdempotencia> FILA = (rs, fila) -> {
+        int codigo = rs.getInt("codigo");
+        RespuestaGuardada respuesta = rs.wasNull() ? null : new RespuestaGuardada(codigo,
+                rs.getString("tipo_contenido"), rs.getString("ubicacion"), rs.getBytes("cuerpo"));
+        return new RegistroIdempotencia(rs.getBytes("huella"), respuesta, rs.getTimestamp("creada").toInstant());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotenciaProperties properties;
+    private final Map<Clave, RegistroIdempotencia> memoria;
+    private final AtomicLong ultimaPurga = new AtomicLong(System.nanoTime());
+
+    public AlmacenIdempotencia(JdbcTemplate jdbcTemplate, IdempotenciaProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.memoria = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, RegistroIdempotencia> mayor) {
+                return size() > properties.capacidad();
+            }
+        });
+    }
+
+    /**
+     * Registro vigente de una clave: primero en memoria y, si no está, en la base de datos. Las respuestas que se
+     * leen de la base de datos se guardan en memoria para las siguientes repeticiones.
+     */
+    public Optional<RegistroIdempotencia> buscar(String usuario, String clave) {
+        Instant limite = Instant.now().minus(properties.retencion());
+        Clave id = new Clave(usuario, clave);
+        RegistroIdempotencia registro = memoria.get(id);
+        if (registro != null && registro.creada().isAfter(limite)) {
+            return Optional.of(registro);
+        }
+        Optional<RegistroIdempotencia> guardado = jdbcTemplate.query(BUSCAR, FILA, usuario, clave,
+                Timestamp.from(limite)).stream().findFirst();
+        guardado.filter(encontrado -> !encontrado.enCurso()).ifPresent(encontrado -> memoria.put(id, encontrado));
+        return guardado;
+    }
+
+    /**
+     * Si el registro es de una petición que sigue sin respuesta pasado {@code abandono}, porque la instancia que la
+     * atendía murió. {@link #reservar} puede ocupar su clave.
+     */
+    public boolean abandonado(RegistroIdempotencia registro) {
+        return registro.enCurso() && !registro.creada().isAfter(Instant.now().minus(properties.abandono()));
+    }
+
+    /**
+     * Reserva la clave para una petición nueva.
+     *
+     * @return {@code false} si otra petición ya la tiene, en curso o con respuesta.
+     */
+    public boolean reservar(String usuario, String clave, byte[] huella) {
+        purgarSiToca();
+        Instant ahora = Instant.now();
+        boolean reservada = jdbcTemplate.update(RESERVAR, usuario, clave, huella, Timestamp.from(ahora),
+                Timestamp.from(ahora.minus(properties.retencion())),
+                Timestamp.from(ahora.minus(properties.abandono()))) == 1;
+        if (reservada) {
+            memoria.put(new Clave(usuario, clave), new RegistroIdempotencia(huella, null, ahora));
+        }
+        return reservada;
+    }
+
+    /**
+     * Guarda la respuesta de una petición reservada; las repeticiones la recibirán a partir de ahora.
+     */
+    public void completar(String usuario, String clave, RespuestaGuardada respuesta) {
+        jdbcTemplate.update(COMPLETAR, respuesta.codigo(), respuesta.tipoContenido(), respuesta.ubicacion(),
+                respuesta.cuerpo(), usuario, clave);
+        memoria.computeIfPresent(new Clave(usuario, clave),
+                (id, registro) -> new RegistroIdempotencia(registro.huella(), respuesta, registro.creada()));
+    }
+
+    /**
+     * Libera una clave reservada cuya petición falló, para que el cliente pueda reintentarla.
+     */
+    public void liberar(String usuario, String clave) {
+        memoria.remove(new Clave(usuario, clave));
+        jdbcTemplate.update(LIBERAR, usuario, clave);
+    }
+
+    private void purgarSiToca() {
+        long ahora = System.nanoTime();
+        long anterior = ultimaPurga.get();
+        if (ahora - anterior >= INTERVALO_PURGA && ultimaPurga.compareAndSet(anterior, ahora)) {
+            jdbcTemplate.update(PURGAR, Timestamp.from(Instant.now().minus(properties.retencion())));
+        }
+    }
+
+    private record Clave(String usuario, String clave) {
+    }
+}
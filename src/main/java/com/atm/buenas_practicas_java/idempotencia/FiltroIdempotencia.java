@@ -0,0 +1,256 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import com.atm.buenas_practicas_java.idempotencia.RegistroIdempotencia.RespuestaGuardada;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Escrituras idempotentes: una petición {@code POST}, {@code PUT}, {@code PATCH} o {@code DELETE} con la cabecera
+ * {@code Idempotency-Key} se ejecuta una sola vez, aunque el cliente la repita.
+ *
+ * <ul>
+ *   <li>La primera vez se reserva la clave, se ejecuta la petición y se guarda su respuesta.</li>
+ *   <li>Una repetición recibe la respuesta guardada, con {@code Idempotency-Replayed: true}, sin llegar al
+ *       controlador. Si la clave está en la memoria de {@link AlmacenIdempotencia}, tampoco llega a la base de
+ *       datos.</li>
+ *   <li>Si la original sigue en curso, la repetición recibe 409 con {@code Retry-After}. Si lleva más de
+ *       {@code abandono} sin respuesta se da por perdida y la repetición se ejecuta.</li>
+ *   <li>La misma clave con otra petición (otro método, URL o cuerpo) recibe 422.</li>
+ * </ul>
+ *
+ * <p>Las claves son de cada usuario. Las respuestas 5xx, 409 y 429 no se guardan, porque son transitorias: la
+ * clave se libera para que el cliente pueda reintentar. Lo mismo si la petición lanza una excepción.</p>
+ *
+ * <p>Va después de Spring Security, para conocer al usuario. Las peticiones sin autenticar pasan sin más: no hay
+ * usuario al que asociar la clave, y un espacio de claves compartido por todos los anónimos dejaría a cualquiera
+ * recibir la respuesta guardada de otro con solo repetir su clave.</p>
+ */
+public class FiltroIdempotencia extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotency-Replayed";
+    private static final Set<String> METODOS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<Integer> TRANSITORIOS = Set.of(409, 429);
+    private static final int LONGITUD_MAXIMA = 255;
+
+    private final AlmacenIdempotencia almacen;
+    private final MeterRegistry meterRegistry;
+
+    public FiltroIdempotencia(AlmacenIdempotencia almacen, MeterRegistry meterRegistry) {
+        this.almacen = almacen;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !METODOS.contains(request.getMethod()) || request.getHeader(CABECERA) == null
+                || request.getUserPrincipal() == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clave = request.getHeader(CABECERA);
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA) {
+            rechazar(response, HttpStatus.BAD_REQUEST, "invalida",
+                    "La cabecera " + CABECERA + " debe tener entre 1 y " + LONGITUD_MAXIMA + " caracteres");
+            return;
+        }
+        String usuario = request.getUserPrincipal().getName();
+        HttpServletRequest peticion = conCuerpoRepetible(request);
+        byte[] huella = huella(peticion);
+
+        Optional<RegistroIdempotencia> previo = almacen.buscar(usuario, clave);
+        // Una petición abandonada no responde nunca: su clave se ocupa como si no existiera
+        if ((previo.isEmpty() || almacen.abandonado(previo.get())) && almacen.reservar(usuario, clave, huella)) {
+            ejecutar(peticion, response, chain, usuario, clave);
+            return;
+        }
+        // Si la reserva falló, otra petición acaba de ocupar la clave
+        RegistroIdempotencia registro = previo.or(() -> almacen.buscar(usuario, clave)).orElse(null);
+        if (registro == null || registro.enCurso()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            rechazar(response, HttpStatus.CONFLICT, "en_curso",
+                    "Hay una petición en curso con la misma " + CABECERA);
+        } else if (!Arrays.equals(registro.huella(), huella)) {
+            rechazar(response, HttpStatus.UNPROCESSABLE_ENTITY, "distinta",
+                    "La " + CABECERA + " ya se usó con otra petición");
+        } else {
+            repetir(response, registro.respuesta());
+        }
+    }
+
+    private void ejecutar(HttpServletRequest peticion, HttpServletResponse response, FilterChain chain,
+                          String usuario, String clave) throws ServletException, IOException {
+        var respuesta = new ContentCachingResponseWrapper(response);
+        boolean guardada = false;
+        try {
+            chain.doFilter(peticion, respuesta);
+            int codigo = respuesta.getStatus();
+            if (codigo < 500 && !TRANSITORIOS.contains(codigo)) {
+                almacen.completar(usuario, clave, new RespuestaGuardada(codigo, respuesta.getContentType(),
+                        respuesta.getHeader(HttpHeaders.LOCATION), respuesta.getContentAsByteArray()));
+                guardada = true;
+            }
+            contar("nueva");
+        } finally {
+            if (!guardada) {
+                almacen.liberar(usuario, clave);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(HttpServletResponse response, RespuestaGuardada respuesta) throws IOException {
+        contar("repetida");
+        response.setStatus(respuesta.codigo());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (respuesta.tipoContenido() != null) {
+            response.setContentType(respuesta.tipoContenido());
+        }
+        if (respuesta.ubicacion() != null) {
+            response.setHeader(HttpHeaders.LOCATION, respuesta.ubicacion());
+        }
+        response.setContentLength(respuesta.cuerpo().length);
+        response.getOutputStream().write(respuesta.cuerpo());
+    }
+
+    private void rechazar(HttpServletResponse response, HttpStatus estado, String resultado, String mensaje)
+            throws IOException {
+        contar(resultado);
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensaje);
+    }
+
+    private void contar(String resultado) {
+        meterRegistry.counter("idempotencia.peticiones", "resultado", resultado).increment();
+    }
+
+    /**
+     * Resumen SHA-256 del método, la URL y el cuerpo. De los formularios se usan sus parámetros, sin el token
+     * CSRF, que puede cambiar entre reintentos.
+     */
+    private static byte[] huella(HttpServletRequest peticion) throws IOException {
+        MessageDigest resumen;
+        try {
+            resumen = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        actualizar(resumen, peticion.getMethod());
+        actualizar(resumen, peticion.getRequestURI());
+        if (esFormulario(peticion)) {
+            Map<String, String[]> parametros = new TreeMap<>(peticion.getParameterMap());
+            parametros.remove("_csrf");
+            parametros.forEach((nombre, valores) -> {
+                actualizar(resumen, nombre);
+                Arrays.stream(valores).forEach(valor -> actualizar(resumen, valor));
+            });
+        } else {
+            actualizar(resumen, Objects.toString(peticion.getQueryString(), ""));
+            resumen.update(peticion.getInputStream().readAllBytes());
+        }
+        return resumen.digest();
+    }
+
+    private static void actualizar(MessageDigest resumen, String valor) {
+        resumen.update(valor.getBytes(StandardCharsets.UTF_8));
+        resumen.update((byte) 0);
+    }
+
+    private static boolean esFormulario(HttpServletRequest peticion) {
+        String tipo = peticion.getContentType();
+        return tipo != null && (tipo.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || tipo.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    /**
+     * Lee el cuerpo una vez para la huella y lo vuelve a ofrecer al controlador. Los formularios no se envuelven:
+     * el contenedor ya los leyó como parámetros.
+     */
+    static HttpServletRequest conCuerpoRepetible(HttpServletRequest request) throws IOException {
+        if (esFormulario(request)) {
+            return request;
+        }
+        byte[] cuerpo = request.getInputStream().readAllBytes();
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public ServletInputStream getInputStream() {
+                var entrada = new ByteArrayInputStream(cuerpo);
+                return new ServletInputStream() {
+                    @Override
+                    public int read() {
+                        return entrada.read();
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) {
+                        return entrada.read(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return entrada.available() == 0;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    /**
+                     * El cuerpo ya está en memoria: se avisa enseguida de que hay datos y, cuando se han leído, de
+                     * que se ha leído todo.
+                     */
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        try {
+                            if (!isFinished()) {
+                                listener.onDataAvailable();
+                            }
+                            if (isFinished()) {
+                                listener.onAllDataRead();
+                            }
+                        } catch (IOException e) {
+                            listener.onError(e);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public BufferedReader getReader() {
+                return new BufferedReader(new InputStreamReader(getInputStream(),
+                        Charset.forName(Objects.requireNonNullElse(getCharacterEncoding(), "UTF-8"))));
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Escrituras idempotentes con la cabecera {@code Idempotency-Key} ({@link FiltroIdempotencia}). Se desactiva con
+ * {@code app.idempotencia.habilitado=false}.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotenciaProperties.class)
+@ConditionalOnProperty(prefix = "app.idempotencia", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class IdempotenciaConfig {
+
+    @Bean
+    public AlmacenIdempotencia almacenIdempotencia(JdbcTemplate jdbcTemplate, IdempotenciaProperties properties) {
+        return new AlmacenIdempotencia(jdbcTemplate, properties);
+    }
+
+    /**
+     * Registra el filtro justo después de Spring Security, que ya ha identificado al usuario.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroIdempotencia> filtroIdempotencia(AlmacenIdempotencia almacen,
+                                                                         MeterRegistry meterRegistry) {
+        var registro = new FilterRegistrationBean<>(new FiltroIdempotencia(almacen, meterRegistry));
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registro;
+    }
+}
@@ -0,0 +1,23 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de las escrituras idempotentes con la cabecera {@code Idempotency-Key} ({@code app.idempotencia.*}).
+ *
+ * @param habilitado activa {@link FiltroIdempotencia}.
+ * @param capacidad  claves que se recuerdan en memoria; las demás se consultan en {@code clave_idempotencia}.
+ * @param retencion  tiempo durante el que una clave devuelve la respuesta guardada. Después se puede reutilizar.
+ * @param abandono   tiempo tras el que una petición en curso se da por perdida (p. ej. porque la instancia que la
+ *                   atendía murió) y otra petición con la misma clave puede ocupar su lugar.
+ */
+@ConfigurationProperties(prefix = "app.idempotencia")
+public record IdempotenciaProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("10000") int capacidad,
+        @DefaultValue("24h") Duration retencion,
+        @DefaultValue("1m") Duration abandono) {
+}
@@ -0,0 +1,29 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import java.time.Instant;
+
+/**
+ * Lo que se sabe de una clave de idempotencia.
+ *
+ * @param huella    resumen de la petición original (método, URL y cuerpo); otra petición con la misma clave y
+ *                  distinta huella es un error del cliente.
+ * @param respuesta respuesta guardada, o {@code null} si la petición original sigue en curso.
+ * @param creada    momento en que se reservó la clave.
+ */
+public record RegistroIdempotencia(byte[] huella, RespuestaGuardada respuesta, Instant creada) {
+
+    public boolean enCurso() {
+        return respuesta == null;
+    }
+
+    /**
+     * Respuesta de una escritura, tal como se devuelve a las repeticiones.
+     *
+     * @param codigo        código HTTP.
+     * @param tipoContenido cabecera {@code Content-Type}, o {@code null}.
+     * @param ubicacion     cabecera {@code Location}, o {@code null}.
+     * @param cuerpo        cuerpo de la respuesta.
+     */
+    public record RespuestaGuardada(int codigo, String tipoContenido, String ubicacion, byte[] cuerpo) {
+    }
+}
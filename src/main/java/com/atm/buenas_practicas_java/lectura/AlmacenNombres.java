@@ -0,0 +1,228 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Nombres en UTF-8 fuera del heap, sin repetidos, identificados por un manejador {@code long}.
+ *
+ * <p>Los nombres se repiten mucho ("Hija de Entidad-N" en todas las hijas del mismo padre). Guardar un
+ * {@code long} por entidad en lugar de un {@code String} deja el heap con un único array primitivo, que el GC no
+ * tiene que recorrer, y cada nombre distinto ocupa fuera del heap sus bytes UTF-8 una sola vez. El {@code String}
+ * se crea al pedirlo con {@link #nombre(long)}.</p>
+ *
+ * <p>Un manejador lleva el bloque, la posición dentro del bloque y la longitud, así que leer no consulta ninguna
+ * tabla:</p>
+ * <pre>
+ *   bits 63-48  bloque + 1    (hasta 65535 bloques)
+ *   bits 47-16  posición      (bloques de hasta 4 GB)
+ *   bits 15-0   bytes UTF-8   (hasta {@value #LONGITUD_MAXIMA})
+ * </pre>
+ * <p>{@link #SIN_NOMBRE} (0) representa {@code null}; ningún nombre tiene ese manejador.</p>
+ *
+ * <p>Los bytes están en bloques de {@link MemorySegment} de tamaño fijo y el índice para no repetir nombres
+ * (manejador y hash de cada nombre, con direccionamiento abierto) también está fuera del heap. Cada bloque se
+ * reserva en su propia {@link Arena#ofAuto() arena automática}: la memoria se libera cuando el almacén y todo lo
+ * que lo usa dejan de ser alcanzables, así que un manejador nunca apunta a memoria liberada.</p>
+ *
+ * <p>Solo se añade: un nombre que deja de usarse sigue ocupando sus bytes hasta que se descarta el almacén entero.
+ * Por eso {@link ModeloLectura} no se queda con uno para siempre: pasa los nombres vivos a uno {@link #vacio()
+ * vacío} y sustituye el anterior al cargar de la base de datos y cuando los nombres muertos son demasiados.
+ * Añadir está sincronizado; leer no se bloquea y es seguro desde cualquier hilo que haya recibido el manejador
+ * con una relación happens-before respecto a quien lo añadió (por ejemplo, a través de un campo
+ * {@code volatile}).</p>
+ */
+public final class AlmacenNombres {
+
+    /** Manejador de {@code null}. */
+    public static final long SIN_NOMBRE = 0;
+    public static final int LONGITUD_MAXIMA = 0xFFFF;
+
+    private static final int BLOQUES_MAXIMOS = 0xFFFF;
+    /** Casilla del índice: manejador (8 bytes) y hash (4 bytes, más 4 de relleno). */
+    private static final long CASILLA = 16;
+    private static final int CAPACIDAD_INICIAL = 1 << 10;
+
+    private final long tamanoBloque;
+    /** Bloques llenos y el actual. Se sustituye entero al añadir un bloque, para leerlo sin bloqueos. */
+    private volatile MemorySegment[] bloques = new MemorySegment[0];
+    private long ocupadoBloqueActual;
+    private long bytesNombres;
+    private MemorySegment indice;
+    private int capacidadIndice;
+    private int distintos;
+
+    /**
+     * @param tamanoBloque bytes de cada bloque, entre {@value #LONGITUD_MAXIMA} y 4 GB. Los nombres no se parten
+     *                     entre bloques: lo que sobra al final de cada uno se pierde.
+     */
+    public AlmacenNombres(long tamanoBloque) {
+        if (tamanoBloque < LONGITUD_MAXIMA || tamanoBloque > 1L << 32) {
+            throw new IllegalArgumentException("Tamaño de bloque fuera de rango: " + tamanoBloque);
+        }
+        this.tamanoBloque = tamanoBloque;
+        this.capacidadIndice = CAPACIDAD_INICIAL;
+        this.indice = reservar(CASILLA * capacidadIndice, 8);
+    }
+
+    /**
+     * Almacén nuevo, sin nombres, con el mismo tamaño de bloque.
+     */
+    public AlmacenNombres vacio() {
+        return new AlmacenNombres(tamanoBloque);
+    }
+
+    /**
+     * Manejador del nombre, añadiéndolo si es la primera vez. El mismo nombre da siempre el mismo manejador.
+     *
+     * @throws IllegalArgumentException si ocupa más de {@value #LONGITUD_MAXIMA} bytes en UTF-8.
+     */
+    public long agregar(String nombre) {
+        if (nombre == null) {
+            return SIN_NOMBRE;
+        }
+        byte[] utf8 = nombre.getBytes(StandardCharsets.UTF_8);
+        return agregar(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Como {@link #agregar(String)} con el nombre ya codificado en UTF-8, sin crear el {@code String}.
+     */
+    public synchronized long agregar(byte[] utf8, int desde, int longitud) {
+        Objects.checkFromIndexSize(desde, longitud, utf8.length);
+        if (longitud > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("Nombre de " + longitud + " bytes; como máximo " + LONGITUD_MAXIMA);
+        }
+        int hash = hash(utf8, desde, longitud);
+        MemorySegment origen = MemorySegment.ofArray(utf8);
+        int mascara = capacidadIndice - 1;
+        for (int casilla = hash & mascara; ; casilla = (casilla + 1) & mascara) {
+            long manejador = indice.get(ValueLayout.JAVA_LONG, CASILLA * casilla);
+            if (manejador == SIN_NOMBRE) {
+                manejador = escribir(origen, desde, longitud);
+                indice.set(ValueLayout.JAVA_LONG, CASILLA * casilla, manejador);
+                indice.set(ValueLayout.JAVA_INT, CASILLA * casilla + 8, hash);
+                if (++distintos * 2L > capacidadIndice) {
+                    crecerIndice();
+                }
+                return manejador;
+            }
+            if (indice.get(ValueLayout.JAVA_INT, CASILLA * casilla + 8) == hash && longitud(manejador) == longitud
+                    && MemorySegment.mismatch(bloque(manejador), posicion(manejador),
+                    posicion(manejador) + longitud, origen, desde, desde + longitud) == -1) {
+                return manejador;
+            }
+        }
+    }
+
+    /**
+     * El nombre del manejador, decodificado en un {@code String} nuevo.
+     *
+     * @return {@code null} para {@link #SIN_NOMBRE}.
+     */
+    public String nombre(long manejador) {
+        return manejador == SIN_NOMBRE ? null : new String(utf8(manejador), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Los bytes UTF-8 del nombre, copiados a un array nuevo.
+     */
+    public byte[] utf8(long manejador) {
+        int longitud = longitud(manejador);
+        byte[] utf8 = new byte[longitud];
+        MemorySegment.copy(bloque(manejador), ValueLayout.JAVA_BYTE, posicion(manejador), utf8, 0, longitud);
+        return utf8;
+    }
+
+    /**
+     * Bytes UTF-8 del nombre, sin leerlo.
+     */
+    public static int longitud(long manejador) {
+        return (int) (manejador & LONGITUD_MAXIMA);
+    }
+
+    /**
+     * Nombres distintos añadidos.
+     */
+    public synchronized int distintos() {
+        return distintos;
+    }
+
+    /**
+     * Bytes UTF-8 de los nombres distintos.
+     */
+    public synchronized long bytesNombres() {
+        return bytesNombres;
+    }
+
+    /**
+     * Memoria reservada fuera del heap: los bloques y el índice.
+     */
+    public synchronized long bytesReservados() {
+        return bloques.length * tamanoBloque + CASILLA * capacidadIndice;
+    }
+
+    private long escribir(MemorySegment origen, int desde, int longitud) {
+        MemorySegment[] actuales = bloques;
+        if (actuales.length == 0 || ocupadoBloqueActual + longitud > tamanoBloque) {
+            if (actuales.length == BLOQUES_MAXIMOS) {
+                throw new IllegalStateException("El almacén de nombres está lleno: " + BLOQUES_MAXIMOS + " bloques");
+            }
+            actuales = Arrays.copyOf(actuales, actuales.length + 1);
+            actuales[actuales.length - 1] = reservar(tamanoBloque, 1);
+            ocupadoBloqueActual = 0;
+        }
+        long posicion = ocupadoBloqueActual;
+        MemorySegment.copy(origen, desde, actuales[actuales.length - 1], posicion, longitud);
+        ocupadoBloqueActual += longitud;
+        bytesNombres += longitud;
+        // Los bytes se escriben antes de publicar el bloque en el campo volatile
+        bloques = actuales;
+        return ((long) actuales.length << 48) | (posicion << 16) | longitud;
+    }
+
+    private void crecerIndice() {
+        int capacidad = capacidadIndice * 2;
+        MemorySegment nuevo = reservar(CASILLA * capacidad, 8);
+        int mascara = capacidad - 1;
+        for (int i = 0; i < capacidadIndice; i++) {
+            long manejador = indice.get(ValueLayout.JAVA_LONG, CASILLA * i);
+            if (manejador != SIN_NOMBRE) {
+                int hash = indice.get(ValueLayout.JAVA_INT, CASILLA * i + 8);
+                int casilla = hash & mascara;
+                while (nuevo.get(ValueLayout.JAVA_LONG, CASILLA * casilla) != SIN_NOMBRE) {
+                    casilla = (casilla + 1) & mascara;
+                }
+                nuevo.set(ValueLayout.JAVA_LONG, CASILLA * casilla, manejador);
+                nuevo.set(ValueLayout.JAVA_INT, CASILLA * casilla + 8, hash);
+            }
+        }
+        indice = nuevo;
+        capacidadIndice = capacidad;
+    }
+
+    private MemorySegment bloque(long manejador) {
+        return bloques[(int) (manejador >>> 48) - 1];
+    }
+
+    private static long posicion(long manejador) {
+        return (manejador >>> 16) & 0xFFFF_FFFFL;
+    }
+
+    private static int hash(byte[] utf8, int desde, int longitud) {
+        int hash = 1;
+        for (int i = desde; i < desde + longitud; i++) {
+            hash = 31 * hash + utf8[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static MemorySegment reservar(long bytes, long alineacion) {
+        // Una arena por reserva: el índice anterior se libera en cuanto deja de usarse
+        return Arena.ofAuto().allocate(bytes, alineacion);
+    }
+}
@@ -0,0 +1,79 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.RepositorioCambios;
+import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Carga inicial del {@link ModeloLectura} desde los repositorios, en un hilo aparte para no retrasar el arranque.
+ *
+ * <p>Empieza cuando arranca el contexto y no cuando se crea el bean: para entonces todos los beans están listos y
+ * el relevo de cambios ya entrega al modelo lo que cambie durante la carga. Al parar, si la carga sigue en curso,
+ * se espera a que termine, como mucho {@code esperaCierre}, para que no lea de un pool de conexiones que se está
+ * cerrando.</p>
+ */
+@Log4j2
+public class CargaModeloLectura implements SmartLifecycle {
+
+    private final ModeloLectura modelo;
+    private final EntidadPadreRepository entidadPadreRepository;
+    private final EntidadHijaRepository entidadHijaRepository;
+    private final RepositorioCambios repositorioCambios;
+    private final TransactionTemplate soloLectura;
+    private final Duration esperaCierre;
+
+    private volatile Thread hilo;
+
+    public CargaModeloLectura(ModeloLectura modelo, EntidadPadreRepository entidadPadreRepository,
+                              EntidadHijaRepository entidadHijaRepository, RepositorioCambios repositorioCambios,
+                              TransactionTemplate transactionTemplate, Duration esperaCierre) {
+        this.modelo = modelo;
+        this.entidadPadreRepository = entidadPadreRepository;
+        this.entidadHijaRepository = entidadHijaRepository;
+        this.repositorioCambios = repositorioCambios;
+        this.soloLectura = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.soloLectura.setReadOnly(true);
+        this.esperaCierre = esperaCierre;
+    }
+
+    @Override
+    public void start() {
+        hilo = Thread.ofVirtual().name("modelo-lectura-carga").start(this::cargar);
+    }
+
+    /**
+     * Espera a que termine la carga en curso, como mucho {@code esperaCierre}.
+     */
+    @Override
+    public void stop() {
+        try {
+            if (!hilo.join(esperaCierre)) {
+                log.warn("La carga del modelo de lectura no terminó en {}; se interrumpe", esperaCierre);
+                hilo.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return hilo != null && hilo.isAlive();
+    }
+
+    private void cargar() {
+        try {
+            // La posición se lee antes que las entidades: lo posterior llega por el relevo
+            long posicion = repositorioCambios.ultimaPosicion();
+            soloLectura.executeWithoutResult(estado -> modelo.cargar(posicion,
+                    entidadPadreRepository::streamResumen, entidadHijaRepository::streamResumen));
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el modelo de lectura; los listados seguirán leyendo de la base de datos", e);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Nombres de una {@link Tabla}, por posición: en el heap ({@link EnHeap}, un {@code String[]}) o fuera de él
+ * ({@link FueraDelHeap}, manejadores de un {@link AlmacenNombres}).
+ *
+ * <p>Como los arrays de la tabla, una columna solo se modifica mientras se construye la tabla que la usa; después
+ * no cambia. Las operaciones que copian nombres de una columna a otra del mismo tipo no decodifican nada.</p>
+ */
+abstract sealed class ColumnaNombres permits ColumnaNombres.EnHeap, ColumnaNombres.FueraDelHeap {
+
+    static ColumnaNombres enHeap(String[] nombres) {
+        return new EnHeap(nombres);
+    }
+
+    /**
+     * Columna vacía fuera del heap, con sitio para {@code tamano} nombres.
+     */
+    static ColumnaNombres fueraDelHeap(AlmacenNombres almacen, int tamano) {
+        return new FueraDelHeap(almacen, new long[tamano]);
+    }
+
+    abstract int tamano();
+
+    abstract String nombre(int posicion);
+
+    abstract boolean nulo(int posicion);
+
+    /**
+     * Columna vacía del mismo tipo con sitio para {@code tamano} nombres.
+     */
+    abstract ColumnaNombres nueva(int tamano);
+
+    /**
+     * Copia con {@code tamano} posiciones: las primeras como las de esta columna y el resto vacías.
+     */
+    abstract ColumnaNombres copia(int tamano);
+
+    abstract void poner(int posicion, String nombre);
+
+    /**
+     * Pone un nombre ya codificado en UTF-8.
+     */
+    abstract void ponerUtf8(int posicion, byte[] utf8, int desde, int longitud);
+
+    /**
+     * Copia el nombre de {@code posicion} a {@code destino}, que debe ser del mismo tipo.
+     */
+    abstract void copiar(int posicion, ColumnaNombres destino, int posicionDestino);
+
+    /**
+     * Columna con los mismos nombres guardados en {@code almacen}; esta misma si están en el heap.
+     */
+    abstract ColumnaNombres trasladar(AlmacenNombres almacen);
+
+    /**
+     * Si el nombre de {@code posicion} es igual al de {@code otra} en {@code posicionOtra}.
+     */
+    boolean igual(int posicion, ColumnaNombres otra, int posicionOtra) {
+        return Objects.equals(nombre(posicion), otra.nombre(posicionOtra));
+    }
+
+    /**
+     * El nombre en UTF-8; un array vacío si es {@code null}.
+     */
+    abstract byte[] utf8(int posicion);
+
+    /**
+     * Bytes del nombre en UTF-8; 0 si es {@code null}.
+     */
+    abstract int longitudUtf8(int posicion);
+
+    /**
+     * Bytes del array de la columna, suponiendo referencias comprimidas.
+     */
+    abstract long bytesArray();
+
+    /**
+     * Bytes estimados que ocupan en el heap los nombres, sin el array.
+     */
+    abstract long bytesNombres();
+
+    static final class EnHeap extends ColumnaNombres {
+
+        private final String[] nombres;
+
+        private EnHeap(String[] nombres) {
+            this.nombres = nombres;
+        }
+
+        @Override
+        int tamano() {
+            return nombres.length;
+        }
+
+        @Override
+        String nombre(int posicion) {
+            return nombres[posicion];
+        }
+
+        @Override
+        boolean nulo(int posicion) {
+            return nombres[posicion] == null;
+        }
+
+        @Override
+        ColumnaNombres nueva(int tamano) {
+            return new EnHeap(new String[tamano]);
+        }
+
+        @Override
+        ColumnaNombres copia(int tamano) {
+            return new EnHeap(Arrays.copyOf(nombres, tamano));
+        }
+
+        @Override
+        void poner(int posicion, String nombre) {
+            nombres[posicion] = nombre;
+        }
+
+        @Override
+        void ponerUtf8(int posicion, byte[] utf8, int desde, int longitud) {
+            nombres[posicion] = new String(utf8, desde, longitud, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void copiar(int posicion, ColumnaNombres destino, int posicionDestino) {
+            ((EnHeap) destino).nombres[posicionDestino] = nombres[posicion];
+        }
+
+        @Override
+        ColumnaNombres trasladar(AlmacenNombres almacen) {
+            return this;
+        }
+
+        @Override
+        byte[] utf8(int posicion) {
+            return nombres[posicion] == null ? new byte[0] : nombres[posicion].getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        int longitudUtf8(int posicion) {
+            String texto = nombres[posicion];
+            if (texto == null) {
+                return 0;
+            }
+            int bytes = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c < 0x80) {
+                    bytes++;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                        && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else {
+                    // Un sustituto suelto se codifica como '?'
+                    bytes += Character.isSurrogate(c) ? 1 : 3;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        long bytesArray() {
+            return 16 + 4L * nombres.length;
+        }
+
+        /**
+         * Cabecera del {@code String} y de su {@code byte[]}, con un byte por carácter si es Latin-1 y dos si no.
+         */
+        @Override
+        long bytesNombres() {
+            long bytes = 0;
+            for (String nombre : nombres) {
+                if (nombre != null) {
+                    int porCaracter = nombre.chars().allMatch(c -> c <= 0xFF) ? 1 : 2;
+                    bytes += 24 + alinear(16 + (long) porCaracter * nombre.length());
+                }
+            }
+            return bytes;
+        }
+
+        private static long alinear(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+
+    static final class FueraDelHeap extends ColumnaNombres {
+
+        private final AlmacenNombres almacen;
+        private final long[] manejadores;
+
+        private FueraDelHeap(AlmacenNombres almacen, long[] manejadores) {
+            this.almacen = almacen;
+            this.manejadores = manejadores;
+        }
+
+        @Override
+        int tamano() {
+            return manejadores.length;
+        }
+
+        @Override
+        String nombre(int posicion) {
+            return almacen.nombre(manejadores[posicion]);
+        }
+
+        @Override
+        boolean nulo(int posicion) {
+            return manejadores[posicion] == AlmacenNombres.SIN_NOMBRE;
+        }
+
+        @Override
+        ColumnaNombres nueva(int tamano) {
+            return new FueraDelHeap(almacen, new long[tamano]);
+        }
+
+        @Override
+        ColumnaNombres copia(int tamano) {
+            return new FueraDelHeap(almacen, Arrays.copyOf(manejadores, tamano));
+        }
+
+        @Override
+        void poner(int posicion, String nombre) {
+            manejadores[posicion] = almacen.agregar(nombre);
+        }
+
+        @Override
+        void ponerUtf8(int posicion, byte[] utf8, int desde, int longitud) {
+            manejadores[posicion] = almacen.agregar(utf8, desde, longitud);
+        }
+
+        @Override
+        void copiar(int posicion, ColumnaNombres destino, int posicionDestino) {
+            ((FueraDelHeap) destino).manejadores[posicionDestino] = manejadores[posicion];
+        }
+
+        /**
+         * Copia los bytes UTF-8 de cada nombre, sin decodificarlos.
+         */
+        @Override
+        ColumnaNombres trasladar(AlmacenNombres almacen) {
+            long[] trasladados = new long[manejadores.length];
+            for (int i = 0; i < manejadores.length; i++) {
+                if (manejadores[i] != AlmacenNombres.SIN_NOMBRE) {
+                    byte[] utf8 = this.almacen.utf8(manejadores[i]);
+                    trasladados[i] = almacen.agregar(utf8, 0, utf8.length);
+                }
+            }
+            return new FueraDelHeap(almacen, trasladados);
+        }
+
+        /**
+         * En el mismo almacén no hay nombres repetidos: dos nombres son iguales si lo son sus manejadores.
+         */
+        @Override
+        boolean igual(int posicion, ColumnaNombres otra, int posicionOtra) {
+            if (otra instanceof FueraDelHeap fuera && fuera.almacen == almacen) {
+                return manejadores[posicion] == fuera.manejadores[posicionOtra];
+            }
+            return super.igual(posicion, otra, posicionOtra);
+        }
+
+        @Override
+        byte[] utf8(int posicion) {
+            return nulo(posicion) ? new byte[0] : almacen.utf8(manejadores[posicion]);
+        }
+
+        @Override
+        int longitudUtf8(int posicion) {
+            return AlmacenNombres.longitud(manejadores[posicion]);
+        }
+
+        @Override
+        long bytesArray() {
+            return 16 + 8L * manejadores.length;
+        }
+
+        /**
+         * Nada: los nombres están en el almacén, fuera del heap.
+         */
+        @Override
+        long bytesNombres() {
+            return 0;
+        }
+    }
+}
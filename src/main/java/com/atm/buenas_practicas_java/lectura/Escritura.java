@@ -0,0 +1,13 @@
+package com.atm.buenas_practicas_java.lectura;
+
+/**
+ * Cambio de una entidad ya confirmado, venga del servicio o del relevo de cambios.
+ *
+ * @param padre   {@code true} para {@code EntidadPadre}, {@code false} para {@code EntidadHija}.
+ * @param id      id de la entidad.
+ * @param borrado si la entidad se ha borrado; si no, se da de alta o se sustituye.
+ * @param nombre  nombre tras el cambio.
+ * @param padreId padre de la hija, o {@link Tabla#SIN_PADRE}.
+ */
+record Escritura(boolean padre, long id, boolean borrado, String nombre, long padreId) {
+}
@@ -0,0 +1,229 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario de una {@link Instantanea} en disco, para arrancar con el modelo de lectura sin esperar a la base
+ * de datos.
+ *
+ * <p>Una cabecera de {@value #CABECERA} bytes y después columnas de ancho fijo y el montón de nombres:</p>
+ * <pre>
+ *   cabecera   magia, versión, posición del flujo de cambios, padres, hijas, bytes de nombres, CRC32 del cuerpo
+ *   long[p]    ids de los padres
+ *   long[h]    ids de las hijas
+ *   long[h]    padre de cada hija (0 si no tiene)
+ *   int[p+1]   inicio del nombre de cada padre en el montón; el último es el final
+ *   int[h+1]   lo mismo para las hijas
+ *   byte[]     nombres en UTF-8, seguidos
+ * </pre>
+ * <p>Un nombre {@code null} se marca con el bit de signo de su inicio. Los números van en big-endian, el orden de
+ * {@link DataOutputStream} y {@link ByteBuffer}.</p>
+ *
+ * <p>Se escribe en un fichero temporal junto al definitivo y se renombra al terminar, así que quien lee encuentra
+ * el fichero anterior o el nuevo completo, nunca uno a medias. Se lee proyectando el fichero en memoria: las
+ * columnas se copian a los arrays de la {@link Tabla} de una vez y los nombres se decodifican del montón, sin
+ * pasar por la base de datos, en la columna que se pida: con nombres fuera del heap van directamente del montón al
+ * {@link AlmacenNombres}, sin crear ningún {@code String}.</p>
+ */
+final class FicheroInstantanea {
+
+    static final int CABECERA = 64;
+
+    private static final int MAGIA = 0x4D4C4543; // "MLEC"
+    private static final int VERSION = 1;
+    private static final int NULO = 0x80000000;
+
+    private FicheroInstantanea() {
+    }
+
+    /**
+     * Instantánea leída de disco.
+     *
+     * @param instantanea padres e hijas del fichero.
+     * @param posicion    posición del flujo de cambios hasta la que estaba al día al guardarse.
+     */
+    record Leida(Instantanea instantanea, long posicion) {
+    }
+
+    /**
+     * Guarda la instantánea sustituyendo, de forma atómica, el fichero que hubiera.
+     *
+     * @return bytes escritos.
+     */
+    static long escribir(Path ruta, Instantanea instantanea, long posicion) throws IOException {
+        Tabla padres = instantanea.padres();
+        Tabla hijas = instantanea.hijas();
+        int[] iniciosPadres = inicios(padres.nombres, 0);
+        int[] iniciosHijas = inicios(hijas.nombres, iniciosPadres[padres.tamano()] & ~NULO);
+        long bytesNombres = iniciosHijas[hijas.tamano()] & ~NULO;
+
+        Path directorio = ruta.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, ruta.getFileName().toString(), ".tmp");
+        try {
+            var crc = new CRC32();
+            long bytes;
+            try (var canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                canal.position(CABECERA);
+                var salida = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(canal), crc), 1 << 16));
+                escribir(salida, padres.ids);
+                escribir(salida, hijas.ids);
+                escribir(salida, hijas.padres);
+                escribir(salida, iniciosPadres);
+                escribir(salida, iniciosHijas);
+                escribir(salida, padres.nombres);
+                escribir(salida, hijas.nombres);
+                salida.flush();
+                bytes = canal.position();
+
+                ByteBuffer cabecera = ByteBuffer.allocate(CABECERA)
+                        .putInt(MAGIA)
+                        .putInt(VERSION)
+                        .putLong(posicion)
+                        .putInt(padres.tamano())
+                        .putInt(hijas.tamano())
+                        .putLong(bytesNombres)
+                        .putLong(crc.getValue());
+                canal.write(cabecera.clear(), 0);
+                canal.force(true);
+            }
+            Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Lee el fichero, si existe.
+     *
+     * @param columnas columna de nombres vacía del tamaño pedido, donde se ponen los nombres leídos.
+     * @return vacío si no hay fichero.
+     * @throws IOException si no se puede leer o no es una instantánea válida de esta versión (magia, tamaño o
+     *                     CRC incorrectos).
+     */
+    static Optional<Leida> leer(Path ruta, IntFunction<ColumnaNombres> columnas) throws IOException {
+        if (!Files.exists(ruta)) {
+            return Optional.empty();
+        }
+        MappedByteBuffer fichero;
+        try (var canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < CABECERA || tamano > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de instantánea no válido: " + tamano + " bytes");
+            }
+            // La proyección sigue siendo válida después de cerrar el canal
+            fichero = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+        }
+        if (fichero.getInt(0) != MAGIA || fichero.getInt(4) != VERSION) {
+            throw new IOException("No es una instantánea del modelo de lectura de la versión " + VERSION);
+        }
+        long posicion = fichero.getLong(8);
+        int numPadres = fichero.getInt(16);
+        int numHijas = fichero.getInt(20);
+        long bytesNombres = fichero.getLong(24);
+        long crcEsperado = fichero.getLong(32);
+        long esperado = CABECERA + 8L * numPadres + 16L * numHijas + 4L * (numPadres + 1) + 4L * (numHijas + 1)
+                + bytesNombres;
+        if (numPadres < 0 || numHijas < 0 || bytesNombres < 0 || esperado != fichero.capacity()) {
+            throw new IOException("Instantánea truncada o corrupta: " + fichero.capacity() + " bytes, se esperaban "
+                    + esperado);
+        }
+        var crc = new CRC32();
+        crc.update(fichero.slice(CABECERA, fichero.capacity() - CABECERA));
+        if (crc.getValue() != crcEsperado) {
+            throw new IOException("El CRC de la instantánea no coincide");
+        }
+
+        fichero.position(CABECERA);
+        long[] idsPadres = leerLongs(fichero, numPadres);
+        long[] idsHijas = leerLongs(fichero, numHijas);
+        long[] padresHijas = leerLongs(fichero, numHijas);
+        int[] iniciosPadres = leerInts(fichero, numPadres + 1);
+        int[] iniciosHijas = leerInts(fichero, numHijas + 1);
+        byte[] nombres = new byte[(int) bytesNombres];
+        fichero.get(nombres);
+
+        var instantanea = new Instantanea(
+                Tabla.de(idsPadres, nombres(nombres, iniciosPadres, columnas), null),
+                Tabla.de(idsHijas, nombres(nombres, iniciosHijas, columnas), padresHijas));
+        return Optional.of(new Leida(instantanea, posicion));
+    }
+
+    /**
+     * Inicio de cada nombre en el montón, empezando en {@code desde}, y al final el del siguiente.
+     */
+    private static int[] inicios(ColumnaNombres nombres, int desde) {
+        int[] inicios = new int[nombres.tamano() + 1];
+        long inicio = desde;
+        for (int i = 0; i < nombres.tamano(); i++) {
+            inicios[i] = nombres.nulo(i) ? (int) inicio | NULO : (int) inicio;
+            inicio += nombres.longitudUtf8(i);
+            if (inicio > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Los nombres no caben en una instantánea: más de 2 GB");
+            }
+        }
+        inicios[nombres.tamano()] = (int) inicio;
+        return inicios;
+    }
+
+    private static ColumnaNombres nombres(byte[] monton, int[] inicios, IntFunction<ColumnaNombres> columnas) {
+        ColumnaNombres nombres = columnas.apply(inicios.length - 1);
+        for (int i = 0; i < nombres.tamano(); i++) {
+            if (inicios[i] >= 0) {
+                int inicio = inicios[i];
+                nombres.ponerUtf8(i, monton, inicio, (inicios[i + 1] & ~NULO) - inicio);
+            }
+        }
+        return nombres;
+    }
+
+    private static void escribir(DataOutputStream salida, long[] valores) throws IOException {
+        if (valores != null) {
+            for (long valor : valores) {
+                salida.writeLong(valor);
+            }
+        }
+    }
+
+    private static void escribir(DataOutputStream salida, int[] valores) throws IOException {
+        for (int valor : valores) {
+            salida.writeInt(valor);
+        }
+    }
+
+    private static void escribir(DataOutputStream salida, ColumnaNombres nombres) throws IOException {
+        for (int i = 0; i < nombres.tamano(); i++) {
+            salida.write(nombres.utf8(i));
+        }
+    }
+
+    private static long[] leerLongs(ByteBuffer buffer, int cantidad) {
+        long[] valores = new long[cantidad];
+        buffer.asLongBuffer().get(valores);
+        buffer.position(buffer.position() + 8 * cantidad);
+        return valores;
+    }
+
+    private static int[] leerInts(ByteBuffer buffer, int cantidad) {
+        int[] valores = new int[cantidad];
+        buffer.asIntBuffer().get(valores);
+        buffer.position(buffer.position() + 4 * cantidad);
+        return valores;
+    }
+}
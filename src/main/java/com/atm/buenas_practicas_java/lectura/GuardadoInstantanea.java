@@ -0,0 +1,82 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guarda periódicamente la instantánea del {@link ModeloLectura} en disco ({@link FicheroInstantanea}), para que
+ * al reiniciar el modelo arranque de ella en lugar de esperar a la carga de la base de datos.
+ *
+ * <p>Un único hilo guarda cada {@code intervalo}, solo si la instantánea ha cambiado desde la última vez, y una
+ * última vez al cerrar. La instantánea es inmutable, así que se escribe sin bloquear ni a los lectores ni a las
+ * escrituras del modelo.</p>
+ *
+ * <p>Métrica: {@code modelo.lectura.guardado} (duración de cada escritura del fichero).</p>
+ */
+@Log4j2
+public class GuardadoInstantanea implements AutoCloseable {
+
+    private final ModeloLectura modelo;
+    private final ModeloLecturaProperties.Persistencia properties;
+    private final ScheduledExecutorService hilo = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("modelo-lectura-guardado").daemon().factory());
+    private final Timer guardado;
+    /** Última instantánea guardada. Solo la usa {@link #guardar()}, que es {@code synchronized}. */
+    private Instantanea guardada;
+
+    public GuardadoInstantanea(ModeloLectura modelo, ModeloLecturaProperties.Persistencia properties,
+                               MeterRegistry meterRegistry) {
+        this.modelo = modelo;
+        this.properties = properties;
+        this.guardado = Timer.builder("modelo.lectura.guardado")
+                .description("Escritura de la instantánea del modelo de lectura en disco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Empieza a guardar cada {@code intervalo}.
+     */
+    public void iniciar() {
+        long intervalo = properties.intervalo().toMillis();
+        hilo.scheduleWithFixedDelay(this::guardar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Guarda la instantánea actual si ha cambiado.
+     *
+     * @return si se ha escrito el fichero.
+     */
+    public synchronized boolean guardar() {
+        Optional<FicheroInstantanea.Leida> actual = modelo.guardable();
+        if (actual.isEmpty() || actual.get().instantanea() == guardada) {
+            return false;
+        }
+        Path ruta = properties.ruta();
+        try {
+            long inicio = System.nanoTime();
+            long bytes = FicheroInstantanea.escribir(ruta, actual.get().instantanea(), actual.get().posicion());
+            guardado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            guardada = actual.get().instantanea();
+            log.debug("Instantánea del modelo de lectura guardada en {}: {} bytes, posición {}", ruta, bytes,
+                    actual.get().posicion());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo guardar la instantánea del modelo de lectura en {}", ruta, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        hilo.shutdownNow();
+        guardar();
+    }
+}
@@ -0,0 +1,102 @@
+package com.atm.buenas_practicas_java.lectura;
+
+/**
+ * Mapa de id a posición con arrays primitivos y direccionamiento abierto (sondeo lineal): ni {@code Long} ni
+ * entradas por elemento. Ocupa como mucho la mitad de la tabla, así que una búsqueda mira una o dos casillas.
+ *
+ * <p>Es inmutable una vez publicado; {@link #conAltas} devuelve una copia. Los ids de identidad empiezan en 1,
+ * así que 0 marca las casillas vacías.</p>
+ */
+final class IndiceIds {
+
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private final long[] claves;
+    private final int[] posiciones;
+    private final int mascara;
+
+    private IndiceIds(int capacidad) {
+        this.claves = new long[capacidad];
+        this.posiciones = new int[capacidad];
+        this.mascara = capacidad - 1;
+    }
+
+    private IndiceIds(IndiceIds original) {
+        this.claves = original.claves.clone();
+        this.posiciones = original.posiciones.clone();
+        this.mascara = original.mascara;
+    }
+
+    /**
+     * Índice de los {@code tamano} primeros ids: la posición de cada uno es la que ocupa en {@code ids}.
+     */
+    static IndiceIds de(long[] ids, int tamano) {
+        IndiceIds indice = new IndiceIds(capacidadPara(tamano));
+        for (int i = 0; i < tamano; i++) {
+            indice.poner(ids[i], i);
+        }
+        return indice;
+    }
+
+    /**
+     * Copia con los ids de {@code ids[desde..hasta)} añadidos en sus posiciones; si no caben, se rehace entero.
+     */
+    IndiceIds conAltas(long[] ids, int desde, int hasta) {
+        if (capacidadPara(hasta) > claves.length) {
+            return de(ids, hasta);
+        }
+        IndiceIds copia = new IndiceIds(this);
+        for (int i = desde; i < hasta; i++) {
+            copia.poner(ids[i], i);
+        }
+        return copia;
+    }
+
+    /**
+     * Posición del id, o -1 si no está.
+     */
+    int posicion(long id) {
+        for (int casilla = casilla(id); ; casilla = (casilla + 1) & mascara) {
+            long clave = claves[casilla];
+            if (clave == id) {
+                return posiciones[casilla];
+            }
+            if (clave == 0) {
+                return -1;
+            }
+        }
+    }
+
+    boolean contiene(long id) {
+        return posicion(id) >= 0;
+    }
+
+    /**
+     * Bytes de los dos arrays, con sus cabeceras.
+     */
+    long bytes() {
+        return 16 + 8L * claves.length + 16 + 4L * posiciones.length;
+    }
+
+    private void poner(long id, int posicion) {
+        if (id == 0) {
+            throw new IllegalArgumentException("El id 0 no es válido");
+        }
+        int casilla = casilla(id);
+        while (claves[casilla] != 0 && claves[casilla] != id) {
+            casilla = (casilla + 1) & mascara;
+        }
+        claves[casilla] = id;
+        posiciones[casilla] = posicion;
+    }
+
+    private int casilla(long id) {
+        long mezcla = id * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+    }
+
+    private static int capacidadPara(int tamano) {
+        int capacidad = Integer.highestOneBit(Math.max(tamano * 2, CAPACIDAD_MINIMA) - 1) << 1;
+        return Math.max(capacidad, CAPACIDAD_MINIMA);
+    }
+}
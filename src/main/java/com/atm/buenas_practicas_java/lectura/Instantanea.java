@@ -0,0 +1,61 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estado del modelo de lectura en un momento dado: la tabla de padres y la de hijas. Es inmutable, así que se
+ * puede leer desde cualquier hilo sin bloqueos mientras se prepara la siguiente.
+ *
+ * @param padres tabla de padres.
+ * @param hijas  tabla de hijas.
+ */
+record Instantanea(Tabla padres, Tabla hijas) {
+
+    static final Instantanea VACIA = new Instantanea(Tabla.vacia(false), Tabla.vacia(true));
+
+    /**
+     * Instantánea con un lote de cambios aplicado. Si un id cambia varias veces en el lote vale el último cambio.
+     * Borrar un padre quita también sus hijas, como el borrado en cascada de {@code EntidadPadre}.
+     */
+    Instantanea aplicar(List<Escritura> lote) {
+        Map<Long, Escritura> cambiosPadres = new LinkedHashMap<>();
+        Map<Long, Escritura> cambiosHijas = new LinkedHashMap<>();
+        for (Escritura escritura : lote) {
+            Map<Long, Escritura> cambios = escritura.padre() ? cambiosPadres : cambiosHijas;
+            // Se quita antes de poner para que el orden sea el del último cambio
+            cambios.remove(escritura.id());
+            cambios.put(escritura.id(), escritura);
+        }
+        long[] borrados = cambiosPadres.values().stream()
+                .filter(Escritura::borrado)
+                .mapToLong(Escritura::id)
+                .toArray();
+        IndiceIds padresBorrados = borrados.length == 0 ? null : IndiceIds.de(borrados, borrados.length);
+        return new Instantanea(padres.aplicar(cambiosPadres.values(), null),
+                hijas.aplicar(cambiosHijas.values(), padresBorrados));
+    }
+
+    /**
+     * La misma instantánea con los nombres en {@code almacen}.
+     */
+    Instantanea trasladar(AlmacenNombres almacen) {
+        return new Instantanea(padres.trasladar(almacen), hijas.trasladar(almacen));
+    }
+
+    /**
+     * Entidades, padres e hijas, que no coinciden con las de {@code otra}.
+     */
+    int diferencias(Instantanea otra) {
+        return padres.diferencias(otra.padres) + hijas.diferencias(otra.hijas);
+    }
+
+    long bytesEstructura() {
+        return padres.bytesEstructura() + hijas.bytesEstructura();
+    }
+
+    long bytesNombres() {
+        return padres.bytesNombres() + hijas.bytesNombres();
+    }
+}
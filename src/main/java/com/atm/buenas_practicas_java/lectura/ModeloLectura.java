@@ -0,0 +1,443 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.cambios.SumideroCambios;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
+import com.atm.buenas_practicas_java.services.EntidadEscrita;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Modelo de lectura (CQRS) de padres e hijas en memoria: id, nombre y padre de cada entidad en arrays compactos,
+ * con un índice primitivo de id a posición ({@link Tabla}, {@link IndiceIds}). Los nombres son {@code String} en el
+ * heap o, si se construye con un {@link AlmacenNombres}, manejadores de nombres sin repetir fuera del heap, que se
+ * decodifican al leerlos.
+ *
+ * <p>Las lecturas no se bloquean nunca: leen la {@link Instantanea} publicada en un campo {@code volatile}, que no
+ * cambia. Cada lote de escrituras prepara una instantánea nueva con copias de los arrays afectados y la publica de
+ * una vez (copia en escritura). Copiar cuesta del orden del tamaño de la tabla, así que las escrituras que llegan
+ * mientras se aplica otra se acumulan y se aplican juntas en la siguiente copia.</p>
+ *
+ * <p>Se alimenta de dos fuentes:</p>
+ * <ul>
+ *   <li>Los eventos {@link EntidadEscrita} de los servicios, cuando su transacción se confirma. Se aplican en el
+ *       hilo que escribe, antes de que responda, así que quien escribe ve su cambio en la siguiente lectura.</li>
+ *   <li>El relevo de cambios, como {@link SumideroCambios}: trae también las escrituras que no pasan por los
+ *       servicios (Spring Data REST, la escritura diferida, SQL a mano).</li>
+ * </ul>
+ * <p>Un cambio puede llegar por las dos fuentes. Aplicarlo dos veces no cambia el resultado, pero el relevo va
+ * hasta un intervalo por detrás: si una entidad se escribe dos veces en ese tiempo, el modelo puede mostrar el
+ * valor anterior hasta que el relevo entrega el segundo cambio.</p>
+ *
+ * <p>Hasta que termina la {@link #cargar carga} inicial el modelo no está {@link #listo()} y los cambios que
+ * llegan se guardan para aplicarlos después. Si al arrancar hay una instantánea guardada en disco
+ * ({@link GuardadoInstantanea}), el modelo {@link #arrancarDesde arranca} con ella y está listo enseguida; la carga
+ * de la base de datos la sustituye después y cuenta en {@code modelo.lectura.reconciliacion.diferencias} las
+ * entidades en las que la instantánea no coincidía.</p>
+ *
+ * <p>Métricas: {@code modelo.lectura.entidades} por entidad, {@code modelo.lectura.aplicacion} (preparar y
+ * publicar una instantánea), {@code modelo.lectura.memoria} (bytes estimados de las estructuras) y, con nombres
+ * fuera del heap, {@code modelo.lectura.memoria.fuera.heap}, {@code modelo.lectura.nombres.distintos} y
+ * {@code modelo.lectura.nombres.renovaciones}.</p>
+ *
+ * <p>El {@link AlmacenNombres} solo crece: los nombres anteriores a un renombrado o de entidades borradas siguen
+ * ocupando memoria. Por eso la carga de la base de datos llena un almacén nuevo, que sustituye al anterior junto con
+ * la instantánea, y cuando el almacén tiene más del doble de nombres distintos que entidades hay en el modelo (y al
+ * menos {@value #NOMBRES_RENOVACION} más) la instantánea se traslada a uno nuevo con solo los nombres que usa. El
+ * almacén anterior se libera cuando ya no lo lee nadie.</p>
+ */
+@Log4j2
+public class ModeloLectura implements SumideroCambios {
+
+    private static final String PADRE = "EntidadPadre";
+    private static final String HIJA = "EntidadHija";
+    /** Nombres distintos de más, sobre el doble de las entidades, a partir de los que se renueva el almacén. */
+    static final int NOMBRES_RENOVACION = 1 << 14;
+
+    private final ConcurrentLinkedQueue<Escritura> cola = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock escritor = new ReentrantLock();
+    /** Cambios que llegan durante la carga inicial. Protegido por {@link #escritor}. */
+    private final List<Escritura> duranteLaCarga = new ArrayList<>();
+    private final Timer aplicacion;
+    private final Counter diferencias;
+    private final Counter renovaciones;
+    /**
+     * Almacén de los nombres fuera del heap de la instantánea actual; {@code null} si están en el heap. Se sustituye
+     * con {@link #escritor}.
+     */
+    private volatile AlmacenNombres almacen;
+    /** Si la carga de la base de datos ha terminado. Protegido por {@link #escritor}. */
+    private boolean cargado;
+    private volatile Instantanea instantanea;
+    private volatile long posicion;
+
+    public ModeloLectura(MeterRegistry meterRegistry) {
+        this(meterRegistry, null);
+    }
+
+    /**
+     * @param almacen nombres fuera del heap; con {@code null} se guardan como {@code String}.
+     */
+    public ModeloLectura(MeterRegistry meterRegistry, AlmacenNombres almacen) {
+        this.almacen = almacen;
+        this.aplicacion = Timer.builder("modelo.lectura.aplicacion")
+                .description("Preparación y publicación de una instantánea del modelo de lectura")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("modelo.lectura.entidades", this, modelo -> modelo.tamano(true))
+                .tag("entidad", PADRE)
+                .register(meterRegistry);
+        Gauge.builder("modelo.lectura.entidades", this, modelo -> modelo.tamano(false))
+                .tag("entidad", HIJA)
+                .register(meterRegistry);
+        Gauge.builder("modelo.lectura.memoria", this, modelo -> modelo.actual().bytesEstructura())
+                .baseUnit("bytes")
+                .description("Bytes estimados de los arrays e índices, sin los nombres")
+                .register(meterRegistry);
+        if (almacen != null) {
+            Gauge.builder("modelo.lectura.memoria.fuera.heap", this, modelo -> modelo.almacen.bytesReservados())
+                    .baseUnit("bytes")
+                    .description("Bytes reservados fuera del heap para los nombres")
+                    .register(meterRegistry);
+            Gauge.builder("modelo.lectura.nombres.distintos", this, modelo -> modelo.almacen.distintos())
+                    .description("Nombres distintos en el almacén fuera del heap, incluidos los que ya no se usan")
+                    .register(meterRegistry);
+        }
+        this.diferencias = Counter.builder("modelo.lectura.reconciliacion.diferencias")
+                .description("Entidades de la instantánea de disco que no coincidían con la base de datos")
+                .register(meterRegistry);
+        this.renovaciones = Counter.builder("modelo.lectura.nombres.renovaciones")
+                .description("Veces que los nombres fuera del heap se han pasado a un almacén nuevo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Si la carga inicial ha terminado o el modelo ha arrancado de una instantánea de disco. Antes de eso los
+     * listados están vacíos.
+     */
+    public boolean listo() {
+        return instantanea != null;
+    }
+
+    /**
+     * Posición del flujo de cambios hasta la que el modelo está al día: la que había al empezar la carga o la del
+     * último cambio recibido del relevo. Una vista que se suscribe desde ella no se pierde nada de lo que el
+     * modelo aún no tenía.
+     */
+    public long posicion() {
+        return posicion;
+    }
+
+    /**
+     * Todos los padres, en orden de alta. La lista no se copia: es una vista de la instantánea actual, que no
+     * cambia aunque el modelo siga recibiendo cambios.
+     */
+    public List<VistaPadre> padres() {
+        Tabla padres = actual().padres();
+        return new Vista<>(padres.tamano(), i -> new VistaPadre(padres.ids[i], padres.nombres.nombre(i)));
+    }
+
+    /**
+     * Todas las hijas, en orden de alta. Como en {@link #padres()}, es una vista de la instantánea actual.
+     */
+    public List<VistaHija> hijas() {
+        Tabla hijas = actual().hijas();
+        return new Vista<>(hijas.tamano(), i -> vistaHija(hijas, i));
+    }
+
+    public Optional<VistaPadre> padre(long id) {
+        Tabla padres = actual().padres();
+        int indice = padres.indice.posicion(id);
+        return indice < 0 ? Optional.empty() : Optional.of(new VistaPadre(id, padres.nombres.nombre(indice)));
+    }
+
+    public Optional<VistaHija> hija(long id) {
+        Tabla hijas = actual().hijas();
+        int indice = hijas.indice.posicion(id);
+        return indice < 0 ? Optional.empty() : Optional.of(vistaHija(hijas, indice));
+    }
+
+    /**
+     * Memoria estimada de la instantánea actual.
+     */
+    public Huella huella() {
+        Instantanea actual = actual();
+        return new Huella(actual.padres().tamano(), actual.hijas().tamano(), actual.bytesEstructura(),
+                actual.bytesNombres(), almacen == null ? 0 : almacen.bytesReservados());
+    }
+
+    /**
+     * Arranca con una instantánea guardada mientras se hace la carga de la base de datos. Los cambios que ya
+     * hubieran llegado se le aplican y, como todos los que lleguen hasta que termine la carga, se guardan también
+     * para aplicarlos encima de lo cargado.
+     *
+     * @return {@code false}, sin hacer nada, si la carga ya había terminado.
+     */
+    boolean arrancarDesde(Instantanea guardada, long posicion) {
+        escritor.lock();
+        try {
+            if (cargado) {
+                return false;
+            }
+            this.posicion = Math.max(this.posicion, posicion);
+            this.instantanea = duranteLaCarga.isEmpty() ? guardada : guardada.aplicar(duranteLaCarga);
+            return true;
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Instantánea actual y su posición, para guardarla en disco; vacío hasta que termina la carga de la base de
+     * datos, para no volver a guardar lo que se leyó de disco sin reconciliar.
+     */
+    Optional<FicheroInstantanea.Leida> guardable() {
+        escritor.lock();
+        try {
+            return cargado ? Optional.of(new FicheroInstantanea.Leida(instantanea, posicion)) : Optional.empty();
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Carga inicial. Los cambios recibidos mientras tanto se aplican después, encima de lo cargado. Con nombres
+     * fuera del heap, lo cargado va a un almacén nuevo que sustituye al anterior.
+     *
+     * @param posicion posición del flujo de cambios leída antes de empezar a leer las entidades.
+     * @param padres   consulta de todos los padres; el flujo se cierra al terminar de leerlo.
+     * @param hijas    consulta de todas las hijas; se abre después de leer los padres.
+     */
+    public void cargar(long posicion, Supplier<Stream<EntidadPadreResumen>> padres,
+                       Supplier<Stream<EntidadHijaResumen>> hijas) {
+        AlmacenNombres cargados = almacen == null ? null : almacen.vacio();
+        var acumuladorPadres = new Acumulador(columnaNombres(cargados, 1024), false);
+        try (var filas = padres.get()) {
+            filas.forEach(padre -> acumuladorPadres.agregar(padre.id(), padre.nombre(), Tabla.SIN_PADRE));
+        }
+        var acumuladorHijas = new Acumulador(columnaNombres(cargados, 1024), true);
+        try (var filas = hijas.get()) {
+            filas.forEach(hija -> acumuladorHijas.agregar(hija.id(), hija.nombre(),
+                    hija.entidadPadreId() == null ? Tabla.SIN_PADRE : hija.entidadPadreId()));
+        }
+        Instantanea cargada = new Instantanea(acumuladorPadres.tabla(), acumuladorHijas.tabla());
+        Instantanea guardada;
+        Instantanea nueva;
+        escritor.lock();
+        try {
+            guardada = this.instantanea;
+            nueva = duranteLaCarga.isEmpty() ? cargada : cargada.aplicar(duranteLaCarga);
+            this.posicion = Math.max(this.posicion, posicion);
+            this.instantanea = nueva;
+            this.almacen = cargados;
+            this.cargado = true;
+            duranteLaCarga.clear();
+        } finally {
+            escritor.unlock();
+        }
+        log.info("Modelo de lectura cargado: {} padres y {} hijas", acumuladorPadres.tamano,
+                acumuladorHijas.tamano);
+        if (guardada != null) {
+            // Las dos llevan aplicados los mismos cambios recibidos durante la carga
+            int distintas = guardada.diferencias(nueva);
+            diferencias.increment(distintas);
+            log.info("Instantánea de disco reconciliada con la base de datos: {} entidades no coincidían",
+                    distintas);
+        }
+    }
+
+    /**
+     * Cambios de un servicio, ya confirmados.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alEscribir(EntidadEscrita escrita) {
+        escritura(escrita.entidad(), escrita.id(), escrita.operacion(), escrita.nombre(), escrita.entidadPadreId())
+                .ifPresent(escritura -> aplicar(List.of(escritura), 0));
+    }
+
+    /**
+     * Cambios del relevo.
+     */
+    @Override
+    public void publicar(List<Cambio> cambios) {
+        List<Escritura> escrituras = new ArrayList<>(cambios.size());
+        for (Cambio cambio : cambios) {
+            escritura(cambio.entidad(), cambio.id(), cambio.operacion(), cambio.nombre(), cambio.entidadPadreId())
+                    .ifPresent(escrituras::add);
+        }
+        aplicar(escrituras, cambios.isEmpty() ? 0 : cambios.getLast().posicion());
+    }
+
+    /**
+     * Encola las escrituras y aplica todas las encoladas. Si otro hilo está aplicando, espera y aplica en una
+     * sola copia las que se hayan acumulado, o ninguna si ese hilo ya se llevó también las suyas.
+     */
+    void aplicar(List<Escritura> escrituras, long posicionRelevo) {
+        cola.addAll(escrituras);
+        escritor.lock();
+        try {
+            List<Escritura> lote = new ArrayList<>();
+            for (Escritura escritura; (escritura = cola.poll()) != null; ) {
+                lote.add(escritura);
+            }
+            if (!cargado) {
+                duranteLaCarga.addAll(lote);
+            }
+            if (instantanea != null && !lote.isEmpty()) {
+                Instantanea anterior = instantanea;
+                instantanea = aplicacion.record(() -> anterior.aplicar(lote));
+                if (cargado) {
+                    renovarAlmacen();
+                }
+            }
+            posicion = Math.max(posicion, posicionRelevo);
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Columna de nombres vacía del tipo que usa el modelo.
+     */
+    ColumnaNombres columnaNombres(int tamano) {
+        return columnaNombres(almacen, tamano);
+    }
+
+    /**
+     * Traslada la instantánea a un almacén nuevo si el actual tiene demasiados nombres que ya no se usan. Se llama
+     * con {@link #escritor}; hasta la carga no hace falta, porque la carga ya sustituye el almacén.
+     */
+    private void renovarAlmacen() {
+        AlmacenNombres actual = almacen;
+        long entidades = (long) instantanea.padres().tamano() + instantanea.hijas().tamano();
+        if (actual == null || actual.distintos() <= 2 * entidades + NOMBRES_RENOVACION) {
+            return;
+        }
+        AlmacenNombres nuevo = actual.vacio();
+        instantanea = instantanea.trasladar(nuevo);
+        almacen = nuevo;
+        renovaciones.increment();
+        log.info("Nombres del modelo de lectura trasladados a un almacén nuevo: {} distintos de {}",
+                nuevo.distintos(), actual.distintos());
+    }
+
+    private static ColumnaNombres columnaNombres(AlmacenNombres almacen, int tamano) {
+        return almacen == null ? ColumnaNombres.enHeap(new String[tamano])
+                : ColumnaNombres.fueraDelHeap(almacen, tamano);
+    }
+
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        return actual == null ? Instantanea.VACIA : actual;
+    }
+
+    private int tamano(boolean padres) {
+        Instantanea actual = actual();
+        return padres ? actual.padres().tamano() : actual.hijas().tamano();
+    }
+
+    private static VistaHija vistaHija(Tabla hijas, int posicion) {
+        long padre = hijas.padres[posicion];
+        return new VistaHija(hijas.ids[posicion], hijas.nombres.nombre(posicion), padre == Tabla.SIN_PADRE ? null : padre);
+    }
+
+    private static Optional<Escritura> escritura(String entidad, long id, Cambio.Operacion operacion, String nombre,
+                                                 Long entidadPadreId) {
+        if (!PADRE.equals(entidad) && !HIJA.equals(entidad)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Escritura(PADRE.equals(entidad), id, operacion == Cambio.Operacion.DELETE, nombre,
+                entidadPadreId == null ? Tabla.SIN_PADRE : entidadPadreId));
+    }
+
+    /**
+     * Memoria estimada del modelo.
+     *
+     * @param padres          padres en el modelo.
+     * @param hijas           hijas en el modelo.
+     * @param bytesEstructura arrays e índices, con referencias comprimidas.
+     * @param bytesNombres    los {@code String} de los nombres; 0 si están fuera del heap.
+     * @param bytesFueraHeap  el almacén de los nombres fuera del heap, incluidos los que ya no se usan.
+     */
+    public record Huella(int padres, int hijas, long bytesEstructura, long bytesNombres, long bytesFueraHeap) {
+    }
+
+    /**
+     * Lista de solo lectura sobre las posiciones de una tabla; crea cada elemento al pedirlo.
+     */
+    private static final class Vista<T> extends AbstractList<T> implements RandomAccess {
+
+        private final int tamano;
+        private final IntFunction<T> elemento;
+
+        private Vista(int tamano, IntFunction<T> elemento) {
+            this.tamano = tamano;
+            this.elemento = elemento;
+        }
+
+        @Override
+        public T get(int indice) {
+            return elemento.apply(Objects.checkIndex(indice, tamano));
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
+    }
+
+    /**
+     * Arrays de la carga inicial, que crecen según llegan las filas.
+     */
+    private static final class Acumulador {
+
+        private long[] ids;
+        private ColumnaNombres nombres;
+        private long[] padres;
+        private int tamano;
+
+        private Acumulador(ColumnaNombres nombres, boolean conPadres) {
+            this.ids = new long[nombres.tamano()];
+            this.nombres = nombres;
+            this.padres = conPadres ? new long[nombres.tamano()] : null;
+        }
+
+        private void agregar(long id, String nombre, long padre) {
+            if (tamano == ids.length) {
+                int capacidad = tamano + (tamano >> 1);
+                ids = Arrays.copyOf(ids, capacidad);
+                nombres = nombres.copia(capacidad);
+                padres = padres == null ? null : Arrays.copyOf(padres, capacidad);
+            }
+            ids[tamano] = id;
+            nombres.poner(tamano, nombre);
+            if (padres != null) {
+                padres[tamano] = padre;
+            }
+            tamano++;
+        }
+
+        private Tabla tabla() {
+            return Tabla.de(Arrays.copyOf(ids, tamano), nombres.copia(tamano),
+                    padres == null ? null : Arrays.copyOf(padres, tamano));
+        }
+    }
+}
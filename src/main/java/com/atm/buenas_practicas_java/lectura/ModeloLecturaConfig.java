@@ -0,0 +1,82 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.RepositorioCambios;
+import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Modelo de lectura en memoria de padres e hijas ({@code app.modelo-lectura.habilitado=true}).
+ *
+ * El {@link ModeloLectura} se carga de los repositorios en un hilo aparte al arrancar el contexto
+ * ({@link CargaModeloLectura}): hasta que termina,
+ * {@code DefaultController} sigue leyendo de los servicios. Como es un {@code SumideroCambios}, el relevo de
+ * cambios lo recibe como un sumidero más.
+ *
+ * Con {@code app.modelo-lectura.persistencia.habilitado=true}, antes de esa carga el modelo arranca de la
+ * instantánea guardada en disco, si la hay, y {@link GuardadoInstantanea} la vuelve a guardar periódicamente. La
+ * carga de la base de datos sigue haciéndose: reconcilia lo leído de disco con lo que haya cambiado desde que se
+ * guardó.
+ */
+@Log4j2
+@Configuration
+@EnableConfigurationProperties(ModeloLecturaProperties.class)
+@ConditionalOnProperty(prefix = "app.modelo-lectura", name = "habilitado", havingValue = "true")
+public class ModeloLecturaConfig {
+
+    /** Bloques de 16 MB: unos 700.000 nombres distintos de 24 bytes cada uno. */
+    private static final long BLOQUE_NOMBRES = 16L << 20;
+
+    @Bean
+    public ModeloLectura modeloLectura(ModeloLecturaProperties properties, MeterRegistry meterRegistry) {
+        var modelo = new ModeloLectura(meterRegistry,
+                properties.nombresFueraDelHeap() ? new AlmacenNombres(BLOQUE_NOMBRES) : null);
+        if (properties.persistencia().habilitado()) {
+            arrancarDeDisco(modelo, properties.persistencia().ruta());
+        }
+        return modelo;
+    }
+
+    @Bean
+    public CargaModeloLectura cargaModeloLectura(ModeloLectura modeloLectura,
+                                                 EntidadPadreRepository entidadPadreRepository,
+                                                 EntidadHijaRepository entidadHijaRepository,
+                                                 RepositorioCambios repositorioCambios,
+                                                 TransactionTemplate transactionTemplate,
+                                                 ModeloLecturaProperties properties) {
+        return new CargaModeloLectura(modeloLectura, entidadPadreRepository, entidadHijaRepository,
+                repositorioCambios, transactionTemplate, properties.esperaCierre());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.modelo-lectura.persistencia", name = "habilitado", havingValue = "true")
+    public GuardadoInstantanea guardadoInstantanea(ModeloLectura modeloLectura, ModeloLecturaProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        var guardado = new GuardadoInstantanea(modeloLectura, properties.persistencia(), meterRegistry);
+        guardado.iniciar();
+        return guardado;
+    }
+
+    private static void arrancarDeDisco(ModeloLectura modelo, Path ruta) {
+        try {
+            long inicio = System.nanoTime();
+            FicheroInstantanea.leer(ruta, modelo::columnaNombres).ifPresentOrElse(leida -> {
+                modelo.arrancarDesde(leida.instantanea(), leida.posicion());
+                log.info("Modelo de lectura arrancado de {} en {} ms: {} padres y {} hijas, posición {}", ruta,
+                        (System.nanoTime() - inicio) / 1_000_000, leida.instantanea().padres().tamano(),
+                        leida.instantanea().hijas().tamano(), leida.posicion());
+            }, () -> log.info("No hay instantánea del modelo de lectura en {}; se espera a la carga", ruta));
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer la instantánea del modelo de lectura de {}; se espera a la carga", ruta, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Modelo de lectura en memoria de padres e hijas ({@code app.modelo-lectura.*}).
+ *
+ * @param habilitado          construye el modelo al arrancar y lo usan los listados de {@code DefaultController}.
+ * @param nombresFueraDelHeap guarda los nombres sin repetir fuera del heap ({@link AlmacenNombres}) en lugar de un
+ *                            {@code String} por entidad.
+ * @param persistencia        instantánea del modelo en disco para arrancar sin esperar a la base de datos.
+ * @param esperaCierre        tiempo máximo que se espera a la carga inicial si la aplicación para antes de que
+ *                            termine.
+ */
+@ConfigurationProperties(prefix = "app.modelo-lectura")
+public record ModeloLecturaProperties(@DefaultValue("false") boolean habilitado,
+                                      @DefaultValue("false") boolean nombresFueraDelHeap,
+                                      @DefaultValue Persistencia persistencia,
+                                      @DefaultValue("30s") Duration esperaCierre) {
+
+    /**
+     * @param habilitado guarda la instantánea cada {@code intervalo} y arranca de ella si existe.
+     * @param ruta       fichero de la instantánea.
+     * @param intervalo  espera entre guardados; lo que cambie en ese tiempo lo trae la reconciliación al
+     *                   arrancar.
+     */
+    public record Persistencia(
+            @DefaultValue("false") boolean habilitado,
+            @DefaultValue("modelo-lectura.bin") Path ruta,
+            @DefaultValue("5m") Duration intervalo) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Entidades de un tipo en arrays paralelos: id, nombre ({@link ColumnaNombres}) y, en las hijas, el id del padre.
+ * La posición de cada id la da un {@link IndiceIds}.
+ *
+ * <p>Es inmutable: {@link #aplicar} devuelve otra tabla con copias de los arrays. Las modificaciones y las altas
+ * copian los arrays y el índice; las bajas además compactan los arrays y rehacen el índice.</p>
+ */
+final class Tabla {
+
+    /** Hija sin padre. */
+    static final long SIN_PADRE = 0;
+
+    final long[] ids;
+    final ColumnaNombres nombres;
+    /** Padre de cada hija; {@code null} en la tabla de padres. */
+    final long[] padres;
+    final IndiceIds indice;
+
+    private Tabla(long[] ids, ColumnaNombres nombres, long[] padres, IndiceIds indice) {
+        this.ids = ids;
+        this.nombres = nombres;
+        this.padres = padres;
+        this.indice = indice;
+    }
+
+    /**
+     * Tabla con los arrays y la columna dados, que pasan a ser suyos.
+     */
+    static Tabla de(long[] ids, ColumnaNombres nombres, long[] padres) {
+        return new Tabla(ids, nombres, padres, IndiceIds.de(ids, ids.length));
+    }
+
+    /**
+     * La misma tabla con los nombres en {@code almacen}. Los ids, los padres y el índice se comparten.
+     */
+    Tabla trasladar(AlmacenNombres almacen) {
+        return new Tabla(ids, nombres.trasladar(almacen), padres, indice);
+    }
+
+    static Tabla vacia(boolean conPadres) {
+        return de(new long[0], ColumnaNombres.enHeap(new String[0]), conPadres ? new long[0] : null);
+    }
+
+    int tamano() {
+        return ids.length;
+    }
+
+    /**
+     * Tabla con los cambios aplicados.
+     *
+     * @param cambios         último cambio de cada id, en el orden en que llegaron.
+     * @param padresBorrados  padres borrados: sus hijas también se quitan. {@code null} si no hay.
+     * @return esta misma tabla si nada cambia.
+     */
+    Tabla aplicar(Collection<Escritura> cambios, IndiceIds padresBorrados) {
+        int bajas = 0;
+        int altas = 0;
+        for (Escritura cambio : cambios) {
+            boolean existe = indice.contiene(cambio.id());
+            if (cambio.borrado() && existe) {
+                bajas++;
+            } else if (!cambio.borrado() && !existe) {
+                altas++;
+            }
+        }
+        if (padresBorrados != null) {
+            bajas++;
+        }
+        if (bajas == 0 && altas == 0 && cambios.isEmpty()) {
+            return this;
+        }
+        return bajas == 0 ? modificar(cambios, altas) : compactar(cambios, padresBorrados, altas);
+    }
+
+    /**
+     * Sin bajas: las posiciones no cambian, así que basta con copiar y añadir las altas al final.
+     */
+    private Tabla modificar(Collection<Escritura> cambios, int altas) {
+        int tamano = ids.length;
+        long[] nuevosIds = Arrays.copyOf(ids, tamano + altas);
+        ColumnaNombres nuevosNombres = nombres.copia(tamano + altas);
+        long[] nuevosPadres = padres == null ? null : Arrays.copyOf(padres, tamano + altas);
+        int siguiente = tamano;
+        for (Escritura cambio : cambios) {
+            if (cambio.borrado()) {
+                // Baja de un id que no está
+                continue;
+            }
+            int posicion = indice.posicion(cambio.id());
+            if (posicion < 0) {
+                posicion = siguiente++;
+                nuevosIds[posicion] = cambio.id();
+            }
+            nuevosNombres.poner(posicion, cambio.nombre());
+            if (nuevosPadres != null) {
+                nuevosPadres[posicion] = cambio.padreId();
+            }
+        }
+        return new Tabla(nuevosIds, nuevosNombres, nuevosPadres, indice.conAltas(nuevosIds, tamano, siguiente));
+    }
+
+    /**
+     * Con bajas: se copian las filas que quedan, con sus cambios, y después las altas.
+     */
+    private Tabla compactar(Collection<Escritura> cambios, IndiceIds padresBorrados, int altas) {
+        IndiceIds cambiados = IndiceIds.de(cambios.stream().mapToLong(Escritura::id).toArray(), cambios.size());
+        Escritura[] porPosicion = cambios.toArray(Escritura[]::new);
+        int capacidad = ids.length + altas;
+        long[] nuevosIds = new long[capacidad];
+        ColumnaNombres nuevosNombres = nombres.nueva(capacidad);
+        long[] nuevosPadres = padres == null ? null : new long[capacidad];
+        int tamano = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int cambio = cambiados.posicion(ids[i]);
+            Escritura escritura = cambio < 0 ? null : porPosicion[cambio];
+            long padre = padres == null ? SIN_PADRE : escritura == null ? padres[i] : escritura.padreId();
+            if ((escritura != null && escritura.borrado())
+                    || (padresBorrados != null && padre != SIN_PADRE && padresBorrados.contiene(padre))) {
+                continue;
+            }
+            nuevosIds[tamano] = ids[i];
+            if (escritura == null) {
+                nombres.copiar(i, nuevosNombres, tamano);
+            } else {
+                nuevosNombres.poner(tamano, escritura.nombre());
+            }
+            if (nuevosPadres != null) {
+                nuevosPadres[tamano] = padre;
+            }
+            tamano++;
+        }
+        for (Escritura escritura : porPosicion) {
+            if (!escritura.borrado() && !indice.contiene(escritura.id())) {
+                nuevosIds[tamano] = escritura.id();
+                nuevosNombres.poner(tamano, escritura.nombre());
+                if (nuevosPadres != null) {
+                    nuevosPadres[tamano] = escritura.padreId();
+                }
+                tamano++;
+            }
+        }
+        return de(Arrays.copyOf(nuevosIds, tamano), nuevosNombres.copia(tamano),
+                nuevosPadres == null ? null : Arrays.copyOf(nuevosPadres, tamano));
+    }
+
+    /**
+     * Entidades que no coinciden con las de {@code otra}: las que solo están en una de las dos y las que tienen
+     * distinto nombre o padre.
+     */
+    int diferencias(Tabla otra) {
+        int diferencias = 0;
+        int comunes = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int posicion = otra.indice.posicion(ids[i]);
+            if (posicion < 0) {
+                diferencias++;
+                continue;
+            }
+            comunes++;
+            if (!nombres.igual(i, otra.nombres, posicion)
+                    || (padres != null && padres[i] != otra.padres[posicion])) {
+                diferencias++;
+            }
+        }
+        return diferencias + otra.tamano() - comunes;
+    }
+
+    /**
+     * Bytes de los arrays y del índice, suponiendo referencias comprimidas (4 bytes, heaps de menos de 32 GB).
+     * No incluye los nombres.
+     */
+    long bytesEstructura() {
+        long bytes = 16 + 8L * ids.length + nombres.bytesArray() + indice.bytes();
+        return padres == null ? bytes : bytes + 16 + 8L * padres.length;
+    }
+
+    /**
+     * Bytes estimados que ocupan en el heap los nombres.
+     */
+    long bytesNombres() {
+        return nombres.bytesNombres();
+    }
+}
@@ -0,0 +1,11 @@
+package com.atm.buenas_practicas_java.lectura;
+
+/**
+ * Hija tal como la sirve el {@link ModeloLectura}.
+ *
+ * @param id             identificador de la hija.
+ * @param nombre         nombre de la hija.
+ * @param entidadPadreId padre de la hija, o {@code null}.
+ */
+public record VistaHija(long id, String nombre, Long entidadPadreId) {
+}
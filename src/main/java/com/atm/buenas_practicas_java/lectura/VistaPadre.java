@@ -0,0 +1,10 @@
+package com.atm.buenas_practicas_java.lectura;
+
+/**
+ * Padre tal como lo sirve el {@link ModeloLectura}.
+ *
+ * @param id     identificador del padre.
+ * @param nombre nombre del padre.
+ */
+public record VistaPadre(long id, String nombre) {
+}
@@ -0,0 +1,151 @@
+package com.atm.buenas_practicas_java.limites;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Un cubo de tokens por cliente (IP o usuario), sin bloqueos y con memoria fija.
+ *
+ * <p>Cada cubo es un solo {@code long}: el instante teórico de llegada (GCRA), es decir, el momento a partir del
+ * cual el cubo vuelve a estar lleno. Consumir un token lo adelanta un intervalo ({@code 1 / porSegundo}); una
+ * petición se admite si, después de consumir, no queda más de {@code capacidad - 1} intervalos por delante del
+ * reloj. Es equivalente a un cubo de {@code capacidad} tokens que se rellena a {@code porSegundo}, pero sin
+ * recargas periódicas ni dos campos que actualizar a la vez: basta un {@code compareAndSet}.</p>
+ *
+ * <p>Los cubos están en un {@link AtomicLongArray} de ranuras, sin mapa ni objetos por cliente, así que ni crece
+ * con los clientes ni necesita limpieza. Cada ranura guarda, junto al instante, 16 bits de la huella del cliente:</p>
+ * <pre>
+ *   bits 63-48  huella del cliente
+ *   bits 47-0   instante teórico de llegada, en microsegundos desde el arranque (casi 9 años)
+ * </pre>
+ * <p>Cada cliente tiene dos ranuras candidatas. Usa la que ya es suya, si alguna lo es; si no, la que esté en
+ * reposo (con el cubo lleno, que es como si no existiera), y si las dos están ocupadas por clientes activos,
+ * comparte la primera con su dueño. Se busca primero por huella para que un cliente que se quedó en la alternativa
+ * no estrene un cubo lleno cuando la primera quede en reposo. Compartir adelanta el rechazo del dueño, y el
+ * consumo del que comparte no queda a su nombre: si después queda libre una candidata, la estrena con el cubo
+ * lleno. Es el único caso en que se admite más de la cuenta, como mucho una ráfaga, y solo con más clientes
+ * activos que ranuras. El hash lleva una semilla aleatoria para que un cliente no pueda elegir claves que caigan
+ * en la ranura de otro.</p>
+ */
+public final class CubosTokens {
+
+    private static final int BITS_INSTANTE = 48;
+    private static final long MASCARA_INSTANTE = (1L << BITS_INSTANTE) - 1;
+
+    private final AtomicLongArray ranuras;
+    private final int mascara;
+    private final long intervalo;
+    private final long tolerancia;
+    private final long semilla = new SecureRandom().nextLong();
+    private final LongSupplier reloj;
+
+    /**
+     * @param capacidad  tokens del cubo: el tamaño de las ráfagas.
+     * @param porSegundo tokens que se recuperan por segundo.
+     * @param ranuras    cubos, potencia de 2.
+     * @param reloj      microsegundos monótonos desde el arranque.
+     */
+    public CubosTokens(int capacidad, double porSegundo, int ranuras, LongSupplier reloj) {
+        if (capacidad < 1 || !(porSegundo > 0) || Integer.bitCount(ranuras) != 1) {
+            throw new IllegalArgumentException("Cubo no válido: capacidad " + capacidad + ", " + porSegundo
+                    + " por segundo, " + ranuras + " ranuras");
+        }
+        this.ranuras = new AtomicLongArray(ranuras);
+        this.mascara = ranuras - 1;
+        this.intervalo = Math.max(1, Math.round(1_000_000 / porSegundo));
+        this.tolerancia = (capacidad - 1) * intervalo;
+        this.reloj = reloj;
+    }
+
+    public CubosTokens(int capacidad, double porSegundo, int ranuras) {
+        this(capacidad, porSegundo, ranuras, relojMicros());
+    }
+
+    /**
+     * Consume un token del cubo del cliente.
+     *
+     * @return 0 si se admite; si no, microsegundos hasta que haya un token. Una petición rechazada no consume.
+     */
+    public long consumir(String cliente) {
+        long hash = hash(cliente);
+        long huella = hash >>> BITS_INSTANTE;
+        long ahora = reloj.getAsLong();
+        int ranura = elegir(principal(hash), alternativa(hash), huella, ahora);
+        while (true) {
+            long actual = ranuras.get(ranura);
+            long llegada = Math.max(actual & MASCARA_INSTANTE, ahora);
+            long espera = llegada - ahora - tolerancia;
+            if (espera > 0) {
+                return espera;
+            }
+            // Si la ranura es de otro cliente activo, sigue siendo suya
+            long dueno = disponible(actual, huella, ahora) ? huella : actual >>> BITS_INSTANTE;
+            if (ranuras.compareAndSet(ranura, actual, (dueno << BITS_INSTANTE) | (llegada + intervalo))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * La candidata que ya es del cliente; si no, la que está en reposo; si no, la principal.
+     */
+    private int elegir(int principal, int alternativa, long huella, long ahora) {
+        long valorPrincipal = ranuras.get(principal);
+        if (valorPrincipal >>> BITS_INSTANTE == huella) {
+            return principal;
+        }
+        long valorAlternativa = ranuras.get(alternativa);
+        if (valorAlternativa >>> BITS_INSTANTE == huella) {
+            return alternativa;
+        }
+        if (!disponible(valorPrincipal, huella, ahora) && disponible(valorAlternativa, huella, ahora)) {
+            return alternativa;
+        }
+        return principal;
+    }
+
+    /**
+     * Las dos ranuras candidatas del cliente, para los tests.
+     */
+    int[] candidatas(String cliente) {
+        long hash = hash(cliente);
+        return new int[]{principal(hash), alternativa(hash)};
+    }
+
+    private int principal(long hash) {
+        return (int) hash & mascara;
+    }
+
+    private int alternativa(long hash) {
+        return (int) (hash >>> 24) & mascara;
+    }
+
+    /**
+     * Si la ranura es del cliente o su cubo está lleno.
+     */
+    private static boolean disponible(long ranura, long huella, long ahora) {
+        return ranura >>> BITS_INSTANTE == huella || (ranura & MASCARA_INSTANTE) <= ahora;
+    }
+
+    /**
+     * FNV-1a de 64 bits con semilla y la mezcla final de MurmurHash3, para repartir bien los bits altos y bajos.
+     */
+    private long hash(String cliente) {
+        long hash = 0xcbf29ce484222325L ^ semilla;
+        for (int i = 0; i < cliente.length(); i++) {
+            hash = (hash ^ cliente.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static LongSupplier relojMicros() {
+        long origen = System.nanoTime();
+        // Nunca 0: una ranura vacía vale 0 y debe estar siempre en reposo
+        return () -> (System.nanoTime() - origen) / 1000 + 1;
+    }
+}
@@ -0,0 +1,169 @@
+package com.atm.buenas_practicas_java.limites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Límites de peticiones de las rutas configuradas en {@link LimitesProperties} que no dependen del usuario, en este
+ * orden:
+ *
+ * <ul>
+ *   <li>Cubo de tokens por IP ({@link CubosTokens}): si se agota, 429 con {@code Retry-After}.</li>
+ *   <li>Límite de concurrencia adaptativo ({@link LimiteConcurrencia}): si la ruta ya tiene todas las peticiones
+ *       simultáneas que admite, 503 con {@code Retry-After: 1}.</li>
+ * </ul>
+ *
+ * <p>Va antes de Spring Session y de Spring Security: una petición rechazada no cuesta una lectura de la sesión ni
+ * una autenticación, y los intentos de inicio de sesión (formulario o HTTP Basic) también se limitan. El cubo por
+ * usuario necesita al usuario autenticado y lo aplica después {@link FiltroLimitesUsuario}.</p>
+ *
+ * <p>Una petición asíncrona ocupa su sitio en la concurrencia hasta que termina de verdad, no al volver del
+ * controlador.</p>
+ *
+ * <p>Cuenta cada petición en {@code limites.peticiones}, con la ruta (el patrón configurado) y el resultado:
+ * {@code admitida}, {@code tasa_ip}, {@code tasa_usuario} o {@code concurrencia}. La IP es la de la conexión: detrás de un proxy hay que
+ * configurar {@code server.forward-headers-strategy} para que sea la del cliente.</p>
+ */
+public class FiltroLimites extends OncePerRequestFilter {
+
+    private final LimitesPorRuta limites;
+    private final MeterRegistry meterRegistry;
+
+    public FiltroLimites(LimitesPorRuta limites, MeterRegistry meterRegistry) {
+        this.limites = limites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<LimitesPorRuta.Limites> encontrados =
+                limites.buscar(request.getRequestURI().substring(request.getContextPath().length()));
+        if (encontrados.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        LimitesPorRuta.Limites ruta = encontrados.get();
+        if (ruta.ip() != null
+                && rechazarPorTasa(meterRegistry, ruta, ruta.ip(), request.getRemoteAddr(), "tasa_ip", response)) {
+            return;
+        }
+        if (ruta.concurrencia() == null) {
+            admitida(ruta);
+            chain.doFilter(request, response);
+            return;
+        }
+        LimiteConcurrencia.Permiso permiso = ruta.concurrencia().adquirir();
+        if (permiso == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            rechazar(meterRegistry, response, ruta, HttpStatus.SERVICE_UNAVAILABLE, "concurrencia",
+                    "Demasiadas peticiones simultáneas; reintente en unos segundos");
+            return;
+        }
+        admitida(ruta);
+        boolean completada = false;
+        try {
+            chain.doFilter(request, response);
+            completada = true;
+        } finally {
+            if (completada && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinAsincrono(permiso, response));
+            } else {
+                permiso.terminar(completada);
+            }
+        }
+    }
+
+    /**
+     * Con cubo por usuario, la cuenta {@link FiltroLimitesUsuario}, que aún puede rechazarla.
+     */
+    private void admitida(LimitesPorRuta.Limites ruta) {
+        if (ruta.usuario() == null) {
+            contar(meterRegistry, ruta, "admitida");
+        }
+    }
+
+    /**
+     * Consume un token del cliente y, si no quedan, responde 429.
+     *
+     * @return si se ha rechazado la petición.
+     */
+    static boolean rechazarPorTasa(MeterRegistry meterRegistry, LimitesPorRuta.Limites ruta, CubosTokens cubos,
+                                   String cliente, String resultado, HttpServletResponse response)
+            throws IOException {
+        long espera = cubos.consumir(cliente);
+        if (espera == 0) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.ceilDiv(espera, 1_000_000)));
+        rechazar(meterRegistry, response, ruta, HttpStatus.TOO_MANY_REQUESTS, resultado, "Demasiadas peticiones");
+        return true;
+    }
+
+    private static void rechazar(MeterRegistry meterRegistry, HttpServletResponse response,
+                                 LimitesPorRuta.Limites ruta, HttpStatus estado, String resultado, String mensaje)
+            throws IOException {
+        contar(meterRegistry, ruta, resultado);
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensaje);
+    }
+
+    static void contar(MeterRegistry meterRegistry, LimitesPorRuta.Limites ruta, String resultado) {
+        meterRegistry.counter("limites.peticiones", "ruta", ruta.patron(), "resultado", resultado).increment();
+    }
+
+    /**
+     * Termina el permiso de una petición asíncrona (un {@code DeferredResult}, un flujo de eventos) cuando acaba
+     * de verdad y no al volver del controlador, para que cuente en la concurrencia mientras sigue abierta. Las que
+     * terminan con error o por tiempo no son una muestra válida, y tampoco los flujos de eventos, que duran lo
+     * que el cliente quiera y hundirían el límite.
+     */
+    private static final class FinAsincrono implements AsyncListener {
+
+        private final LimiteConcurrencia.Permiso permiso;
+        private final HttpServletResponse response;
+        private volatile boolean medir = true;
+
+        private FinAsincrono(LimiteConcurrencia.Permiso permiso, HttpServletResponse response) {
+            this.permiso = permiso;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            String tipo = response.getContentType();
+            permiso.terminar(medir && (tipo == null || !tipo.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+            medir = false;
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+            medir = false;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+            // Si se vuelve a iniciar, el contenedor quita el oyente: se añade otra vez para no perder el permiso
+            evento.getAsyncContext().addListener(this);
+        }
+    }
+}
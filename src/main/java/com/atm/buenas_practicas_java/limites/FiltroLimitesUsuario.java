@@ -0,0 +1,51 @@
+package com.atm.buenas_practicas_java.limites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Cubo de tokens por usuario de las rutas configuradas en {@link LimitesProperties}: si se agota, 429 con
+ * {@code Retry-After}. Solo se aplica a las peticiones autenticadas; las anónimas tienen el límite por IP de
+ * {@link FiltroLimites}.
+ *
+ * <p>Va después de Spring Security, que ya ha identificado al usuario, y de {@code FiltroIdempotencia}, que no
+ * guarda las respuestas 429. Cuenta en {@code limites.peticiones} las peticiones de las rutas con cubo por usuario,
+ * como {@code admitida} o {@code tasa_usuario}.</p>
+ */
+public class FiltroLimitesUsuario extends OncePerRequestFilter {
+
+    private final LimitesPorRuta limites;
+    private final MeterRegistry meterRegistry;
+
+    public FiltroLimitesUsuario(LimitesPorRuta limites, MeterRegistry meterRegistry) {
+        this.limites = limites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<LimitesPorRuta.Limites> encontrados =
+                limites.buscar(request.getRequestURI().substring(request.getContextPath().length()));
+        if (encontrados.isEmpty() || encontrados.get().usuario() == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        LimitesPorRuta.Limites ruta = encontrados.get();
+        Principal usuario = request.getUserPrincipal();
+        if (usuario != null && FiltroLimites.rechazarPorTasa(meterRegistry, ruta, ruta.usuario(), usuario.getName(),
+                "tasa_usuario", response)) {
+            return;
+        }
+        FiltroLimites.contar(meterRegistry, ruta, "admitida");
+        chain.doFilter(request, response);
+    }
+}
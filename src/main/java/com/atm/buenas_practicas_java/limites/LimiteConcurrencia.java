@@ -0,0 +1,133 @@
+package com.atm.buenas_practicas_java.limites;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de peticiones simultáneas que se ajusta con la latencia, al estilo del algoritmo Gradient2 de
+ * concurrency-limits (Netflix).
+ *
+ * <p>Se compara cada latencia con la media de las anteriores en una ventana larga, la habitual. Mientras no
+ * crece más de la {@code tolerancia}, el límite sube poco a poco (la raíz cuadrada del límite por muestra, lo que
+ * se deja de margen para que se forme algo de cola). Cuando la latencia crece es que las peticiones ya esperan
+ * por algo (conexiones, CPU, la base de datos): el límite baja en proporción, hasta la mitad por muestra. Lo que
+ * pase del límite se rechaza en el acto, en lugar de hacer cola y alargar la latencia de todas.</p>
+ *
+ * <p>Si se está usando menos de la mitad del límite, las muestras no lo cambian: con poca carga la latencia no
+ * dice cuánta se podría admitir. Cuando la latencia habitual queda muy por encima de la actual (tras un pico que
+ * ya pasó) se reduce, para no seguir tomando por normal la del pico.</p>
+ *
+ * <p>Admitir y terminar no se bloquean. Las muestras se aplican con un {@link ReentrantLock#tryLock()}: si otro
+ * hilo está aplicando la suya, la muestra se descarta.</p>
+ */
+public final class LimiteConcurrencia {
+
+    /** Muestras de la ventana larga, la que da la latencia habitual. */
+    private static final int VENTANA = 600;
+    /** Peso de cada nuevo cálculo en el límite. */
+    private static final double SUAVIZADO = 0.2;
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final LongSupplier reloj;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final ReentrantLock ajuste = new ReentrantLock();
+    private volatile int limite;
+    private double estimado;
+    private double latenciaHabitual;
+
+    /**
+     * @param reloj nanosegundos monótonos.
+     */
+    public LimiteConcurrencia(int inicial, int minimo, int maximo, double tolerancia, LongSupplier reloj) {
+        if (minimo < 1 || maximo < minimo || inicial < minimo || inicial > maximo || tolerancia < 1) {
+            throw new IllegalArgumentException("Límite de concurrencia no válido: inicial " + inicial + ", mínimo "
+                    + minimo + ", máximo " + maximo + ", tolerancia " + tolerancia);
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.reloj = reloj;
+        this.limite = inicial;
+        this.estimado = inicial;
+    }
+
+    public LimiteConcurrencia(LimitesProperties.Concurrencia concurrencia) {
+        this(concurrencia.inicial(), concurrencia.minimo(), concurrencia.maximo(), concurrencia.tolerancia(),
+                System::nanoTime);
+    }
+
+    /**
+     * Una petición admitida. Hay que terminarla siempre con {@link #terminar(boolean)}.
+     */
+    public final class Permiso {
+
+        private final long inicio = reloj.getAsLong();
+        private final int simultaneas;
+
+        private Permiso(int simultaneas) {
+            this.simultaneas = simultaneas;
+        }
+
+        /**
+         * @param medir si su latencia es una muestra válida. Las peticiones que fallan de inmediato no dicen
+         *              nada de la carga.
+         */
+        public void terminar(boolean medir) {
+            enCurso.decrementAndGet();
+            if (medir) {
+                muestra(reloj.getAsLong() - inicio, simultaneas);
+            }
+        }
+    }
+
+    /**
+     * @return el permiso, o {@code null} si ya hay {@link #limite()} peticiones en curso.
+     */
+    public Permiso adquirir() {
+        while (true) {
+            int actuales = enCurso.get();
+            if (actuales >= limite) {
+                return null;
+            }
+            if (enCurso.compareAndSet(actuales, actuales + 1)) {
+                return new Permiso(actuales + 1);
+            }
+        }
+    }
+
+    public int limite() {
+        return limite;
+    }
+
+    public int enCurso() {
+        return enCurso.get();
+    }
+
+    private void muestra(long latencia, int simultaneas) {
+        if (latencia <= 0 || !ajuste.tryLock()) {
+            return;
+        }
+        try {
+            if (latenciaHabitual == 0) {
+                latenciaHabitual = latencia;
+            } else {
+                latenciaHabitual += (latencia - latenciaHabitual) / VENTANA;
+            }
+            if (latenciaHabitual / latencia > 2) {
+                latenciaHabitual *= 0.95;
+            }
+            if (simultaneas < estimado / 2) {
+                return;
+            }
+            double gradiente = Math.clamp(tolerancia * latenciaHabitual / latencia, 0.5, 1.0);
+            double nuevo = estimado * gradiente + Math.sqrt(estimado);
+            estimado = Math.clamp(estimado * (1 - SUAVIZADO) + nuevo * SUAVIZADO, minimo, maximo);
+            limite = (int) estimado;
+        } finally {
+            ajuste.unlock();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.atm.buenas_practicas_java.limites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Límites de peticiones por ruta ({@link FiltroLimites} y {@link FiltroLimitesUsuario}) y su endpoint {@code /actuator/limites}. Se desactiva con
+ * {@code app.limites.habilitado=false}.
+ */
+@Configuration
+@EnableConfigurationProperties(LimitesProperties.class)
+@ConditionalOnProperty(prefix = "app.limites", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class LimitesConfig {
+
+    @Bean
+    public LimitesPorRuta limitesPorRuta(LimitesProperties properties, MeterRegistry meterRegistry) {
+        return new LimitesPorRuta(properties, meterRegistry);
+    }
+
+    /**
+     * Registra los límites por IP y de concurrencia antes de Spring Session ({@code SessionRepositoryFilter}, en
+     * {@code HIGHEST_PRECEDENCE + 50}) y de Spring Security, pero después de la observación de peticiones HTTP, que
+     * así también mide las rechazadas.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroLimites> filtroLimites(LimitesPorRuta limites, MeterRegistry meterRegistry) {
+        var registro = new FilterRegistrationBean<>(new FiltroLimites(limites, meterRegistry));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registro;
+    }
+
+    /**
+     * Registra el límite por usuario después de Spring Security, que ya ha identificado al usuario, y de la
+     * idempotencia.
+     */
+    @Bean
+    public FilterRegistrationBean<FiltroLimitesUsuario> filtroLimitesUsuario(LimitesPorRuta limites,
+                                                                             MeterRegistry meterRegistry) {
+        var registro = new FilterRegistrationBean<>(new FiltroLimitesUsuario(limites, meterRegistry));
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registro;
+    }
+
+    @Bean
+    public LimitesEndpoint limitesEndpoint(LimitesPorRuta limites) {
+        return new LimitesEndpoint(limites);
+    }
+}
@@ -0,0 +1,52 @@
+package com.atm.buenas_practicas_java.limites;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de actuator {@code /actuator/limites}: los límites de cada ruta y el estado actual de su límite de
+ * concurrencia. Los contadores de peticiones admitidas y rechazadas están en las métricas {@code limites.*}.
+ *
+ * <p>Protegido, como {@code /actuator/prometheus}, por la cadena de seguridad de actuator de
+ * {@link com.atm.buenas_practicas_java.config.SecurityConfig}.</p>
+ */
+@Endpoint(id = "limites")
+public class LimitesEndpoint {
+
+    private final LimitesPorRuta limites;
+
+    public LimitesEndpoint(LimitesPorRuta limites) {
+        this.limites = limites;
+    }
+
+    /**
+     * Límites de una ruta tal y como se devuelven.
+     *
+     * @param concurrencia estado del límite de concurrencia, o {@code null} si la ruta no lo tiene.
+     */
+    public record EstadoRuta(LimitesProperties.Cubo ip, LimitesProperties.Cubo usuario,
+                             EstadoConcurrencia concurrencia) {
+    }
+
+    public record EstadoConcurrencia(int limite, int enCurso, int minimo, int maximo, double tolerancia) {
+    }
+
+    @ReadOperation
+    public Map<String, EstadoRuta> rutas() {
+        Map<String, EstadoRuta> rutas = new LinkedHashMap<>();
+        for (LimitesPorRuta.Limites ruta : limites.todos()) {
+            LimitesProperties.Ruta configuracion = ruta.configuracion();
+            LimiteConcurrencia concurrencia = ruta.concurrencia();
+            rutas.put(ruta.patron(), new EstadoRuta(
+                    ruta.ip() != null ? configuracion.ip() : null,
+                    ruta.usuario() != null ? configuracion.usuario() : null,
+                    concurrencia == null ? null : new EstadoConcurrencia(concurrencia.limite(),
+                            concurrencia.enCurso(), configuracion.concurrencia().minimo(),
+                            configuracion.concurrencia().maximo(), configuracion.concurrencia().tolerancia())));
+        }
+        return rutas;
+    }
+}
@@ -0,0 +1,79 @@
+package com.atm.buenas_practicas_java.limites;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Los límites de cada ruta configurada en {@link LimitesProperties}, con su estado: los cubos de tokens y el límite
+ * de concurrencia. Publica {@code limites.concurrencia.limite} y {@code limites.concurrencia.en.curso} por ruta.
+ */
+public class LimitesPorRuta {
+
+    /**
+     * Límites de una ruta.
+     *
+     * @param patron       el patrón tal y como se configuró; es la etiqueta {@code ruta} de las métricas.
+     * @param configuracion lo configurado para la ruta.
+     * @param ip           cubos por IP, o {@code null} si no se limita.
+     * @param usuario      cubos por usuario, o {@code null}.
+     * @param concurrencia límite de concurrencia, o {@code null}.
+     */
+    public record Limites(String patron, LimitesProperties.Ruta configuracion, CubosTokens ip, CubosTokens usuario,
+                          LimiteConcurrencia concurrencia) {
+    }
+
+    private final List<Entrada> rutas;
+
+    public LimitesPorRuta(LimitesProperties properties, MeterRegistry meterRegistry) {
+        this.rutas = properties.rutas().entrySet().stream()
+                .map(ruta -> new Entrada(PathPatternParser.defaultInstance.parse(ruta.getKey()),
+                        limites(ruta.getKey(), ruta.getValue(), properties.ranuras(), meterRegistry)))
+                .toList();
+    }
+
+    /**
+     * Los límites del primer patrón que coincide con la ruta, sin el contexto de la aplicación.
+     */
+    public Optional<Limites> buscar(String ruta) {
+        PathContainer camino = PathContainer.parsePath(ruta);
+        for (Entrada entrada : rutas) {
+            if (entrada.patron().matches(camino)) {
+                return Optional.of(entrada.limites());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Limites> todos() {
+        return rutas.stream().map(Entrada::limites).toList();
+    }
+
+    private static Limites limites(String patron, LimitesProperties.Ruta ruta, int ranuras,
+                                   MeterRegistry meterRegistry) {
+        LimiteConcurrencia concurrencia = null;
+        if (ruta.concurrencia().habilitado()) {
+            concurrencia = new LimiteConcurrencia(ruta.concurrencia());
+            Gauge.builder("limites.concurrencia.limite", concurrencia, LimiteConcurrencia::limite)
+                    .tag("ruta", patron)
+                    .description("Peticiones simultáneas admitidas en la ruta")
+                    .register(meterRegistry);
+            Gauge.builder("limites.concurrencia.en.curso", concurrencia, LimiteConcurrencia::enCurso)
+                    .tag("ruta", patron)
+                    .register(meterRegistry);
+        }
+        return new Limites(patron, ruta, cubos(ruta.ip(), ranuras), cubos(ruta.usuario(), ranuras), concurrencia);
+    }
+
+    private static CubosTokens cubos(LimitesProperties.Cubo cubo, int ranuras) {
+        return cubo.habilitado() ? new CubosTokens(cubo.capacidad(), cubo.porSegundo(), ranuras) : null;
+    }
+
+    private record Entrada(PathPattern patron, Limites limites) {
+    }
+}
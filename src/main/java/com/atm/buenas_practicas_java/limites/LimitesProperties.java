@@ -0,0 +1,82 @@
+package com.atm.buenas_practicas_java.limites;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de los límites de peticiones por ruta ({@code app.limites.*}).
+ *
+ * <pre>
+ * app.limites.rutas[/entities].ip.capacidad=20
+ * app.limites.rutas[/entities].ip.por-segundo=10
+ * app.limites.rutas[/protected].usuario.capacidad=10
+ * app.limites.rutas[/protected].usuario.por-segundo=5
+ * app.limites.rutas[/protected].concurrencia.habilitado=true
+ * </pre>
+ *
+ * @param habilitado activa {@link FiltroLimites} y {@link FiltroLimitesUsuario}.
+ * @param ranuras    contadores de cada cubo de tokens, potencia de 2. Los clientes que caen en la misma ranura
+ *                   mientras los dos están activos comparten el límite.
+ * @param rutas      límites por patrón de ruta ({@code /entities}, {@code /api/entidades/**}...), en el orden en que
+ *                   se declaran: se aplica el primero que coincide.
+ */
+@ConfigurationProperties(prefix = "app.limites")
+public record LimitesProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("65536") int ranuras,
+        Map<String, Ruta> rutas) {
+
+    public LimitesProperties {
+        // Se conserva el orden de declaración, que decide qué patrón se aplica
+        rutas = rutas == null ? Map.of() : new LinkedHashMap<>(rutas);
+    }
+
+    /**
+     * Límites de una ruta. Los que no se configuran no se aplican.
+     *
+     * @param ip          cubo de tokens por dirección IP del cliente.
+     * @param usuario     cubo de tokens por usuario autenticado; las peticiones anónimas solo tienen el de IP.
+     * @param concurrencia límite adaptativo de peticiones simultáneas de la ruta, de todos los clientes.
+     */
+    public record Ruta(
+            @DefaultValue Cubo ip,
+            @DefaultValue Cubo usuario,
+            @DefaultValue Concurrencia concurrencia) {
+    }
+
+    /**
+     * Cubo de tokens: admite ráfagas de hasta {@code capacidad} peticiones y, sostenidas, {@code porSegundo}.
+     *
+     * @param capacidad  tamaño de la ráfaga; 0 desactiva el cubo.
+     * @param porSegundo tokens que se recuperan por segundo.
+     */
+    public record Cubo(
+            @DefaultValue("0") int capacidad,
+            @DefaultValue("1") double porSegundo) {
+
+        public boolean habilitado() {
+            return capacidad > 0;
+        }
+    }
+
+    /**
+     * Límite de concurrencia adaptativo ({@link LimiteConcurrencia}).
+     *
+     * @param habilitado activa el límite en la ruta.
+     * @param inicial    peticiones simultáneas admitidas al arrancar, antes de tener medidas.
+     * @param minimo     el límite nunca baja de aquí.
+     * @param maximo     ni sube de aquí.
+     * @param tolerancia cuánto puede crecer la latencia respecto a la habitual (1.5 = un 50 %) antes de bajar el
+     *                   límite.
+     */
+    public record Concurrencia(
+            @DefaultValue("false") boolean habilitado,
+            @DefaultValue("20") int inicial,
+            @DefaultValue("4") int minimo,
+            @DefaultValue("200") int maximo,
+            @DefaultValue("1.5") double tolerancia) {
+    }
+}
@@ -7,6 +7,7 @@ import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 
 import java.util.Arrays;
@@ -26,6 +27,7 @@ import java.util.Arrays;
 @Configuration
 @Log4j2
 @Profile("desarrollo")
+@Lazy(false)
 public class DesarrolloDataLoader {
 
 private final EntidadPadreRepository repository;
@@ -7,6 +7,7 @@ import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 
 import java.util.Arrays;
@@ -30,6 +31,7 @@ import java.util.Arrays;
 @Configuration
 @Log4j2
 @Profile("local")
+@Lazy(false)
 public class LocalDataLoader {
 
     private final EntidadPadreRepository repository;
@@ -2,8 +2,10 @@ package com.atm.buenas_practicas_java.loaders;
 
 import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
 import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 
     /**
@@ -22,6 +24,7 @@ import org.springframework.context.annotation.Profile;
 @Configuration
 @Log4j2
 @Profile("produccionRESETDATA")
+@Lazy(false)
 public class ProductionlDataLoader {
 
     private final EntidadPadreRepository repository;
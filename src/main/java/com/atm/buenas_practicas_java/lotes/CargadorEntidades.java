@@ -0,0 +1,28 @@
+package com.atm.buenas_practicas_java.lotes;
+
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+
+/**
+ * Cargadores por lotes de padres e hijas de la petición en curso. Es un bean de ámbito de petición (ver
+ * {@link LotesConfig}): los controladores lo reciben como un proxy y las plantillas pueden usarlo con
+ * {@code ${@cargadorEntidades.padres().obtener(id)}}.
+ */
+public class CargadorEntidades {
+
+    private final CargadorPorLotes<EntidadPadre> padres;
+    private final CargadorPorLotes<EntidadHija> hijas;
+
+    public CargadorEntidades(CargadorPorLotes<EntidadPadre> padres, CargadorPorLotes<EntidadHija> hijas) {
+        this.padres = padres;
+        this.hijas = hijas;
+    }
+
+    public CargadorPorLotes<EntidadPadre> padres() {
+        return padres;
+    }
+
+    public CargadorPorLotes<EntidadHija> hijas() {
+        return hijas;
+    }
+}
@@ -0,0 +1,117 @@
+package com.atm.buenas_practicas_java.lotes;
+
+import io.micrometer.core.instrument.DistributionSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Junta las búsquedas por id de una petición y las resuelve con una consulta {@code IN} por lote, al estilo de
+ * DataLoader.
+ *
+ * <p>Quien va a necesitar varias entidades las {@link #encolar encola}; la primera vez que se pide una que aún no
+ * está cargada ({@link #obtener}, {@link #obtenerTodas}) se leen todas las pendientes, en lotes de como mucho
+ * {@code tamanoLote} ids. Lo leído se recuerda hasta el final de la petición, así que pedir otra vez un id, o un
+ * id que no existe, no vuelve a consultar.</p>
+ *
+ * <p>No es seguro entre hilos: hay uno por petición (ver {@link CargadorEntidades}).</p>
+ *
+ * @param <E> tipo de la entidad.
+ */
+public class CargadorPorLotes<E> {
+
+    private final Function<Collection<Long>, List<E>> lectura;
+    private final ToLongFunction<E> id;
+    private final int tamanoLote;
+    private final DistributionSummary idsPorLote;
+    private final Set<Long> pendientes = new LinkedHashSet<>();
+    private final Map<Long, Optional<E>> cargadas = new HashMap<>();
+
+    /**
+     * @param lectura    consulta de las entidades de un lote de ids; omite las que no existen.
+     * @param id         id de una entidad leída.
+     * @param tamanoLote ids como máximo por consulta.
+     * @param idsPorLote métrica con los ids de cada lote consultado.
+     */
+    public CargadorPorLotes(Function<Collection<Long>, List<E>> lectura, ToLongFunction<E> id, int tamanoLote,
+                            DistributionSummary idsPorLote) {
+        this.lectura = lectura;
+        this.id = id;
+        this.tamanoLote = tamanoLote;
+        this.idsPorLote = idsPorLote;
+    }
+
+    /**
+     * Apunta un id para el próximo lote, si no está ya cargado.
+     */
+    public void encolar(Long id) {
+        Objects.requireNonNull(id, "id");
+        if (!cargadas.containsKey(id)) {
+            pendientes.add(id);
+        }
+    }
+
+    /**
+     * Apunta varios ids para el próximo lote.
+     */
+    public void encolar(Collection<Long> ids) {
+        ids.forEach(this::encolar);
+    }
+
+    /**
+     * La entidad con ese id. Si no está cargada, se lee junto con todas las pendientes.
+     */
+    public Optional<E> obtener(Long id) {
+        encolar(id);
+        if (!cargadas.containsKey(id)) {
+            despachar();
+        }
+        return cargadas.get(id);
+    }
+
+    /**
+     * Las entidades con esos ids, en el orden pedido y sin repetir; las que no existen se omiten.
+     */
+    public List<E> obtenerTodas(Collection<Long> ids) {
+        encolar(ids);
+        despachar();
+        List<E> entidades = new ArrayList<>(ids.size());
+        new LinkedHashSet<>(ids).forEach(clave -> cargadas.get(clave).ifPresent(entidades::add));
+        return entidades;
+    }
+
+    /**
+     * Lee las entidades pendientes, con una consulta por cada {@code tamanoLote} ids.
+     */
+    public void despachar() {
+        List<Long> lote = new ArrayList<>(Math.min(pendientes.size(), tamanoLote));
+        for (Long pendiente : pendientes) {
+            lote.add(pendiente);
+            if (lote.size() == tamanoLote) {
+                leer(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            leer(lote);
+        }
+        pendientes.clear();
+    }
+
+    private void leer(List<Long> lote) {
+        idsPorLote.record(lote.size());
+        for (E entidad : lectura.apply(List.copyOf(lote))) {
+            cargadas.put(id.applyAsLong(entidad), Optional.of(entidad));
+        }
+        lote.forEach(clave -> cargadas.putIfAbsent(clave, Optional.empty()));
+    }
+}
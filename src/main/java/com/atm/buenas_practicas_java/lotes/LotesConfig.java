@@ -0,0 +1,43 @@
+package com.atm.buenas_practicas_java.lotes;
+
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.services.EntidadHijaService;
+import com.atm.buenas_practicas_java.services.EntidadPadreService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Carga por lotes de entidades por id. Cada petición tiene su {@link CargadorEntidades}, que junta las búsquedas
+ * por id y las resuelve con {@code findAllByIds} de los servicios.
+ *
+ * Métrica: {@code lotes.ids}, con los ids de cada consulta, etiquetada por entidad.
+ */
+@Configuration
+@EnableConfigurationProperties(LotesProperties.class)
+public class LotesConfig {
+
+    @Bean
+    @RequestScope
+    public CargadorEntidades cargadorEntidades(EntidadPadreService entidadPadreService,
+                                               EntidadHijaService entidadHijaService, LotesProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new CargadorEntidades(
+                new CargadorPorLotes<>(entidadPadreService::findAllByIds, EntidadPadre::getId, properties.tamano(),
+                        idsPorLote(meterRegistry, "EntidadPadre")),
+                new CargadorPorLotes<>(entidadHijaService::findAllByIds, EntidadHija::getId, properties.tamano(),
+                        idsPorLote(meterRegistry, "EntidadHija")));
+    }
+
+    private static DistributionSummary idsPorLote(MeterRegistry meterRegistry, String entidad) {
+        return DistributionSummary.builder("lotes.ids")
+                .description("Ids leídos en cada consulta por lotes")
+                .baseUnit("ids")
+                .tag("entidad", entidad)
+                .register(meterRegistry);
+    }
+}
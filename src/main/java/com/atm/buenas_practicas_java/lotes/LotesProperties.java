@@ -0,0 +1,19 @@
+package com.atm.buenas_practicas_java.lotes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Carga por lotes de entidades por id ({@code app.lotes.*}).
+ *
+ * @param tamano ids como máximo en cada consulta {@code IN} de {@link CargadorPorLotes}.
+ */
+@ConfigurationProperties(prefix = "app.lotes")
+public record LotesProperties(@DefaultValue("100") int tamano) {
+
+    public LotesProperties {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("app.lotes.tamano debe ser mayor que 0");
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.atm.buenas_practicas_java.mensajes;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link org.springframework.context.MessageSource} que lee cada fichero de mensajes una sola vez y resuelve cada
+ * locale a un único mapa inmutable con sus mensajes ya compilados.
+ *
+ * <ul>
+ *   <li>La cadena de locales ({@code es_ES} → {@code es} → fichero base) se resuelve la primera vez que se pide un
+ *       locale: los ficheros de la cadena se mezclan en un mapa, con los más específicos por encima, y se guarda.
+ *       Después, cada mensaje es una sola búsqueda en ese mapa, sin volver a recorrer la cadena.
+ *       Los locales que comparten ficheros comparten los textos mezclados, pero no los patrones compilados.</li>
+ *   <li>Los patrones con argumentos se compilan a {@link MessageFormat} con el locale del mapa, porque los números
+ *       y las fechas se formatean según el locale: {@code de} y {@code en} pueden leer el mismo fichero base y
+ *       aun así escribir {@code 1.234,5} y {@code 1,234.5}. Como
+ *       {@link MessageFormat} no es seguro entre hilos, cada uso recibe una copia de la compilada, en lugar de
+ *       compartir una sincronizada como {@code ResourceBundleMessageSource}.</li>
+ *   <li>Con {@code recarga}, un hilo comprueba cada cierto tiempo si los ficheros leídos han cambiado. Si es así,
+ *       prepara un catálogo nuevo con los mismos locales y lo publica de una vez: las lecturas nunca esperan a la
+ *       recarga y ven el catálogo anterior o el nuevo, nunca uno a medias.</li>
+ * </ul>
+ *
+ * Igual que {@code ResourceBundleMessageSource}, con varios nombres base gana el primero que tenga el código, y un
+ * mensaje sin argumentos se devuelve tal cual, salvo con {@code alwaysUseMessageFormat}.
+ */
+@Log4j2
+public class FuenteMensajesPrecompilada extends AbstractMessageSource implements DisposableBean {
+
+    /**
+     * Locales distintos que se recuerdan. Vienen de {@code Accept-Language}, así que no se guardan sin límite;
+     * a partir de aquí un locale nuevo usa los textos ya mezclados y compila cada mensaje al pedirlo.
+     */
+    static final int LOCALES_MAXIMOS = 256;
+
+    private final List<String> basenames;
+    private final Charset codificacion;
+    private final boolean usarLocaleDelSistema;
+    private final ResourceLoader resourceLoader;
+    private final Thread recarga;
+
+    private volatile Catalogo catalogo = new Catalogo();
+
+    /**
+     * @param basenames            nombres base, como en {@code spring.messages.basename}
+     *                             ({@code i18n.messages} o {@code classpath:i18n/messages}).
+     * @param codificacion         codificación de los ficheros.
+     * @param usarLocaleDelSistema si no hay ficheros para el locale pedido, usa los del locale del sistema antes
+     *                             que el fichero base.
+     * @param recarga              cada cuánto se comprueba si los ficheros han cambiado; cero para no comprobarlo.
+     */
+    public FuenteMensajesPrecompilada(List<String> basenames, Charset codificacion, boolean usarLocaleDelSistema,
+                                      Duration recarga, ResourceLoader resourceLoader) {
+        this.basenames = basenames.stream().map(FuenteMensajesPrecompilada::ubicacion).toList();
+        this.codificacion = codificacion;
+        this.usarLocaleDelSistema = usarLocaleDelSistema;
+        this.resourceLoader = resourceLoader;
+        this.recarga = recarga.isZero() ? null
+                : Thread.ofPlatform().daemon().name("recarga-mensajes").start(() -> vigilar(recarga));
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        Catalogo actual = catalogo;
+        Map<String, Mensaje> mensajes = actual.mensajes(locale);
+        if (mensajes == null) {
+            return actual.textos(locale).get(code);
+        }
+        Mensaje mensaje = mensajes.get(code);
+        return mensaje != null ? mensaje.texto() : null;
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        Catalogo actual = catalogo;
+        Map<String, Mensaje> mensajes = actual.mensajes(locale);
+        if (mensajes == null) {
+            String texto = actual.textos(locale).get(code);
+            return texto != null ? actual.formato(code, texto, locale) : null;
+        }
+        Mensaje mensaje = mensajes.get(code);
+        return mensaje != null && mensaje.formato() != null ? (MessageFormat) mensaje.formato().clone() : null;
+    }
+
+    @Override
+    public void destroy() {
+        if (recarga != null) {
+            recarga.interrupt();
+        }
+    }
+
+    /**
+     * {@code i18n.messages} es el nombre de un {@code ResourceBundle}: se convierte en la ruta
+     * {@code classpath:i18n/messages}. Las ubicaciones con prefijo o con barras se dejan como están.
+     */
+    private static String ubicacion(String basename) {
+        String base = basename.trim();
+        if (base.contains(":")) {
+            return base;
+        }
+        return "classpath:" + (base.contains("/") ? base : base.replace('.', '/'));
+    }
+
+    /**
+     * Sufijos de los ficheros de un locale, del más específico al fichero base: {@code _es_ES}, {@code _es} y
+     * {@code ""}.
+     */
+    private static List<String> sufijos(Locale locale) {
+        List<String> sufijos = new ArrayList<>(4);
+        String idioma = locale.getLanguage();
+        String pais = locale.getCountry();
+        String variante = locale.getVariant();
+        if (!variante.isEmpty()) {
+            sufijos.add("_" + idioma + "_" + pais + "_" + variante);
+        }
+        if (!pais.isEmpty()) {
+            sufijos.add("_" + idioma + "_" + pais);
+        }
+        if (!idioma.isEmpty()) {
+            sufijos.add("_" + idioma);
+        }
+        return sufijos;
+    }
+
+    private void vigilar(Duration intervalo) {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(intervalo.toNanos());
+            try {
+                Catalogo actual = catalogo;
+                if (actual.modificado()) {
+                    Catalogo nuevo = new Catalogo();
+                    actual.porLocale.keySet().forEach(nuevo::mensajes);
+                    catalogo = nuevo;
+                    log.info("Mensajes recargados para {} locales", actual.porLocale.size());
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron recargar los mensajes; se mantienen los anteriores", e);
+            }
+        }
+    }
+
+    /**
+     * Ficheros leídos y mapas resueltos. Se sustituye entero al recargar.
+     */
+    private final class Catalogo {
+
+        private final Map<String, Fichero> ficheros = new ConcurrentHashMap<>();
+        /** Textos mezclados por cadena de ficheros; solo hay tantas cadenas como combinaciones de ficheros. */
+        private final Map<List<String>, Map<String, String>> porCadena = new ConcurrentHashMap<>();
+        private final Map<Locale, Map<String, Mensaje>> porLocale = new ConcurrentHashMap<>();
+
+        /**
+         * Mensajes compilados con el locale, o {@code null} si ya se recuerdan {@link #LOCALES_MAXIMOS} y este no
+         * es uno de ellos.
+         */
+        Map<String, Mensaje> mensajes(Locale locale) {
+            Map<String, Mensaje> mensajes = porLocale.get(locale);
+            if (mensajes != null || porLocale.size() >= LOCALES_MAXIMOS) {
+                return mensajes;
+            }
+            mensajes = compilar(textos(locale), locale);
+            Map<String, Mensaje> anterior = porLocale.putIfAbsent(locale, mensajes);
+            return anterior != null ? anterior : mensajes;
+        }
+
+        Map<String, String> textos(Locale locale) {
+            List<String> sufijos = sufijos(locale);
+            List<String> cadena = existentes(sufijos);
+            if (cadena.isEmpty() && usarLocaleDelSistema && !Locale.getDefault().equals(locale)) {
+                cadena = existentes(sufijos(Locale.getDefault()));
+            }
+            List<String> conBase = new ArrayList<>(cadena);
+            conBase.add("");
+            return porCadena.computeIfAbsent(List.copyOf(conBase), this::mezclar);
+        }
+
+        /**
+         * Sufijos con fichero en algún nombre base.
+         */
+        private List<String> existentes(List<String> sufijos) {
+            List<String> existentes = new ArrayList<>(sufijos.size());
+            for (String sufijo : sufijos) {
+                if (basenames.stream().anyMatch(base -> fichero(base + sufijo).propiedades() != null)) {
+                    existentes.add(sufijo);
+                }
+            }
+            return existentes;
+        }
+
+        /**
+         * Mezcla los ficheros de la cadena: primero los nombres base menos prioritarios y, en cada uno, del
+         * fichero base al más específico, de forma que cada uno sobrescribe a los anteriores.
+         */
+        private Map<String, String> mezclar(List<String> cadena) {
+            Map<String, String> textos = new HashMap<>();
+            for (String base : basenames.reversed()) {
+                for (String sufijo : cadena.reversed()) {
+                    Map<String, String> propiedades = fichero(base + sufijo).propiedades();
+                    if (propiedades != null) {
+                        textos.putAll(propiedades);
+                    }
+                }
+            }
+            return Map.copyOf(textos);
+        }
+
+        private Map<String, Mensaje> compilar(Map<String, String> textos, Locale locale) {
+            Map<String, Mensaje> mensajes = HashMap.newHashMap(textos.size());
+            textos.forEach((codigo, texto) -> mensajes.put(codigo, new Mensaje(texto, formato(codigo, texto, locale))));
+            return Map.copyOf(mensajes);
+        }
+
+        MessageFormat formato(String codigo, String texto, Locale locale) {
+            try {
+                return createMessageFormat(texto, locale);
+            } catch (IllegalArgumentException e) {
+                log.warn("El mensaje {} no es un patrón de MessageFormat válido: {}", codigo, e.getMessage());
+                return null;
+            }
+        }
+
+        private Fichero fichero(String nombre) {
+            Fichero fichero = ficheros.get(nombre);
+            if (fichero != null) {
+                return fichero;
+            }
+            fichero = leer(nombre);
+            // Con tantos locales distintos, los ficheros (casi siempre inexistentes) de los nuevos no se recuerdan
+            if (ficheros.size() < LOCALES_MAXIMOS * 4) {
+                Fichero anterior = ficheros.putIfAbsent(nombre, fichero);
+                return anterior != null ? anterior : fichero;
+            }
+            return fichero;
+        }
+
+        private Fichero leer(String nombre) {
+            Resource recurso = resourceLoader.getResource(nombre + ".properties");
+            if (!recurso.exists()) {
+                return new Fichero(recurso, null, -1);
+            }
+            Properties propiedades = new Properties();
+            try (Reader lector = new InputStreamReader(recurso.getInputStream(), codificacion)) {
+                propiedades.load(lector);
+                Map<String, String> textos = new HashMap<>();
+                propiedades.stringPropertyNames().forEach(clave -> textos.put(clave, propiedades.getProperty(clave)));
+                return new Fichero(recurso, Map.copyOf(textos), ultimaModificacion(recurso));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer " + recurso, e);
+            }
+        }
+
+        boolean modificado() {
+            return ficheros.values().stream().anyMatch(fichero -> fichero.propiedades() == null
+                    ? fichero.recurso().exists()
+                    : fichero.recurso().isFile() && ultimaModificacion(fichero.recurso()) != fichero.modificado());
+        }
+
+        private static long ultimaModificacion(Resource recurso) {
+            try {
+                return recurso.isFile() ? recurso.lastModified() : 0;
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Un fichero de mensajes tal como se leyó; {@code propiedades} es {@code null} si no existía.
+     */
+    private record Fichero(Resource recurso, Map<String, String> propiedades, long modificado) {
+    }
+
+    /**
+     * Un mensaje: el texto, para usarlo sin argumentos, y su patrón compilado, o {@code null} si no es válido.
+     */
+    private record Mensaje(String texto, MessageFormat formato) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.atm.buenas_practicas_java.mensajes;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.context.MessageSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Sustituye el {@code ResourceBundleMessageSource} de Spring Boot por {@link FuenteMensajesPrecompilada}
+ * ({@code app.mensajes.habilitado}, activo por defecto). Al haber un bean {@code messageSource}, la
+ * autoconfiguración de Spring Boot no crea el suyo ni enlaza {@code spring.messages.*}, así que se enlaza aquí.
+ */
+@Configuration
+@EnableConfigurationProperties(MensajesProperties.class)
+@ConditionalOnProperty(prefix = "app.mensajes", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class MensajesConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.messages")
+    public MessageSourceProperties messageSourceProperties() {
+        return new MessageSourceProperties();
+    }
+
+    @Bean(name = AbstractApplicationContext.MESSAGE_SOURCE_BEAN_NAME)
+    public FuenteMensajesPrecompilada messageSource(MessageSourceProperties messageSourceProperties,
+                                                    MensajesProperties properties, ResourceLoader resourceLoader)
+            throws IOException {
+        var fuente = new FuenteMensajesPrecompilada(messageSourceProperties.getBasename(),
+                messageSourceProperties.getEncoding(), messageSourceProperties.isFallbackToSystemLocale(),
+                properties.recarga(), resourceLoader);
+        fuente.setUseCodeAsDefaultMessage(messageSourceProperties.isUseCodeAsDefaultMessage());
+        fuente.setAlwaysUseMessageFormat(messageSourceProperties.isAlwaysUseMessageFormat());
+        if (messageSourceProperties.getCommonMessages() != null) {
+            Properties comunes = new Properties();
+            for (Resource recurso : messageSourceProperties.getCommonMessages()) {
+                PropertiesLoaderUtils.fillProperties(comunes, recurso);
+            }
+            fuente.setCommonMessages(comunes);
+        }
+        return fuente;
+    }
+}
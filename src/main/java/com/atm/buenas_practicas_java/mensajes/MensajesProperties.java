@@ -0,0 +1,22 @@
+package com.atm.buenas_practicas_java.mensajes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Fuente de mensajes de la aplicación ({@code app.mensajes.*}). Los ficheros, su codificación y
+ * {@code use-code-as-default-message} siguen en {@code spring.messages.*}.
+ *
+ * @param habilitado usa {@link FuenteMensajesPrecompilada} en lugar del {@code ResourceBundleMessageSource} de
+ *                   Spring Boot.
+ * @param recarga    cada cuánto se comprueba si los ficheros de mensajes han cambiado; {@code 0} no los vuelve a
+ *                   leer. Solo se detectan cambios en ficheros del sistema de ficheros (p. ej.
+ *                   {@code target/classes}), no dentro de un jar.
+ */
+@ConfigurationProperties(prefix = "app.mensajes")
+public record MensajesProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("0s") Duration recarga) {
+}
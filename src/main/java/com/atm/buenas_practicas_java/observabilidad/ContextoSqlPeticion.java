@@ -0,0 +1,69 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acumula las sentencias SQL ejecutadas durante una petición HTTP.
+ *
+ * El contexto vive en un {@link ThreadLocal} que abre y cierra {@link InspectorSqlFilter}; las
+ * sentencias que se ejecutan fuera de una petición (tareas programadas, loaders) no se acumulan.
+ */
+public final class ContextoSqlPeticion {
+
+    private static final ThreadLocal<ContextoSqlPeticion> ACTUAL = new ThreadLocal<>();
+
+    private final Map<String, Integer> repeticiones = new HashMap<>();
+    private int sentencias;
+    private long milisegundos;
+
+    private ContextoSqlPeticion() {
+    }
+
+    static ContextoSqlPeticion iniciar() {
+        ContextoSqlPeticion contexto = new ContextoSqlPeticion();
+        ACTUAL.set(contexto);
+        return contexto;
+    }
+
+    static void finalizar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * @return el contexto de la petición en curso, o {@code null} si el hilo no atiende una petición.
+     */
+    public static ContextoSqlPeticion actual() {
+        return ACTUAL.get();
+    }
+
+    void registrar(String sql, long milisegundos) {
+        this.sentencias++;
+        this.milisegundos += milisegundos;
+        repeticiones.merge(sql, 1, Integer::sum);
+    }
+
+    public int sentencias() {
+        return sentencias;
+    }
+
+    public long milisegundos() {
+        return milisegundos;
+    }
+
+    /**
+     * Sentencias idénticas que se han ejecutado al menos {@code umbral} veces, el patrón típico de un N+1.
+     *
+     * @param umbral número mínimo de repeticiones.
+     * @return mapa sentencia → repeticiones, ordenado de más a menos repetida.
+     */
+    public Map<String, Integer> repetidas(int umbral) {
+        Map<String, Integer> repetidas = new LinkedHashMap<>();
+        repeticiones.entrySet().stream()
+                .filter(e -> e.getValue() >= umbral)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> repetidas.put(e.getKey(), e.getValue()));
+        return repetidas;
+    }
+}
@@ -0,0 +1,78 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos JFR propios de la aplicación.
+ *
+ * Cubren las fases de una petición: manejo en el controlador, llamadas a servicios, sentencias SQL y
+ * renderizado de la plantilla. Todos desactivan la captura de pila para que su coste sea mínimo en
+ * la grabación continua; las pilas de asignación y bloqueo las aportan los eventos del JDK.
+ *
+ * Cuando no hay ninguna grabación activa, {@code begin()} y {@code commit()} son prácticamente gratuitos.
+ */
+public final class EventosJfr {
+
+    private static final String CATEGORIA = "Buenas Prácticas";
+
+    private EventosJfr() {
+    }
+
+    @Name("buenaspracticas.Peticion")
+    @Label("Petición HTTP (controlador)")
+    @Description("Tiempo que el controlador dedica a una petición, sin incluir el renderizado de la vista")
+    @Category({CATEGORIA, "Web"})
+    @StackTrace(false)
+    public static class Peticion extends Event {
+        @Label("Método")
+        public String metodo;
+        @Label("Endpoint")
+        public String endpoint;
+        @Label("Manejador")
+        public String manejador;
+        @Label("Estado HTTP")
+        public int estado;
+    }
+
+    @Name("buenaspracticas.Renderizado")
+    @Label("Renderizado de vista")
+    @Category({CATEGORIA, "Web"})
+    @StackTrace(false)
+    public static class Renderizado extends Event {
+        @Label("Vista")
+        public String vista;
+        @Label("Endpoint")
+        public String endpoint;
+    }
+
+    @Name("buenaspracticas.Servicio")
+    @Label("Llamada a servicio")
+    @Category({CATEGORIA, "Servicios"})
+    @StackTrace(false)
+    public static class Servicio extends Event {
+        @Label("Clase")
+        public String clase;
+        @Label("Método")
+        public String metodo;
+        @Label("Error")
+        public String error;
+    }
+
+    @Name("buenaspracticas.ConsultaSql")
+    @Label("Sentencia SQL")
+    @Category({CATEGORIA, "Base de datos"})
+    @StackTrace(false)
+    public static class ConsultaSql extends Event {
+        @Label("SQL")
+        public String sql;
+        @Label("Batch")
+        public boolean batch;
+        @Label("Correcta")
+        public boolean correcta;
+    }
+}
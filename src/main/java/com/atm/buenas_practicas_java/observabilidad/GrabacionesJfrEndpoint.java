@@ -0,0 +1,216 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Endpoint de actuator {@code /actuator/jfr} para gestionar grabaciones de Java Flight Recorder.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/jfr}: lista las grabaciones.</li>
+ *   <li>{@code POST /actuator/jfr} (opcional {@code nombre}, {@code duracion}, {@code configuracion}):
+ *       inicia una grabación acotada por {@link JfrProperties#duracionMaxima()} y
+ *       {@link JfrProperties#tamanoMaximo()}. El nombre forma parte del fichero del volcado, así que solo admite
+ *       letras ASCII, dígitos, {@code _} y {@code -}.</li>
+ *   <li>{@code DELETE /actuator/jfr/{id}}: detiene una grabación; el fichero sigue disponible.</li>
+ *   <li>{@code GET /actuator/jfr/{id}}: descarga la grabación. Si sigue activa (por ejemplo, la continua)
+ *       se descarga una copia de lo grabado hasta ese momento.</li>
+ * </ul>
+ *
+ * Las grabaciones contienen pilas de llamadas y nombres de clases, así que el endpoint está protegido
+ * por la cadena de seguridad de actuator de {@link com.atm.buenas_practicas_java.config.SecurityConfig}.
+ */
+@Log4j2
+@Endpoint(id = "jfr")
+public class GrabacionesJfrEndpoint implements AutoCloseable {
+
+    static final String CONTINUA = "continua";
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final JfrProperties properties;
+    private final Map<Long, Recording> grabaciones = new ConcurrentHashMap<>();
+
+    public GrabacionesJfrEndpoint(JfrProperties properties) {
+        this.properties = properties;
+        if (properties.continuo().habilitado()) {
+            iniciarContinua();
+        }
+    }
+
+    /**
+     * Estado de una grabación tal y como se devuelve en el listado.
+     */
+    public record DescripcionGrabacion(long id, String nombre, RecordingState estado, Instant inicio,
+                                       Duration duracion, long bytes) {
+
+        static DescripcionGrabacion de(Recording grabacion) {
+            return new DescripcionGrabacion(grabacion.getId(), grabacion.getName(), grabacion.getState(),
+                    grabacion.getStartTime(), grabacion.getDuration(), grabacion.getSize());
+        }
+    }
+
+    @ReadOperation
+    public List<DescripcionGrabacion> listar() {
+        return grabaciones.values().stream().map(DescripcionGrabacion::de).toList();
+    }
+
+    @WriteOperation
+    public synchronized DescripcionGrabacion iniciar(@Nullable String nombre, @Nullable Duration duracion,
+                                                     @Nullable String configuracion) {
+        long activas = grabaciones.values().stream()
+                .filter(g -> g.getState() == RecordingState.RUNNING && !CONTINUA.equals(g.getName()))
+                .count();
+        if (nombre != null && !NOMBRE_VALIDO.matcher(nombre).matches()) {
+            throw new InvalidEndpointRequestException("Nombre de grabación no válido: " + nombre,
+                    "El nombre solo admite letras, dígitos, '_' y '-'");
+        }
+        if (activas >= properties.grabacionesSimultaneas()) {
+            throw new InvalidEndpointRequestException(
+                    "Ya hay " + activas + " grabaciones activas", "Límite de grabaciones simultáneas alcanzado");
+        }
+        Duration limite = properties.duracionMaxima();
+        Duration efectiva = duracion == null || duracion.compareTo(limite) > 0 ? limite : duracion;
+
+        descartarDetenidas();
+        Recording grabacion = crear(nombre == null ? "bajo-demanda" : nombre,
+                configuracion == null ? properties.configuracion() : configuracion);
+        grabacion.setDuration(efectiva);
+        grabacion.setMaxSize(properties.tamanoMaximo().toBytes());
+        grabacion.start();
+        log.info("Grabación JFR {} iniciada durante {}", grabacion.getId(), efectiva);
+        return DescripcionGrabacion.de(grabacion);
+    }
+
+    @DeleteOperation
+    public DescripcionGrabacion detener(@Selector long id) {
+        Recording grabacion = buscar(id);
+        if (grabacion.getState() == RecordingState.RUNNING) {
+            grabacion.stop();
+            log.info("Grabación JFR {} detenida", id);
+        }
+        return DescripcionGrabacion.de(grabacion);
+    }
+
+    @ReadOperation
+    public Resource descargar(@Selector long id) {
+        Recording grabacion = buscar(id);
+        Path fichero = fichero(grabacion);
+        try {
+            grabacion.dump(fichero);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo volcar la grabación " + id, e);
+        }
+        return new FileSystemResource(fichero);
+    }
+
+    /**
+     * Cierra todas las grabaciones al parar el contexto y libera sus ficheros temporales.
+     */
+    @Override
+    public void close() {
+        grabaciones.values().forEach(Recording::close);
+        grabaciones.clear();
+    }
+
+    private void iniciarContinua() {
+        JfrProperties.Continuo continuo = properties.continuo();
+        Recording grabacion = crear(CONTINUA, continuo.configuracion());
+        grabacion.setMaxAge(continuo.antiguedadMaxima());
+        grabacion.setMaxSize(continuo.tamanoMaximo().toBytes());
+        grabacion.setDumpOnExit(true);
+        try {
+            grabacion.setDestination(properties.directorio().resolve(CONTINUA + ".jfr"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el destino de la grabación continua", e);
+        }
+        grabacion.start();
+        log.info("Grabación JFR continua iniciada (configuración {}, últimas {} o {})",
+                continuo.configuracion(), continuo.antiguedadMaxima(), continuo.tamanoMaximo());
+    }
+
+    /**
+     * Conserva como mucho el doble de {@link JfrProperties#grabacionesSimultaneas()} grabaciones detenidas
+     * para que el listado y los ficheros volcados no crezcan sin límite.
+     */
+    private void descartarDetenidas() {
+        List<Recording> detenidas = grabaciones.values().stream()
+                .filter(g -> g.getState() == RecordingState.STOPPED)
+                .sorted(Comparator.comparing(Recording::getStopTime))
+                .toList();
+        int sobrantes = detenidas.size() - 2 * properties.grabacionesSimultaneas();
+        for (int i = 0; i < sobrantes; i++) {
+            Recording grabacion = detenidas.get(i);
+            grabaciones.remove(grabacion.getId());
+            grabacion.close();
+            try {
+                Files.deleteIfExists(fichero(grabacion));
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el volcado de la grabación JFR {}", grabacion.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Fichero del volcado, siempre dentro de {@link JfrProperties#directorio()}.
+     */
+    private Path fichero(Recording grabacion) {
+        Path directorio = properties.directorio().toAbsolutePath().normalize();
+        Path fichero = directorio.resolve(grabacion.getName() + "-" + grabacion.getId() + ".jfr").normalize();
+        if (!fichero.getParent().equals(directorio)) {
+            throw new IllegalStateException("El volcado de la grabación " + grabacion.getId()
+                    + " quedaría fuera de " + directorio);
+        }
+        return fichero;
+    }
+
+    private Recording crear(String nombre, String configuracion) {
+        Configuration ajustes;
+        try {
+            ajustes = Configuration.getConfiguration(configuracion);
+        } catch (ParseException | IOException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Configuración JFR no válida: " + configuracion);
+        }
+        try {
+            Files.createDirectories(properties.directorio());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de grabaciones JFR", e);
+        }
+        Recording grabacion = new Recording(ajustes);
+        grabacion.setName(nombre);
+        grabacion.setToDisk(true);
+        grabaciones.put(grabacion.getId(), grabacion);
+        return grabacion;
+    }
+
+    private Recording buscar(long id) {
+        Recording grabacion = grabaciones.get(id);
+        if (grabacion == null) {
+            throw new InvalidEndpointRequestException("No existe la grabación " + id, "Grabación desconocida");
+        }
+        return grabacion;
+    }
+}
@@ -0,0 +1,43 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Huella de una ejecución SQL para los logs de consultas lentas.
+ *
+ * Identifica la sentencia y sus parámetros sin escribir los valores en el log: incluye un hash del
+ * texto SQL, los tipos de los parámetros enlazados y un hash de sus valores. Dos ejecuciones con la
+ * misma huella son la misma consulta con los mismos argumentos.
+ */
+final class HuellaSql {
+
+    private HuellaSql() {
+    }
+
+    static String de(List<QueryInfo> consultas) {
+        List<Object> valores = new ArrayList<>();
+        List<String> tipos = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        for (QueryInfo consulta : consultas) {
+            sql.append(consulta.getQuery());
+            for (List<ParameterSetOperation> parametros : consulta.getParametersList()) {
+                for (ParameterSetOperation parametro : parametros) {
+                    Object[] argumentos = parametro.getArgs();
+                    Object valor = argumentos.length > 1 ? argumentos[1] : null;
+                    valores.add(valor);
+                    tipos.add(valor == null ? "null" : valor.getClass().getSimpleName());
+                }
+            }
+        }
+        return String.format("sql=%08x tipos=%s valores=%08x",
+                sql.toString().hashCode(),
+                tipos.stream().collect(Collectors.joining(",", "[", "]")),
+                Objects.hash(valores.toArray()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuración del inspector de sentencias SQL basado en datasource-proxy.
+ *
+ * Detecta consultas lentas, N+1 y peticiones que superan su presupuesto de sentencias. Se desactiva
+ * con {@code app.sql.habilitado=false}. Las propiedades se describen en {@link InspectorSqlProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties(InspectorSqlProperties.class)
+@ConditionalOnProperty(prefix = "app.sql", name = "habilitado", havingValue = "true", matchIfMissing = true)
+public class InspectorSqlConfig {
+
+    /**
+     * Post-procesador que envuelve los {@code DataSource}. Es estático para registrarse antes que el
+     * resto de beans de esta configuración.
+     */
+    @Bean
+    public static InspectorSqlDataSourcePostProcessor inspectorSqlDataSourcePostProcessor(
+            ObjectProvider<QueryExecutionListener> listeners) {
+        return new InspectorSqlDataSourcePostProcessor(listeners);
+    }
+
+    @Bean
+    public InspectorSqlListener inspectorSqlListener(InspectorSqlProperties properties,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new InspectorSqlListener(properties, meterRegistry);
+    }
+
+    /**
+     * Registra el filtro por petición al principio de la cadena, antes que Spring Security, para
+     * contar también las sentencias de autenticación.
+     */
+    @Bean
+    public FilterRegistrationBean<InspectorSqlFilter> inspectorSqlFilter(InspectorSqlProperties properties,
+                                                                         MeterRegistry meterRegistry) {
+        var registro = new FilterRegistrationBean<>(new InspectorSqlFilter(properties, meterRegistry));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+}
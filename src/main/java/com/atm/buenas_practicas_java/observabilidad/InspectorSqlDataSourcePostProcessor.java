@@ -0,0 +1,35 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve cada {@link DataSource} del contexto en un proxy de datasource-proxy que notifica a los
+ * {@link QueryExecutionListener} del contexto ({@link InspectorSqlListener}, {@link JfrSqlListener}).
+ *
+ * El proxy delega {@code unwrap}/{@code isWrapperFor} en el pool original, por lo que las métricas y
+ * el health check de Hikari siguen funcionando.
+ */
+public class InspectorSqlDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryExecutionListener> listeners;
+
+    public InspectorSqlDataSourcePostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+            listeners.orderedStream().forEach(builder::listener);
+            return builder.build();
+        }
+        return bean;
+    }
+}
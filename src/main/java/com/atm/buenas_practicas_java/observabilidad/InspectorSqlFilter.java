@@ -0,0 +1,110 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Filtro que cuenta las sentencias SQL de cada petición HTTP y aplica los presupuestos por endpoint.
+ *
+ * Al terminar la petición:
+ * <ul>
+ *   <li>publica {@code sql.peticion.sentencias} (distribución por {@code endpoint});</li>
+ *   <li>avisa de un posible N+1 si la misma sentencia se repite {@code app.sql.umbral-repeticiones} veces;</li>
+ *   <li>si se supera el presupuesto del endpoint incrementa {@code sql.peticion.presupuesto.excedido} y,
+ *       según {@code app.sql.modo}, registra un aviso o lanza {@link PresupuestoSqlExcedidoException}.</li>
+ * </ul>
+ *
+ * En modo {@code FALLAR} la respuesta se retiene en memoria ({@link RespuestaRetenida}) hasta comprobar el
+ * presupuesto: si se supera, se descarta y el cliente recibe un 500 en lugar de la página. En las peticiones
+ * asíncronas solo se cuenta la parte síncrona y lo que ya se haya escrito se envía igualmente.
+ */
+@Log4j2
+public class InspectorSqlFilter extends OncePerRequestFilter {
+
+    private static final String SIN_PATRON = "SIN_PATRON";
+
+    private final InspectorSqlProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public InspectorSqlFilter(InspectorSqlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RespuestaRetenida retenida = properties.modo() == InspectorSqlProperties.ModoPresupuesto.FALLAR
+                ? new RespuestaRetenida(response) : null;
+        ContextoSqlPeticion contexto = ContextoSqlPeticion.iniciar();
+        try {
+            filterChain.doFilter(request, retenida != null ? retenida : response);
+        } finally {
+            ContextoSqlPeticion.finalizar();
+        }
+        if (retenida == null) {
+            evaluar(request, contexto);
+        } else if (request.isAsyncStarted()) {
+            retenida.liberar(false);
+            evaluar(request, contexto);
+        } else {
+            try {
+                evaluar(request, contexto);
+            } catch (PresupuestoSqlExcedidoException e) {
+                // Salvo un sendError del controlador, nada se ha enviado: se descarta la página y el error llega
+                // al cliente
+                if (!retenida.isCommitted()) {
+                    retenida.reset();
+                }
+                throw e;
+            }
+            retenida.liberar(true);
+        }
+    }
+
+    private void evaluar(HttpServletRequest request, ContextoSqlPeticion contexto) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = patron == null ? SIN_PATRON : patron.toString();
+        int sentencias = contexto.sentencias();
+
+        DistributionSummary.builder("sql.peticion.sentencias")
+                .description("Sentencias SQL ejecutadas por petición HTTP")
+                .baseUnit("sentencias")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(sentencias);
+
+        Map<String, Integer> repetidas = contexto.repetidas(properties.umbralRepeticiones());
+        if (!repetidas.isEmpty()) {
+            log.warn("Posible N+1 en {} {}: {}", request.getMethod(), endpoint, repetidas);
+        }
+
+        OptionalInt presupuesto = properties.presupuestoPara(endpoint);
+        if (presupuesto.isPresent() && sentencias > presupuesto.getAsInt()) {
+            Counter.builder("sql.peticion.presupuesto.excedido")
+                    .description("Peticiones que superan su presupuesto de sentencias SQL")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            String mensaje = String.format("%s %s ejecutó %d sentencias SQL (%d ms); presupuesto: %d",
+                    request.getMethod(), endpoint, sentencias, contexto.milisegundos(), presupuesto.getAsInt());
+            if (properties.modo() == InspectorSqlProperties.ModoPresupuesto.FALLAR) {
+                throw new PresupuestoSqlExcedidoException(mensaje);
+            }
+            log.warn(mensaje);
+        }
+    }
+}
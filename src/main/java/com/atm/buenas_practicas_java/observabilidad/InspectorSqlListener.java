@@ -0,0 +1,80 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listener de datasource-proxy que mide cada ejecución SQL.
+ *
+ * Por cada ejecución (una ida y vuelta a la base de datos; un batch cuenta como una):
+ * <ul>
+ *   <li>la acumula en el {@link ContextoSqlPeticion} de la petición en curso, si lo hay;</li>
+ *   <li>la registra en el temporizador {@code sql.sentencias};</li>
+ *   <li>si supera {@code app.sql.umbral-lento}, la escribe en el log con su {@link HuellaSql}.</li>
+ * </ul>
+ *
+ * El {@link MeterRegistry} se resuelve en la primera sentencia: el listener se crea junto al
+ * {@code DataSource} y el registro de métricas depende a su vez del {@code DataSource}.
+ */
+@Log4j2
+public class InspectorSqlListener implements QueryExecutionListener {
+
+    private final InspectorSqlProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Timer temporizador;
+
+    public InspectorSqlListener(InspectorSqlProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Solo interesa el resultado de la ejecución
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long milisegundos = execInfo.getElapsedTime();
+        String sql = queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+
+        ContextoSqlPeticion contexto = ContextoSqlPeticion.actual();
+        if (contexto != null) {
+            contexto.registrar(sql, milisegundos);
+        }
+
+        Timer timer = temporizador();
+        if (timer != null) {
+            timer.record(milisegundos, TimeUnit.MILLISECONDS);
+        }
+
+        if (milisegundos >= properties.umbralLento().toMillis()) {
+            log.warn("Consulta lenta ({} ms, {}): {}", milisegundos, HuellaSql.de(queryInfoList), sql);
+        }
+    }
+
+    private Timer temporizador() {
+        Timer timer = temporizador;
+        if (timer == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                timer = Timer.builder("sql.sentencias")
+                        .description("Tiempo de cada ejecución SQL")
+                        .register(registry);
+                temporizador = timer;
+            }
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,66 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Propiedades del inspector de sentencias SQL ({@code app.sql.*}).
+ *
+ * <pre>
+ * app.sql.umbral-lento=200ms
+ * app.sql.umbral-repeticiones=10
+ * app.sql.modo=ADVERTIR
+ * app.sql.presupuesto-por-defecto=100
+ * app.sql.presupuestos[/entities]=20
+ * </pre>
+ *
+ * @param habilitado          activa el proxy del {@code DataSource} y el filtro por petición.
+ * @param umbralLento         duración a partir de la cual una sentencia se registra como lenta.
+ * @param umbralRepeticiones  número de veces que la misma sentencia puede repetirse en una petición
+ *                            antes de avisar de un posible N+1.
+ * @param modo                qué hacer cuando una petición supera su presupuesto.
+ * @param presupuestoPorDefecto número máximo de sentencias para endpoints sin presupuesto propio
+ *                            ({@code null} = sin límite).
+ * @param presupuestos        número máximo de sentencias por patrón de endpoint ({@code /entities}, ...).
+ */
+@ConfigurationProperties(prefix = "app.sql")
+public record InspectorSqlProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("200ms") Duration umbralLento,
+        @DefaultValue("10") int umbralRepeticiones,
+        @DefaultValue("ADVERTIR") ModoPresupuesto modo,
+        Integer presupuestoPorDefecto,
+        Map<String, Integer> presupuestos) {
+
+    /**
+     * Comportamiento al superar el presupuesto de sentencias de un endpoint.
+     */
+    public enum ModoPresupuesto {
+        /** Registra un aviso y una métrica; la petición termina con normalidad (producción). */
+        ADVERTIR,
+        /**
+         * Lanza {@link PresupuestoSqlExcedidoException} y el cliente recibe un 500. Retiene cada respuesta en
+         * memoria hasta el final de la petición, así que está pensado para tests y perfiles de CI.
+         */
+        FALLAR
+    }
+
+    public InspectorSqlProperties {
+        presupuestos = presupuestos == null ? Map.of() : Map.copyOf(presupuestos);
+    }
+
+    /**
+     * Presupuesto de sentencias aplicable a un endpoint.
+     *
+     * @param endpoint patrón del endpoint tal y como lo resuelve Spring MVC.
+     * @return el presupuesto, o vacío si el endpoint no tiene límite.
+     */
+    public OptionalInt presupuestoPara(String endpoint) {
+        Integer presupuesto = presupuestos.getOrDefault(endpoint, presupuestoPorDefecto);
+        return presupuesto == null ? OptionalInt.empty() : OptionalInt.of(presupuesto);
+    }
+}
@@ -0,0 +1,45 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de Java Flight Recorder: eventos propios de la aplicación ({@link EventosJfr}) y el
+ * endpoint {@code /actuator/jfr} para grabarlos junto con los perfiles de CPU, asignación y bloqueos del JDK.
+ *
+ * Los eventos de sentencias SQL los emite {@link JfrSqlListener} a través del proxy del inspector SQL,
+ * así que solo aparecen con {@code app.sql.habilitado=true}. Las propiedades se describen en {@link JfrProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+public class JfrConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new JfrInterceptor());
+    }
+
+    @Bean
+    public JfrServicioAspect jfrServicioAspect() {
+        return new JfrServicioAspect();
+    }
+
+    @Bean
+    public JfrSqlListener jfrSqlListener() {
+        return new JfrSqlListener();
+    }
+
+    /**
+     * Endpoint de grabaciones. No es perezoso para que la grabación continua empiece al arrancar
+     * también con el perfil {@code arranquerapido}.
+     */
+    @Bean
+    @Lazy(false)
+    public GrabacionesJfrEndpoint grabacionesJfrEndpoint(JfrProperties properties) {
+        return new GrabacionesJfrEndpoint(properties);
+    }
+}
@@ -0,0 +1,84 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Interceptor de Spring MVC que emite los eventos JFR {@link EventosJfr.Peticion} y
+ * {@link EventosJfr.Renderizado}.
+ *
+ * El renderizado de la vista ocurre entre {@code postHandle} y {@code afterCompletion}, así que el
+ * evento de petición se cierra en {@code postHandle} y el de renderizado cubre el resto. Si el
+ * controlador lanza una excepción o no devuelve vista, el evento de petición se cierra en
+ * {@code afterCompletion}.
+ */
+public class JfrInterceptor implements HandlerInterceptor {
+
+    private static final String PETICION = JfrInterceptor.class.getName() + ".peticion";
+    private static final String RENDERIZADO = JfrInterceptor.class.getName() + ".renderizado";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        EventosJfr.Peticion evento = new EventosJfr.Peticion();
+        if (evento.isEnabled()) {
+            evento.begin();
+            request.setAttribute(PETICION, evento);
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (request.getAttribute(PETICION) instanceof EventosJfr.Peticion evento) {
+            request.removeAttribute(PETICION);
+            cerrar(evento, request, response, handler);
+        }
+        if (modelAndView != null && modelAndView.getViewName() != null) {
+            EventosJfr.Renderizado renderizado = new EventosJfr.Renderizado();
+            if (renderizado.isEnabled()) {
+                renderizado.vista = modelAndView.getViewName();
+                renderizado.begin();
+                request.setAttribute(RENDERIZADO, renderizado);
+            }
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PETICION) instanceof EventosJfr.Peticion evento) {
+            cerrar(evento, request, response, handler);
+        }
+        if (request.getAttribute(RENDERIZADO) instanceof EventosJfr.Renderizado renderizado) {
+            renderizado.end();
+            if (renderizado.shouldCommit()) {
+                renderizado.endpoint = endpoint(request);
+                renderizado.commit();
+            }
+        }
+    }
+
+    private static void cerrar(EventosJfr.Peticion evento, HttpServletRequest request, HttpServletResponse response,
+                               Object handler) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.metodo = request.getMethod();
+            evento.endpoint = endpoint(request);
+            evento.manejador = handler instanceof HandlerMethod metodo
+                    ? metodo.getBeanType().getSimpleName() + "#" + metodo.getMethod().getName()
+                    : handler.getClass().getSimpleName();
+            evento.estado = response.getStatus();
+            evento.commit();
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron == null ? request.getRequestURI() : patron.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Propiedades de las grabaciones de Java Flight Recorder ({@code app.jfr.*}).
+ *
+ * <pre>
+ * app.jfr.directorio=/var/lib/data/jfr
+ * app.jfr.duracion-maxima=10m
+ * app.jfr.continuo.habilitado=true
+ * app.jfr.continuo.antiguedad-maxima=6h
+ * </pre>
+ *
+ * @param directorio              carpeta donde se escriben los ficheros {@code .jfr}; por defecto {@code jfr} en el
+ *                                directorio temporal del sistema.
+ * @param configuracion           configuración JFR de las grabaciones bajo demanda ({@code default} o {@code profile}).
+ * @param duracionMaxima          límite de duración de una grabación bajo demanda.
+ * @param tamanoMaximo            límite de tamaño en disco de una grabación bajo demanda.
+ * @param grabacionesSimultaneas  número máximo de grabaciones bajo demanda activas a la vez.
+ * @param continuo                grabación continua de baja sobrecarga.
+ */
+@ConfigurationProperties(prefix = "app.jfr")
+public record JfrProperties(
+        Path directorio,
+        @DefaultValue("profile") String configuracion,
+        @DefaultValue("10m") Duration duracionMaxima,
+        @DefaultValue("200MB") DataSize tamanoMaximo,
+        @DefaultValue("2") int grabacionesSimultaneas,
+        @DefaultValue Continuo continuo) {
+
+    public JfrProperties {
+        // @DefaultValue no resuelve marcadores como ${java.io.tmpdir}: el valor por defecto se calcula aquí
+        if (directorio == null) {
+            directorio = Path.of(System.getProperty("java.io.tmpdir"), "jfr");
+        }
+    }
+
+    /**
+     * Grabación continua con buffer circular en disco: JFR descarta los fragmentos más antiguos al
+     * superar la antigüedad o el tamaño máximos.
+     *
+     * @param habilitado        arranca la grabación al iniciar la aplicación.
+     * @param configuracion     configuración JFR; {@code default} mantiene la sobrecarga por debajo del 1%.
+     * @param antiguedadMaxima  ventana de tiempo que se conserva en disco.
+     * @param tamanoMaximo      tamaño máximo que ocupa en disco.
+     */
+    public record Continuo(
+            @DefaultValue("false") boolean habilitado,
+            @DefaultValue("default") String configuracion,
+            @DefaultValue("6h") Duration antiguedadMaxima,
+            @DefaultValue("250MB") DataSize tamanoMaximo) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Aspecto que emite un evento {@link EventosJfr.Servicio} por cada llamada a un método público de
+ * los servicios de la aplicación.
+ */
+@Aspect
+public class JfrServicioAspect {
+
+    @Around("within(com.atm.buenas_practicas_java.services..*) && execution(public * *(..))")
+    public Object registrar(ProceedingJoinPoint joinPoint) throws Throwable {
+        EventosJfr.Servicio evento = new EventosJfr.Servicio();
+        if (!evento.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        evento.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            evento.error = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.clase = joinPoint.getSignature().getDeclaringType().getSimpleName();
+                evento.metodo = joinPoint.getSignature().getName();
+                evento.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Listener de datasource-proxy que emite un evento {@link EventosJfr.ConsultaSql} por ejecución.
+ *
+ * JDBC es síncrono, así que el evento abierto en {@code beforeQuery} se guarda en el hilo hasta
+ * {@code afterQuery}.
+ */
+public class JfrSqlListener implements QueryExecutionListener {
+
+    private final ThreadLocal<EventosJfr.ConsultaSql> enCurso = new ThreadLocal<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        EventosJfr.ConsultaSql evento = new EventosJfr.ConsultaSql();
+        if (evento.isEnabled()) {
+            evento.begin();
+            enCurso.set(evento);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        EventosJfr.ConsultaSql evento = enCurso.get();
+        if (evento == null) {
+            return;
+        }
+        enCurso.remove();
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            evento.batch = execInfo.isBatch();
+            evento.correcta = execInfo.isSuccess();
+            evento.commit();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+/**
+ * Se lanza cuando una petición HTTP ejecuta más sentencias SQL de las permitidas por su presupuesto
+ * y el inspector está en modo {@link InspectorSqlProperties.ModoPresupuesto#FALLAR}.
+ */
+public class PresupuestoSqlExcedidoException extends RuntimeException {
+
+    public PresupuestoSqlExcedidoException(String mensaje) {
+        super(mensaje);
+    }
+}
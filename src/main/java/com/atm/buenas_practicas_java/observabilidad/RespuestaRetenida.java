@@ -0,0 +1,53 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Respuesta que retiene el cuerpo en memoria hasta que {@link InspectorSqlFilter} comprueba el presupuesto, de modo
+ * que un exceso todavía puede convertirse en un error: sin ella la respuesta ya estaría enviada.
+ *
+ * <p>Tras {@link #liberar} escribe directamente en la respuesta original. Lo necesitan las peticiones asíncronas
+ * (SSE, {@code Callable}), que siguen escribiendo cuando el filtro ya ha terminado.</p>
+ */
+final class RespuestaRetenida extends ContentCachingResponseWrapper {
+
+    private boolean liberada;
+
+    RespuestaRetenida(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Envía lo retenido y deja de retener.
+     *
+     * @param completa si la respuesta ya está terminada; entonces se fija su {@code Content-Length}.
+     */
+    void liberar(boolean completa) throws IOException {
+        liberada = true;
+        copyBodyToResponse(completa);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return liberada ? getResponse().getOutputStream() : super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        return liberada ? getResponse().getWriter() : super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (liberada) {
+            getResponse().flushBuffer();
+        } else {
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.atm.buenas_practicas_java.particionado;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Copia online de {@code entidad_hija} a la tabla particionada que prepara la migración
+ * {@code V2__entidad_hija_particionada.sql} cuando la tabla ya tiene datos.
+ *
+ * <ol>
+ *   <li>Mientras dura la copia, el trigger {@code entidad_hija_replicar} replica en la tabla particionada cada
+ *       cambio que hace la aplicación.</li>
+ *   <li>{@link #copiar()} recorre la tabla original por lotes de id, cada uno en su propia transacción. Las
+ *       filas del lote se bloquean con {@code FOR SHARE} para que una actualización concurrente no deje una
+ *       versión antigua en la copia, y {@code ON CONFLICT DO NOTHING} respeta las filas que ya copió el trigger.</li>
+ *   <li>{@link #intercambiar()} renombra las tablas en una transacción corta; la original queda como
+ *       {@code entidad_hija_sin_particionar} para poder comprobarla antes de borrarla.</li>
+ * </ol>
+ */
+@Log4j2
+public class MigradorParticionesHija {
+
+    private static final String COPIAR_LOTE = """
+            WITH lote AS (SELECT id, nombre, entidad_padre_id, version
+                          FROM entidad_hija
+                          WHERE id > ?
+                          ORDER BY id
+                          LIMIT ? FOR SHARE),
+                 copia AS (INSERT INTO entidad_hija_particionada (id, nombre, entidad_padre_id, version)
+                           OVERRIDING SYSTEM VALUE
+                           SELECT id, nombre, entidad_padre_id, version FROM lote
+                           ON CONFLICT (entidad_padre_id, id) DO NOTHING)
+            SELECT count(*), coalesce(max(id), 0) FROM lote
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ParticionadoProperties properties;
+
+    public MigradorParticionesHija(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   ParticionadoProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * @return {@code true} si la tabla particionada está preparada y pendiente de copiar.
+     */
+    public boolean pendiente() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('entidad_hija_particionada') IS NOT NULL", Boolean.class));
+    }
+
+    /**
+     * Copia y después intercambia las tablas.
+     *
+     * @return número de filas recorridas en la tabla original.
+     */
+    public long migrar() {
+        long filas = copiar();
+        intercambiar();
+        return filas;
+    }
+
+    /**
+     * Copia la tabla original por lotes. Puede interrumpirse y volver a lanzarse: los lotes ya copiados se
+     * saltan por conflicto.
+     *
+     * @return número de filas recorridas.
+     */
+    public long copiar() {
+        long total = jdbcTemplate.queryForObject("SELECT count(*) FROM entidad_hija", Long.class);
+        log.info("Copiando unas {} filas de entidad_hija en lotes de {}", total, properties.tamanoLote());
+        long ultimo = 0;
+        long recorridas = 0;
+        for (int lotes = 1; ; lotes++) {
+            long desde = ultimo;
+            long[] lote = transactionTemplate.execute(estado -> jdbcTemplate.queryForObject(COPIAR_LOTE,
+                    (fila, numero) -> new long[]{fila.getLong(1), fila.getLong(2)}, desde, properties.tamanoLote()));
+            if (lote == null || lote[0] == 0) {
+                break;
+            }
+            recorridas += lote[0];
+            ultimo = lote[1];
+            if (lotes % 100 == 0) {
+                log.info("Copiadas {} de unas {} filas (id {})", recorridas, total, ultimo);
+            }
+            esperar();
+        }
+        log.info("Copia terminada: {} filas", recorridas);
+        return recorridas;
+    }
+
+    /**
+     * Sustituye {@code entidad_hija} por la tabla particionada. Bloquea ambas tablas solo durante los
+     * renombrados.
+     */
+    public void intercambiar() {
+        transactionTemplate.executeWithoutResult(estado ->
+                jdbcTemplate.queryForObject("SELECT entidad_hija_intercambiar()::text", String.class));
+        log.info("entidad_hija particionada en uso; la tabla original queda como entidad_hija_sin_particionar");
+    }
+
+    private void esperar() {
+        if (properties.pausa().isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.pausa());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migración interrumpida", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.atm.buenas_practicas_java.particionado;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Migración online de {@code entidad_hija} a la tabla particionada por padre.
+ *
+ * Se lanza como un proceso aparte contra la misma base de datos, con la aplicación en marcha:
+ *
+ * <pre>
+ * java -jar buenaspracticas.jar --spring.main.web-application-type=none --app.particionado.migrar=true
+ * </pre>
+ */
+@Configuration
+@EnableConfigurationProperties(ParticionadoProperties.class)
+public class ParticionadoConfig {
+
+    @Bean
+    public MigradorParticionesHija migradorParticionesHija(JdbcTemplate jdbcTemplate,
+                                                           TransactionTemplate transactionTemplate,
+                                                           ParticionadoProperties properties) {
+        return new MigradorParticionesHija(jdbcTemplate, transactionTemplate, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.particionado", name = "migrar", havingValue = "true")
+    public ApplicationRunner migrarParticionesHija(MigradorParticionesHija migrador) {
+        return argumentos -> {
+            if (migrador.pendiente()) {
+                migrador.migrar();
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.atm.buenas_practicas_java.particionado;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de la migración online de {@code entidad_hija} a la tabla particionada ({@code app.particionado.*}).
+ *
+ * @param migrar     ejecuta la migración al arrancar ({@link MigradorParticionesHija}).
+ * @param tamanoLote filas copiadas por transacción.
+ * @param pausa      espera entre lotes para limitar la carga sobre la base de datos.
+ */
+@ConfigurationProperties(prefix = "app.particionado")
+public record ParticionadoProperties(
+        @DefaultValue("false") boolean migrar,
+        @DefaultValue("10000") int tamanoLote,
+        @DefaultValue("50ms") Duration pausa) {
+}
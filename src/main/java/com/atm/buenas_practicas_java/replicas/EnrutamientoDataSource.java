@@ -0,0 +1,53 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code DataSource} que envía las transacciones de solo lectura a las réplicas disponibles (por turnos)
+ * y todo lo demás a la primaria.
+ *
+ * La decisión se toma al pedir la conexión, así que debe usarse detrás de un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: el gestor de transacciones
+ * obtiene la conexión antes de marcar la transacción como de solo lectura. Si ninguna réplica está
+ * disponible, las lecturas van a la primaria.
+ */
+public class EnrutamientoDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARIA = "primaria";
+
+    private final List<ReplicaLectura> replicas;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    public EnrutamientoDataSource(DataSource primaria, List<ReplicaLectura> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        replicas.forEach(replica -> destinos.put(replica.nombre(), replica.dataSource()));
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primaria);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARIA;
+        }
+        int total = replicas.size();
+        int inicio = Math.floorMod(turno.getAndIncrement(), Math.max(total, 1));
+        for (int i = 0; i < total; i++) {
+            ReplicaLectura replica = replicas.get((inicio + i) % total);
+            if (replica.disponible()) {
+                return replica.nombre();
+            }
+        }
+        return PRIMARIA;
+    }
+}
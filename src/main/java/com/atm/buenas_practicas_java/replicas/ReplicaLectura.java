@@ -0,0 +1,87 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Réplica de lectura con su último retraso de replicación medido.
+ *
+ * Una réplica solo recibe lecturas si la última comprobación tuvo éxito y su retraso no supera el máximo
+ * configurado; hasta la primera comprobación se considera no disponible.
+ */
+@Log4j2
+public class ReplicaLectura {
+
+    /**
+     * Segundos desde la última transacción aplicada, o 0 si la réplica ya ha aplicado todo lo recibido
+     * (una primaria sin escrituras no debe hacer que la réplica parezca retrasada).
+     */
+    static final String CONSULTA_RETRASO = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+
+    private final String nombre;
+    private final DataSource dataSource;
+    private volatile boolean disponible;
+    private volatile double retrasoSegundos = Double.NaN;
+
+    public ReplicaLectura(String nombre, DataSource dataSource) {
+        this.nombre = nombre;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Mide el retraso de replicación y actualiza la disponibilidad de la réplica.
+     *
+     * @param retrasoMaximo retraso por encima del cual la réplica deja de recibir lecturas.
+     */
+    public void comprobar(Duration retrasoMaximo) {
+        boolean antes = disponible;
+        try (Connection conexion = dataSource.getConnection();
+             Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery(CONSULTA_RETRASO)) {
+            resultado.next();
+            retrasoSegundos = resultado.getDouble(1);
+            disponible = retrasoSegundos * 1000 <= retrasoMaximo.toMillis();
+        } catch (SQLException e) {
+            retrasoSegundos = Double.NaN;
+            disponible = false;
+            log.debug("No se pudo comprobar la réplica {}", nombre, e);
+        }
+        if (antes != disponible) {
+            log.warn("Réplica {} {} (retraso {} s)", nombre, disponible ? "disponible" : "fuera de servicio",
+                    retrasoSegundos);
+        }
+    }
+
+    void marcar(boolean disponible, double retrasoSegundos) {
+        this.disponible = disponible;
+        this.retrasoSegundos = retrasoSegundos;
+    }
+
+    public String nombre() {
+        return nombre;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public boolean disponible() {
+        return disponible;
+    }
+
+    /**
+     * @return el último retraso medido en segundos, o {@code NaN} si la réplica no responde.
+     */
+    public double retrasoSegundos() {
+        return retrasoSegundos;
+    }
+}
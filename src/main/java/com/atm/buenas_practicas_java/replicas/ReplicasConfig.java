@@ -0,0 +1,115 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import com.atm.buenas_practicas_java.config.PoolConexionesPostProcessor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sustituye el {@code DataSource} autoconfigurado por uno que separa lecturas y escrituras.
+ *
+ * <ul>
+ *   <li>La primaria usa {@code spring.datasource.*} (o la conexión de Testcontainers / Docker Compose).</li>
+ *   <li>Cada réplica de {@code app.replicas.fuentes} tiene su propio pool de Hikari en modo solo lectura,
+ *       con los mismos ajustes que la primaria.</li>
+ *   <li>Las transacciones {@code @Transactional(readOnly = true)} van a una réplica disponible
+ *       ({@link EnrutamientoDataSource}); el resto, a la primaria.</li>
+ *   <li>Un hilo mide el retraso de cada réplica cada {@code app.replicas.intervalo-comprobacion}
+ *       ({@link TopologiaReplicas}).</li>
+ * </ul>
+ *
+ * Solo el proxy final es un bean, de modo que el inspector SQL lo envuelve una única vez. Los pools
+ * publican sus métricas {@code hikaricp.*} con la etiqueta {@code pool} y el retraso de cada réplica
+ * se publica en {@code replicas.retraso}.
+ */
+@Log4j2
+@Configuration
+@EnableConfigurationProperties(ReplicasProperties.class)
+@ConditionalOnProperty(prefix = "app.replicas", name = "habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    /**
+     * Crea los pools de la primaria y de las réplicas y empieza a comprobar el retraso de replicación.
+     */
+    @Bean
+    public TopologiaReplicas topologiaReplicas(DataSourceProperties dataSourceProperties,
+                                               ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                               ReplicasProperties properties, Environment environment,
+                                               PoolConexionesPostProcessor poolConexiones,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource primaria = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaria));
+        JdbcConnectionDetails conexion = connectionDetails.getIfAvailable();
+        primaria.setJdbcUrl(conexion != null ? conexion.getJdbcUrl() : dataSourceProperties.determineUrl());
+        primaria.setUsername(conexion != null ? conexion.getUsername() : dataSourceProperties.determineUsername());
+        primaria.setPassword(conexion != null ? conexion.getPassword() : dataSourceProperties.determinePassword());
+        if (primaria.getPoolName() == null) {
+            primaria.setPoolName(EnrutamientoDataSource.PRIMARIA);
+        }
+
+        List<ReplicaLectura> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.fuentes().size(); i++) {
+            ReplicasProperties.Fuente fuente = properties.fuentes().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            primaria.copyStateTo(pool);
+            pool.setPoolName(primaria.getPoolName() + "-replica-" + i);
+            pool.setJdbcUrl(fuente.url());
+            if (fuente.usuario() != null) {
+                pool.setUsername(fuente.usuario());
+                pool.setPassword(fuente.password());
+            }
+            pool.setReadOnly(true);
+            // Una réplica caída no debe impedir el arranque: queda como no disponible y se vuelve a comprobar.
+            pool.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaLectura(pool.getPoolName(), pool));
+        }
+
+        var metricas = new MicrometerMetricsTrackerFactory(meterRegistry);
+        poolConexiones.ajustar(primaria, primaria.getPoolName());
+        primaria.setMetricsTrackerFactory(metricas);
+        for (ReplicaLectura replica : replicas) {
+            HikariDataSource pool = (HikariDataSource) replica.dataSource();
+            poolConexiones.ajustar(pool, replica.nombre());
+            pool.setMetricsTrackerFactory(metricas);
+            Gauge.builder("replicas.retraso", replica, ReplicaLectura::retrasoSegundos)
+                    .description("Retraso de replicación medido en la réplica (NaN si no responde)")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.nombre())
+                    .register(meterRegistry);
+        }
+
+        TopologiaReplicas topologia = new TopologiaReplicas(primaria, replicas);
+        topologia.comprobarCada(properties.intervaloComprobacion(), properties.retrasoMaximo());
+        log.info("Enrutamiento de lecturas activo con {} réplicas (retraso máximo {})",
+                replicas.size(), properties.retrasoMaximo());
+        return topologia;
+    }
+
+    /**
+     * {@code DataSource} de la aplicación. El {@link LazyConnectionDataSourceProxy} retrasa la elección
+     * de destino hasta la primera sentencia, cuando ya se sabe si la transacción es de solo lectura.
+     */
+    @Bean
+    public DataSource dataSource(TopologiaReplicas topologia) {
+        EnrutamientoDataSource enrutamiento = new EnrutamientoDataSource(topologia.primaria(), topologia.replicas());
+        enrutamiento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(enrutamiento);
+    }
+}
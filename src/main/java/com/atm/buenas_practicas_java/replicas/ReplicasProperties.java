@@ -0,0 +1,46 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Propiedades de las réplicas de lectura ({@code app.replicas.*}).
+ *
+ * <pre>
+ * app.replicas.habilitado=true
+ * app.replicas.retraso-maximo=5s
+ * app.replicas.fuentes[0].url=jdbc:postgresql://replica:5432/producciondb
+ * app.replicas.fuentes[0].usuario=produccionuser
+ * app.replicas.fuentes[0].password=produccionpassword
+ * </pre>
+ *
+ * @param habilitado            sustituye el {@code DataSource} autoconfigurado por uno que enruta las
+ *                              transacciones de solo lectura a las réplicas.
+ * @param retrasoMaximo         retraso de replicación a partir del cual una réplica deja de recibir lecturas.
+ * @param intervaloComprobacion cada cuánto se mide el retraso de cada réplica.
+ * @param fuentes               conexión a cada réplica; el resto de ajustes del pool se copian de la primaria.
+ */
+@ConfigurationProperties(prefix = "app.replicas")
+public record ReplicasProperties(
+        @DefaultValue("false") boolean habilitado,
+        @DefaultValue("5s") Duration retrasoMaximo,
+        @DefaultValue("5s") Duration intervaloComprobacion,
+        List<Fuente> fuentes) {
+
+    public ReplicasProperties {
+        fuentes = fuentes == null ? List.of() : List.copyOf(fuentes);
+    }
+
+    /**
+     * Datos de conexión de una réplica.
+     *
+     * @param url      URL JDBC de la réplica.
+     * @param usuario  usuario; si se omite se usa el de la primaria.
+     * @param password contraseña; si se omite se usa la de la primaria.
+     */
+    public record Fuente(String url, String usuario, String password) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pools de la primaria y de las réplicas, junto con la comprobación periódica del retraso de replicación.
+ *
+ * Es el bean dueño de los pools: al cerrarse el contexto detiene la comprobación y cierra todas las conexiones.
+ */
+public class TopologiaReplicas implements AutoCloseable {
+
+    private final HikariDataSource primaria;
+    private final List<ReplicaLectura> replicas;
+    private final ScheduledExecutorService comprobaciones = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replicas-retraso").daemon().factory());
+
+    public TopologiaReplicas(HikariDataSource primaria, List<ReplicaLectura> replicas) {
+        this.primaria = primaria;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * Empieza a medir el retraso de las réplicas. La primera comprobación es inmediata.
+     *
+     * @param intervalo     tiempo entre comprobaciones.
+     * @param retrasoMaximo retraso por encima del cual una réplica deja de recibir lecturas.
+     */
+    public void comprobarCada(Duration intervalo, Duration retrasoMaximo) {
+        comprobaciones.scheduleWithFixedDelay(
+                () -> replicas.forEach(replica -> replica.comprobar(retrasoMaximo)),
+                0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public HikariDataSource primaria() {
+        return primaria;
+    }
+
+    public List<ReplicaLectura> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        comprobaciones.shutdownNow();
+        replicas.forEach(replica -> ((HikariDataSource) replica.dataSource()).close());
+        primaria.close();
+    }
+}
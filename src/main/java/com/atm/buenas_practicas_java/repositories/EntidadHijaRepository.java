@@ -1,9 +1,18 @@
 package com.atm.buenas_practicas_java.repositories;
 
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
 import com.atm.buenas_practicas_java.entities.EntidadHija;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio de acceso a datos para la entidad {@code EntidadHija}.
@@ -27,4 +36,66 @@ import java.util.Optional;
  */
 public interface EntidadHijaRepository extends JpaRepository<EntidadHija, Long> {
     Optional<Object> findByNombre(String hijaActualizada);
-}
\ No newline at end of file
+
+    /**
+     * Hijas de un padre. Filtra por la clave de partición de {@code entidad_hija}, así que PostgreSQL solo
+     * lee la partición de ese padre.
+     */
+    List<EntidadHija> findByEntidadPadreId(Long entidadPadreId);
+
+    /**
+     * Página de hijas de un padre a partir de un id (paginación por clave). Solo lee columnas de
+     * {@code entidad_hija_uk (entidad_padre_id, id) INCLUDE (nombre)}, así que se resuelve con un Index Only Scan
+     * de la partición del padre, y el coste de una página no depende de cuántas se hayan leído antes.
+     *
+     * @param pagina solo se usa su tamaño; el desplazamiento lo da {@code despuesDeId}.
+     */
+    @Query("""
+            select new com.atm.buenas_practicas_java.dtos.EntidadHijaResumen(h.id, h.entidadPadre.id, h.nombre)
+            from EntidadHija h
+            where h.entidadPadre.id = :entidadPadreId and h.id > :despuesDeId
+            order by h.id""")
+    List<EntidadHijaResumen> findResumenByEntidadPadreId(Long entidadPadreId, long despuesDeId, Pageable pagina);
+
+    /**
+     * Hijas de varios padres en una sola consulta. PostgreSQL solo lee las particiones de esos padres.
+     */
+    @Query("""
+            select new com.atm.buenas_practicas_java.dtos.EntidadHijaResumen(h.id, h.entidadPadre.id, h.nombre)
+            from EntidadHija h
+            where h.entidadPadre.id in :entidadPadreIds
+            order by h.entidadPadre.id, h.id""")
+    List<EntidadHijaResumen> findResumenByEntidadPadreIdIn(Collection<Long> entidadPadreIds);
+
+    /**
+     * Listado completo de solo lectura: Hibernate no guarda la copia de cada entidad para el dirty checking
+     * ni vacía la sesión antes de la consulta. Las pistas valen también dentro de una transacción de escritura,
+     * donde los cambios en estas entidades se perderían sin error, así que solo es para lecturas; el
+     * {@code findAll()} heredado no las lleva.
+     */
+    @Query("select h from EntidadHija h")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<EntidadHija> findAllSoloLectura();
+
+    /**
+     * Las entidades con esos ids en una sola consulta {@code IN}, de solo lectura como
+     * {@link #findAllSoloLectura()}. Para modificarlas está el {@code findAllById} heredado.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<EntidadHija> findSoloLecturaByIdIn(Collection<Long> ids);
+
+    /**
+     * Id, padre y nombre de todas las hijas, sin cargar entidades. Se lee por bloques de 1000 filas, así que hay
+     * que consumirlo dentro de una transacción y cerrarlo.
+     */
+    @Query("""
+            select new com.atm.buenas_practicas_java.dtos.EntidadHijaResumen(h.id, h.entidadPadre.id, h.nombre)
+            from EntidadHija h
+            order by h.id""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<EntidadHijaResumen> streamResumen();
+}
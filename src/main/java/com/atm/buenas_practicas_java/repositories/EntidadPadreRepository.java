@@ -1,11 +1,18 @@
 package com.atm.buenas_practicas_java.repositories;
 
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
 import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link EntidadPadre} entities.
@@ -17,4 +24,36 @@ public interface EntidadPadreRepository extends JpaRepository<EntidadPadre, Long
     Optional<EntidadPadre> findByNombre(String jetBrains);
 
     Collection<Object> findByNombreContaining(String padre);
-}
\ No newline at end of file
+
+    /**
+     * Listado completo de solo lectura: Hibernate no guarda la copia de cada entidad para el dirty checking
+     * ni vacía la sesión antes de la consulta. Las pistas valen también dentro de una transacción de escritura,
+     * donde los cambios en estas entidades se perderían sin error, así que solo es para lecturas; el
+     * {@code findAll()} heredado no las lleva.
+     */
+    @Query("select p from EntidadPadre p")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<EntidadPadre> findAllSoloLectura();
+
+    /**
+     * Las entidades con esos ids en una sola consulta {@code IN}, de solo lectura como
+     * {@link #findAllSoloLectura()}. Para modificarlas está el {@code findAllById} heredado.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<EntidadPadre> findSoloLecturaByIdIn(Collection<Long> ids);
+
+    /**
+     * Id y nombre de todos los padres, sin cargar entidades ni hijas. Se lee por bloques de 1000 filas, así que
+     * hay que consumirlo dentro de una transacción y cerrarlo.
+     */
+    @Query("""
+            select new com.atm.buenas_practicas_java.dtos.EntidadPadreResumen(p.id, p.nombre)
+            from EntidadPadre p
+            order by p.id""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<EntidadPadreResumen> streamResumen();
+}
@@ -0,0 +1,71 @@
+package com.atm.buenas_practicas_java.services;
+
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copias profundas de entidades separadas de su contexto de persistencia, para que las lecturas agrupadas por
+ * {@link com.atm.buenas_practicas_java.concurrencia.AgrupadorLecturas} no compartan instancias mutables.
+ *
+ * <p>Se copia el grafo entero que se cargó (padres con sus hijas y cada hija con su padre) conservando su forma:
+ * un padre que aparece varias veces se copia una sola, y las hijas de su lista son las mismas copias que apuntan
+ * a él. Las copias llevan id y versión, así que se pueden guardar como la entidad original.</p>
+ */
+final class CopiaEntidades {
+
+    private final Map<Object, Object> copias = new IdentityHashMap<>();
+
+    private CopiaEntidades() {
+    }
+
+    static List<EntidadPadre> padres(List<EntidadPadre> originales) {
+        var copia = new CopiaEntidades();
+        return originales.stream().map(copia::padre).toList();
+    }
+
+    static Optional<EntidadPadre> padre(Optional<EntidadPadre> original) {
+        return original.map(new CopiaEntidades()::padre);
+    }
+
+    static List<EntidadHija> hijas(List<EntidadHija> originales) {
+        var copia = new CopiaEntidades();
+        return originales.stream().map(copia::hija).toList();
+    }
+
+    static Optional<EntidadHija> hija(Optional<EntidadHija> original) {
+        return original.map(new CopiaEntidades()::hija);
+    }
+
+    private EntidadPadre padre(EntidadPadre original) {
+        if (original == null) {
+            return null;
+        }
+        if (copias.get(original) instanceof EntidadPadre copia) {
+            return copia;
+        }
+        var copia = new EntidadPadre(original.getId(), original.getNombre(), original.getVersion(), null);
+        copias.put(original, copia);
+        if (original.getEntidadesHijas() != null) {
+            List<EntidadHija> hijas = new ArrayList<>(original.getEntidadesHijas().size());
+            original.getEntidadesHijas().forEach(hija -> hijas.add(hija(hija)));
+            copia.setEntidadesHijas(hijas);
+        }
+        return copia;
+    }
+
+    private EntidadHija hija(EntidadHija original) {
+        if (copias.get(original) instanceof EntidadHija copia) {
+            return copia;
+        }
+        var copia = new EntidadHija(original.getId(), original.getNombre(), original.getVersion(), null);
+        copias.put(original, copia);
+        copia.setEntidadPadre(padre(original.getEntidadPadre()));
+        return copia;
+    }
+}
@@ -0,0 +1,20 @@
+package com.atm.buenas_practicas_java.services;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+
+/**
+ * Evento que publican los servicios al guardar, renombrar o borrar una entidad. Se publica dentro de la
+ * transacción; quien necesite el cambio ya confirmado lo escucha con {@code @TransactionalEventListener}.
+ *
+ * <p>Solo cubre las escrituras de los servicios. Las de Spring Data REST, la escritura diferida o SQL a mano
+ * llegan por el relevo de cambios ({@link Cambio}).</p>
+ *
+ * @param entidad        {@code EntidadPadre} o {@code EntidadHija}.
+ * @param id             id de la entidad.
+ * @param operacion      tipo de escritura.
+ * @param nombre         nombre tras el cambio; {@code null} en los borrados.
+ * @param entidadPadreId padre de la hija tras el cambio; {@code null} en los padres y en los borrados.
+ */
+public record EntidadEscrita(String entidad, long id, Cambio.Operacion operacion, String nombre,
+                             Long entidadPadreId) {
+}
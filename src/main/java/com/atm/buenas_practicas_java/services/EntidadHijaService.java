@@ -1,34 +1,183 @@
 package com.atm.buenas_practicas_java.services;
 
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.concurrencia.AgrupadorLecturas;
+import com.atm.buenas_practicas_java.concurrencia.ReintentadorOptimista;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.PaginaHijas;
 import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
 import com.atm.buenas_practicas_java.entities.EntidadHija;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
+@Timed(value = "entidades.servicio", histogram = true)
 public class EntidadHijaService {
 
     private final EntidadHijaRepository repository;
+    private final ReintentadorOptimista reintentador;
+    private final AgrupadorLecturas agrupador;
+    private final ApplicationEventPublisher eventos;
+    private final DistributionSummary filasFindAll;
 
-    public EntidadHijaService(EntidadHijaRepository repository) {
+    public EntidadHijaService(EntidadHijaRepository repository, ReintentadorOptimista reintentador,
+                              AgrupadorLecturas agrupador, ApplicationEventPublisher eventos,
+                              MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.reintentador = reintentador;
+        this.agrupador = agrupador;
+        this.eventos = eventos;
+        this.filasFindAll = DistributionSummary.builder("entidades.findall.filas")
+                .description("Número de filas devueltas por findAll")
+                .baseUnit("filas")
+                .tag("entidad", "EntidadHija")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    /**
+     * Todas las entidades. Las llamadas simultáneas fuera de una transacción comparten una sola consulta (ver
+     * {@link AgrupadorLecturas}) y cada una recibe su propia copia de las entidades, que puede modificar.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<EntidadHija> findAll() {
-        return repository.findAll();
+        List<EntidadHija> entidades = agrupador.ejecutar("entidadHija.findAll", "", this::leerTodas,
+                CopiaEntidades::hijas);
+        filasFindAll.record(entidades.size());
+        return entidades;
     }
 
+    /**
+     * La entidad con ese id. Como en {@link #findAll()}, las llamadas simultáneas con el mismo id comparten la
+     * consulta, cada una con su copia.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<EntidadHija> findById(Long id) {
-        return repository.findById(id);
+        return agrupador.ejecutar("entidadHija.findById", id, () -> repository.findById(id),
+                CopiaEntidades::hija);
     }
 
+    public List<EntidadHija> findByEntidadPadreId(Long entidadPadreId) {
+        return repository.findByEntidadPadreId(entidadPadreId);
+    }
+
+    /**
+     * Página de hijas de un padre con id mayor que {@code despuesDeId}. Pide una fila más de las necesarias
+     * para saber si hay página siguiente sin hacer un {@code count}.
+     */
+    public PaginaHijas findResumenByEntidadPadreId(Long entidadPadreId, long despuesDeId, int tamano) {
+        List<EntidadHijaResumen> hijas = repository.findResumenByEntidadPadreId(
+                entidadPadreId, despuesDeId, PageRequest.ofSize(tamano + 1));
+        if (hijas.size() <= tamano) {
+            return new PaginaHijas(hijas, null);
+        }
+        List<EntidadHijaResumen> pagina = hijas.subList(0, tamano);
+        return new PaginaHijas(List.copyOf(pagina), pagina.getLast().id());
+    }
+
+    /**
+     * Hijas de varios padres en una sola consulta, agrupadas por padre en el orden pedido.
+     * Los padres sin hijas aparecen con una lista vacía.
+     */
+    public Map<Long, List<EntidadHijaResumen>> findResumenByEntidadPadreIds(Collection<Long> entidadPadreIds) {
+        Map<Long, List<EntidadHijaResumen>> hijasPorPadre = new LinkedHashMap<>();
+        entidadPadreIds.forEach(id -> hijasPorPadre.put(id, new ArrayList<>()));
+        if (!hijasPorPadre.isEmpty()) {
+            repository.findResumenByEntidadPadreIdIn(hijasPorPadre.keySet())
+                    .forEach(hija -> hijasPorPadre.get(hija.entidadPadreId()).add(hija));
+        }
+        return hijasPorPadre;
+    }
+
+    /**
+     * Las entidades con esos ids en una sola consulta {@code IN}, en el orden pedido y sin repetir; los ids que
+     * no existen se omiten. Para juntar las búsquedas de una petición y partirlas en lotes está
+     * {@link com.atm.buenas_practicas_java.lotes.CargadorPorLotes}. Dentro de una transacción de escritura las
+     * entidades se cargan para poder modificarlas.
+     */
+    public List<EntidadHija> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EntidadHija> porId = new HashMap<>();
+        (soloLectura() ? repository.findSoloLecturaByIdIn(ids) : repository.findAllById(ids))
+                .forEach(entidad -> porId.put(entidad.getId(), entidad));
+        return ids.stream().distinct().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Guarda la entidad tal como llega. Si es una copia leída antes de que otra transacción la modificara, su
+     * versión ya no coincide y falla con {@code ObjectOptimisticLockingFailureException}: no se reintenta,
+     * porque repetirla volvería a pisar el cambio ajeno.
+     */
+    @Transactional
     public EntidadHija save(EntidadHija entidadHija) {
-        return repository.save(entidadHija);
+        Cambio.Operacion operacion = entidadHija.getId() == 0 ? Cambio.Operacion.INSERT : Cambio.Operacion.UPDATE;
+        EntidadHija guardada = repository.save(entidadHija);
+        publicar(guardada, operacion);
+        return guardada;
     }
 
+    /**
+     * Cambia el nombre sobre la versión actual de la entidad, reintentando si otra escritura se adelanta.
+     *
+     * @return la entidad renombrada, o vacío si no existe.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<EntidadHija> renombrar(Long id, String nombre) {
+        return reintentador.ejecutar("entidadHija.renombrar", () -> repository.findById(id).map(entidadHija -> {
+            entidadHija.setNombre(nombre);
+            EntidadHija renombrada = repository.saveAndFlush(entidadHija);
+            publicar(renombrada, Cambio.Operacion.UPDATE);
+            return renombrada;
+        }));
+    }
+
+    /**
+     * Borra la entidad si existe, reintentando si otra escritura la modifica entre la lectura y el borrado.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteById(Long id) {
-        repository.deleteById(id);
+        reintentador.ejecutar("entidadHija.borrar", () -> {
+            repository.deleteById(id);
+            repository.flush();
+            eventos.publishEvent(new EntidadEscrita("EntidadHija", id, Cambio.Operacion.DELETE, null, null));
+            return null;
+        });
+    }
+
+    /**
+     * Todas las entidades, con las pistas de solo lectura si la transacción lo es. En una transacción de
+     * escritura a la que se ha unido {@link #findAll()} quien llama puede modificarlas y guardarlas.
+     */
+    private List<EntidadHija> leerTodas() {
+        return soloLectura() ? repository.findAllSoloLectura() : repository.findAll();
+    }
+
+    private static boolean soloLectura() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void publicar(EntidadHija entidadHija, Cambio.Operacion operacion) {
+        eventos.publishEvent(new EntidadEscrita("EntidadHija", entidadHija.getId(), operacion,
+                entidadHija.getNombre(),
+                entidadHija.getEntidadPadre() != null ? entidadHija.getEntidadPadre().getId() : null));
     }
 }
@@ -2,33 +2,144 @@ package com.atm.buenas_practicas_java.services;
 
 import com.atm.buenas_practicas_java.entities.EntidadPadre;
 import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.concurrencia.AgrupadorLecturas;
+import com.atm.buenas_practicas_java.concurrencia.ReintentadorOptimista;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Transactional(readOnly = true)
+@Timed(value = "entidades.servicio", histogram = true)
 public class EntidadPadreService {
 
     private final EntidadPadreRepository repository;
+    private final ReintentadorOptimista reintentador;
+    private final AgrupadorLecturas agrupador;
+    private final ApplicationEventPublisher eventos;
+    private final DistributionSummary filasFindAll;
 
-    public EntidadPadreService(EntidadPadreRepository repository) {
+    public EntidadPadreService(EntidadPadreRepository repository, ReintentadorOptimista reintentador,
+                               AgrupadorLecturas agrupador, ApplicationEventPublisher eventos,
+                               MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.reintentador = reintentador;
+        this.agrupador = agrupador;
+        this.eventos = eventos;
+        this.filasFindAll = DistributionSummary.builder("entidades.findall.filas")
+                .description("Número de filas devueltas por findAll")
+                .baseUnit("filas")
+                .tag("entidad", "EntidadPadre")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
+    /**
+     * Todas las entidades. Las llamadas simultáneas fuera de una transacción comparten una sola consulta (ver
+     * {@link AgrupadorLecturas}) y cada una recibe su propia copia de las entidades, que puede modificar.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<EntidadPadre> findAll() {
-        return repository.findAll();
+        List<EntidadPadre> entidades = agrupador.ejecutar("entidadPadre.findAll", "", this::leerTodas,
+                CopiaEntidades::padres);
+        filasFindAll.record(entidades.size());
+        return entidades;
     }
 
+    /**
+     * La entidad con ese id. Como en {@link #findAll()}, las llamadas simultáneas con el mismo id comparten la
+     * consulta, cada una con su copia.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<EntidadPadre> findById(Long id) {
-        return repository.findById(id);
+        return agrupador.ejecutar("entidadPadre.findById", id, () -> repository.findById(id),
+                CopiaEntidades::padre);
     }
 
+    /**
+     * Las entidades con esos ids en una sola consulta {@code IN}, en el orden pedido y sin repetir; los ids que
+     * no existen se omiten. Para juntar las búsquedas de una petición y partirlas en lotes está
+     * {@link com.atm.buenas_practicas_java.lotes.CargadorPorLotes}. Dentro de una transacción de escritura las
+     * entidades se cargan para poder modificarlas.
+     */
+    public List<EntidadPadre> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EntidadPadre> porId = new HashMap<>();
+        (soloLectura() ? repository.findSoloLecturaByIdIn(ids) : repository.findAllById(ids))
+                .forEach(entidad -> porId.put(entidad.getId(), entidad));
+        return ids.stream().distinct().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Guarda la entidad tal como llega. Si es una copia leída antes de que otra transacción la modificara, su
+     * versión ya no coincide y falla con {@code ObjectOptimisticLockingFailureException}: no se reintenta,
+     * porque repetirla volvería a pisar el cambio ajeno.
+     */
+    @Transactional
     public EntidadPadre save(EntidadPadre entidadPadre) {
-        return repository.save(entidadPadre);
+        Cambio.Operacion operacion = entidadPadre.getId() == null ? Cambio.Operacion.INSERT : Cambio.Operacion.UPDATE;
+        EntidadPadre guardada = repository.save(entidadPadre);
+        publicar(guardada, operacion);
+        return guardada;
     }
 
+    /**
+     * Cambia el nombre sobre la versión actual de la entidad, reintentando si otra escritura se adelanta.
+     *
+     * @return la entidad renombrada, o vacío si no existe.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<EntidadPadre> renombrar(Long id, String nombre) {
+        return reintentador.ejecutar("entidadPadre.renombrar", () -> repository.findById(id).map(entidadPadre -> {
+            entidadPadre.setNombre(nombre);
+            EntidadPadre renombrada = repository.saveAndFlush(entidadPadre);
+            publicar(renombrada, Cambio.Operacion.UPDATE);
+            return renombrada;
+        }));
+    }
+
+    /**
+     * Borra la entidad si existe, reintentando si otra escritura la modifica entre la lectura y el borrado.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteById(Long id) {
-        repository.deleteById(id);
+        reintentador.ejecutar("entidadPadre.borrar", () -> {
+            repository.deleteById(id);
+            repository.flush();
+            eventos.publishEvent(new EntidadEscrita("EntidadPadre", id, Cambio.Operacion.DELETE, null, null));
+            return null;
+        });
+    }
+
+    /**
+     * Todas las entidades, con las pistas de solo lectura si la transacción lo es. En una transacción de
+     * escritura a la que se ha unido {@link #findAll()} quien llama puede modificarlas y guardarlas.
+     */
+    private List<EntidadPadre> leerTodas() {
+        return soloLectura() ? repository.findAllSoloLectura() : repository.findAll();
+    }
+
+    private static boolean soloLectura() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void publicar(EntidadPadre entidadPadre, Cambio.Operacion operacion) {
+        eventos.publishEvent(new EntidadEscrita("EntidadPadre", entidadPadre.getId(), operacion,
+                entidadPadre.getNombre(), null));
     }
 }
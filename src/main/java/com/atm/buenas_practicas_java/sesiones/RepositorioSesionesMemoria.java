@@ -0,0 +1,165 @@
+package com.atm.buenas_practicas_java.sesiones;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sesiones HTTP en memoria, acotadas y con caducidad.
+ *
+ * <p>Las sesiones están en un {@link ConcurrentHashMap}: leer y guardar una sesión no bloquea a las demás. Como
+ * {@code MapSessionRepository}, se guarda y se devuelve una copia, así que los cambios de una petición solo se
+ * ven al guardarla.</p>
+ *
+ * <ul>
+ *   <li><b>Caducidad</b>: una sesión caducada se descarta al leerla. Además, al crear o guardar sesiones se
+ *       eliminan todas las caducadas, como mucho una vez cada {@code barrido}.</li>
+ *   <li><b>Capacidad</b>: si al guardar una sesión nueva el almacén está lleno, se eliminan primero las
+ *       caducadas y, si no basta, el 1% de las sesiones usadas hace más tiempo. Así, un aluvión de sesiones
+ *       anónimas no agota el heap: como mucho cierra las sesiones más antiguas.</li>
+ * </ul>
+ *
+ * <p>Métricas: {@code sesiones.activas}, {@code sesiones.caducadas} y {@code sesiones.desalojadas}.</p>
+ */
+public class RepositorioSesionesMemoria implements SessionRepository<MapSession> {
+
+    private final Map<String, MapSession> sesiones = new ConcurrentHashMap<>();
+    private final Duration duracion;
+    private final int capacidad;
+    private final long barrido;
+    private final Clock reloj;
+    private final AtomicLong ultimoBarrido = new AtomicLong(System.nanoTime());
+    private final Counter caducadas;
+    private final Counter desalojadas;
+
+    public RepositorioSesionesMemoria(Duration duracion, SesionesProperties properties, Clock reloj,
+                                      MeterRegistry meterRegistry) {
+        this.duracion = duracion;
+        this.capacidad = properties.capacidad();
+        this.barrido = properties.barrido().toNanos();
+        this.reloj = reloj;
+        Gauge.builder("sesiones.activas", sesiones, Map::size)
+                .description("Sesiones HTTP en memoria, incluidas las caducadas todavía sin eliminar")
+                .register(meterRegistry);
+        this.caducadas = Counter.builder("sesiones.caducadas")
+                .description("Sesiones eliminadas por caducar")
+                .register(meterRegistry);
+        this.desalojadas = Counter.builder("sesiones.desalojadas")
+                .description("Sesiones vigentes eliminadas por falta de capacidad")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public MapSession createSession() {
+        barrerSiToca();
+        MapSession sesion = new MapSession();
+        sesion.setMaxInactiveInterval(duracion);
+        sesion.setCreationTime(reloj.instant());
+        sesion.setLastAccessedTime(sesion.getCreationTime());
+        return sesion;
+    }
+
+    @Override
+    public void save(MapSession sesion) {
+        if (!sesion.getId().equals(sesion.getOriginalId())) {
+            sesiones.remove(sesion.getOriginalId());
+        }
+        if (!sesiones.containsKey(sesion.getId()) && sesiones.size() >= capacidad) {
+            hacerSitio();
+        } else {
+            barrerSiToca();
+        }
+        sesiones.put(sesion.getId(), new MapSession(sesion));
+    }
+
+    @Override
+    public MapSession findById(String id) {
+        MapSession sesion = sesiones.get(id);
+        if (sesion == null) {
+            return null;
+        }
+        if (caducada(sesion, reloj.instant())) {
+            if (sesiones.remove(id, sesion)) {
+                caducadas.increment();
+            }
+            return null;
+        }
+        return new MapSession(sesion);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        sesiones.remove(id);
+    }
+
+    /**
+     * Sesiones guardadas, incluidas las caducadas que aún no se han eliminado.
+     */
+    public int tamano() {
+        return sesiones.size();
+    }
+
+    private static boolean caducada(MapSession sesion, Instant ahora) {
+        Duration maximo = sesion.getMaxInactiveInterval();
+        return !maximo.isNegative() && ahora.isAfter(sesion.getLastAccessedTime().plus(maximo));
+    }
+
+    private void barrerSiToca() {
+        long ahora = System.nanoTime();
+        long anterior = ultimoBarrido.get();
+        if (ahora - anterior >= barrido && ultimoBarrido.compareAndSet(anterior, ahora)) {
+            barrer();
+        }
+    }
+
+    private void barrer() {
+        Instant ahora = reloj.instant();
+        sesiones.values().removeIf(sesion -> {
+            boolean eliminar = caducada(sesion, ahora);
+            if (eliminar) {
+                caducadas.increment();
+            }
+            return eliminar;
+        });
+    }
+
+    /**
+     * Elimina las caducadas y, si el almacén sigue lleno, las sesiones con el último acceso más antiguo. Se
+     * desaloja un 1% de golpe para no recorrer el mapa en cada sesión nueva.
+     */
+    private synchronized void hacerSitio() {
+        if (sesiones.size() < capacidad) {
+            return;
+        }
+        ultimoBarrido.set(System.nanoTime());
+        barrer();
+        int sobrantes = sesiones.size() - capacidad + Math.max(1, capacidad / 100);
+        if (sobrantes <= 0) {
+            return;
+        }
+        Comparator<MapSession> masReciente = Comparator.comparing(MapSession::getLastAccessedTime);
+        PriorityQueue<MapSession> antiguas = new PriorityQueue<>(sobrantes + 1, masReciente.reversed());
+        for (MapSession sesion : sesiones.values()) {
+            antiguas.add(sesion);
+            if (antiguas.size() > sobrantes) {
+                antiguas.poll();
+            }
+        }
+        antiguas.forEach(sesion -> {
+            if (sesiones.remove(sesion.getId(), sesion)) {
+                desalojadas.increment();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.atm.buenas_practicas_java.sesiones;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Clock;
+
+/**
+ * Almacén de las sesiones HTTP con Spring Session, según {@code app.sesiones.almacen}.
+ *
+ * <ul>
+ *   <li>{@code memoria}: {@link RepositorioSesionesMemoria}. Es el valor por defecto y el de los entornos con una
+ *       sola instancia.</li>
+ *   <li>{@code jdbc}: no se define ningún repositorio y Spring Boot configura {@code JdbcIndexedSessionRepository}
+ *       sobre las tablas de la migración V6, con las propiedades {@code spring.session.jdbc.*}. Guarda por lotes
+ *       los atributos que cambian en cada petición y borra las sesiones caducadas con una tarea periódica.</li>
+ * </ul>
+ */
+@Configuration
+@EnableConfigurationProperties(SesionesProperties.class)
+public class SesionesConfig {
+
+    @Configuration
+    @EnableSpringHttpSession
+    @ConditionalOnProperty(prefix = "app.sesiones", name = "almacen", havingValue = "memoria", matchIfMissing = true)
+    static class SesionesMemoriaConfig {
+
+        @Bean
+        public RepositorioSesionesMemoria sessionRepository(SesionesProperties properties,
+                                                            SessionProperties sessionProperties,
+                                                            ServerProperties serverProperties,
+                                                            MeterRegistry meterRegistry) {
+            var duracion = sessionProperties.determineTimeout(() -> serverProperties.getServlet().getSession().getTimeout());
+            return new RepositorioSesionesMemoria(duracion, properties, Clock.systemUTC(), meterRegistry);
+        }
+    }
+}
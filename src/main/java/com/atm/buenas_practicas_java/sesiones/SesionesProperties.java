@@ -0,0 +1,34 @@
+package com.atm.buenas_practicas_java.sesiones;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Almacén de las sesiones HTTP ({@code app.sesiones.*}). La duración de la sesión es la de
+ * {@code server.servlet.session.timeout}, o {@code spring.session.timeout} si se indica.
+ *
+ * @param almacen   dónde se guardan las sesiones.
+ * @param capacidad sesiones como máximo en el almacén en memoria; al llenarse se descartan las menos usadas.
+ * @param barrido   cada cuánto se eliminan, como mucho, las sesiones caducadas del almacén en memoria.
+ */
+@ConfigurationProperties(prefix = "app.sesiones")
+public record SesionesProperties(
+        @DefaultValue("memoria") Almacen almacen,
+        @DefaultValue("100000") int capacidad,
+        @DefaultValue("1m") Duration barrido) {
+
+    public enum Almacen {
+        /**
+         * En el heap de cada instancia ({@link RepositorioSesionesMemoria}). Se pierden al reiniciar y no se
+         * comparten, así que varias instancias necesitan afinidad de sesión en el balanceador.
+         */
+        MEMORIA,
+        /**
+         * En PostgreSQL ({@code spring_session}, migración V6) con {@code JdbcIndexedSessionRepository}:
+         * compartidas entre instancias y persistentes.
+         */
+        JDBC
+    }
+}
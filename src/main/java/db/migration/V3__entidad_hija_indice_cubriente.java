@@ -0,0 +1,103 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clave única {@code (entidad_padre_id, id)} de {@code entidad_hija} pasa a incluir {@code nombre}: las consultas
+ * de hijas por padre ({@code EntidadHijaRepository.findResumenByEntidadPadreId} y {@code findResumenByEntidadPadreIdIn})
+ * se resuelven con un Index Only Scan sobre la partición del padre, sin leer la tabla. Se amplía la restricción
+ * existente en lugar de crear otro índice con las mismas columnas clave, que duplicaría el coste de cada escritura.
+ *
+ * <p>Es una migración Java porque se aplica sin parar la aplicación, y {@code CREATE INDEX CONCURRENTLY} no puede ir
+ * en una transacción ni en un bloque {@code DO}:</p>
+ * <ol>
+ *   <li>En cada partición se construye el índice nuevo con {@code CONCURRENTLY}, que no bloquea las escrituras, y
+ *       se convierte en restricción de la partición ({@code ADD CONSTRAINT ... USING INDEX}, que no recorre la
+ *       tabla). La restricción antigua sigue en vigor.</li>
+ *   <li>En una transacción corta se sustituye la restricción de la tabla particionada. PostgreSQL no admite
+ *       {@code USING INDEX} en una tabla particionada, pero al crear la restricción adopta las de las particiones
+ *       que coinciden en lugar de construir índices, así que solo se tocan catálogos. Al ser una única sentencia no
+ *       hay ningún momento sin unicidad.</li>
+ * </ol>
+ *
+ * <p>Si se interrumpe, se puede volver a aplicar: los índices que quedaron inválidos se reconstruyen y los ya
+ * terminados se reutilizan. Si la migración online de V2 está a medias, la tabla que acabará siendo
+ * {@code entidad_hija} es {@code entidad_hija_particionada}; {@code entidad_hija_intercambiar()} ya renombra su
+ * restricción.</p>
+ */
+public class V3__entidad_hija_indice_cubriente extends BaseJavaMigration {
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conexion = context.getConnection();
+        String tabla = existe(conexion, "entidad_hija_particionada") ? "entidad_hija_particionada" : "entidad_hija";
+
+        try (var sentencia = conexion.createStatement()) {
+            for (String particion : particiones(conexion, tabla)) {
+                String indice = particion + "_cubriente_uk";
+                if (consultar(conexion, "SELECT NOT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)",
+                        indice)) {
+                    sentencia.execute("DROP INDEX CONCURRENTLY " + indice);
+                }
+                sentencia.execute(("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s (entidad_padre_id, id)"
+                        + " INCLUDE (nombre) NULLS NOT DISTINCT").formatted(indice, particion));
+                if (!consultar(conexion, "SELECT true FROM pg_constraint WHERE conindid = to_regclass(?)", indice)) {
+                    sentencia.execute("ALTER TABLE %s ADD CONSTRAINT %s UNIQUE USING INDEX %s"
+                            .formatted(particion, indice, indice));
+                }
+            }
+        }
+
+        conexion.setAutoCommit(false);
+        try (var sentencia = conexion.createStatement()) {
+            // Si hay transacciones largas sobre la tabla, mejor fallar y reintentar que parar todo lo que venga detrás
+            sentencia.execute("SET LOCAL lock_timeout = '10s'");
+            sentencia.execute(("ALTER TABLE %1$s DROP CONSTRAINT %1$s_uk, ADD CONSTRAINT %1$s_uk"
+                    + " UNIQUE NULLS NOT DISTINCT (entidad_padre_id, id) INCLUDE (nombre)").formatted(tabla));
+            conexion.commit();
+        } catch (SQLException e) {
+            conexion.rollback();
+            throw e;
+        } finally {
+            conexion.setAutoCommit(true);
+        }
+    }
+
+    private static boolean existe(Connection conexion, String tabla) throws SQLException {
+        return consultar(conexion, "SELECT to_regclass(?) IS NOT NULL", tabla);
+    }
+
+    private static boolean consultar(Connection conexion, String sql, String parametro) throws SQLException {
+        try (var consulta = conexion.prepareStatement(sql)) {
+            consulta.setString(1, parametro);
+            try (var filas = consulta.executeQuery()) {
+                return filas.next() && filas.getBoolean(1);
+            }
+        }
+    }
+
+    private static List<String> particiones(Connection conexion, String tabla) throws SQLException {
+        try (var consulta = conexion.prepareStatement(
+                "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = to_regclass(?) ORDER BY 1")) {
+            consulta.setString(1, tabla);
+            try (var filas = consulta.executeQuery()) {
+                List<String> particiones = new ArrayList<>();
+                while (filas.next()) {
+                    particiones.add(filas.getString(1));
+                }
+                return particiones;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+-- Deja un esquema creado por Hibernate (el antiguo ddl-auto=create) igual que lo crearía V1, para poder marcarlo
+-- como versión 1 y aplicar el resto de migraciones (FlywayConfig). V2 y V4 renombran las restricciones e índices
+-- de V1, así que no basta con registrar la versión: los nombres tienen que ser los de V1.
+--
+-- Hibernate llama a las claves primarias <tabla>_pkey y a las ajenas FK<hash>, y no crea índices secundarios ni
+-- la restricción única de username.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DO
+$$
+    DECLARE
+        restriccion record;
+    BEGIN
+        FOR restriccion IN
+            SELECT conrelid::regclass::text AS tabla, conname AS nombre
+            FROM pg_constraint
+            WHERE contype = 'p'
+              AND conrelid IN (to_regclass('entidad_padre'), to_regclass('entidad_hija'), to_regclass('usuario'))
+              AND conname <> conrelid::regclass::text || '_pk'
+            LOOP
+                EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I',
+                               restriccion.tabla, restriccion.nombre, restriccion.tabla || '_pk');
+            END LOOP;
+
+        FOR restriccion IN
+            SELECT conname AS nombre
+            FROM pg_constraint
+            WHERE contype = 'f'
+              AND conrelid = 'entidad_hija'::regclass
+              AND conname <> 'entidad_hija_entidad_padre_fk'
+            LOOP
+                EXECUTE format('ALTER TABLE entidad_hija RENAME CONSTRAINT %I TO entidad_hija_entidad_padre_fk',
+                               restriccion.nombre);
+            END LOOP;
+
+        -- Falla si hay nombres de usuario repetidos: hay que resolverlos antes de adoptar el esquema
+        IF NOT EXISTS (SELECT FROM pg_constraint WHERE conname = 'usuario_username_uk'
+                                                 AND conrelid = 'usuario'::regclass) THEN
+            ALTER TABLE usuario
+                ADD CONSTRAINT usuario_username_uk UNIQUE (username);
+        END IF;
+    END
+$$;
+
+CREATE INDEX IF NOT EXISTS entidad_padre_nombre_idx ON entidad_padre (nombre);
+CREATE INDEX IF NOT EXISTS entidad_padre_nombre_trgm_idx ON entidad_padre USING gin (nombre gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS entidad_hija_entidad_padre_id_idx ON entidad_hija (entidad_padre_id);
+CREATE INDEX IF NOT EXISTS entidad_hija_nombre_idx ON entidad_hija (nombre);
+CREATE INDEX IF NOT EXISTS usuario_nombre_idx ON usuario (nombre);
+
+-- Solo afecta a las páginas que se escriban a partir de ahora
+ALTER TABLE entidad_padre SET (fillfactor = 90);
+ALTER TABLE entidad_hija SET (fillfactor = 90);
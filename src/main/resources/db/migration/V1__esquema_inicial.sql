@@ -0,0 +1,48 @@
+-- Esquema inicial. Sustituye a spring.jpa.hibernate.ddl-auto=create; Hibernate solo lo valida.
+--
+-- fillfactor = 90 deja un 10% libre en cada página para que las actualizaciones de nombre sean HOT
+-- (la nueva versión de la fila cabe en la misma página y no hay que tocar los índices).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE entidad_padre
+(
+    id     bigint GENERATED BY DEFAULT AS IDENTITY,
+    nombre varchar(255),
+    CONSTRAINT entidad_padre_pk PRIMARY KEY (id)
+) WITH (fillfactor = 90);
+
+-- findByNombre
+CREATE INDEX entidad_padre_nombre_idx ON entidad_padre (nombre);
+-- findByNombreContaining (LIKE '%...%'): un índice B-tree no sirve, sí uno de trigramas
+CREATE INDEX entidad_padre_nombre_trgm_idx ON entidad_padre USING gin (nombre gin_trgm_ops);
+
+CREATE TABLE entidad_hija
+(
+    id               bigint GENERATED BY DEFAULT AS IDENTITY,
+    nombre           varchar(255),
+    entidad_padre_id bigint,
+    CONSTRAINT entidad_hija_pk PRIMARY KEY (id),
+    CONSTRAINT entidad_hija_entidad_padre_fk FOREIGN KEY (entidad_padre_id) REFERENCES entidad_padre (id)
+) WITH (fillfactor = 90);
+
+-- PostgreSQL no indexa las claves ajenas: sin este índice, cargar las hijas de un padre y borrar un padre
+-- recorren la tabla entera.
+CREATE INDEX entidad_hija_entidad_padre_id_idx ON entidad_hija (entidad_padre_id);
+-- findByNombre
+CREATE INDEX entidad_hija_nombre_idx ON entidad_hija (nombre);
+
+CREATE TABLE usuario
+(
+    id       integer NOT NULL,
+    nombre   varchar(255),
+    password varchar(255),
+    apellido varchar(255),
+    username varchar(255),
+    correo   varchar(255),
+    CONSTRAINT usuario_pk PRIMARY KEY (id),
+    CONSTRAINT usuario_username_uk UNIQUE (username)
+);
+
+-- MyUserDetailsService busca por nombre
+CREATE INDEX usuario_nombre_idx ON usuario (nombre);
@@ -0,0 +1,106 @@
+-- entidad_hija particionada por hash del padre, con ${particionesHija} particiones
+-- (spring.flyway.placeholders[particionesHija]).
+--
+-- Las consultas por padre (findByEntidadPadreId, la colección entidadesHijas) solo leen una partición.
+-- PostgreSQL exige que las restricciones únicas de una tabla particionada incluyan la clave de partición, así que
+-- la unicidad es (entidad_padre_id, id) y nada impide en la base de datos dos filas con el mismo id en padres
+-- distintos. id es GENERATED ALWAYS para que solo lo asigne la secuencia: los únicos que escriben un id propio lo
+-- declaran con OVERRIDING SYSTEM VALUE, y lo toman de la misma secuencia (EscritorLotesHija) o de la tabla original,
+-- cuya clave primaria ya garantiza que no se repite (la réplica del trigger y MigradorParticionesHija).
+--
+-- Si entidad_hija está vacía (instalación nueva) la tabla se sustituye aquí mismo. Si tiene datos, esta migración
+-- solo prepara la nueva tabla y un trigger que le replica los cambios; la copia y el intercambio los hace
+-- MigradorParticionesHija sin parar la aplicación (ver RENDIMIENTO.md).
+
+CREATE FUNCTION entidad_hija_crear_particionada(particiones integer) RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    CREATE TABLE entidad_hija_particionada
+    (
+        id               bigint GENERATED ALWAYS AS IDENTITY,
+        nombre           varchar(255),
+        entidad_padre_id bigint,
+        CONSTRAINT entidad_hija_particionada_uk UNIQUE NULLS NOT DISTINCT (entidad_padre_id, id),
+        CONSTRAINT entidad_hija_particionada_padre_fk FOREIGN KEY (entidad_padre_id) REFERENCES entidad_padre (id)
+    ) PARTITION BY HASH (entidad_padre_id);
+
+    FOR i IN 0 .. particiones - 1
+        LOOP
+            EXECUTE format('CREATE TABLE entidad_hija_p%s PARTITION OF entidad_hija_particionada'
+                               || ' FOR VALUES WITH (MODULUS %s, REMAINDER %s) WITH (fillfactor = 90)',
+                           i, particiones, i);
+        END LOOP;
+
+    -- findById y deleteById no conocen el padre: recorren el índice de id de cada partición
+    CREATE INDEX entidad_hija_particionada_id_idx ON entidad_hija_particionada (id);
+    CREATE INDEX entidad_hija_particionada_nombre_idx ON entidad_hija_particionada (nombre);
+END;
+$$;
+
+-- Replica en la tabla particionada cada cambio de la original mientras dura la copia online.
+-- Una actualización puede cambiar el padre, y con él la partición: se borra la versión anterior y se inserta la nueva.
+CREATE FUNCTION entidad_hija_replicar() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF tg_op IN ('UPDATE', 'DELETE') THEN
+        DELETE
+        FROM entidad_hija_particionada
+        WHERE id = old.id
+          AND entidad_padre_id IS NOT DISTINCT FROM old.entidad_padre_id;
+    END IF;
+    IF tg_op IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO entidad_hija_particionada (id, nombre, entidad_padre_id) OVERRIDING SYSTEM VALUE
+        VALUES (new.id, new.nombre, new.entidad_padre_id)
+        ON CONFLICT (entidad_padre_id, id) DO UPDATE SET nombre = excluded.nombre;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Sustituye la tabla original por la particionada en una transacción corta. La original queda como
+-- entidad_hija_sin_particionar hasta que se borre a mano tras comprobar la migración.
+CREATE FUNCTION entidad_hija_intercambiar() RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    LOCK TABLE entidad_hija, entidad_hija_particionada IN ACCESS EXCLUSIVE MODE;
+    DROP TRIGGER IF EXISTS entidad_hija_replicar ON entidad_hija;
+
+    ALTER TABLE entidad_hija RENAME TO entidad_hija_sin_particionar;
+    ALTER TABLE entidad_hija_sin_particionar RENAME CONSTRAINT entidad_hija_pk TO entidad_hija_sin_particionar_pk;
+    ALTER TABLE entidad_hija_sin_particionar
+        RENAME CONSTRAINT entidad_hija_entidad_padre_fk TO entidad_hija_sin_particionar_padre_fk;
+    ALTER INDEX entidad_hija_entidad_padre_id_idx RENAME TO entidad_hija_sin_particionar_padre_idx;
+    ALTER INDEX entidad_hija_nombre_idx RENAME TO entidad_hija_sin_particionar_nombre_idx;
+
+    ALTER TABLE entidad_hija_particionada RENAME TO entidad_hija;
+    ALTER TABLE entidad_hija RENAME CONSTRAINT entidad_hija_particionada_uk TO entidad_hija_uk;
+    ALTER TABLE entidad_hija RENAME CONSTRAINT entidad_hija_particionada_padre_fk TO entidad_hija_entidad_padre_fk;
+    ALTER INDEX entidad_hija_particionada_id_idx RENAME TO entidad_hija_id_idx;
+    ALTER INDEX entidad_hija_particionada_nombre_idx RENAME TO entidad_hija_nombre_idx;
+
+    -- Las filas copiadas traen su id: la identidad de la nueva tabla debe continuar tras el mayor
+    PERFORM setval(pg_get_serial_sequence('entidad_hija', 'id'),
+                   greatest((SELECT max(id) FROM entidad_hija), 1),
+                   (SELECT max(id) FROM entidad_hija) IS NOT NULL);
+END;
+$$;
+
+DO
+$$
+BEGIN
+    PERFORM entidad_hija_crear_particionada(${particionesHija});
+    IF NOT EXISTS (SELECT 1 FROM entidad_hija) THEN
+        PERFORM entidad_hija_intercambiar();
+        DROP TABLE entidad_hija_sin_particionar;
+    ELSE
+        CREATE TRIGGER entidad_hija_replicar
+            AFTER INSERT OR UPDATE OR DELETE
+            ON entidad_hija
+            FOR EACH ROW
+        EXECUTE FUNCTION entidad_hija_replicar();
+    END IF;
+END;
+$$;
@@ -0,0 +1,89 @@
+-- Outbox de cambios de entidad_padre y entidad_hija.
+--
+-- Los triggers escriben un evento por fila insertada, actualizada o borrada en la misma transacción que el cambio,
+-- sea cual sea quien escribe (servicios, Spring Data REST, la escritura diferida por lotes o SQL a mano).
+-- RelevoCambios asigna después a cada evento una posición consecutiva, en el orden en que los encuentra ya
+-- confirmados, y lo publica en los sumideros. Los clientes piden los cambios posteriores a una posición.
+
+CREATE TABLE evento_cambio
+(
+    id         bigint GENERATED ALWAYS AS IDENTITY,
+    posicion   bigint,
+    entidad    varchar(32) NOT NULL,
+    entidad_id bigint      NOT NULL,
+    operacion  varchar(8)  NOT NULL,
+    datos      jsonb,
+    creado     timestamptz NOT NULL DEFAULT clock_timestamp(),
+    publicado  timestamptz,
+    CONSTRAINT evento_cambio_pk PRIMARY KEY (id),
+    CONSTRAINT evento_cambio_posicion_uk UNIQUE (posicion)
+);
+
+-- Solo los eventos que el relevo todavía no ha publicado
+CREATE INDEX evento_cambio_pendiente_idx ON evento_cambio (id) WHERE posicion IS NULL;
+-- Purga de los eventos publicados fuera de la retención
+CREATE INDEX evento_cambio_publicado_idx ON evento_cambio (publicado);
+
+CREATE FUNCTION evento_cambio_registrar() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    fila jsonb;
+BEGIN
+    IF tg_op = 'UPDATE' AND old IS NOT DISTINCT FROM new THEN
+        RETURN NULL;
+    END IF;
+    fila := CASE WHEN tg_op = 'DELETE' THEN to_jsonb(old) ELSE to_jsonb(new) END;
+    INSERT INTO evento_cambio (entidad, entidad_id, operacion, datos)
+    VALUES (tg_argv[0], (fila ->> 'id')::bigint, tg_op, fila - 'id');
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER entidad_padre_cambios
+    AFTER INSERT OR UPDATE OR DELETE
+    ON entidad_padre
+    FOR EACH ROW
+EXECUTE FUNCTION evento_cambio_registrar('EntidadPadre');
+
+CREATE TRIGGER entidad_hija_cambios
+    AFTER INSERT OR UPDATE OR DELETE
+    ON entidad_hija
+    FOR EACH ROW
+EXECUTE FUNCTION evento_cambio_registrar('EntidadHija');
+
+-- Si la migración online de V2 está a medias, el intercambio debe llevar el trigger a la tabla particionada.
+-- No se crea antes en ella porque la copia de las filas existentes generaría un evento por fila.
+CREATE OR REPLACE FUNCTION entidad_hija_intercambiar() RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    LOCK TABLE entidad_hija, entidad_hija_particionada IN ACCESS EXCLUSIVE MODE;
+    DROP TRIGGER IF EXISTS entidad_hija_replicar ON entidad_hija;
+    DROP TRIGGER IF EXISTS entidad_hija_cambios ON entidad_hija;
+
+    ALTER TABLE entidad_hija RENAME TO entidad_hija_sin_particionar;
+    ALTER TABLE entidad_hija_sin_particionar RENAME CONSTRAINT entidad_hija_pk TO entidad_hija_sin_particionar_pk;
+    ALTER TABLE entidad_hija_sin_particionar
+        RENAME CONSTRAINT entidad_hija_entidad_padre_fk TO entidad_hija_sin_particionar_padre_fk;
+    ALTER INDEX entidad_hija_entidad_padre_id_idx RENAME TO entidad_hija_sin_particionar_padre_idx;
+    ALTER INDEX entidad_hija_nombre_idx RENAME TO entidad_hija_sin_particionar_nombre_idx;
+
+    ALTER TABLE entidad_hija_particionada RENAME TO entidad_hija;
+    ALTER TABLE entidad_hija RENAME CONSTRAINT entidad_hija_particionada_uk TO entidad_hija_uk;
+    ALTER TABLE entidad_hija RENAME CONSTRAINT entidad_hija_particionada_padre_fk TO entidad_hija_entidad_padre_fk;
+    ALTER INDEX entidad_hija_particionada_id_idx RENAME TO entidad_hija_id_idx;
+    ALTER INDEX entidad_hija_particionada_nombre_idx RENAME TO entidad_hija_nombre_idx;
+
+    CREATE TRIGGER entidad_hija_cambios
+        AFTER INSERT OR UPDATE OR DELETE
+        ON entidad_hija
+        FOR EACH ROW
+    EXECUTE FUNCTION evento_cambio_registrar('EntidadHija');
+
+    -- Las filas copiadas traen su id: la identidad de la nueva tabla debe continuar tras el mayor
+    PERFORM setval(pg_get_serial_sequence('entidad_hija', 'id'),
+                   greatest((SELECT max(id) FROM entidad_hija), 1),
+                   (SELECT max(id) FROM entidad_hija) IS NOT NULL);
+END;
+$$;
@@ -0,0 +1,82 @@
+-- Bloqueo optimista y claves de idempotencia.
+--
+-- version es la columna @Version de las entidades: cada UPDATE y DELETE de Hibernate lleva
+-- "WHERE id = ? AND version = ?", así que una escritura basada en una lectura antigua falla en lugar de pisar
+-- la de otro. Añadir una columna con un valor por defecto constante no reescribe la tabla.
+
+ALTER TABLE entidad_padre ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE entidad_hija ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+-- Si la migración online de V2 está a medias, la tabla particionada también necesita la columna, y tanto su
+-- creación como la réplica tienen que incluirla.
+CREATE OR REPLACE FUNCTION entidad_hija_crear_particionada(particiones integer) RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    CREATE TABLE entidad_hija_particionada
+    (
+        id               bigint GENERATED ALWAYS AS IDENTITY,
+        nombre           varchar(255),
+        entidad_padre_id bigint,
+        version          bigint NOT NULL DEFAULT 0,
+        CONSTRAINT entidad_hija_particionada_uk UNIQUE NULLS NOT DISTINCT (entidad_padre_id, id),
+        CONSTRAINT entidad_hija_particionada_padre_fk FOREIGN KEY (entidad_padre_id) REFERENCES entidad_padre (id)
+    ) PARTITION BY HASH (entidad_padre_id);
+
+    FOR i IN 0 .. particiones - 1
+        LOOP
+            EXECUTE format('CREATE TABLE entidad_hija_p%s PARTITION OF entidad_hija_particionada'
+                               || ' FOR VALUES WITH (MODULUS %s, REMAINDER %s) WITH (fillfactor = 90)',
+                           i, particiones, i);
+        END LOOP;
+
+    CREATE INDEX entidad_hija_particionada_id_idx ON entidad_hija_particionada (id);
+    CREATE INDEX entidad_hija_particionada_nombre_idx ON entidad_hija_particionada (nombre);
+END;
+$$;
+
+DO
+$$
+BEGIN
+    IF to_regclass('entidad_hija_particionada') IS NOT NULL THEN
+        ALTER TABLE entidad_hija_particionada ADD COLUMN version bigint NOT NULL DEFAULT 0;
+    END IF;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION entidad_hija_replicar() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF tg_op IN ('UPDATE', 'DELETE') THEN
+        DELETE
+        FROM entidad_hija_particionada
+        WHERE id = old.id
+          AND entidad_padre_id IS NOT DISTINCT FROM old.entidad_padre_id;
+    END IF;
+    IF tg_op IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO entidad_hija_particionada (id, nombre, entidad_padre_id, version) OVERRIDING SYSTEM VALUE
+        VALUES (new.id, new.nombre, new.entidad_padre_id, new.version)
+        ON CONFLICT (entidad_padre_id, id) DO UPDATE SET nombre = excluded.nombre, version = excluded.version;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Respuestas de las escrituras con cabecera Idempotency-Key (ver AlmacenIdempotencia). Una fila sin codigo es
+-- una petición en curso.
+CREATE TABLE clave_idempotencia
+(
+    usuario        varchar(255) NOT NULL,
+    clave          varchar(255) NOT NULL,
+    huella         bytea        NOT NULL,
+    codigo         integer,
+    tipo_contenido varchar(255),
+    ubicacion      varchar(2048),
+    cuerpo         bytea,
+    creada         timestamptz  NOT NULL DEFAULT now(),
+    CONSTRAINT clave_idempotencia_pk PRIMARY KEY (usuario, clave)
+);
+
+-- Purga de las claves fuera de la retención
+CREATE INDEX clave_idempotencia_creada_idx ON clave_idempotencia (creada);
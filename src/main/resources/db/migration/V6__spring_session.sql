@@ -0,0 +1,34 @@
+-- Sesiones HTTP compartidas entre instancias (app.sesiones.almacen=jdbc, ver SesionesConfig).
+--
+-- Es el esquema de spring-session-jdbc con dos cambios:
+-- * Sin índice sobre expiry_time. Cada petición actualiza last_access_time y expiry_time; sin índices sobre esas
+--   columnas, y con un fillfactor de 70, la actualización es HOT: la nueva versión de la fila queda en la misma
+--   página y no hay que tocar ningún índice. A cambio, la limpieza de sesiones caducadas recorre la tabla entera,
+--   y por eso se ejecuta solo cada pocos minutos (spring.session.jdbc.cleanup-cron).
+-- * fillfactor en la tabla de atributos, que también se reescriben al cambiar el contexto de seguridad.
+
+CREATE TABLE spring_session
+(
+    primary_id            char(36) NOT NULL,
+    session_id            char(36) NOT NULL,
+    creation_time         bigint   NOT NULL,
+    last_access_time      bigint   NOT NULL,
+    max_inactive_interval integer  NOT NULL,
+    expiry_time           bigint   NOT NULL,
+    principal_name        varchar(100),
+    CONSTRAINT spring_session_pk PRIMARY KEY (primary_id)
+) WITH (fillfactor = 70);
+
+CREATE UNIQUE INDEX spring_session_ix1 ON spring_session (session_id);
+-- FindByIndexNameSessionRepository: sesiones de un usuario
+CREATE INDEX spring_session_ix3 ON spring_session (principal_name);
+
+CREATE TABLE spring_session_attributes
+(
+    session_primary_id char(36)     NOT NULL,
+    attribute_name     varchar(200) NOT NULL,
+    attribute_bytes    bytea        NOT NULL,
+    CONSTRAINT spring_session_attributes_pk PRIMARY KEY (session_primary_id, attribute_name),
+    CONSTRAINT spring_session_attributes_fk FOREIGN KEY (session_primary_id)
+        REFERENCES spring_session (primary_id) ON DELETE CASCADE
+) WITH (fillfactor = 90);
@@ -0,0 +1,54 @@
+/*
+ * Actualiza en vivo las tablas de entidades con el flujo de cambios (GET /api/cambios/flujo).
+ *
+ * La tabla declara la entidad que muestra y la posición del flujo con la que se renderizó:
+ *   <table data-cambios="EntidadHija" data-desde="123">
+ * Cada fila lleva data-id y un <template> dentro de la tabla sirve de modelo para las filas nuevas; los enlaces y
+ * formularios del modelo apuntan al id 0, que se sustituye por el de la fila.
+ * Si el navegador pierde la conexión, EventSource reconecta solo con Last-Event-ID y el servidor reenvía lo perdido.
+ */
+(function () {
+    'use strict';
+
+    const tabla = document.querySelector('table[data-cambios]');
+    if (!tabla || !window.EventSource) {
+        return;
+    }
+    const entidad = tabla.dataset.cambios;
+    const cuerpo = tabla.tBodies[0];
+    const modelo = tabla.querySelector('template');
+    const url = new URL('api/cambios/flujo', document.baseURI);
+    url.searchParams.set('desde', tabla.dataset.desde);
+    url.searchParams.set('entidad', entidad);
+
+    function fila(id) {
+        return cuerpo.querySelector('tr[data-id="' + id + '"]');
+    }
+
+    function nuevaFila(cambio) {
+        const tr = modelo.content.firstElementChild.cloneNode(true);
+        tr.dataset.id = cambio.id;
+        tr.querySelectorAll('a[href]').forEach(a => a.href = a.href.replace(/\/0$/, '/' + cambio.id));
+        tr.querySelectorAll('form[action]').forEach(f => f.action = f.action.replace(/\/0$/, '/' + cambio.id));
+        return tr;
+    }
+
+    const fuente = new EventSource(url);
+    fuente.addEventListener(entidad, evento => {
+        const cambio = JSON.parse(evento.data);
+        let tr = fila(cambio.id);
+        if (cambio.operacion === 'DELETE') {
+            tr?.remove();
+            return;
+        }
+        if (!tr) {
+            tr = nuevaFila(cambio);
+            cuerpo.appendChild(tr);
+        }
+        tr.cells[0].textContent = cambio.nombre ?? '';
+    });
+    fuente.addEventListener('reiniciar', () => {
+        fuente.close();
+        window.location.reload();
+    });
+})();
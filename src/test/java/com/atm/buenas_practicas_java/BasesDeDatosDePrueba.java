@@ -0,0 +1,185 @@
+package com.atm.buenas_practicas_java;
+
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.core.Flyway;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+import org.springframework.test.context.TestContextAnnotationUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Una base de datos por clase de test, clonada de una plantilla migrada una sola vez por JVM.
+ *
+ * <p>La primera clase que arranca crea en el contenedor la base de datos {@code plantilla} y le aplica las
+ * migraciones de Flyway. Cada clase de test recibe después su propia copia ({@code CREATE DATABASE ... TEMPLATE
+ * plantilla}), que PostgreSQL crea copiando ficheros en unos milisegundos, ya migrada y vacía. Así las clases no
+ * comparten datos, pueden ejecutarse en paralelo y ningún contexto tiene que borrar y recrear el esquema.</p>
+ *
+ * <p>Con {@link Instantanea} la copia sale de una plantilla con los datos de una {@link Semilla}, que se crea una
+ * vez la primera vez que se pide.</p>
+ *
+ * <p>Las copias no se borran al terminar la clase: desaparecen con el contenedor al terminar la JVM.</p>
+ */
+@Log4j2
+public final class BasesDeDatosDePrueba {
+
+    static final String PLANTILLA = "plantilla";
+
+    private static final AtomicInteger COPIAS = new AtomicInteger();
+    private static final Set<String> PLANTILLAS = new HashSet<>();
+
+    private BasesDeDatosDePrueba() {
+    }
+
+    /**
+     * Crea una copia de la plantilla, o de la de la semilla si no es {@code null}. Las plantillas se crean aquí
+     * la primera vez; la sincronización evita que dos clases en paralelo las creen a la vez o copien una a medias.
+     *
+     * @return el nombre de la base de datos creada.
+     */
+    static synchronized String clonar(PostgreSQLContainer<?> contenedor, Class<?> clase,
+                                      Class<? extends Semilla> semilla) {
+        String plantilla = semilla == null ? plantilla(contenedor) : plantilla(contenedor, semilla);
+        String nombre = nombre("prueba_" + COPIAS.incrementAndGet() + "_" + clase.getSimpleName());
+        ejecutar(contenedor, "create database " + nombre + " template " + plantilla);
+        log.debug("{}: base de datos {} copiada de {}", clase.getSimpleName(), nombre, plantilla);
+        return nombre;
+    }
+
+    static String url(PostgreSQLContainer<?> contenedor, String baseDeDatos) {
+        return "jdbc:postgresql://" + contenedor.getHost() + ":"
+                + contenedor.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + baseDeDatos;
+    }
+
+    private static String plantilla(PostgreSQLContainer<?> contenedor) {
+        if (!PLANTILLAS.contains(PLANTILLA)) {
+            long inicio = System.nanoTime();
+            ejecutar(contenedor, "create database " + PLANTILLA);
+            migrar(contenedor, PLANTILLA);
+            PLANTILLAS.add(PLANTILLA);
+            log.info("Plantilla {} migrada en {} ms", PLANTILLA, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return PLANTILLA;
+    }
+
+    private static String plantilla(PostgreSQLContainer<?> contenedor, Class<? extends Semilla> semilla) {
+        String nombre = nombre(PLANTILLA + "_" + semilla.getSimpleName());
+        if (!PLANTILLAS.contains(nombre)) {
+            long inicio = System.nanoTime();
+            ejecutar(contenedor, "create database " + nombre + " template " + plantilla(contenedor));
+            try (var conexion = new SingleConnectionDataSource(url(contenedor, nombre), contenedor.getUsername(),
+                    contenedor.getPassword(), true)) {
+                var jdbcTemplate = new JdbcTemplate(conexion);
+                semilla.getDeclaredConstructor().newInstance().sembrar(jdbcTemplate);
+                jdbcTemplate.execute("analyze");
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo crear la semilla " + semilla.getName(), e);
+            }
+            PLANTILLAS.add(nombre);
+            log.info("Plantilla {} sembrada en {} ms", nombre, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return nombre;
+    }
+
+    /**
+     * Aplica las migraciones con la misma configuración de Flyway que la aplicación
+     * ({@code spring.flyway.locations} y {@code spring.flyway.placeholders} de {@code application.properties}).
+     */
+    private static void migrar(PostgreSQLContainer<?> contenedor, String baseDeDatos) {
+        Properties aplicacion;
+        try {
+            aplicacion = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, String> marcadores = new HashMap<>();
+        for (String clave : aplicacion.stringPropertyNames()) {
+            if (clave.startsWith("spring.flyway.placeholders[") && clave.endsWith("]")) {
+                marcadores.put(clave.substring("spring.flyway.placeholders[".length(), clave.length() - 1),
+                        aplicacion.getProperty(clave));
+            } else if (clave.startsWith("spring.flyway.placeholders.")) {
+                marcadores.put(clave.substring("spring.flyway.placeholders.".length()), aplicacion.getProperty(clave));
+            }
+        }
+        Flyway.configure()
+                .dataSource(url(contenedor, baseDeDatos), contenedor.getUsername(), contenedor.getPassword())
+                .locations(aplicacion.getProperty("spring.flyway.locations", "classpath:db/migration").split(","))
+                .placeholders(marcadores)
+                .load()
+                .migrate();
+    }
+
+    private static void ejecutar(PostgreSQLContainer<?> contenedor, String sql) {
+        try (Connection conexion = DriverManager.getConnection(contenedor.getJdbcUrl(), contenedor.getUsername(),
+                contenedor.getPassword());
+             Statement sentencia = conexion.createStatement()) {
+            sentencia.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(sql, e);
+        }
+    }
+
+    /**
+     * Identificador válido para PostgreSQL: en minúsculas y de como mucho 63 caracteres.
+     */
+    private static String nombre(String nombre) {
+        String identificador = nombre.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+        return identificador.length() > 63 ? identificador.substring(0, 63) : identificador;
+    }
+
+    /**
+     * Da a cada clase que hereda de {@link PostgreSQLContainerTest} su propia copia de la base de datos.
+     */
+    public static class Factoria implements ContextCustomizerFactory {
+
+        @Override
+        public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                         List<ContextConfigurationAttributes> configAttributes) {
+            if (!PostgreSQLContainerTest.class.isAssignableFrom(testClass)) {
+                return null;
+            }
+            Instantanea instantanea = TestContextAnnotationUtils.findMergedAnnotation(testClass, Instantanea.class);
+            return new Copia(testClass, instantanea != null ? instantanea.value() : null);
+        }
+    }
+
+    /**
+     * Apunta {@code spring.datasource.*} a una copia nueva. La clase forma parte de la clave de la caché de
+     * contextos, así que dos clases nunca comparten contexto ni base de datos.
+     */
+    private record Copia(Class<?> clase, Class<? extends Semilla> semilla) implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration configuracion) {
+            PostgreSQLContainer<?> contenedor = PostgreSQLContainerTest.dbContainer;
+            String baseDeDatos = clonar(contenedor, clase, semilla);
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("baseDeDatosDePrueba", Map.of(
+                    "spring.datasource.url", url(contenedor, baseDeDatos),
+                    "spring.datasource.username", contenedor.getUsername(),
+                    "spring.datasource.password", contenedor.getPassword())));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.atm.buenas_practicas_java;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La clase recibe su propia copia de la plantilla sembrada: con el esquema migrado, con los datos de la semilla y
+ * sin que sus escrituras lleguen a la plantilla.
+ */
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Instantanea(BasesDeDatosDePruebaTest.TresPadres.class)
+class BasesDeDatosDePruebaTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static class TresPadres implements Semilla {
+
+        @Override
+        public void sembrar(JdbcTemplate jdbcTemplate) {
+            jdbcTemplate.update("insert into entidad_padre (nombre) values ('Sembrado 1'), ('Sembrado 2'), ('Sembrado 3')");
+        }
+    }
+
+    @Test
+    void laCopiaTieneLaSemillaYNoModificaLaPlantilla() {
+        String baseDeDatos = jdbcTemplate.queryForObject("select current_database()", String.class);
+        log.info("Base de datos de la clase: {}", baseDeDatos);
+        assertThat(baseDeDatos).startsWith("prueba_").endsWith("_basesdedatosdepruebatest");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from flyway_schema_history where success", Integer.class))
+                .isPositive();
+        assertThat(jdbcTemplate.queryForList("select nombre from entidad_padre order by id", String.class))
+                .containsExactly("Sembrado 1", "Sembrado 2", "Sembrado 3");
+
+        jdbcTemplate.update("insert into entidad_padre (nombre) values ('Solo en la copia')");
+
+        String plantilla = "plantilla_trespadres";
+        try (var conexion = new SingleConnectionDataSource(BasesDeDatosDePrueba.url(dbContainer, plantilla),
+                dbContainer.getUsername(), dbContainer.getPassword(), true)) {
+            assertThat(new JdbcTemplate(conexion).queryForObject("select count(*) from entidad_padre", Integer.class))
+                    .isEqualTo(3);
+        }
+    }
+}
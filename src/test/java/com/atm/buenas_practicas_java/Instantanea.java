@@ -0,0 +1,27 @@
+package com.atm.buenas_practicas_java;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * La base de datos del test parte de los datos de una {@link Semilla} en lugar de estar vacía.
+ *
+ * <p>La semilla se ejecuta la primera vez que un test la pide y el resultado queda como plantilla de PostgreSQL:
+ * las siguientes clases la copian con {@code CREATE DATABASE ... TEMPLATE}, que copia ficheros en lugar de
+ * repetir los {@code INSERT}, y con las estadísticas del planificador ya calculadas. Cada clase recibe su propia
+ * copia y puede modificarla.</p>
+ *
+ * @see BasesDeDatosDePrueba
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Instantanea {
+
+    Class<? extends Semilla> value();
+}
@@ -3,19 +3,39 @@ package com.atm.buenas_practicas_java;
 //https://stackoverflow.com/a/77113817/3617531
 
 
-import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextCustomizerFactories;
+import org.springframework.test.context.TestPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+/**
+ * Base de los tests con base de datos: una PostgreSQL de Testcontainers por JVM y, dentro de ella, una base de
+ * datos propia para cada clase de test, copiada de una plantilla ya migrada ({@link BasesDeDatosDePrueba}), también
+ * en los tests de slice como {@code @DataJpaTest}. Con {@link Instantanea} la copia parte de datos sembrados.
+ *
+ * Como ninguna clase comparte datos con otra, las clases se ejecutan en paralelo (ver la configuración de
+ * surefire); los métodos de una misma clase se ejecutan en orden. El contexto se cierra al terminar la clase:
+ * nadie más lo va a reutilizar y así no se acumulan pools de conexiones abiertos.
+ *
+ * El relevo de cambios no publica en segundo plano, para que los tests decidan cuándo se publica: los que lo
+ * necesitan llaman a {@code RelevoCambios.publicar()}. Las contraseñas de los usuarios técnicos, que la
+ * aplicación no trae por defecto, son las de desarrollo.
+ */
 @Testcontainers
+@ContextCustomizerFactories(BasesDeDatosDePrueba.Factoria.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = {"app.cambios.relevo.intervalo=1h", "app.metricas.password=prometheus",
+        "app.jfr.password=jfr"})
 public abstract class PostgreSQLContainerTest {
 
-    @ServiceConnection
-    protected static final PostgreSQLContainer<?> dbContainer = new PostgreSQLContainer<>("postgres:latest").withDatabaseName("testDB").withUsername("appuser").withPassword("password123");
+    protected static final PostgreSQLContainer<?> dbContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("testDB").withUsername("appuser").withPassword("password123")
+            // Varias clases en paralelo, cada una con su pool
+            .withCommand("postgres", "-c", "fsync=off", "-c", "max_connections=300");
 
     static {
         dbContainer.start();
     }
 
 }
-
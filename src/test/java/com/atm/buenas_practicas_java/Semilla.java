@@ -0,0 +1,14 @@
+package com.atm.buenas_practicas_java;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Datos de partida de una {@link Instantanea}. Se ejecuta una sola vez por JVM, sobre una plantilla que ya
+ * tiene el esquema de las migraciones; cada clase de test que la pide recibe una copia.
+ *
+ * Las implementaciones necesitan un constructor sin argumentos.
+ */
+public interface Semilla {
+
+    void sembrar(JdbcTemplate jdbcTemplate);
+}
@@ -0,0 +1,106 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utilidades comunes de los benchmarks: medición de CPU y memoria asignada por el hilo actual y registro
+ * de los resultados en {@code target/benchmarks/resultados.csv}
+ * ({@code fecha,benchmark,variante,iteracion,ms,cpu_ms,bytes_asignados}), para comparar el antes y el después
+ * de un cambio sobre el mismo fichero.
+ */
+@Log4j2
+public final class Benchmarks {
+
+    public static final String TAG = "benchmark";
+
+    private static final Path RESULTADOS = Path.of("target", "benchmarks", "resultados.csv");
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Coste de una ejecución en el hilo actual.
+     *
+     * @param nanos          tiempo transcurrido.
+     * @param cpuNanos       tiempo de CPU del hilo.
+     * @param bytesAsignados memoria asignada en el heap por el hilo.
+     */
+    public record Medicion(long nanos, long cpuNanos, long bytesAsignados) {
+    }
+
+    /**
+     * Medianas de una serie de mediciones.
+     */
+    public record Resumen(double ms, double cpuMs, long bytesAsignados) {
+    }
+
+    /**
+     * Ejecuta la tarea {@code calentamiento} veces sin medir y {@code iteraciones} veces midiendo, y anota
+     * cada medición en el CSV de resultados.
+     *
+     * @return las medianas de CPU y memoria asignada.
+     */
+    public static Resumen medir(String benchmark, String variante, int calentamiento, int iteraciones, Runnable tarea) {
+        for (int i = 0; i < calentamiento; i++) {
+            tarea.run();
+        }
+        List<Medicion> mediciones = new ArrayList<>();
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            long cpu = HILOS.getCurrentThreadCpuTime();
+            long bytes = HILOS.getCurrentThreadAllocatedBytes();
+            tarea.run();
+            mediciones.add(new Medicion(System.nanoTime() - inicio, HILOS.getCurrentThreadCpuTime() - cpu,
+                    HILOS.getCurrentThreadAllocatedBytes() - bytes));
+        }
+        anotar(benchmark, variante, mediciones);
+        Resumen resumen = new Resumen(
+                mediana(mediciones.stream().mapToLong(Medicion::nanos).toArray()) / 1_000_000.0,
+                mediana(mediciones.stream().mapToLong(Medicion::cpuNanos).toArray()) / 1_000_000.0,
+                mediana(mediciones.stream().mapToLong(Medicion::bytesAsignados).toArray()));
+        log.info("{} [{}]: mediana {} ms, {} ms de CPU, {} KiB asignados", benchmark, variante,
+                String.format("%.1f", resumen.ms()), String.format("%.1f", resumen.cpuMs()),
+                resumen.bytesAsignados() / 1024);
+        return resumen;
+    }
+
+    private static long mediana(long[] valores) {
+        Arrays.sort(valores);
+        return valores[valores.length / 2];
+    }
+
+    private static synchronized void anotar(String benchmark, String variante, List<Medicion> mediciones) {
+        String fecha = OffsetDateTime.now().toString();
+        StringBuilder lineas = new StringBuilder();
+        for (int i = 0; i < mediciones.size(); i++) {
+            Medicion medicion = mediciones.get(i);
+            lineas.append(String.join(",", fecha, benchmark, variante, String.valueOf(i),
+                    String.format(Locale.ROOT, "%.3f", medicion.nanos() / 1_000_000.0),
+                    String.format(Locale.ROOT, "%.3f", medicion.cpuNanos() / 1_000_000.0),
+                    String.valueOf(medicion.bytesAsignados()))).append('\n');
+        }
+        try {
+            Files.createDirectories(RESULTADOS.getParent());
+            if (Files.notExists(RESULTADOS)) {
+                Files.writeString(RESULTADOS, "fecha,benchmark,variante,iteracion,ms,cpu_ms,bytes_asignados\n");
+            }
+            Files.writeString(RESULTADOS, lineas, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import com.atm.buenas_practicas_java.mensajes.FuenteMensajesPrecompilada;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resolución de mensajes con el {@link ResourceBundleMessageSource} de Spring Boot y con
+ * {@link FuenteMensajesPrecompilada}: las claves de {@code entidadesHijas.html}, que se piden en cada render, y un
+ * mensaje con argumentos, en un hilo y en varios a la vez (donde {@code ResourceBundleMessageSource} comparte un
+ * {@code MessageFormat} sincronizado por mensaje y locale).
+ */
+@Log4j2
+@Tag(Benchmarks.TAG)
+class MensajesBenchmarkTest {
+
+    private static final String[] CLAVES_PLANTILLA = {"page.entities.title", "list.entities.title",
+            "list.entities.column.name", "list.entities.column.actions", "button.edit", "button.delete"};
+    private static final Locale LOCALE = Locale.of("es", "ES");
+    private static final int RESOLUCIONES = 200_000;
+    private static final int HILOS = 8;
+
+    @Test
+    void resolucionDeMensajes() throws Exception {
+        var referencia = new ResourceBundleMessageSource();
+        referencia.setBasenames("i18n.messages", "i18n.benchmark");
+        referencia.setDefaultEncoding("UTF-8");
+        referencia.setFallbackToSystemLocale(false);
+        var precompilada = new FuenteMensajesPrecompilada(List.of("i18n.messages", "i18n.benchmark"), StandardCharsets.UTF_8, false,
+                Duration.ZERO, new DefaultResourceLoader());
+
+        for (var fuente : List.of(new Variante("resource-bundle", referencia), new Variante("precompilada", precompilada))) {
+            Benchmarks.Resumen claves = Benchmarks.medir("mensajes-plantilla", fuente.nombre(), 3, 10,
+                    () -> resolverClaves(fuente.fuente(), RESOLUCIONES));
+            Benchmarks.Resumen formato = Benchmarks.medir("mensajes-formato", fuente.nombre(), 3, 10,
+                    () -> formatear(fuente.fuente(), RESOLUCIONES / 10));
+            long concurrente = concurrente(fuente.fuente());
+            log.info("{}: {} resoluciones/s sin argumentos, {} formatos/s, {} ms con {} hilos formateando", fuente.nombre(),
+                    Math.round(RESOLUCIONES / (claves.ms() / 1000)),
+                    Math.round(RESOLUCIONES / 10 / (formato.ms() / 1000)), concurrente, HILOS);
+        }
+        assertThat(precompilada.getMessage("page.contact.title", null, LOCALE))
+                .isEqualTo(referencia.getMessage("page.contact.title", null, LOCALE));
+    }
+
+    private static void resolverClaves(MessageSource fuente, int veces) {
+        int longitud = 0;
+        for (int i = 0; i < veces; i++) {
+            longitud += fuente.getMessage(CLAVES_PLANTILLA[i % CLAVES_PLANTILLA.length], null, LOCALE).length();
+        }
+        assertThat(longitud).isPositive();
+    }
+
+    private static void formatear(MessageSource fuente, int veces) {
+        for (int i = 0; i < veces; i++) {
+            fuente.getMessage("benchmark.formato", new Object[]{"Lista", i}, LOCALE);
+        }
+    }
+
+    private static long concurrente(MessageSource fuente) throws Exception {
+        long inicio = System.nanoTime();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(HILOS)) {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(hilos.submit(() -> formatear(fuente, RESOLUCIONES / 10)));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    private record Variante(String nombre, MessageSource fuente) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import com.atm.buenas_practicas_java.lectura.AlmacenNombres;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Diez millones de nombres "Hija de Entidad-N" (diez hijas por padre) como {@code String}, uno por entidad como
+ * los deja Hibernate, y como manejadores de {@link AlmacenNombres} fuera del heap. Con cada uno vivo en memoria
+ * mide:
+ *
+ * <ul>
+ *   <li>el heap ocupado después de un GC completo, y lo reservado fuera del heap;</li>
+ *   <li>la pausa de un GC completo ({@code System.gc()}), que recorre todo lo vivo;</li>
+ *   <li>las pausas de los GC jóvenes mientras se generan unos GB de basura de vida corta;</li>
+ *   <li>lo que cuesta leer todos los nombres, que fuera del heap es decodificar cada uno.</li>
+ * </ul>
+ *
+ * El perfil {@code benchmark} ejecuta con {@code -Xmx1g}: los {@code String} ocupan más de la mitad del heap.
+ */
+@Log4j2
+@Tag(Benchmarks.TAG)
+class NombresFueraDelHeapBenchmarkTest {
+
+    private static final int NOMBRES = 10_000_000;
+    private static final int HIJAS_POR_PADRE = 10;
+    private static final long BASURA = 4L << 30;
+
+    @Test
+    void diezMillonesDeNombres() throws InterruptedException {
+        Resultado enHeap = medir("en-heap", () -> {
+            String[] nombres = new String[NOMBRES];
+            for (int i = 0; i < NOMBRES; i++) {
+                nombres[i] = nombre(i);
+            }
+            return new Nombres(nombres, 0, i -> nombres[i]);
+        });
+        Resultado fueraDelHeap = medir("fuera-del-heap", () -> {
+            var almacen = new AlmacenNombres(16L << 20);
+            long[] manejadores = new long[NOMBRES];
+            for (int i = 0; i < NOMBRES; i++) {
+                manejadores[i] = almacen.agregar(nombre(i));
+            }
+            return new Nombres(manejadores, almacen.bytesReservados(), i -> almacen.nombre(manejadores[i]));
+        });
+
+        assertThat(fueraDelHeap.bytesHeap()).isLessThan(enHeap.bytesHeap() / 4);
+        assertThat(fueraDelHeap.ultimo()).isEqualTo(enHeap.ultimo());
+    }
+
+    private static Resultado medir(String variante, Supplier<Nombres> construir) throws InterruptedException {
+        long antes = heapTrasGc();
+        Nombres nombres = construir.get();
+        long bytesHeap = heapTrasGc() - antes;
+
+        Benchmarks.medir("nombres-gc-completo", variante, 1, 5, System::gc);
+        List<Long> pausas = pausasJovenes(NombresFueraDelHeapBenchmarkTest::generarBasura);
+        Benchmarks.medir("nombres-lectura", variante, 1, 5, () -> {
+            long longitud = 0;
+            for (int i = 0; i < NOMBRES; i++) {
+                longitud += nombres.nombre().apply(i).length();
+            }
+            assertThat(longitud).isPositive();
+        });
+
+        log.info("{}: {} MiB en el heap, {} MiB fuera; {} GC jóvenes con basura, pausa máxima {} ms y total {} ms",
+                variante, bytesHeap >> 20, nombres.bytesFueraHeap() >> 20, pausas.size(),
+                pausas.stream().mapToLong(Long::longValue).max().orElse(0),
+                pausas.stream().mapToLong(Long::longValue).sum());
+        String ultimo = nombres.nombre().apply(NOMBRES - 1);
+        Reference.reachabilityFence(nombres);
+        return new Resultado(bytesHeap, ultimo);
+    }
+
+    private static String nombre(int i) {
+        return "Hija de Entidad-" + (i / HIJAS_POR_PADRE);
+    }
+
+    private static long heapTrasGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Asigna {@link #BASURA} bytes en arrays de 1 KB; los últimos 1024 siguen vivos en cada momento.
+     */
+    private static void generarBasura() {
+        Object[] ventana = new Object[1024];
+        for (long asignados = 0, i = 0; asignados < BASURA; asignados += 1024, i++) {
+            ventana[(int) (i & 1023)] = new byte[1024];
+        }
+        Reference.reachabilityFence(ventana);
+    }
+
+    /**
+     * Duración de cada GC joven mientras se ejecuta la tarea, según las notificaciones de la JVM.
+     */
+    private static List<Long> pausasJovenes(Runnable tarea) throws InterruptedException {
+        List<Long> pausas = Collections.synchronizedList(new ArrayList<>());
+        NotificationListener escucha = (Notification notificacion, Object contexto) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notificacion.getType())) {
+                var info = GarbageCollectionNotificationInfo.from((CompositeData) notificacion.getUserData());
+                if (info.getGcAction().contains("minor")) {
+                    pausas.add(info.getGcInfo().getDuration());
+                }
+            }
+        };
+        List<GarbageCollectorMXBean> colectores = ManagementFactory.getGarbageCollectorMXBeans();
+        colectores.forEach(gc -> ((NotificationEmitter) gc).addNotificationListener(escucha, null, null));
+        try {
+            tarea.run();
+            // Las notificaciones llegan en otro hilo
+            Thread.sleep(500);
+        } finally {
+            for (GarbageCollectorMXBean gc : colectores) {
+                try {
+                    ((NotificationEmitter) gc).removeNotificationListener(escucha);
+                } catch (ListenerNotFoundException e) {
+                    // No llegó a registrarse
+                }
+            }
+        }
+        return List.copyOf(pausas);
+    }
+
+    /**
+     * Una variante con sus nombres vivos.
+     *
+     * @param estructura     lo que mantiene vivos los nombres.
+     * @param bytesFueraHeap memoria reservada fuera del heap.
+     * @param nombre         el nombre de cada posición.
+     */
+    private record Nombres(Object estructura, long bytesFueraHeap, IntFunction<String> nombre) {
+    }
+
+    private record Resultado(long bytesHeap, String ultimo) {
+    }
+}
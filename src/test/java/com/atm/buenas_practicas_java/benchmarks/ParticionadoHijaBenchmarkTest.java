@@ -0,0 +1,84 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara {@code entidad_hija} particionada por hash del padre con la misma tabla sin particionar: ritmo de
+ * inserción y latencia de las lecturas de las hijas de un padre.
+ *
+ * El volumen se ajusta con {@code -Dbenchmark.filas} (por defecto un millón). El volumen objetivo es
+ * {@code -Dbenchmark.filas=100000000}, que necesita varias decenas de GB de disco para el contenedor.
+ */
+@Log4j2
+@Tag(Benchmarks.TAG)
+@SpringBootTest(properties = "app.sql.habilitado=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParticionadoHijaBenchmarkTest extends PostgreSQLContainerTest {
+
+    private static final long FILAS = Long.getLong("benchmark.filas", 1_000_000);
+    private static final int HIJAS_POR_PADRE = 100;
+    private static final long PADRES = Math.max(1, FILAS / HIJAS_POR_PADRE);
+    private static final int LECTURAS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long primerPadre;
+
+    @BeforeAll
+    void crearTablas() {
+        jdbcTemplate.update("insert into entidad_padre (nombre) select 'Padre ' || g from generate_series(1, ?) g",
+                PADRES);
+        primerPadre = jdbcTemplate.queryForObject("select max(id) from entidad_padre", Long.class) - PADRES + 1;
+        jdbcTemplate.execute("""
+                create table entidad_hija_plana (
+                    id bigint generated by default as identity primary key,
+                    nombre varchar(255),
+                    entidad_padre_id bigint references entidad_padre (id)
+                ) with (fillfactor = 90)
+                """);
+        jdbcTemplate.execute("create index entidad_hija_plana_padre_idx on entidad_hija_plana (entidad_padre_id)");
+        jdbcTemplate.execute("create index entidad_hija_plana_nombre_idx on entidad_hija_plana (nombre)");
+        // Se compara el particionado, no el outbox: la tabla plana no tiene trigger de cambios
+        jdbcTemplate.execute("alter table entidad_hija disable trigger entidad_hija_cambios");
+    }
+
+    @Test
+    void insercionYLecturasPorPadre() {
+        for (String tabla : new String[]{"entidad_hija_plana", "entidad_hija"}) {
+            Benchmarks.Resumen insercion = Benchmarks.medir("particionado-insercion", tabla, 0, 1,
+                    () -> jdbcTemplate.update("insert into " + tabla + " (nombre, entidad_padre_id) "
+                            + "select 'Hija ' || g, ? + g % ? from generate_series(1, ?) g", primerPadre, PADRES, FILAS));
+            log.info("{}: {} filas/s", tabla, Math.round(FILAS / (insercion.ms() / 1000)));
+            jdbcTemplate.execute("analyze " + tabla);
+        }
+
+        for (String tabla : new String[]{"entidad_hija_plana", "entidad_hija"}) {
+            String consulta = "select id, nombre from " + tabla + " where entidad_padre_id = ?";
+            Benchmarks.Resumen lecturas = Benchmarks.medir("particionado-lectura-padre", tabla, 1, 5, () -> {
+                for (int i = 0; i < LECTURAS; i++) {
+                    long padre = primerPadre + ThreadLocalRandom.current().nextLong(PADRES);
+                    assertThat(jdbcTemplate.queryForList(consulta, padre)).isNotEmpty();
+                }
+            });
+            log.info("{}: {} ms por lectura de las hijas de un padre", tabla, lecturas.ms() / LECTURAS);
+        }
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "explain select id, nombre from entidad_hija where entidad_padre_id = 42", String.class));
+        log.info("Plan de una lectura por padre:\n{}", plan);
+        assertThat(plan).as("poda de particiones").doesNotContain("Append");
+    }
+}
@@ -0,0 +1,95 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.sesiones.RepositorioSesionesMemoria;
+import com.atm.buenas_practicas_java.sesiones.SesionesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coste de las sesiones en cada almacén, medido en el repositorio de Spring Session, que es lo que cambia entre
+ * ambos: el resto de la petición es igual.
+ *
+ * <ul>
+ *   <li>{@code sesiones.login}: crear la sesión, guardar el contexto de seguridad y el token CSRF, y guardarla.</li>
+ *   <li>{@code sesiones.peticion}: lo que hace {@code SessionRepositoryFilter} en cada petición autenticada:
+ *       leer la sesión, actualizar el último acceso y guardarla.</li>
+ * </ul>
+ *
+ * Cada iteración son {@value #OPERACIONES} operaciones; el rendimiento (operaciones por segundo) se anota en el
+ * log junto a la mediana.
+ */
+@Log4j2
+@Tag(Benchmarks.TAG)
+@SpringBootTest(properties = "app.sql.habilitado=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SesionesBenchmarkTest extends PostgreSQLContainerTest {
+
+    private static final int OPERACIONES = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void memoria() {
+        medir("memoria", new RepositorioSesionesMemoria(Duration.ofMinutes(30),
+                new SesionesProperties(SesionesProperties.Almacen.MEMORIA, 100_000, Duration.ofMinutes(1)),
+                Clock.systemUTC(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void jdbc() {
+        medir("jdbc", new JdbcIndexedSessionRepository(jdbcTemplate, transactionTemplate));
+    }
+
+    private <S extends Session> void medir(String almacen, SessionRepository<S> repositorio) {
+        List<String> ids = new ArrayList<>();
+        var login = Benchmarks.medir("sesiones.login", almacen, 3, 10, () -> {
+            ids.clear();
+            for (int i = 0; i < OPERACIONES; i++) {
+                S sesion = repositorio.createSession();
+                sesion.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                        new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                                "usuario" + i, null, AuthorityUtils.createAuthorityList("ROLE_USER"))));
+                sesion.setAttribute("csrf", "token-" + i);
+                repositorio.save(sesion);
+                ids.add(sesion.getId());
+            }
+        });
+        var peticion = Benchmarks.medir("sesiones.peticion", almacen, 3, 10, () -> {
+            for (String id : ids) {
+                S sesion = repositorio.findById(id);
+                sesion.setLastAccessedTime(Instant.now());
+                repositorio.save(sesion);
+            }
+        });
+        log.info("Sesiones en {}: {} logins/s, {} peticiones/s", almacen,
+                Math.round(OPERACIONES * 1000 / login.ms()), Math.round(OPERACIONES * 1000 / peticion.ms()));
+        assertThat(repositorio.findById(ids.getLast())).isNotNull();
+    }
+}
@@ -0,0 +1,82 @@
+package com.atm.buenas_practicas_java.benchmarks;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.services.EntidadHijaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara un {@code findAll} grande en una transacción de escritura (copia de cada entidad para el dirty
+ * checking y flush al confirmar) con el mismo listado a través del servicio, en una transacción de solo
+ * lectura con las pistas {@code readOnly} y {@code FlushMode.MANUAL} de Hibernate.
+ */
+@Log4j2
+@Tag(Benchmarks.TAG)
+@SpringBootTest(properties = "app.sql.habilitado=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransaccionesSoloLecturaBenchmarkTest extends PostgreSQLContainerTest {
+
+    private static final int PADRES = 20;
+    private static final int HIJAS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntidadHijaService entidadHijaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeAll
+    void cargarDatos() {
+        log.info("Cargando {} entidades hija repartidas entre {} padres...", HIJAS, PADRES);
+        List<Object[]> padres = new ArrayList<>();
+        for (int i = 0; i < PADRES; i++) {
+            padres.add(new Object[]{"Padre benchmark " + i});
+        }
+        jdbcTemplate.batchUpdate("insert into entidad_padre (nombre) values (?)", padres);
+        List<Long> ids = jdbcTemplate.queryForList("select id from entidad_padre", Long.class);
+        List<Object[]> hijas = new ArrayList<>();
+        for (int i = 0; i < HIJAS; i++) {
+            hijas.add(new Object[]{"Hija benchmark " + i, ids.get(i % ids.size())});
+        }
+        jdbcTemplate.batchUpdate("insert into entidad_hija (nombre, entidad_padre_id) values (?, ?)", hijas);
+    }
+
+    @Test
+    void findAllDeSoloLecturaAsignaMenosMemoriaYConsumeMenosCpu() {
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+
+        Benchmarks.Resumen lecturaEscritura = Benchmarks.medir("findAll-hijas", "transaccion-escritura", 3, 10,
+                () -> escritura.executeWithoutResult(estado -> assertThat(entityManager
+                        .createQuery("select h from EntidadHija h", EntidadHija.class)
+                        .getResultList()).hasSize(HIJAS)));
+        Benchmarks.Resumen soloLectura = Benchmarks.medir("findAll-hijas", "solo-lectura", 3, 10,
+                () -> assertThat(entidadHijaService.findAll()).hasSize(HIJAS));
+
+        log.info("Solo lectura: {}% de la memoria y {}% de la CPU de la transacción de escritura",
+                100 * soloLectura.bytesAsignados() / lecturaEscritura.bytesAsignados(),
+                Math.round(100 * soloLectura.cpuMs() / lecturaEscritura.cpuMs()));
+        assertThat(soloLectura.bytesAsignados()).isLessThan(lecturaEscritura.bytesAsignados());
+    }
+}
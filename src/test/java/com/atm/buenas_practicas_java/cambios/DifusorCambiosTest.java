@@ -0,0 +1,143 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import com.atm.buenas_practicas_java.dtos.PaginaCambios;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Difusión de cambios a muchos suscriptores con buffers acotados y recuperación por posición, sin base de datos.
+ */
+class DifusorCambiosTest {
+
+    private static final int SUSCRIPTORES = 10_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void diezMilSuscriptoresRecibenTodosLosCambiosYUnoLentoNoFrenaAlResto() {
+        var difusor = new DifusorCambios(new RepositorioFijo(List.of()), flujo(256), meterRegistry);
+        List<AtomicInteger> recibidos = new ArrayList<>();
+        for (int i = 0; i < SUSCRIPTORES; i++) {
+            AtomicInteger contador = new AtomicInteger();
+            recibidos.add(contador);
+            difusor.suscribir().subscribe(cambio -> contador.incrementAndGet());
+        }
+        var lento = new SuscriptorSinDemanda();
+        difusor.suscribir().subscribe(lento);
+        assertThat(meterRegistry.get("cambios.flujo.suscriptores").gauge().value()).isEqualTo(SUSCRIPTORES + 1);
+
+        for (long posicion = 1; posicion <= 1000; posicion += 100) {
+            difusor.publicar(cambios(posicion, posicion + 99));
+        }
+
+        assertThat(recibidos).allSatisfy(contador -> assertThat(contador).hasValue(1000));
+        assertThat(meterRegistry.get("cambios.flujo.desbordes").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cambios.flujo.suscriptores").gauge().value()).isEqualTo(SUSCRIPTORES);
+
+        // Cuando el cliente lento vuelve a consumir, recibe su buffer y el error que le hace reconectar
+        lento.request(Long.MAX_VALUE);
+        assertThat(lento.recibidos).hasValue(256);
+        assertThat(lento.error).isInstanceOf(DifusorCambios.ClienteLentoException.class);
+    }
+
+    @Test
+    void alReconectarRecibeLoPerdidoYLuegoLoNuevoSinDuplicados() {
+        var difusor = new DifusorCambios(new RepositorioFijo(cambios(6, 10)), flujo(256), meterRegistry);
+
+        StepVerifier.create(difusor.flujo(5L).map(Cambio::posicion))
+                .expectSubscription()
+                .then(() -> difusor.publicar(cambios(9, 12)))
+                .expectNext(6L, 7L, 8L, 9L, 10L, 11L, 12L)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void siLoPerdidoNoSeConservaPideReiniciar() {
+        var difusor = new DifusorCambios(new RepositorioFijo(cambios(1, 3)), flujo(256), meterRegistry);
+
+        StepVerifier.create(new DifusorCambios(new RepositorioCaducado(), flujo(256), meterRegistry).flujo(0L))
+                .expectError(DifusorCambios.ReinicioNecesarioException.class)
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(difusor.flujo(0L).map(Cambio::posicion))
+                .expectNext(1L, 2L, 3L)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static CambiosProperties.Flujo flujo(int buffer) {
+        return new CambiosProperties.Flujo(buffer, Duration.ofSeconds(15), 5000);
+    }
+
+    private static List<Cambio> cambios(long desde, long hasta) {
+        return LongStream.rangeClosed(desde, hasta)
+                .mapToObj(posicion -> new Cambio(posicion, "EntidadHija", posicion, Cambio.Operacion.INSERT,
+                        "Hija " + posicion, 1L, Instant.now()))
+                .toList();
+    }
+
+    /** Repositorio que devuelve siempre los mismos cambios ya publicados. */
+    private static class RepositorioFijo extends RepositorioCambios {
+
+        private final List<Cambio> cambios;
+
+        RepositorioFijo(List<Cambio> cambios) {
+            super(null, null);
+            this.cambios = cambios;
+        }
+
+        @Override
+        public PaginaCambios leerDesde(long desde, int limite) {
+            List<Cambio> posteriores = cambios.stream().filter(cambio -> cambio.posicion() > desde).toList();
+            return new PaginaCambios(posteriores, posteriores.isEmpty() ? desde : posteriores.getLast().posicion(),
+                    false);
+        }
+    }
+
+    /** Repositorio en el que la posición pedida ya se purgó. */
+    private static class RepositorioCaducado extends RepositorioCambios {
+
+        RepositorioCaducado() {
+            super(null, null);
+        }
+
+        @Override
+        public PaginaCambios leerDesde(long desde, int limite) {
+            return new PaginaCambios(List.of(), 100, true);
+        }
+    }
+
+    /** Cliente que no pide ningún cambio, como un navegador con el socket lleno. */
+    private static class SuscriptorSinDemanda extends BaseSubscriber<Cambio> {
+
+        private final AtomicInteger recibidos = new AtomicInteger();
+        private volatile Throwable error;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // Sin demanda: los cambios se acumulan en su buffer
+        }
+
+        @Override
+        protected void hookOnNext(Cambio cambio) {
+            recibidos.incrementAndGet();
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.atm.buenas_practicas_java.cambios;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.services.EntidadHijaService;
+import com.atm.buenas_practicas_java.services.EntidadPadreService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Outbox de cambios: los triggers registran los cambios en la transacción del servicio, el relevo los numera y
+ * los entrega a los sumideros, y los clientes los leen por posición.
+ */
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class RelevoCambiosTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntidadPadreService entidadPadreService;
+
+    @Autowired
+    private EntidadHijaService entidadHijaService;
+
+    @Autowired
+    private RelevoCambios relevoCambios;
+
+    @Autowired
+    private RepositorioCambios repositorioCambios;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CambiosRecibidos recibidos;
+
+    @Test
+    void losCambiosDeLosServiciosSePublicanEnOrdenYLlegaALosListeners() {
+        relevoCambios.publicar();
+        long desde = ultimaPosicion();
+
+        EntidadPadre padre = entidadPadreService.save(new EntidadPadre("Padre con cambios"));
+        EntidadHija hija = new EntidadHija("Hija con cambios");
+        hija.setEntidadPadre(padre);
+        hija = entidadHijaService.save(hija);
+        hija.setNombre("Hija cambiada");
+        entidadHijaService.save(hija);
+        entidadHijaService.deleteById(hija.getId());
+        relevoCambios.publicar();
+
+        long padreId = padre.getId();
+        long hijaId = hija.getId();
+        List<Cambio> cambios = repositorioCambios.leerDesde(desde, 1000).cambios().stream()
+                .filter(cambio -> cambio.id() == (cambio.entidad().equals("EntidadPadre") ? padreId : hijaId))
+                .toList();
+        assertThat(cambios)
+                .extracting(Cambio::entidad, Cambio::id, Cambio::operacion, Cambio::nombre)
+                .containsExactly(
+                        tuple("EntidadPadre", padre.getId(), Cambio.Operacion.INSERT, "Padre con cambios"),
+                        tuple("EntidadHija", hija.getId(), Cambio.Operacion.INSERT, "Hija con cambios"),
+                        tuple("EntidadHija", hija.getId(), Cambio.Operacion.UPDATE, "Hija cambiada"),
+                        tuple("EntidadHija", hija.getId(), Cambio.Operacion.DELETE, "Hija cambiada"));
+        assertThat(cambios).extracting(Cambio::posicion).isSorted().doesNotHaveDuplicates()
+                .allSatisfy(posicion -> assertThat(posicion).isGreaterThan(desde));
+        assertThat(cambios.get(1).entidadPadreId()).isEqualTo(padre.getId());
+        assertThat(recibidos.cambios).containsAll(cambios);
+        assertThat(meterRegistry.get("cambios.relevo.publicados").counter().count()).isGreaterThanOrEqualTo(4);
+        assertThat(meterRegistry.get("cambios.relevo.retraso").timer().count()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void unaTransaccionDeshechaNoDejaEventos() {
+        transactionTemplate.executeWithoutResult(estado -> {
+            entidadPadreService.save(new EntidadPadre("Padre deshecho"));
+            estado.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from evento_cambio where datos ->> 'nombre' = 'Padre deshecho'", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    @WithMockUser
+    void losClientesLeenLosCambiosDesdeUnaPosicion() throws Exception {
+        entidadPadreService.save(new EntidadPadre("Padre leído por posición"));
+        relevoCambios.publicar();
+        long ultima = ultimaPosicion();
+
+        mockMvc.perform(get("/api/cambios").param("desde", String.valueOf(ultima - 1)).param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cambios.length()").value(1))
+                .andExpect(jsonPath("$.cambios[0].posicion").value(ultima))
+                .andExpect(jsonPath("$.siguiente").value(ultima))
+                .andExpect(jsonPath("$.reiniciar").value(false));
+        mockMvc.perform(get("/api/cambios").param("limite", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void elSumideroDeFicheroEscribeUnaLineaPorCambio(@TempDir Path directorio) throws Exception {
+        Path ruta = directorio.resolve("cambios/cambios.jsonl");
+        List<Cambio> cambios = List.of(
+                new Cambio(1, "EntidadPadre", 1, Cambio.Operacion.INSERT, "Padre", null, Instant.now()),
+                new Cambio(2, "EntidadHija", 2, Cambio.Operacion.DELETE, "Hija", 1L, Instant.now()));
+
+        try (var sumidero = new SumideroFichero(objectMapper, ruta)) {
+            sumidero.publicar(cambios);
+        }
+
+        List<String> lineas = Files.readAllLines(ruta);
+        assertThat(lineas).hasSize(2);
+        assertThat(objectMapper.readValue(lineas.get(1), Cambio.class)).isEqualTo(cambios.get(1));
+    }
+
+    private long ultimaPosicion() {
+        return jdbcTemplate.queryForObject("select coalesce(max(posicion), 0) from evento_cambio", Long.class);
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        CambiosRecibidos cambiosRecibidos() {
+            return new CambiosRecibidos();
+        }
+    }
+
+    static class CambiosRecibidos {
+
+        final List<Cambio> cambios = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void alCambiar(Cambio cambio) {
+            cambios.add(cambio);
+        }
+    }
+}
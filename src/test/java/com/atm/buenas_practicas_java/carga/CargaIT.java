@@ -0,0 +1,141 @@
+package com.atm.buenas_practicas_java.carga;
+
+import com.atm.buenas_practicas_java.Instantanea;
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.Semilla;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga: arranca la aplicación en un puerto real contra una copia de la PostgreSQL de Testcontainers con
+ * {@code carga.padres} × {@code carga.hijas-por-padre} filas ({@link DatosCarga}) y ejecuta cada escenario de {@link Escenarios} con
+ * {@link MotorCarga}. Falla si algún escenario empeora frente a la {@link LineaBase}.
+ *
+ * <p>Solo se ejecuta con {@code mvn -Pcarga verify}. Ver la sección «Pruebas de carga» de RENDIMIENTO.md.</p>
+ *
+ * <p>La aplicación tiene dos {@code UserDetailsService} (el de memoria de {@code SecurityConfig} y
+ * {@code MyUserDetailsService}), así que Spring Security no configura ninguno para el login por formulario.
+ * La prueba registra un único {@link DaoAuthenticationProvider} con el usuario de carga para que los usuarios
+ * virtuales puedan iniciar sesión como en un navegador.</p>
+ */
+@Log4j2
+@Tag(MotorCarga.TAG)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.root=WARN", "logging.level.com.atm.buenas_practicas_java.carga=INFO",
+        // Todos los usuarios virtuales vienen de la misma IP: se mide la aplicación, no los límites
+        "app.limites.habilitado=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Instantanea(CargaIT.DatosCarga.class)
+class CargaIT extends PostgreSQLContainerTest {
+
+    private static final String USUARIO = "carga";
+    private static final String PASSWORD = "carga";
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+    private LineaBase lineaBase;
+    private MotorCarga motor;
+
+    @TestConfiguration
+    static class UsuarioCarga {
+
+        @Bean
+        DaoAuthenticationProvider proveedorCarga() {
+            var proveedor = new DaoAuthenticationProvider();
+            proveedor.setUserDetailsService(new InMemoryUserDetailsManager(
+                    User.withUsername(USUARIO).password("{noop}" + PASSWORD).roles("USER").build()));
+            return proveedor;
+        }
+    }
+
+    /**
+     * {@code carga.padres} padres con {@code carga.hijas-por-padre} hijas cada uno.
+     */
+    static class DatosCarga implements Semilla {
+
+        @Override
+        public void sembrar(JdbcTemplate jdbcTemplate) {
+            ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+            jdbcTemplate.update("insert into entidad_padre (nombre) select 'Padre carga ' || i from generate_series(1, ?) i",
+                    configuracion.padres());
+            jdbcTemplate.update("""
+                    insert into entidad_hija (nombre, entidad_padre_id)
+                    select 'Hija carga ' || p.id || '-' || i, p.id
+                    from entidad_padre p cross join generate_series(1, ?) i""", configuracion.hijasPorPadre());
+        }
+    }
+
+    @BeforeAll
+    void preparar() {
+        lineaBase = new LineaBase(configuracion);
+        motor = new MotorCarga(URI.create("http://localhost:" + puerto), configuracion);
+    }
+
+    @Test
+    @Order(1)
+    void entidadesAnonimo() throws Exception {
+        medir(Escenarios.entidadesAnonimo());
+    }
+
+    @Test
+    @Order(2)
+    void protegidoAutenticado() throws Exception {
+        medir(Escenarios.protegidoAutenticado(USUARIO, PASSWORD));
+    }
+
+    @Test
+    @Order(3)
+    void hijasPorLotes() throws Exception {
+        List<Long> padres = jdbcTemplate.queryForList("select id from entidad_padre", Long.class);
+        medir(Escenarios.hijasPorLotes(USUARIO, PASSWORD, padres, 20));
+    }
+
+    @Test
+    @Order(4)
+    void borradoMixto() throws Exception {
+        // Va el último porque borra datos. Las hijas que se borran son las últimas de cada padre, así que los demás escenarios ven casi los mismos datos
+        List<Long> hijas = jdbcTemplate.queryForList("""
+                select id from (select id, row_number() over (partition by entidad_padre_id order by id desc) n
+                                from entidad_hija) h
+                where n <= greatest(? / 4, 1) order by random()""", Long.class, configuracion.hijasPorPadre());
+        medir(Escenarios.borradoMixto(USUARIO, PASSWORD, hijas, 30));
+    }
+
+    @AfterAll
+    void guardarLineaBase() throws Exception {
+        lineaBase.guardar();
+    }
+
+    private void medir(Escenario escenario) throws Exception {
+        InformeCarga informe = motor.ejecutar(escenario);
+        assertThat(informe.peticiones()).as("peticiones medidas de %s", escenario.nombre()).isPositive();
+        assertThat(lineaBase.comparar(informe)).as("empeoramientos frente a la línea base").isEmpty();
+    }
+}
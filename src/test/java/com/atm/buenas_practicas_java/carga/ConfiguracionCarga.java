@@ -0,0 +1,42 @@
+package com.atm.buenas_practicas_java.carga;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Parámetros de una ejecución de carga, leídos de propiedades del sistema {@code carga.*} (el perfil Maven
+ * {@code carga} las pasa a failsafe y se pueden cambiar con {@code -Dcarga.usuarios=64}, etc.).
+ *
+ * @param usuarios          usuarios virtuales concurrentes por escenario.
+ * @param duracion          tiempo de medición de cada escenario.
+ * @param calentamiento     tiempo previo sin medir, para que JIT, pools y cachés lleguen a su régimen.
+ * @param ritmo             peticiones por segundo de cada escenario entre todos sus usuarios; con 0 cada usuario
+ *                          envía la siguiente petición al recibir la respuesta (modelo cerrado).
+ * @param padres            padres de los datos de carga.
+ * @param hijasPorPadre     hijas de cada padre.
+ * @param tolerancia        empeoramiento relativo admitido frente a la línea base (0,25 = 25%).
+ * @param lineaBase         fichero de la línea base.
+ * @param guardarLineaBase  sobrescribe la línea base con los resultados de esta ejecución.
+ */
+public record ConfiguracionCarga(int usuarios, Duration duracion, Duration calentamiento, int ritmo, int padres,
+                                 int hijasPorPadre, double tolerancia, Path lineaBase, boolean guardarLineaBase) {
+
+    public static ConfiguracionCarga desdePropiedades() {
+        return new ConfiguracionCarga(
+                Integer.getInteger("carga.usuarios", 16),
+                duracion("carga.duracion", "30s"),
+                duracion("carga.calentamiento", "5s"),
+                Integer.getInteger("carga.ritmo", 0),
+                Integer.getInteger("carga.padres", 200),
+                Integer.getInteger("carga.hijas-por-padre", 20),
+                Double.parseDouble(System.getProperty("carga.tolerancia", "0.25")),
+                Path.of(System.getProperty("carga.linea-base", "src/test/resources/carga/linea-base.properties")),
+                Boolean.getBoolean("carga.guardar-linea-base"));
+    }
+
+    private static Duration duracion(String propiedad, String porDefecto) {
+        return DurationStyle.detectAndParse(System.getProperty(propiedad, porDefecto));
+    }
+}
@@ -0,0 +1,24 @@
+package com.atm.buenas_practicas_java.carga;
+
+import java.io.IOException;
+
+/**
+ * Tráfico que genera cada usuario virtual de un escenario de carga.
+ */
+public interface Escenario {
+
+    String nombre();
+
+    /**
+     * Se ejecuta una vez por usuario antes de medir, p. ej. para iniciar sesión.
+     */
+    default void preparar(UsuarioVirtual usuario) throws IOException, InterruptedException {
+    }
+
+    /**
+     * Una petición (o una interacción corta) del usuario.
+     *
+     * @return el código HTTP de la respuesta; 400 o más cuenta como error.
+     */
+    int ejecutar(UsuarioVirtual usuario) throws IOException, InterruptedException;
+}
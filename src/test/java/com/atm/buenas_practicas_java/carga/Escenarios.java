@@ -0,0 +1,124 @@
+package com.atm.buenas_practicas_java.carga;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Escenarios de la prueba de carga, con la mezcla de tráfico que recibe la aplicación.
+ */
+public final class Escenarios {
+
+    private Escenarios() {
+    }
+
+    /**
+     * Listado público de {@code /entities}, sin sesión.
+     */
+    public static Escenario entidadesAnonimo() {
+        return new Escenario() {
+            @Override
+            public String nombre() {
+                return "entities-anonimo";
+            }
+
+            @Override
+            public int ejecutar(UsuarioVirtual usuario) throws IOException, InterruptedException {
+                return usuario.get("/entities").statusCode();
+            }
+        };
+    }
+
+    /**
+     * Listado de {@code /protected} con una sesión iniciada por formulario (con su token CSRF).
+     */
+    public static Escenario protegidoAutenticado(String usuario, String password) {
+        return new Escenario() {
+            @Override
+            public String nombre() {
+                return "protected-autenticado";
+            }
+
+            @Override
+            public void preparar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                virtual.iniciarSesion(usuario, password);
+            }
+
+            @Override
+            public int ejecutar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                return virtual.get("/protected").statusCode();
+            }
+        };
+    }
+
+    /**
+     * Tráfico mixto de usuarios autenticados: un {@code porcentajeBorrados}% de las peticiones borra una hija con
+     * el formulario de {@code /protected} y el resto lista {@code /entities}. Cada hija se borra una sola vez;
+     * agotadas las hijas, el escenario solo lista.
+     *
+     * @param hijas ids de hijas que el escenario puede borrar.
+     */
+    public static Escenario borradoMixto(String usuario, String password, List<Long> hijas, int porcentajeBorrados) {
+        AtomicInteger siguiente = new AtomicInteger();
+        return new Escenario() {
+            @Override
+            public String nombre() {
+                return "borrado-mixto";
+            }
+
+            @Override
+            public void preparar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                virtual.iniciarSesion(usuario, password);
+                // Token CSRF de los formularios de borrado
+                virtual.get("/protected");
+            }
+
+            @Override
+            public int ejecutar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                if (ThreadLocalRandom.current().nextInt(100) < porcentajeBorrados) {
+                    int indice = siguiente.getAndIncrement();
+                    if (indice < hijas.size()) {
+                        HttpResponse<Void> respuesta = virtual.post("/entidades/deleteHija/" + hijas.get(indice), Map.of());
+                        // El controlador redirige a /entities tras borrar; una redirección a /login es un error
+                        boolean borrada = respuesta.statusCode() == 302
+                                && respuesta.headers().firstValue("Location").orElse("").endsWith("/entities");
+                        return borrada ? 200 : Math.max(respuesta.statusCode(), 400);
+                    }
+                }
+                return virtual.get("/entities").statusCode();
+            }
+        };
+    }
+
+    /**
+     * Hijas de {@code padresPorPeticion} padres al azar en una sola petición a la API, autenticada.
+     *
+     * @param padres ids de los padres entre los que elegir.
+     */
+    public static Escenario hijasPorLotes(String usuario, String password, List<Long> padres, int padresPorPeticion) {
+        return new Escenario() {
+            @Override
+            public String nombre() {
+                return "hijas-por-lotes";
+            }
+
+            @Override
+            public void preparar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                virtual.iniciarSesion(usuario, password);
+            }
+
+            @Override
+            public int ejecutar(UsuarioVirtual virtual) throws IOException, InterruptedException {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                String ids = azar.ints(padresPorPeticion, 0, padres.size())
+                        .mapToObj(i -> String.valueOf(padres.get(i)))
+                        .collect(Collectors.joining(","));
+                return virtual.get("/api/entidades/hijas?padres=" + ids).statusCode();
+            }
+        };
+    }
+}
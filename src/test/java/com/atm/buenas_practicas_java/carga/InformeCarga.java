@@ -0,0 +1,27 @@
+package com.atm.buenas_practicas_java.carga;
+
+/**
+ * Resultado de un escenario de carga.
+ *
+ * @param escenario  nombre del escenario.
+ * @param peticiones peticiones medidas.
+ * @param errores    respuestas con código 400 o más, o que no llegaron.
+ * @param p50Ms      mediana de la latencia.
+ * @param p90Ms      percentil 90.
+ * @param p99Ms      percentil 99.
+ * @param maxMs      latencia máxima.
+ * @param rps        peticiones por segundo.
+ */
+public record InformeCarga(String escenario, long peticiones, long errores, double p50Ms, double p90Ms, double p99Ms,
+                           double maxMs, double rps) {
+
+    public double tasaErrores() {
+        return peticiones == 0 ? 0 : (double) errores / peticiones;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d peticiones, %d errores, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, máx %.1f ms, %.0f pet/s",
+                escenario, peticiones, errores, p50Ms, p90Ms, p99Ms, maxMs, rps);
+    }
+}
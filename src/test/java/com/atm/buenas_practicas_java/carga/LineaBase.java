@@ -0,0 +1,169 @@
+package com.atm.buenas_practicas_java.carga;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Línea base de las pruebas de carga: los percentiles y el caudal de cada escenario en una ejecución de
+ * referencia, en un fichero de propiedades ({@code <escenario>.p50}, {@code .p99}, {@code .rps},
+ * {@code .errores}).
+ *
+ * <p>Un escenario empeora si su p50 o su p99 crecen más de la tolerancia (más un margen fijo de
+ * {@value #MARGEN_MS} ms, para que las latencias de pocos milisegundos no fallen por ruido), si su caudal cae más
+ * de la tolerancia, o si su tasa de errores supera la de referencia en más de un punto.</p>
+ *
+ * <p>Sin línea base no hay nada que comparar, así que la ejecución falla en lugar de pasar sin comprobar nada: si
+ * falta el fichero, si se midió con otra configuración de carga (la guarda en {@code configuracion}) o si un
+ * escenario no aparece en él. Con {@code -Dcarga.guardar-linea-base=true}, que es como se crea, solo se
+ * registran.</p>
+ *
+ * <p>Cada ejecución se anota en {@code target/carga/resultados.csv} y deja en {@code target/carga} una línea base
+ * candidata con sus resultados, para promoverla a mano o con {@code -Dcarga.guardar-linea-base=true}. La línea
+ * base solo es comparable en la misma máquina y con la misma configuración de carga.</p>
+ */
+@Log4j2
+public class LineaBase {
+
+    static final double MARGEN_MS = 2.0;
+
+    private static final Path DIRECTORIO = Path.of("target", "carga");
+
+    private final Properties referencia = new Properties();
+    private final Properties actual = new Properties();
+    private final ConfiguracionCarga configuracion;
+    private final String descripcion;
+
+    /**
+     * @throws IllegalStateException si no hay línea base o es de otra configuración de carga, salvo que se vaya a
+     *                               guardar una nueva.
+     */
+    public LineaBase(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+        this.descripcion = String.format(Locale.ROOT, "usuarios=%d duracion=%s ritmo=%d datos=%dx%d",
+                configuracion.usuarios(), configuracion.duracion(), configuracion.ritmo(), configuracion.padres(),
+                configuracion.hijasPorPadre());
+        actual.setProperty("configuracion", descripcion);
+        if (Files.exists(configuracion.lineaBase())) {
+            try (Reader lector = Files.newBufferedReader(configuracion.lineaBase())) {
+                referencia.load(lector);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (configuracion.guardarLineaBase()) {
+            log.info("Se guardará una línea base nueva en {}", configuracion.lineaBase());
+        } else if (referencia.isEmpty()) {
+            throw new IllegalStateException("No hay línea base en " + configuracion.lineaBase()
+                    + ": créala en la máquina de referencia con -Dcarga.guardar-linea-base=true");
+        } else if (!descripcion.equals(referencia.getProperty("configuracion"))) {
+            throw new IllegalStateException("La línea base de " + configuracion.lineaBase() + " es de otra carga ("
+                    + referencia.getProperty("configuracion") + ") y esta ejecución es de " + descripcion
+                    + ": usa la misma configuración o guarda una nueva con -Dcarga.guardar-linea-base=true");
+        }
+    }
+
+    /**
+     * Anota el informe y lo compara con la línea base.
+     *
+     * @return los empeoramientos encontrados, o que el escenario no tiene línea base; vacío si no hay ninguno o si
+     *         se va a guardar una línea base nueva.
+     */
+    public List<String> comparar(InformeCarga informe) {
+        anotar(informe);
+        String escenario = informe.escenario();
+        actual.setProperty(escenario + ".p50", formatear(informe.p50Ms()));
+        actual.setProperty(escenario + ".p99", formatear(informe.p99Ms()));
+        actual.setProperty(escenario + ".rps", formatear(informe.rps()));
+        actual.setProperty(escenario + ".errores", formatear(informe.tasaErrores()));
+
+        List<String> empeoramientos = new ArrayList<>();
+        if (!referencia.containsKey(escenario + ".p50") && !configuracion.guardarLineaBase()) {
+            empeoramientos.add(escenario + ": no está en la línea base");
+        }
+        double tolerancia = configuracion.tolerancia();
+        valor(escenario + ".p50").ifPresent(p50 -> {
+            if (informe.p50Ms() > p50 * (1 + tolerancia) + MARGEN_MS) {
+                empeoramientos.add(String.format(Locale.ROOT, "%s: p50 %.1f ms frente a %.1f ms",
+                        escenario, informe.p50Ms(), p50));
+            }
+        });
+        valor(escenario + ".p99").ifPresent(p99 -> {
+            if (informe.p99Ms() > p99 * (1 + tolerancia) + MARGEN_MS) {
+                empeoramientos.add(String.format(Locale.ROOT, "%s: p99 %.1f ms frente a %.1f ms",
+                        escenario, informe.p99Ms(), p99));
+            }
+        });
+        valor(escenario + ".rps").ifPresent(rps -> {
+            if (informe.rps() < rps * (1 - tolerancia)) {
+                empeoramientos.add(String.format(Locale.ROOT, "%s: %.0f pet/s frente a %.0f pet/s",
+                        escenario, informe.rps(), rps));
+            }
+        });
+        valor(escenario + ".errores").ifPresent(errores -> {
+            if (informe.tasaErrores() > errores + 0.01) {
+                empeoramientos.add(String.format(Locale.ROOT, "%s: %.2f%% de errores frente a %.2f%%",
+                        escenario, informe.tasaErrores() * 100, errores * 100));
+            }
+        });
+        return empeoramientos;
+    }
+
+    /**
+     * Escribe la línea base candidata en {@code target/carga} y, con {@code carga.guardar-linea-base}, sustituye
+     * la línea base.
+     */
+    public void guardar() throws IOException {
+        Files.createDirectories(DIRECTORIO);
+        escribir(DIRECTORIO.resolve("linea-base.properties"), descripcion);
+        if (configuracion.guardarLineaBase()) {
+            Files.createDirectories(configuracion.lineaBase().toAbsolutePath().getParent());
+            escribir(configuracion.lineaBase(), descripcion);
+            log.info("Línea base actualizada en {}", configuracion.lineaBase());
+        }
+    }
+
+    private void escribir(Path fichero, String comentario) throws IOException {
+        try (Writer escritor = Files.newBufferedWriter(fichero)) {
+            actual.store(escritor, comentario);
+        }
+    }
+
+    private Optional<Double> valor(String clave) {
+        return Optional.ofNullable(referencia.getProperty(clave)).map(Double::parseDouble);
+    }
+
+    private void anotar(InformeCarga informe) {
+        Path resultados = DIRECTORIO.resolve("resultados.csv");
+        String linea = String.join(",", OffsetDateTime.now().toString(), informe.escenario(),
+                String.valueOf(configuracion.usuarios()), String.valueOf(configuracion.ritmo()),
+                String.valueOf(informe.peticiones()), String.valueOf(informe.errores()),
+                formatear(informe.p50Ms()), formatear(informe.p90Ms()), formatear(informe.p99Ms()),
+                formatear(informe.maxMs()), formatear(informe.rps())) + "\n";
+        try {
+            Files.createDirectories(DIRECTORIO);
+            if (Files.notExists(resultados)) {
+                Files.writeString(resultados, "fecha,escenario,usuarios,ritmo,peticiones,errores,p50_ms,p90_ms,p99_ms,max_ms,rps\n");
+            }
+            Files.writeString(resultados, linea, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String formatear(double valor) {
+        return String.format(Locale.ROOT, "%.3f", valor);
+    }
+}
@@ -0,0 +1,130 @@
+package com.atm.buenas_practicas_java.carga;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ejecuta un escenario con {@link ConfiguracionCarga#usuarios()} usuarios virtuales, cada uno en un hilo virtual
+ * y con su propia sesión HTTP, y resume las latencias en percentiles.
+ *
+ * <p>Sin ritmo fijo cada usuario envía la siguiente petición al recibir la respuesta (modelo cerrado): mide la
+ * capacidad máxima, pero si el servidor se atasca los usuarios también envían menos y las latencias altas quedan
+ * infrarrepresentadas. Con {@code carga.ritmo} cada petición tiene una hora de salida prevista y la latencia se
+ * cuenta desde esa hora, no desde que el usuario pudo enviarla, así que el tiempo que una petición pasa esperando
+ * a la anterior cuenta como latencia (corrección de la omisión coordinada).</p>
+ */
+@Log4j2
+public class MotorCarga {
+
+    public static final String TAG = "carga";
+
+    private final URI base;
+    private final ConfiguracionCarga configuracion;
+
+    public MotorCarga(URI base, ConfiguracionCarga configuracion) {
+        this.base = base;
+        this.configuracion = configuracion;
+    }
+
+    public InformeCarga ejecutar(Escenario escenario) throws Exception {
+        int usuarios = configuracion.usuarios();
+        long intervalo = configuracion.ritmo() > 0 ? 1_000_000_000L * usuarios / configuracion.ritmo() : 0;
+        long inicio = System.nanoTime() + configuracion.calentamiento().toNanos();
+        long fin = inicio + configuracion.duracion().toNanos();
+
+        List<Future<Muestras>> resultados = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < usuarios; i++) {
+                // Con ritmo fijo los usuarios salen escalonados para repartir las peticiones en el intervalo
+                long desfase = intervalo * i / usuarios;
+                resultados.add(hilos.submit(() -> simular(escenario, intervalo, desfase, inicio, fin)));
+            }
+        }
+
+        Muestras total = new Muestras();
+        for (Future<Muestras> resultado : resultados) {
+            total.anadir(resultado.get());
+        }
+        InformeCarga informe = total.resumir(escenario.nombre(), configuracion.duracion().toNanos());
+        log.info("{}", informe);
+        return informe;
+    }
+
+    private Muestras simular(Escenario escenario, long intervalo, long desfase, long inicio, long fin) throws Exception {
+        Muestras muestras = new Muestras();
+        try (UsuarioVirtual usuario = new UsuarioVirtual(base)) {
+            escenario.preparar(usuario);
+            long prevista = System.nanoTime() + desfase;
+            while (true) {
+                if (intervalo > 0) {
+                    LockSupport.parkNanos(prevista - System.nanoTime());
+                }
+                long salida = intervalo > 0 ? prevista : System.nanoTime();
+                if (salida >= fin) {
+                    return muestras;
+                }
+                boolean error;
+                try {
+                    error = escenario.ejecutar(usuario) >= 400;
+                } catch (IOException e) {
+                    error = true;
+                }
+                if (salida >= inicio) {
+                    muestras.registrar(System.nanoTime() - salida, error);
+                }
+                prevista += intervalo;
+            }
+        }
+    }
+
+    /**
+     * Latencias de un usuario; se unen y ordenan al terminar, así que no hay contención durante la medición.
+     */
+    private static final class Muestras {
+
+        private long[] latencias = new long[1024];
+        private int tamano;
+        private long errores;
+
+        void registrar(long nanos, boolean error) {
+            if (tamano == latencias.length) {
+                latencias = Arrays.copyOf(latencias, tamano * 2);
+            }
+            latencias[tamano++] = nanos;
+            if (error) {
+                errores++;
+            }
+        }
+
+        void anadir(Muestras otras) {
+            for (int i = 0; i < otras.tamano; i++) {
+                registrar(otras.latencias[i], false);
+            }
+            errores += otras.errores;
+        }
+
+        InformeCarga resumir(String escenario, long duracionNanos) {
+            long[] ordenadas = Arrays.copyOf(latencias, tamano);
+            Arrays.sort(ordenadas);
+            return new InformeCarga(escenario, tamano, errores, percentil(ordenadas, 0.50), percentil(ordenadas, 0.90),
+                    percentil(ordenadas, 0.99), percentil(ordenadas, 1.0), tamano * 1_000_000_000.0 / duracionNanos);
+        }
+
+        private static double percentil(long[] ordenadas, double percentil) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+            return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.atm.buenas_practicas_java.carga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Un usuario de la prueba de carga: su propio {@link HttpClient} con sus cookies, y por tanto su propia sesión
+ * y su token CSRF, como un navegador.
+ */
+public class UsuarioVirtual implements AutoCloseable {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+(?:type=\"hidden\"\\s+)?value=\"([^\"]+)\"");
+
+    private final URI base;
+    private final HttpClient cliente;
+    private String csrf;
+
+    public UsuarioVirtual(URI base) {
+        this.base = base;
+        this.cliente = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * {@code GET} de una página. Si trae formularios, se queda con su token CSRF para los siguientes {@code POST}.
+     */
+    public HttpResponse<String> get(String ruta) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(base.resolve(ruta)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher token = CSRF.matcher(respuesta.body());
+        if (token.find()) {
+            csrf = token.group(1);
+        }
+        return respuesta;
+    }
+
+    /**
+     * {@code POST} de un formulario con el último token CSRF recibido.
+     */
+    public HttpResponse<Void> post(String ruta, Map<String, String> campos) throws IOException, InterruptedException {
+        Map<String, String> formulario = new LinkedHashMap<>(campos);
+        if (csrf != null) {
+            formulario.put("_csrf", csrf);
+        }
+        String cuerpo = formulario.entrySet().stream()
+                .map(campo -> codificar(campo.getKey()) + "=" + codificar(campo.getValue()))
+                .collect(Collectors.joining("&"));
+        return cliente.send(HttpRequest.newBuilder(base.resolve(ruta))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Login por formulario: pide {@code /login} para obtener el token CSRF y envía las credenciales.
+     *
+     * @throws IllegalStateException si el login falla; un escenario autenticado no tiene sentido sin él.
+     */
+    public void iniciarSesion(String usuario, String password) throws IOException, InterruptedException {
+        get("/login");
+        HttpResponse<Void> respuesta = post("/login", Map.of("username", usuario, "password", password));
+        String destino = respuesta.headers().firstValue("Location").orElse("");
+        if (respuesta.statusCode() != 302 || destino.contains("error")) {
+            throw new IllegalStateException("Falló el login de " + usuario + ": " + respuesta.statusCode() + " " + destino);
+        }
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        cliente.close();
+    }
+}
@@ -0,0 +1,195 @@
+package com.atm.buenas_practicas_java.concurrencia;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Agrupación de lecturas simultáneas de {@link AgrupadorLecturas}: una sola ejecución por clave, el mismo
+ * resultado (o una copia para cada una) o la misma excepción para todas las llamadas, ninguna llamada que reciba
+ * una lectura empezada antes que ella y ninguna agrupación dentro de una transacción.
+ */
+class AgrupadorLecturasTest {
+
+    private static final int LLAMADAS = 16;
+    private static final Object ANTERIOR = new Object();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new GestorSinRecursos());
+    private final AgrupadorLecturas agrupador = new AgrupadorLecturas(transactionTemplate,
+            new AgrupacionLecturasProperties(true), meterRegistry);
+
+    @Test
+    void lasLlamadasSimultaneasCompartenUnaLecturaYSuResultado() throws Exception {
+        AtomicInteger lecturas = new AtomicInteger();
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<Object> resultados = llamarALaVez(() -> agrupador.ejecutar("prueba", 1L, () -> {
+            lecturas.incrementAndGet();
+            assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+            esperar(soltar);
+            return new Object();
+        }), soltar);
+
+        assertThat(lecturas).hasValue(1);
+        assertThat(resultados).hasSize(LLAMADAS).allSatisfy(resultado -> assertThat(resultado)
+                .isNotSameAs(ANTERIOR)
+                .isSameAs(resultados.getFirst()));
+        // La lectura que ya estaba en curso y la que compartieron las demás
+        assertThat(contador("ejecutada")).isEqualTo(2);
+        assertThat(contador("agrupada")).isEqualTo(LLAMADAS - 1);
+        assertThat(contador("esperada")).isEqualTo(LLAMADAS);
+        assertThat(agrupador.enCurso()).isZero();
+
+        // Terminada la lectura, la siguiente llamada vuelve a leer
+        agrupador.ejecutar("prueba", 1L, lecturas::incrementAndGet);
+        assertThat(lecturas).hasValue(2);
+    }
+
+    @Test
+    void conCopiaCadaLlamadaRecibeLaSuya() throws Exception {
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<StringBuilder> resultados = new ArrayList<>();
+        for (Object resultado : llamarALaVez(() -> agrupador.ejecutar("prueba", 1L, () -> {
+            esperar(soltar);
+            return new StringBuilder("leído");
+        }, StringBuilder::new), soltar)) {
+            resultados.add((StringBuilder) resultado);
+        }
+
+        assertThat(contador("ejecutada")).isEqualTo(2);
+        assertThat(contador("agrupada")).isEqualTo(LLAMADAS - 1);
+        resultados.getFirst().append(" y modificado");
+        assertThat(resultados.subList(1, LLAMADAS)).allSatisfy(resultado -> {
+            assertThat(resultado).isNotSameAs(resultados.getFirst());
+            assertThat(resultado).hasToString("leído");
+        });
+        // Sin llamadas agrupadas no se copia nada
+        StringBuilder sola = new StringBuilder("solo");
+        assertThat(agrupador.ejecutar("prueba", 2L, () -> sola, StringBuilder::new)).isSameAs(sola);
+    }
+
+    @Test
+    void elErrorDeLaLecturaLlegaATodasLasLlamadas() throws Exception {
+        IllegalStateException fallo = new IllegalStateException("lectura fallida");
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<Object> resultados = llamarALaVez(() -> agrupador.ejecutar("prueba", 1L, () -> {
+            esperar(soltar);
+            throw fallo;
+        }), soltar);
+
+        assertThat(resultados).hasSize(LLAMADAS).allSatisfy(resultado -> assertThat(resultado).isSameAs(fallo));
+        assertThat(agrupador.enCurso()).isZero();
+    }
+
+    @Test
+    void dentroDeUnaTransaccionNoSeAgrupa() {
+        AtomicInteger lecturas = new AtomicInteger();
+        transactionTemplate.executeWithoutResult(estado -> {
+            agrupador.ejecutar("prueba", 1L, () -> agrupador.ejecutar("prueba", 1L, lecturas::incrementAndGet));
+        });
+
+        assertThat(lecturas).hasValue(1);
+        assertThat(meterRegistry.find("agrupacion.lecturas").counters()).isEmpty();
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(estado ->
+                agrupador.ejecutar("prueba", 2L, () -> {
+                    throw new IllegalArgumentException("dentro");
+                }))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Empieza una lectura con la clave de prueba y, mientras sigue en curso, lanza {@link #LLAMADAS} llamadas. Como
+     * esa lectura empezó antes que ellas, la esperan y comparten la siguiente: se suelta la primera cuando todas
+     * esperan y la de {@code soltar} cuando todas menos una se han unido a ella. Devuelve lo que recibe cada
+     * llamada: su resultado o la excepción que le llegó.
+     */
+    private <T> List<Object> llamarALaVez(Callable<T> cadaLlamada, CountDownLatch soltar) throws Exception {
+        CountDownLatch primera = new CountDownLatch(1);
+        List<Future<T>> llamadas = new ArrayList<>();
+        try (var ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> anterior = ejecutor.submit(() -> agrupador.ejecutar("prueba", 1L, () -> {
+                esperar(primera);
+                return ANTERIOR;
+            }));
+            esperarContador("ejecutada", 1);
+            for (int i = 0; i < LLAMADAS; i++) {
+                llamadas.add(ejecutor.submit(cadaLlamada));
+            }
+            esperarContador("esperada", LLAMADAS);
+            primera.countDown();
+            esperarContador("agrupada", LLAMADAS - 1);
+            soltar.countDown();
+            assertThat(anterior.get()).isSameAs(ANTERIOR);
+        }
+        List<Object> resultados = new ArrayList<>();
+        for (Future<T> llamada : llamadas) {
+            try {
+                resultados.add(llamada.get());
+            } catch (ExecutionException e) {
+                resultados.add(e.getCause());
+            }
+        }
+        return resultados;
+    }
+
+    private void esperarContador(String resultado, int valor) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (contador(resultado) < valor && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double contador(String resultado) {
+        var contador = meterRegistry.find("agrupacion.lecturas").tag("resultado", resultado).counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    private static void esperar(CountDownLatch soltar) {
+        try {
+            assertThat(soltar.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gestor de transacciones sin base de datos: solo abre y cierra la transacción en el hilo.
+     */
+    private static final class GestorSinRecursos extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.atm.buenas_practicas_java.config;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.services.EntidadPadreService;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Pruebas de la capa de métricas: temporizadores de servicio, distribución de filas de {@code findAll}
+ * y protección independiente del endpoint de Prometheus.
+ */
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricasTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntidadPadreService entidadPadreService;
+
+    @Test
+    void prometheusRequiereElUsuarioDeMetricas() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("user", "password")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void lasGrabacionesJfrRequierenElUsuarioDePerfilado() throws Exception {
+        mockMvc.perform(get("/actuator/jfr"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/jfr").with(httpBasic("prometheus", "prometheus")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/jfr").with(httpBasic("jfr", "jfr")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void elRestoDeActuatorSigueSiendoPublico() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void publicaTemporizadoresDeServicioYFilasDeFindAll() throws Exception {
+        entidadPadreService.findAll();
+
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "prometheus")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("entidades_servicio_seconds_bucket")))
+                .andExpect(content().string(containsString("entidades_findall_filas_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("hibernate_statements_total")));
+        log.info("Métricas de servicio, repositorio e Hibernate publicadas en Prometheus.");
+    }
+}
@@ -0,0 +1,163 @@
+package com.atm.buenas_practicas_java.config;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aplica las migraciones de Flyway sobre la PostgreSQL de Testcontainers y comprueba el esquema resultante.
+ * Que el contexto arranque ya garantiza que Hibernate valida las entidades contra él ({@code ddl-auto=validate}).
+ */
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MigracionesTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void todasLasMigracionesSeAplicanSinPendientes() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied())
+                .isNotEmpty()
+                .allSatisfy(migracion -> assertThat(migracion.getState()).isEqualTo(MigrationState.SUCCESS));
+        log.info("Esquema en la versión {}", flyway.info().current().getVersion());
+    }
+
+    @Test
+    void lasClavesAjenasYLasBusquedasPorNombreTienenIndice() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class);
+
+        assertThat(indices).contains(
+                "entidad_hija_uk",
+                "entidad_hija_id_idx",
+                "entidad_hija_nombre_idx",
+                "entidad_padre_nombre_idx",
+                "entidad_padre_nombre_trgm_idx",
+                "usuario_username_uk");
+    }
+
+    @Test
+    void entidadHijaEstaParticionadaPorHashDelPadre() {
+        assertThat(jdbcTemplate.queryForObject(
+                "select pg_get_partkeydef('entidad_hija'::regclass)", String.class))
+                .isEqualTo("HASH (entidad_padre_id)");
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from pg_inherits where inhparent = 'entidad_hija'::regclass", Integer.class))
+                .isEqualTo(16);
+        assertThat(jdbcTemplate.queryForObject(
+                "select to_regclass('entidad_hija_sin_particionar') is null", Boolean.class)).isTrue();
+        // Ninguna restricción hace único a id: solo lo asigna la identidad, salvo OVERRIDING SYSTEM VALUE explícito
+        assertThat(jdbcTemplate.queryForObject(
+                "select attidentity::text from pg_attribute where attrelid = 'entidad_hija'::regclass"
+                        + " and attname = 'id'", String.class)).isEqualTo("a");
+    }
+
+    @Test
+    void laClaveCubrienteAdoptaLosIndicesConstruidosEnCadaParticion() {
+        assertThat(jdbcTemplate.queryForObject(
+                "select pg_get_constraintdef(oid) from pg_constraint where conname = 'entidad_hija_uk'", String.class))
+                .contains("(entidad_padre_id, id) INCLUDE (nombre)");
+        assertThat(jdbcTemplate.queryForList(
+                "select inhrelid::regclass::text from pg_inherits where inhparent = 'entidad_hija_uk'::regclass",
+                String.class))
+                .hasSize(16)
+                .allSatisfy(indice -> assertThat(indice).endsWith("_cubriente_uk"));
+    }
+
+    @Test
+    void lasHijasDeUnPadreSeLeenSoloDelIndiceCubriente() {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) conexion -> {
+            try (var sentencia = conexion.createStatement()) {
+                // Con las tablas casi vacías el planificador preferiría recorrerlas enteras
+                sentencia.execute("set enable_seqscan = off");
+                sentencia.execute("set enable_bitmapscan = off");
+                sentencia.execute("vacuum (analyze) entidad_hija");
+                var filas = sentencia.executeQuery(
+                        "explain select id, entidad_padre_id, nombre from entidad_hija"
+                                + " where entidad_padre_id = 1 and id > 0 order by id limit 50");
+                var texto = new StringBuilder();
+                while (filas.next()) {
+                    texto.append(filas.getString(1)).append('\n');
+                }
+                sentencia.execute("reset enable_seqscan");
+                sentencia.execute("reset enable_bitmapscan");
+                return texto.toString();
+            }
+        });
+
+        log.info("Plan de las hijas de un padre:\n{}", plan);
+        assertThat(plan).contains("Index Only Scan").contains("entidad_hija_p").doesNotContain("Append");
+    }
+
+    /**
+     * Una base de datos creada con el antiguo {@code ddl-auto=create}: tablas con los nombres de Hibernate y sin
+     * historial de Flyway.
+     */
+    @Test
+    void unEsquemaCreadoPorHibernateSeAdoptaYSeMigra() {
+        jdbcTemplate.execute("drop database if exists migraciones_hibernate");
+        jdbcTemplate.execute("create database migraciones_hibernate");
+        String url = jdbcTemplate.execute((ConnectionCallback<String>) conexion -> conexion.getMetaData().getURL());
+        var dataSource = new DriverManagerDataSource(url.replaceFirst("/[^/?]+(\\?|$)", "/migraciones_hibernate$1"),
+                dbContainer.getUsername(), dbContainer.getPassword());
+        var hibernate = new JdbcTemplate(dataSource);
+        hibernate.execute("""
+                create table entidad_padre (id bigint generated by default as identity, nombre varchar(255),
+                    primary key (id));
+                create table entidad_hija (id bigint generated by default as identity, entidad_padre_id bigint,
+                    nombre varchar(255), primary key (id));
+                create table usuario (id integer not null, apellido varchar(255), correo varchar(255),
+                    nombre varchar(255), password varchar(255), username varchar(255), primary key (id));
+                alter table if exists entidad_hija add constraint FKb3tvm3qyyb8g5j1ewh0a3yjxp
+                    foreign key (entidad_padre_id) references entidad_padre;
+                insert into entidad_padre (nombre) values ('padre');
+                insert into entidad_hija (entidad_padre_id, nombre) values (1, 'hija');
+                """);
+        var otroFlyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(flyway.getConfiguration().getLocations())
+                .placeholders(Map.of("particionesHija", "16"))
+                .load();
+
+        assertThat(FlywayConfig.adoptarEsquemaDeHibernate(otroFlyway)).isTrue();
+        otroFlyway.migrate();
+
+        assertThat(otroFlyway.info().pending()).isEmpty();
+        assertThat(otroFlyway.info().current().getVersion()).isEqualTo(flyway.info().current().getVersion());
+        assertThat(hibernate.queryForObject("select nombre from entidad_hija where entidad_padre_id = 1",
+                String.class)).isEqualTo("hija");
+        // Como entidad_hija tenía filas, V2 deja preparada la copia online en entidad_hija_particionada
+        assertThat(hibernate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class))
+                .contains("entidad_padre_nombre_trgm_idx", "entidad_hija_particionada_uk", "usuario_username_uk");
+        // Ya tiene historial: no se vuelve a adoptar
+        assertThat(FlywayConfig.adoptarEsquemaDeHibernate(otroFlyway)).isFalse();
+    }
+
+    @Test
+    void lasTablasConActualizacionesReservanEspacioParaHot() {
+        List<String> opciones = jdbcTemplate.queryForList(
+                "select array_to_string(reloptions, ',') from pg_class where relname = 'entidad_padre'", String.class);
+
+        assertThat(opciones).containsExactly("fillfactor=90");
+    }
+}
@@ -0,0 +1,44 @@
+package com.atm.buenas_practicas_java.config;
+
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.entities.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que las pistas de imagen nativa cubren las entidades, los mensajes i18n y las plantillas.
+ */
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void registrarPistas() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.EntidadesRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void lasEntidadesSonAccesiblesPorReflexion() throws NoSuchMethodException {
+        for (Class<?> entidad : new Class<?>[]{EntidadPadre.class, EntidadHija.class, Usuario.class}) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(entidad)
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(EntidadHija.class.getMethod("getNombre"))).accepts(hints);
+    }
+
+    @Test
+    void losMensajesYPlantillasSeIncluyenEnLaImagen() {
+        assertThat(RuntimeHintsPredicates.resource().forBundle("i18n.messages")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("i18n/messages_es.properties")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/entidadesHijas.html")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/entidadesPadre.html")).accepts(hints);
+    }
+}
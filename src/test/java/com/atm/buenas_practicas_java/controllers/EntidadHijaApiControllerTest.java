@@ -0,0 +1,102 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class EntidadHijaApiControllerTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    EntidadPadreRepository entidadPadreRepository;
+
+    @Autowired
+    EntidadHijaRepository entidadHijaRepository;
+
+    @Test
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/entidades/padres/{id}/hijas", 1))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    void shouldPageChildrenOfParent() throws Exception {
+        log.info("Probando la paginación por clave de las hijas de un padre.");
+        EntidadPadre entidadPadre = entidadPadreRepository.save(new EntidadPadre("Padre API"));
+        for (int i = 0; i < 3; i++) {
+            EntidadHija entidadHija = new EntidadHija("Hija API " + i);
+            entidadHija.setEntidadPadre(entidadPadre);
+            entidadHijaRepository.save(entidadHija);
+        }
+
+        mockMvc.perform(get("/api/entidades/padres/{id}/hijas", entidadPadre.getId()).param("tamano", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hijas", hasSize(2)))
+                .andExpect(jsonPath("$.hijas[0].nombre").value("Hija API 0"))
+                .andExpect(jsonPath("$.siguiente").isNumber());
+
+        mockMvc.perform(get("/api/entidades/padres/{id}/hijas", entidadPadre.getId()).param("tamano", "0"))
+                .andExpect(status().isBadRequest());
+        log.info("La paginación de hijas por padre se verificó correctamente.");
+    }
+
+    @Test
+    @WithMockUser
+    void shouldReturnChildrenOfSeveralParents() throws Exception {
+        EntidadPadre entidadPadre = entidadPadreRepository.save(new EntidadPadre("Padre API lote"));
+        EntidadHija entidadHija = new EntidadHija("Hija API lote");
+        entidadHija.setEntidadPadre(entidadPadre);
+        entidadHijaRepository.save(entidadHija);
+
+        mockMvc.perform(get("/api/entidades/hijas").param("padres", entidadPadre.getId() + ",-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + entidadPadre.getId() + "'][0].nombre").value("Hija API lote"))
+                .andExpect(jsonPath("$['-1']", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser
+    void shouldReturnChildrenByIds() throws Exception {
+        EntidadPadre entidadPadre = entidadPadreRepository.save(new EntidadPadre("Padre API ids"));
+        EntidadHija primera = new EntidadHija("Hija API ids 1");
+        primera.setEntidadPadre(entidadPadre);
+        primera = entidadHijaRepository.save(primera);
+        EntidadHija segunda = entidadHijaRepository.save(new EntidadHija("Hija API ids 2"));
+
+        mockMvc.perform(get("/api/entidades/hijas/lote")
+                        .param("ids", segunda.getId() + ",-1," + primera.getId() + "," + segunda.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre").value("Hija API ids 2"))
+                .andExpect(jsonPath("$[1].entidadPadreId").value(entidadPadre.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectEmptyIds() throws Exception {
+        mockMvc.perform(get("/api/entidades/hijas/lote").param("ids", "1,,2"))
+                .andExpect(status().isBadRequest());
+    }
+}
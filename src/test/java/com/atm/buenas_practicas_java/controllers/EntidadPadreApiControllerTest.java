@@ -0,0 +1,90 @@
+package com.atm.buenas_practicas_java.controllers;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class EntidadPadreApiControllerTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    EntidadPadreRepository entidadPadreRepository;
+
+    @Test
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/entidades/padres/lote").param("ids", "1"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * 250 padres con el tamaño de lote por defecto (100) se leen en tres consultas.
+     */
+    @Test
+    @WithMockUser
+    void shouldReturnParentsByIdsInBatches() throws Exception {
+        List<EntidadPadre> padres = entidadPadreRepository.saveAll(IntStream.range(0, 250)
+                .mapToObj(i -> new EntidadPadre("Padre API ids " + i))
+                .toList());
+        String ids = padres.stream().map(padre -> padre.getId().toString()).collect(Collectors.joining(","));
+        long lotesAntes = lotesDePadres();
+
+        mockMvc.perform(get("/api/entidades/padres/lote").param("ids", ids + ",-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(250)))
+                .andExpect(jsonPath("$[0].nombre").value("Padre API ids 0"))
+                .andExpect(jsonPath("$[249].id").value(padres.getLast().getId()));
+
+        assertThat(lotesDePadres() - lotesAntes).isEqualTo(3);
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectTooManyIds() throws Exception {
+        String ids = IntStream.rangeClosed(1, EntidadPadreApiController.IDS_MAXIMO + 1)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/api/entidades/padres/lote").param("ids", ids))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void shouldRejectEmptyIds() throws Exception {
+        mockMvc.perform(get("/api/entidades/padres/lote").param("ids", "1,,2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long lotesDePadres() {
+        var idsPorLote = meterRegistry.find("lotes.ids").tag("entidad", "EntidadPadre").summary();
+        return idsPorLote == null ? 0 : idsPorLote.count();
+    }
+}
@@ -0,0 +1,160 @@
+package com.atm.buenas_practicas_java.escritura;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Escritura diferida de hijas: lotes, aislamiento de filas inválidas, contrapresión, vaciado al parar y límite de
+ * tickets terminados.
+ *
+ * Los tests de durabilidad usan una cola propia con una espera de lote larga: así las altas siguen en memoria
+ * hasta que {@code stop()} las vacía, como en un cierre ordenado.
+ */
+@Log4j2
+@SpringBootTest
+@TestPropertySource(properties = "app.escritura-diferida.habilitado=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class ColaEscrituraHijaTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ColaEscrituraHija colaEscrituraHija;
+
+    @Autowired
+    private EscritorLotesHija escritor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntidadPadreRepository entidadPadreRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lasAltasSeAgrupanEnLotesYUnaFilaInvalidaNoTumbaElLote() {
+        EntidadPadre padre = entidadPadreRepository.save(new EntidadPadre("Padre diferido"));
+        ColaEscrituraHija cola = colaDePrueba(100);
+        cola.start();
+        List<UUID> tickets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tickets.add(cola.encolar("Hija diferida " + i, padre.getId()));
+        }
+        UUID invalida = cola.encolar("Hija sin padre válido", -1L);
+
+        cola.stop();
+
+        assertThat(tickets).allSatisfy(ticket -> assertThat(cola.estado(ticket)).hasValueSatisfying(estado -> {
+            assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.ESCRITA);
+            assertThat(estado.id()).isNotNull();
+        }));
+        assertThat(cola.estado(invalida)).hasValueSatisfying(estado ->
+                assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.FALLIDA));
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from entidad_hija where entidad_padre_id = ?", Integer.class, padre.getId()))
+                .isEqualTo(20);
+        assertThat(cola.pendientes()).isZero();
+    }
+
+    @Test
+    void conLaColaLlenaSeRechazanAltasYAlPararSeEscribenLasAceptadas() {
+        ColaEscrituraHija cola = colaDePrueba(2);
+        cola.start();
+        UUID primera = cola.encolar("Hija cola llena 1", null);
+        UUID segunda = cola.encolar("Hija cola llena 2", null);
+
+        assertThatThrownBy(() -> cola.encolar("Hija rechazada", null)).isInstanceOf(ColaLlenaException.class);
+        assertThat(cola.estado(primera)).hasValueSatisfying(estado ->
+                assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.PENDIENTE));
+
+        cola.stop();
+
+        assertThat(List.of(primera, segunda)).allSatisfy(ticket -> assertThat(cola.estado(ticket))
+                .hasValueSatisfying(estado -> assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.ESCRITA)));
+        assertThat(cola.isRunning()).isFalse();
+        assertThatThrownBy(() -> cola.encolar("Hija tras parar", null)).isInstanceOf(ColaParadaException.class);
+    }
+
+    @Test
+    void seConservanComoMuchoTantosTicketsTerminadosComoCabenEnLaCola() {
+        ColaEscrituraHija cola = colaDePrueba(2);
+        cola.start();
+        UUID primera = cola.encolar("Hija retenida 1", null);
+        UUID segunda = cola.encolar("Hija retenida 2", null);
+        cola.stop();
+        cola.start();
+        UUID tercera = cola.encolar("Hija retenida 3", null);
+        cola.stop();
+
+        // La más antigua se olvida antes de su retención para dejar sitio a la última
+        assertThat(cola.estado(primera)).isEmpty();
+        assertThat(List.of(segunda, tercera)).allSatisfy(ticket -> assertThat(cola.estado(ticket))
+                .hasValueSatisfying(estado -> assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.ESCRITA)));
+    }
+
+    @Test
+    @WithMockUser
+    void elEndpointDevuelveUnTicketConsultable() throws Exception {
+        String respuesta = mockMvc.perform(post("/api/entidades/hijas/diferidas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Hija por API diferida\"}")
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.estado").value("PENDIENTE"))
+                .andReturn().getResponse().getContentAsString();
+        String ticket = respuesta.replaceAll(".*\"ticket\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/entidades/hijas/diferidas/{ticket}", ticket))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ticket").value(ticket));
+        mockMvc.perform(get("/api/entidades/hijas/diferidas/{ticket}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        // El bean de la aplicación se para y se vuelve a arrancar: parar vacía la cola
+        colaEscrituraHija.stop();
+        assertThat(colaEscrituraHija.estado(UUID.fromString(ticket))).hasValueSatisfying(estado ->
+                assertThat(estado.estado()).isEqualTo(EstadoEscritura.Estado.ESCRITA));
+        colaEscrituraHija.start();
+        log.info("Lotes escritos por la cola de la aplicación: {}",
+                meterRegistry.get("escritura.diferida.lote.filas").summary().count());
+    }
+
+    private ColaEscrituraHija colaDePrueba(int capacidad) {
+        var properties = new EscrituraDiferidaProperties(true, capacidad, 500, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), Duration.ofSeconds(30));
+        return new ColaEscrituraHija(escritor, properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,175 @@
+package com.atm.buenas_practicas_java.idempotencia;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Altas repetidas con la misma {@code Idempotency-Key} contra el {@code POST} de Spring Data REST.
+ */
+@Log4j2
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class FiltroIdempotenciaTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotenciaProperties properties;
+
+    @Test
+    void altasSimultaneasConLaMismaClaveCreanUnaSolaFila() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        int hilos = 16;
+        CyclicBarrier salida = new CyclicBarrier(hilos);
+        List<Future<MockHttpServletResponse>> respuestas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(hilos)) {
+            for (int i = 0; i < hilos; i++) {
+                respuestas.add(executor.submit(() -> {
+                    salida.await();
+                    return mockMvc.perform(alta(clave, "Padre idempotente")).andReturn().getResponse();
+                }));
+            }
+            List<Integer> codigos = new ArrayList<>();
+            for (Future<MockHttpServletResponse> respuesta : respuestas) {
+                codigos.add(respuesta.get().getStatus());
+            }
+            log.info("Códigos de las altas simultáneas: {}", codigos);
+            assertThat(codigos).containsOnly(201, 409).contains(201);
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from entidad_padre where nombre = 'Padre idempotente'", Integer.class)).isEqualTo(1);
+        String ubicacion = mockMvc.perform(alta(clave, "Padre idempotente"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(FiltroIdempotencia.CABECERA_REPETIDA, "true"))
+                .andReturn().getResponse().getHeader("Location");
+        assertThat(ubicacion).contains("/entidadPadres/");
+    }
+
+    @Test
+    void laRespuestaSeRecuperaDeLaBaseDeDatosYOtraPeticionConLaMismaClaveSeRechaza() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        mockMvc.perform(alta(clave, "Padre persistido")).andExpect(status().isCreated());
+
+        // Otra instancia (o esta tras reiniciar) no la tiene en memoria
+        var otraInstancia = new AlmacenIdempotencia(jdbcTemplate, properties);
+        assertThat(otraInstancia.buscar("user", clave)).hasValueSatisfying(registro ->
+                assertThat(registro.respuesta().codigo()).isEqualTo(201));
+        assertThat(otraInstancia.reservar("user", clave, new byte[32])).isFalse();
+
+        mockMvc.perform(alta(clave, "Padre distinto")).andExpect(status().isUnprocessableEntity());
+        // Las claves son de cada usuario
+        mockMvc.perform(alta(clave, "Padre distinto").with(user("otro"))).andExpect(status().isCreated());
+    }
+
+    @Test
+    void unaClaveAbandonadaSinRespuestaSeOcupa() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        // La instancia que atendía la petición murió antes de responder
+        Instant creada = Instant.now().minus(properties.abandono()).minusSeconds(1);
+        jdbcTemplate.update("insert into clave_idempotencia (usuario, clave, huella, creada) values (?, ?, ?, ?)",
+                "user", clave, new byte[32], Timestamp.from(creada));
+
+        mockMvc.perform(alta(clave, "Padre tras abandono")).andExpect(status().isCreated());
+        mockMvc.perform(alta(clave, "Padre tras abandono"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(FiltroIdempotencia.CABECERA_REPETIDA, "true"));
+
+        // Dentro del plazo de abandono sigue en curso
+        String reciente = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into clave_idempotencia (usuario, clave, huella, creada) values (?, ?, ?, ?)",
+                "user", reciente, new byte[32], Timestamp.from(Instant.now()));
+        mockMvc.perform(alta(reciente, "Padre en curso")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void lasPeticionesAnonimasNoGuardanSuClave() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        // Una ruta pública: la respuesta, sea cual sea, no se asocia a nadie
+        mockMvc.perform(post("/entities/1").header(FiltroIdempotencia.CABECERA, clave).with(csrf()));
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from clave_idempotencia where clave = ?",
+                Integer.class, clave)).isZero();
+    }
+
+    @Test
+    void elCuerpoRepetibleSePuedeLeerSinBloquear() throws Exception {
+        var original = new MockHttpServletRequest("POST", "/entidadPadres");
+        original.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        original.setContent("{\"nombre\": \"Padre\"}".getBytes(StandardCharsets.UTF_8));
+        ServletInputStream entrada = FiltroIdempotencia.conCuerpoRepetible(original).getInputStream();
+        var leido = new ByteArrayOutputStream();
+        var todoLeido = new AtomicBoolean();
+
+        entrada.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (entrada.isReady() && !entrada.isFinished()) {
+                    leido.write(entrada.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                todoLeido.set(true);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+
+        assertThat(todoLeido).isTrue();
+        assertThat(leido.toString(StandardCharsets.UTF_8)).isEqualTo("{\"nombre\": \"Padre\"}");
+    }
+
+    private static MockHttpServletRequestBuilder alta(String clave, String nombre) {
+        return post("/entidadPadres")
+                .header(FiltroIdempotencia.CABECERA, clave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\": \"" + nombre + "\"}")
+                .with(user("user"))
+                .with(csrf());
+    }
+}
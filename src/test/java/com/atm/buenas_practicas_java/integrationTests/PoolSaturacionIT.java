@@ -0,0 +1,94 @@
+package com.atm.buenas_practicas_java.integrationTests;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de saturación del pool de conexiones: lleva {@code /entities} hasta agotar un pool de dos
+ * conexiones y comprueba que las peticiones fallan en el {@code connection-timeout}, que las métricas
+ * lo reflejan y que el servicio se recupera al liberar las conexiones.
+ */
+@Log4j2
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        // Las peticiones deben llegar al pool, no quedarse en los límites por IP y de concurrencia
+        "app.limites.habilitado=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PoolSaturacionIT extends PostgreSQLContainerTest {
+
+    private static final int PETICIONES_CONCURRENTES = 32;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void elPoolSeAgotaFallaRapidoYSeRecupera() throws Exception {
+        log.info("Lanzando {} peticiones concurrentes contra un pool de 2 conexiones...", PETICIONES_CONCURRENTES);
+        List<Integer> estados = lanzar(PETICIONES_CONCURRENTES);
+        assertThat(estados).hasSize(PETICIONES_CONCURRENTES).contains(200);
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").timer().count())
+                .isGreaterThanOrEqualTo(PETICIONES_CONCURRENTES);
+
+        log.info("Reteniendo todas las conexiones del pool...");
+        double timeoutsPrevios = meterRegistry.get("hikaricp.connections.timeout").counter().count();
+        List<Connection> retenidas = new ArrayList<>();
+        try {
+            retenidas.add(dataSource.getConnection());
+            retenidas.add(dataSource.getConnection());
+            assertThat(meterRegistry.get("hikaricp.connections.active").gauge().value()).isEqualTo(2);
+
+            long inicio = System.nanoTime();
+            List<Integer> saturadas = lanzar(8);
+            long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+            assertThat(saturadas).doesNotContain(200);
+            assertThat(milisegundos).as("las peticiones fallan en el connection-timeout").isLessThan(5_000);
+            assertThat(meterRegistry.get("hikaricp.connections.timeout").counter().count())
+                    .isGreaterThanOrEqualTo(timeoutsPrevios + 8);
+        } finally {
+            for (Connection conexion : retenidas) {
+                conexion.close();
+            }
+        }
+
+        assertThat(lanzar(1)).containsExactly(200);
+        log.info("El pool se recuperó tras liberar las conexiones.");
+    }
+
+    private List<Integer> lanzar(int peticiones) {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/entities")).build();
+        List<CompletableFuture<Integer>> respuestas = IntStream.range(0, peticiones)
+                .mapToObj(i -> cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(HttpResponse::statusCode))
+                .toList();
+        return respuestas.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
+import com.atm.buenas_practicas_java.services.EntidadEscrita;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link AlmacenNombres} y el {@link ModeloLectura} con los nombres fuera del heap.
+ */
+class AlmacenNombresTest {
+
+    @Test
+    void losNombresIgualesCompartenManejador() {
+        // Bloques pequeños para que haga falta más de uno y el índice tenga que crecer
+        var almacen = new AlmacenNombres(1 << 16);
+        Set<Long> manejadores = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            long manejador = almacen.agregar("Hija de Entidad-" + (i % 10_000));
+            assertThat(almacen.agregar("Hija de Entidad-" + (i % 10_000))).isEqualTo(manejador);
+            manejadores.add(manejador);
+        }
+
+        assertThat(manejadores).hasSize(10_000);
+        assertThat(almacen.distintos()).isEqualTo(10_000);
+        assertThat(almacen.nombre(almacen.agregar("Hija de Entidad-9999"))).isEqualTo("Hija de Entidad-9999");
+        assertThat(almacen.bytesReservados()).isGreaterThan(almacen.bytesNombres());
+        assertThat(almacen.agregar(null)).isEqualTo(AlmacenNombres.SIN_NOMBRE);
+        assertThat(almacen.nombre(AlmacenNombres.SIN_NOMBRE)).isNull();
+        assertThat(almacen.agregar("")).isNotEqualTo(AlmacenNombres.SIN_NOMBRE);
+        assertThat(almacen.nombre(almacen.agregar(""))).isEmpty();
+        assertThat(almacen.nombre(almacen.agregar("Ñandú 😀"))).isEqualTo("Ñandú 😀");
+        assertThatThrownBy(() -> almacen.agregar("x".repeat(AlmacenNombres.LONGITUD_MAXIMA + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void elModeloAplicaCambiosConLosNombresFueraDelHeap() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var modelo = new ModeloLectura(meterRegistry, new AlmacenNombres(1 << 16));
+        modelo.cargar(0,
+                () -> LongStream.rangeClosed(1, 10).mapToObj(id -> new EntidadPadreResumen(id, "Entidad-" + id)),
+                () -> LongStream.rangeClosed(1, 1000).mapToObj(id ->
+                        new EntidadHijaResumen(id, id % 10 + 1, "Hija de Entidad-" + (id % 10 + 1))));
+
+        modelo.alEscribir(new EntidadEscrita("EntidadHija", 1, Cambio.Operacion.UPDATE, "Hija renombrada", 2L));
+        modelo.alEscribir(new EntidadEscrita("EntidadPadre", 3, Cambio.Operacion.DELETE, null, null));
+
+        assertThat(modelo.hija(1)).contains(new VistaHija(1, "Hija renombrada", 2L));
+        // Las hijas del padre borrado se quitan al compactar, que copia los manejadores de las demás
+        assertThat(modelo.hija(2)).isEmpty();
+        assertThat(modelo.hija(3)).contains(new VistaHija(3, "Hija de Entidad-4", 4L));
+        assertThat(modelo.hijas()).hasSize(900);
+        assertThat(modelo.padres()).hasSize(9);
+        // 10 padres, 10 nombres de hija distintos y el renombrado
+        assertThat(meterRegistry.get("modelo.lectura.nombres.distintos").gauge().value()).isEqualTo(21);
+        ModeloLectura.Huella huella = modelo.huella();
+        assertThat(huella.bytesNombres()).isZero();
+        assertThat(huella.bytesFueraHeap()).isPositive()
+                .isEqualTo((long) meterRegistry.get("modelo.lectura.memoria.fuera.heap").gauge().value());
+    }
+
+    @Test
+    void losNombresQueYaNoSeUsanNoSeAcumulanEnElAlmacen() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var modelo = new ModeloLectura(meterRegistry, new AlmacenNombres(1 << 16));
+        modelo.cargar(0,
+                () -> LongStream.rangeClosed(1, 10).mapToObj(id -> new EntidadPadreResumen(id, "Entidad-" + id)),
+                () -> LongStream.rangeClosed(1, 100).mapToObj(id ->
+                        new EntidadHijaResumen(id, id % 10 + 1, "Hija de Entidad-" + (id % 10 + 1))));
+
+        int renombrados = 3 * ModeloLectura.NOMBRES_RENOVACION;
+        for (int i = 0; i < renombrados; i++) {
+            modelo.alEscribir(new EntidadEscrita("EntidadPadre", 1, Cambio.Operacion.UPDATE, "Nombre " + i, null));
+        }
+
+        assertThat(modelo.padre(1)).contains(new VistaPadre(1, "Nombre " + (renombrados - 1)));
+        assertThat(modelo.hija(9)).contains(new VistaHija(9, "Hija de Entidad-10", 10L));
+        assertThat(meterRegistry.get("modelo.lectura.nombres.renovaciones").counter().count()).isGreaterThan(1);
+        assertThat(meterRegistry.get("modelo.lectura.nombres.distintos").gauge().value())
+                .isLessThanOrEqualTo(2 * 110 + ModeloLectura.NOMBRES_RENOVACION + 1);
+    }
+}
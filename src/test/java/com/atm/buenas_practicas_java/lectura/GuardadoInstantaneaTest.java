@@ -0,0 +1,110 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
+import com.atm.buenas_practicas_java.services.EntidadEscrita;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Instantánea del {@link ModeloLectura} en disco: formato, arranque desde ella y reconciliación con la carga.
+ */
+class GuardadoInstantaneaTest {
+
+    @TempDir
+    private Path directorio;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void elFicheroConservaIdsNombresYPadres() throws IOException {
+        var modelo = new ModeloLectura(meterRegistry);
+        modelo.cargar(42,
+                () -> Stream.of(new EntidadPadreResumen(1L, "Padre ñandú"), new EntidadPadreResumen(2L, null)),
+                () -> Stream.of(new EntidadHijaResumen(10, 1L, "Hija 😀"),
+                        new EntidadHijaResumen(11, null, ""), new EntidadHijaResumen(12, 2L, "Hija 12")));
+        Path ruta = directorio.resolve("modelo/instantanea.bin");
+
+        var guardado = guardado(modelo, ruta);
+        assertThat(guardado.guardar()).isTrue();
+        // Sin cambios no se vuelve a escribir
+        assertThat(guardado.guardar()).isFalse();
+        // Se lee en un modelo con los nombres fuera del heap: van del fichero al almacén sin pasar por String
+        var copia = new ModeloLectura(meterRegistry, new AlmacenNombres(1 << 16));
+        var leida = FicheroInstantanea.leer(ruta, copia::columnaNombres).orElseThrow();
+
+        assertThat(leida.posicion()).isEqualTo(42);
+        assertThat(copia.arrancarDesde(leida.instantanea(), leida.posicion())).isTrue();
+        assertThat(copia.listo()).isTrue();
+        assertThat(copia.padres()).containsExactlyElementsOf(modelo.padres());
+        assertThat(copia.hijas()).containsExactlyElementsOf(modelo.hijas());
+        assertThat(copia.hija(10)).contains(new VistaHija(10, "Hija 😀", 1L));
+        assertThat(copia.padre(2)).contains(new VistaPadre(2, null));
+        assertThat(leida.instantanea().diferencias(modelo.guardable().orElseThrow().instantanea())).isZero();
+        assertThat(FicheroInstantanea.leer(directorio.resolve("no-existe.bin"), modelo::columnaNombres)).isEmpty();
+    }
+
+    @Test
+    void unFicheroCorruptoNoSeLee() throws IOException {
+        var modelo = new ModeloLectura(meterRegistry);
+        modelo.cargar(1, () -> Stream.of(new EntidadPadreResumen(1L, "Padre 1")), Stream::empty);
+        Path ruta = directorio.resolve("instantanea.bin");
+        guardado(modelo, ruta).guardar();
+
+        try (var canal = Files.newByteChannel(ruta, StandardOpenOption.WRITE)) {
+            canal.position(Files.size(ruta) - 1).write(ByteBuffer.wrap(new byte[]{'X'}));
+        }
+        assertThatThrownBy(() -> FicheroInstantanea.leer(ruta, modelo::columnaNombres))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("CRC");
+
+        Files.write(ruta, new byte[10]);
+        assertThatThrownBy(() -> FicheroInstantanea.leer(ruta, modelo::columnaNombres)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void arrancaDeDiscoYLaCargaReconcilia() throws IOException {
+        var anterior = new ModeloLectura(meterRegistry);
+        anterior.cargar(5, () -> Stream.of(new EntidadPadreResumen(1L, "Padre 1"),
+                new EntidadPadreResumen(2L, "Padre 2")), Stream::empty);
+        Path ruta = directorio.resolve("instantanea.bin");
+        guardado(anterior, ruta).guardar();
+
+        var modelo = new ModeloLectura(meterRegistry);
+        var leida = FicheroInstantanea.leer(ruta, modelo::columnaNombres).orElseThrow();
+        modelo.arrancarDesde(leida.instantanea(), leida.posicion());
+        // Listo sin haber cargado, pero lo leído de disco no se vuelve a guardar hasta reconciliarlo
+        assertThat(modelo.listo()).isTrue();
+        assertThat(modelo.posicion()).isEqualTo(5);
+        assertThat(modelo.guardable()).isEmpty();
+        modelo.alEscribir(new EntidadEscrita("EntidadPadre", 3, Cambio.Operacion.INSERT, "Padre 3", null));
+        assertThat(modelo.padre(3)).contains(new VistaPadre(3, "Padre 3"));
+
+        // En la base de datos el padre 2 se borró y el 1 se renombró después de guardar
+        modelo.cargar(7, () -> Stream.of(new EntidadPadreResumen(1L, "Padre 1 renombrado")), Stream::empty);
+
+        assertThat(modelo.padres()).containsExactly(new VistaPadre(1, "Padre 1 renombrado"),
+                new VistaPadre(3, "Padre 3"));
+        assertThat(modelo.posicion()).isEqualTo(7);
+        assertThat(modelo.guardable()).isPresent();
+        assertThat(meterRegistry.get("modelo.lectura.reconciliacion.diferencias").counter().count()).isEqualTo(2);
+    }
+
+    private GuardadoInstantanea guardado(ModeloLectura modelo, Path ruta) {
+        return new GuardadoInstantanea(modelo, new ModeloLecturaProperties.Persistencia(true, ruta,
+                Duration.ofMinutes(5)), meterRegistry);
+    }
+}
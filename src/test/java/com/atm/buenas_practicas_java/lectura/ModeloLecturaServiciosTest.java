@@ -0,0 +1,107 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.cambios.RelevoCambios;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import com.atm.buenas_practicas_java.services.EntidadHijaService;
+import com.atm.buenas_practicas_java.services.EntidadPadreService;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Modelo de lectura con la aplicación completa: carga inicial de la base de datos, cambios de los servicios al
+ * confirmarse, cambios de otras escrituras a través del relevo y listados de {@code DefaultController}.
+ */
+@Log4j2
+@SpringBootTest
+@TestPropertySource(properties = "app.modelo-lectura.habilitado=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class ModeloLecturaServiciosTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ModeloLectura modeloLectura;
+
+    @Autowired
+    private EntidadPadreService entidadPadreService;
+
+    @Autowired
+    private EntidadHijaService entidadHijaService;
+
+    @Autowired
+    private EntidadPadreRepository entidadPadreRepository;
+
+    @Autowired
+    private RelevoCambios relevoCambios;
+
+    @BeforeAll
+    void esperarCarga() throws InterruptedException {
+        for (int i = 0; i < 200 && !modeloLectura.listo(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(modeloLectura.listo()).isTrue();
+    }
+
+    @Test
+    void lasEscriturasDeLosServiciosSeVenAlConfirmarse() {
+        EntidadPadre padre = entidadPadreService.save(new EntidadPadre("Padre del modelo"));
+        EntidadHija hija = new EntidadHija("Hija del modelo");
+        hija.setEntidadPadre(padre);
+        hija = entidadHijaService.save(hija);
+        assertThat(modeloLectura.padre(padre.getId())).contains(new VistaPadre(padre.getId(), "Padre del modelo"));
+        assertThat(modeloLectura.hija(hija.getId()))
+                .contains(new VistaHija(hija.getId(), "Hija del modelo", padre.getId()));
+
+        entidadPadreService.renombrar(padre.getId(), "Padre renombrado");
+        assertThat(modeloLectura.padre(padre.getId())).hasValueSatisfying(vista ->
+                assertThat(vista.nombre()).isEqualTo("Padre renombrado"));
+
+        entidadPadreService.deleteById(padre.getId());
+        assertThat(modeloLectura.padre(padre.getId())).isEmpty();
+        assertThat(modeloLectura.hija(hija.getId())).isEmpty();
+    }
+
+    @Test
+    void lasEscriturasAjenasALosServiciosLleganPorElRelevo() {
+        EntidadPadre padre = entidadPadreRepository.save(new EntidadPadre("Padre sin servicio"));
+        assertThat(modeloLectura.padre(padre.getId())).isEmpty();
+
+        relevoCambios.publicar();
+
+        assertThat(modeloLectura.padre(padre.getId())).contains(new VistaPadre(padre.getId(), "Padre sin servicio"));
+        assertThat(modeloLectura.posicion()).isPositive();
+    }
+
+    @Test
+    @WithMockUser
+    void losListadosSeSirvenDelModelo() throws Exception {
+        // Solo está en el modelo: si el listado lo muestra, no ha leído de la base de datos
+        modeloLectura.aplicar(List.of(new Escritura(true, Long.MAX_VALUE, false, "Padre solo en memoria",
+                Tabla.SIN_PADRE)), 0);
+
+        mockMvc.perform(get("/protected"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Padre solo en memoria")));
+    }
+}
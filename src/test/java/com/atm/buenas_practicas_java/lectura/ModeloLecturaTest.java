@@ -0,0 +1,103 @@
+package com.atm.buenas_practicas_java.lectura;
+
+import com.atm.buenas_practicas_java.cambios.Cambio;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.EntidadPadreResumen;
+import com.atm.buenas_practicas_java.services.EntidadEscrita;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga, aplicación de cambios y memoria de {@link ModeloLectura}, sin base de datos.
+ */
+@Log4j2
+class ModeloLecturaTest {
+
+    private static final int MILLON = 1_000_000;
+
+    private final ModeloLectura modelo = new ModeloLectura(new SimpleMeterRegistry());
+
+    @Test
+    void aplicaLosCambiosDeLosServiciosYDelRelevo() {
+        cargar(List.of(new EntidadPadreResumen(1L, "Padre 1"), new EntidadPadreResumen(2L, "Padre 2")),
+                List.of(new EntidadHijaResumen(10, 1L, "Hija 10"), new EntidadHijaResumen(11, 2L, "Hija 11"),
+                        new EntidadHijaResumen(12, null, "Hija 12")));
+        List<VistaPadre> antes = modelo.padres();
+
+        modelo.alEscribir(new EntidadEscrita("EntidadPadre", 1, Cambio.Operacion.UPDATE, "Padre 1 renombrado", null));
+        modelo.alEscribir(new EntidadEscrita("EntidadPadre", 3, Cambio.Operacion.INSERT, "Padre 3", null));
+        modelo.publicar(List.of(
+                cambio(7, "EntidadHija", 13, Cambio.Operacion.INSERT, "Hija 13", 3L),
+                cambio(8, "EntidadHija", 12, Cambio.Operacion.DELETE, "Hija 12", null)));
+
+        assertThat(modelo.padres()).containsExactly(new VistaPadre(1, "Padre 1 renombrado"),
+                new VistaPadre(2, "Padre 2"), new VistaPadre(3, "Padre 3"));
+        assertThat(modelo.hijas()).extracting(VistaHija::id).containsExactly(10L, 11L, 13L);
+        assertThat(modelo.hija(13)).contains(new VistaHija(13, "Hija 13", 3L));
+        assertThat(modelo.hija(12)).isEmpty();
+        assertThat(modelo.posicion()).isEqualTo(8);
+        // Una lista ya obtenida es de la instantánea anterior y no cambia
+        assertThat(antes).containsExactly(new VistaPadre(1, "Padre 1"), new VistaPadre(2, "Padre 2"));
+
+        // Borrar un padre quita sus hijas, como el borrado en cascada
+        modelo.alEscribir(new EntidadEscrita("EntidadPadre", 1, Cambio.Operacion.DELETE, null, null));
+        assertThat(modelo.padre(1)).isEmpty();
+        assertThat(modelo.hijas()).extracting(VistaHija::id).containsExactly(11L, 13L);
+        assertThat(modelo.padre(2)).contains(new VistaPadre(2, "Padre 2"));
+    }
+
+    @Test
+    void losCambiosRecibidosDuranteLaCargaSeAplicanDespues() {
+        modelo.publicar(List.of(cambio(5, "EntidadPadre", 1, Cambio.Operacion.UPDATE, "Padre 1 nuevo", null),
+                cambio(6, "EntidadPadre", 2, Cambio.Operacion.INSERT, "Padre 2", null)));
+        assertThat(modelo.listo()).isFalse();
+        assertThat(modelo.padres()).isEmpty();
+
+        cargar(List.of(new EntidadPadreResumen(1L, "Padre 1")), List.of());
+
+        assertThat(modelo.listo()).isTrue();
+        assertThat(modelo.padres()).containsExactly(new VistaPadre(1, "Padre 1 nuevo"), new VistaPadre(2, "Padre 2"));
+        assertThat(modelo.posicion()).isEqualTo(6);
+    }
+
+    /**
+     * Lo documentado en RENDIMIENTO.md: unos 37 MB de arrays e índice por millón de padres y 45 MB por millón de
+     * hijas, más los nombres (56 bytes uno de 9 a 16 caracteres Latin-1).
+     */
+    @Test
+    void unMillonDePadresYOtroDeHijasOcupanLoDocumentado() {
+        modelo.cargar(0,
+                () -> LongStream.rangeClosed(1, MILLON).mapToObj(id -> new EntidadPadreResumen(id, "Padre " + id)),
+                () -> LongStream.rangeClosed(1, MILLON).mapToObj(id ->
+                        new EntidadHijaResumen(id, (id % 1000) + 1, "Hija  " + id)));
+        // Un cambio copia las tablas: la huella es la de una instantánea, no la suma de las dos
+        modelo.alEscribir(new EntidadEscrita("EntidadHija", 1, Cambio.Operacion.UPDATE, "Hija renombrada", 1L));
+
+        ModeloLectura.Huella huella = modelo.huella();
+        log.info("Modelo de lectura con {} padres y {} hijas: {} bytes de estructura y {} de nombres",
+                huella.padres(), huella.hijas(), huella.bytesEstructura(), huella.bytesNombres());
+        assertThat(huella.padres()).isEqualTo(MILLON);
+        assertThat(huella.hijas()).isEqualTo(MILLON);
+        assertThat(huella.bytesEstructura()).isBetween(80_000_000L, 83_000_000L);
+        assertThat(huella.bytesNombres()).isBetween(2 * 55L * MILLON, 2 * 56L * MILLON);
+        assertThat(modelo.padre(MILLON)).contains(new VistaPadre(MILLON, "Padre " + MILLON));
+        assertThat(modelo.hija(1)).contains(new VistaHija(1, "Hija renombrada", 1L));
+    }
+
+    private void cargar(List<EntidadPadreResumen> padres, List<EntidadHijaResumen> hijas) {
+        modelo.cargar(0, padres::stream, hijas::stream);
+    }
+
+    private static Cambio cambio(long posicion, String entidad, long id, Cambio.Operacion operacion, String nombre,
+                                 Long entidadPadreId) {
+        return new Cambio(posicion, entidad, id, operacion, nombre, entidadPadreId, Instant.now());
+    }
+}
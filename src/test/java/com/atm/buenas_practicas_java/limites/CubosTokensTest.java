@@ -0,0 +1,103 @@
+package com.atm.buenas_practicas_java.limites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cubos de tokens por cliente con un reloj controlado por el test.
+ */
+class CubosTokensTest {
+
+    private final AtomicLong reloj = new AtomicLong(1);
+
+    @Test
+    void admiteUnaRafagaYDespuesAlRitmoConfigurado() {
+        var cubos = new CubosTokens(5, 10, 1024, reloj::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cubos.consumir("10.0.0.1")).isZero();
+        }
+        // Un token cada 100 ms
+        assertThat(cubos.consumir("10.0.0.1")).isEqualTo(100_000);
+        reloj.addAndGet(50_000);
+        assertThat(cubos.consumir("10.0.0.1")).isEqualTo(50_000);
+        reloj.addAndGet(50_000);
+        assertThat(cubos.consumir("10.0.0.1")).isZero();
+        assertThat(cubos.consumir("10.0.0.1")).isPositive();
+
+        // Otro cliente tiene su propio cubo
+        assertThat(cubos.consumir("10.0.0.2")).isZero();
+        // Y en reposo el cubo se llena, pero no por encima de la capacidad
+        reloj.addAndGet(60_000_000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(cubos.consumir("10.0.0.1")).isZero();
+        }
+        assertThat(cubos.consumir("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void conMasClientesQueRanurasNuncaSeAdmiteDeMas() {
+        var cubos = new CubosTokens(3, 1, 4, reloj::get);
+        int clientes = 100;
+
+        int admitidas = 0;
+        for (int i = 0; i < clientes; i++) {
+            for (int j = 0; j < 10; j++) {
+                if (cubos.consumir("cliente-" + i) == 0) {
+                    admitidas++;
+                }
+            }
+        }
+        // Los clientes comparten las 4 ranuras: como mucho la ráfaga de cada una
+        assertThat(admitidas).isLessThanOrEqualTo(4 * 3);
+    }
+
+    @Test
+    void quienSeQuedoEnLaAlternativaNoEstrenaCuboCuandoLaPrincipalQuedaEnReposo() {
+        var cubos = new CubosTokens(2, 1, 8, reloj::get);
+        // a tiene dos candidatas distintas y b ocupa antes la principal de a
+        String a = IntStream.range(0, 1000).mapToObj(i -> "a-" + i)
+                .filter(cliente -> cubos.candidatas(cliente)[0] != cubos.candidatas(cliente)[1])
+                .findFirst().orElseThrow();
+        String b = IntStream.range(0, 1000).mapToObj(i -> "b-" + i)
+                .filter(cliente -> cubos.candidatas(cliente)[0] == cubos.candidatas(a)[0])
+                .findFirst().orElseThrow();
+
+        assertThat(cubos.consumir(b)).isZero();
+        assertThat(cubos.consumir(a)).isZero();
+        assertThat(cubos.consumir(a)).isZero();
+        assertThat(cubos.consumir(a)).isPositive();
+
+        // Al cabo de un segundo el cubo de b está lleno y a solo ha recuperado un token
+        reloj.addAndGet(1_000_000);
+        assertThat(cubos.consumir(a)).isZero();
+        assertThat(cubos.consumir(a)).isPositive();
+    }
+
+    @Test
+    void desdeVariosHilosSeAdmiteExactamenteLaCapacidad() throws InterruptedException {
+        var cubos = new CubosTokens(1000, 1, 1024, reloj::get);
+        var admitidas = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int hilo = 0; hilo < 8; hilo++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (cubos.consumir("10.0.0.1") == 0) {
+                            admitidas.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        assertThat(admitidas).hasValue(1000);
+    }
+}
@@ -0,0 +1,113 @@
+package com.atm.buenas_practicas_java.limites;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link FiltroLimites} y {@link FiltroLimitesUsuario}, encadenados como en la aplicación, sobre peticiones
+ * simuladas y sin contexto de Spring.
+ */
+class FiltroLimitesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LimitesPorRuta limites = new LimitesPorRuta(new LimitesProperties(true, 1024, Map.of(
+            "/entities", new LimitesProperties.Ruta(new LimitesProperties.Cubo(2, 0.001),
+                    new LimitesProperties.Cubo(0, 1), new LimitesProperties.Concurrencia(false, 20, 4, 200, 1.5)),
+            "/protected", new LimitesProperties.Ruta(new LimitesProperties.Cubo(0, 1),
+                    new LimitesProperties.Cubo(1, 0.001), new LimitesProperties.Concurrencia(true, 1, 1, 1, 1.5)))),
+            meterRegistry);
+
+    private final FiltroLimites filtro = new FiltroLimites(limites, meterRegistry);
+
+    private final FiltroLimitesUsuario filtroUsuario = new FiltroLimitesUsuario(limites, meterRegistry);
+
+    @Test
+    void agotadaLaRafagaDeUnaIpResponde429() throws ServletException, IOException {
+        assertThat(peticion("/entities", "10.0.0.1", null).getStatus()).isEqualTo(200);
+        assertThat(peticion("/entities", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rechazada = peticion("/entities", "10.0.0.1", null);
+        assertThat(rechazada.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rechazada.getHeader("Retry-After"))).isPositive();
+        // Otra IP y las rutas sin límites no se ven afectadas
+        assertThat(peticion("/entities", "10.0.0.2", null).getStatus()).isEqualTo(200);
+        assertThat(peticion("/entities/1", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        assertThat(meterRegistry.get("limites.peticiones").tags("ruta", "/entities", "resultado", "tasa_ip")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void elLimitePorUsuarioNoDependeDeLaIp() throws ServletException, IOException {
+        assertThat(peticion("/protected", "10.0.0.1", "ana").getStatus()).isEqualTo(200);
+        assertThat(peticion("/protected", "10.0.0.2", "ana").getStatus()).isEqualTo(429);
+        assertThat(peticion("/protected", "10.0.0.2", "luis").getStatus()).isEqualTo(200);
+        // Las anónimas solo tienen el límite por IP, que aquí no hay
+        assertThat(peticion("/protected", "10.0.0.3", null).getStatus()).isEqualTo(200);
+
+        assertThat(meterRegistry.get("limites.peticiones").tags("ruta", "/protected", "resultado", "tasa_usuario")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("limites.peticiones").tags("ruta", "/protected", "resultado", "admitida")
+                .counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void porEncimaDelLimiteDeConcurrenciaResponde503() throws ServletException, IOException {
+        var enCurso = new MockHttpServletResponse[1];
+        var request = request("/protected", "10.0.0.1", "ana");
+        // Mientras la primera petición está en el controlador llega otra
+        filtro.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> enCurso[0] = peticion("/protected", "10.0.0.1", "luis"));
+
+        assertThat(enCurso[0].getStatus()).isEqualTo(503);
+        assertThat(enCurso[0].getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.get("limites.concurrencia.en.curso").tag("ruta", "/protected").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void unaPeticionAsincronaOcupaSuSitioHastaQueTermina() throws ServletException, IOException {
+        var request = request("/protected", "10.0.0.1", "ana");
+        request.setAsyncSupported(true);
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // El controlador ya ha vuelto, pero la respuesta sigue abierta
+        assertThat(peticion("/protected", "10.0.0.2", "luis").getStatus()).isEqualTo(503);
+        assertThat(meterRegistry.get("limites.concurrencia.en.curso").tag("ruta", "/protected").gauge().value())
+                .isEqualTo(1);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(meterRegistry.get("limites.concurrencia.en.curso").tag("ruta", "/protected").gauge().value())
+                .isZero();
+        assertThat(peticion("/protected", "10.0.0.2", "luis").getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse peticion(String ruta, String ip, String usuario)
+            throws ServletException, IOException {
+        var response = new MockHttpServletResponse();
+        filtro.doFilter(request(ruta, ip, usuario), response,
+                (req, res) -> filtroUsuario.doFilter(req, res, new MockFilterChain()));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ruta, String ip, String usuario) {
+        var request = new MockHttpServletRequest("GET", ruta);
+        request.setRemoteAddr(ip);
+        if (usuario != null) {
+            request.setUserPrincipal((Principal) () -> usuario);
+        }
+        return request;
+    }
+}
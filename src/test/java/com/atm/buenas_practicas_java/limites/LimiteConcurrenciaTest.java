@@ -0,0 +1,70 @@
+package com.atm.buenas_practicas_java.limites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Límite de concurrencia adaptativo con un reloj controlado por el test.
+ */
+class LimiteConcurrenciaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void rechazaPorEncimaDelLimite() {
+        var limite = new LimiteConcurrencia(2, 1, 10, 1.5, reloj::get);
+
+        var primero = limite.adquirir();
+        assertThat(limite.adquirir()).isNotNull();
+        assertThat(limite.adquirir()).isNull();
+        assertThat(limite.enCurso()).isEqualTo(2);
+
+        primero.terminar(false);
+        assertThat(limite.adquirir()).isNotNull();
+    }
+
+    @Test
+    void subeConLatenciaEstableYBajaCuandoCrece() {
+        var limite = new LimiteConcurrencia(10, 2, 100, 1.5, reloj::get);
+
+        rondas(limite, 50, 10_000_000);
+        int tranquilo = limite.limite();
+        assertThat(tranquilo).isGreaterThan(10);
+
+        // La latencia se multiplica por 5: las peticiones esperan por algo
+        rondas(limite, 20, 50_000_000);
+        assertThat(limite.limite()).isLessThan(tranquilo / 2).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void conPocaCargaNoCambia() {
+        var limite = new LimiteConcurrencia(10, 2, 100, 1.5, reloj::get);
+
+        for (int i = 0; i < 100; i++) {
+            var permiso = limite.adquirir();
+            reloj.addAndGet(i % 2 == 0 ? 10_000_000 : 100_000_000);
+            permiso.terminar(true);
+        }
+
+        assertThat(limite.limite()).isEqualTo(10);
+    }
+
+    /**
+     * Ocupa el límite entero en cada ronda y termina todas las peticiones con la misma latencia.
+     */
+    private void rondas(LimiteConcurrencia limite, int rondas, long latencia) {
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            List<LimiteConcurrencia.Permiso> permisos = new ArrayList<>();
+            for (var permiso = limite.adquirir(); permiso != null; permiso = limite.adquirir()) {
+                permisos.add(permiso);
+            }
+            reloj.addAndGet(latencia);
+            permisos.forEach(permiso -> permiso.terminar(true));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.atm.buenas_practicas_java.lotes;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Agrupación de búsquedas por id de {@link CargadorPorLotes}: lotes del tamaño configurado, ids repetidos o
+ * inexistentes y entidades ya cargadas.
+ */
+class CargadorPorLotesTest {
+
+    /** Lotes que ha recibido la lectura; los ids mayores que 100 no existen. */
+    private final List<Collection<Long>> lotes = new ArrayList<>();
+    private final DistributionSummary idsPorLote = DistributionSummary.builder("lotes.ids")
+            .register(new SimpleMeterRegistry());
+    private final CargadorPorLotes<Entidad> cargador = new CargadorPorLotes<>(this::leer, Entidad::id, 4, idsPorLote);
+
+    @Test
+    void lasBusquedasEncoladasSeLeenEnLotesDelTamanoConfigurado() {
+        List<Long> ids = LongStream.rangeClosed(1, 10).boxed().toList();
+        ids.forEach(cargador::encolar);
+
+        assertThat(cargador.obtener(3L)).contains(new Entidad(3));
+        assertThat(cargador.obtenerTodas(ids)).extracting(Entidad::id).containsExactlyElementsOf(ids);
+        assertThat(lotes).containsExactly(List.of(1L, 2L, 3L, 4L), List.of(5L, 6L, 7L, 8L), List.of(9L, 10L));
+        assertThat(idsPorLote.count()).isEqualTo(3);
+    }
+
+    @Test
+    void losIdsRepetidosOInexistentesNoVuelvenAConsultarse() {
+        assertThat(cargador.obtenerTodas(List.of(7L, 200L, 7L, 1L))).extracting(Entidad::id).containsExactly(7L, 1L);
+        assertThat(cargador.obtener(200L)).isEmpty();
+        assertThat(cargador.obtener(1L)).contains(new Entidad(1));
+        cargador.despachar();
+
+        assertThat(lotes).containsExactly(List.of(7L, 200L, 1L));
+    }
+
+    private List<Entidad> leer(Collection<Long> ids) {
+        lotes.add(ids);
+        return ids.stream().filter(id -> id <= 100).map(Entidad::new).toList();
+    }
+
+    private record Entidad(long id) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.atm.buenas_practicas_java.mensajes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Resolución por locale, formato con argumentos en el locale pedido y recarga de
+ * {@link FuenteMensajesPrecompilada}, comparada con el {@link ResourceBundleMessageSource} que configura Spring Boot.
+ */
+class FuenteMensajesPrecompiladaTest {
+
+    private static final List<Locale> LOCALES = List.of(Locale.ROOT, Locale.of("es"), Locale.of("es", "ES"),
+            Locale.of("es", "EN"), Locale.of("es", "MX"), Locale.ENGLISH, Locale.of("fr", "FR"));
+
+    @TempDir
+    Path directorio;
+
+    private FuenteMensajesPrecompilada fuente;
+
+    @AfterEach
+    void cerrar() {
+        fuente.destroy();
+    }
+
+    @Test
+    void resuelveLosMensajesDeLaAplicacionComoResourceBundleMessageSource() throws Exception {
+        fuente = new FuenteMensajesPrecompilada(List.of("i18n.messages"), StandardCharsets.UTF_8, false,
+                Duration.ZERO, new DefaultResourceLoader());
+        var referencia = new ResourceBundleMessageSource();
+        referencia.setBasename("i18n.messages");
+        referencia.setDefaultEncoding("UTF-8");
+        referencia.setFallbackToSystemLocale(false);
+
+        Properties claves = new Properties();
+        try (var entrada = getClass().getResourceAsStream("/i18n/messages.properties")) {
+            claves.load(entrada);
+        }
+        for (Locale locale : LOCALES) {
+            for (String clave : claves.stringPropertyNames()) {
+                assertThat(fuente.getMessage(clave, null, locale))
+                        .as("%s en %s", clave, locale)
+                        .isEqualTo(referencia.getMessage(clave, null, locale));
+            }
+        }
+        assertThat(fuente.getMessage("page.contact.title", null, Locale.of("es", "ES"))).isEqualTo("Contáctanos");
+        assertThat(fuente.getMessage("list.entities.column.actions", null, Locale.ROOT)).isEqualTo("Acciones");
+    }
+
+    @Test
+    void elLocaleMasEspecificoGanaYLosArgumentosSeFormatean() throws Exception {
+        escribir("prueba.properties", "saludo=Hola {0}\ndespedida=Adiós\nliteral=Sin ''argumentos''\n");
+        escribir("prueba_es.properties", "despedida=Hasta luego\n");
+        escribir("prueba_es_ES.properties", "saludo=Buenas, {0}: tienes {1,number,integer} avisos\n");
+        fuente = nueva(Duration.ZERO);
+        Locale espana = Locale.of("es", "ES");
+
+        assertThat(fuente.getMessage("saludo", new Object[]{"Ana", 12345}, espana))
+                .isEqualTo("Buenas, Ana: tienes 12.345 avisos");
+        assertThat(fuente.getMessage("despedida", null, espana)).isEqualTo("Hasta luego");
+        assertThat(fuente.getMessage("saludo", new Object[]{"Ana"}, Locale.of("es"))).isEqualTo("Hola Ana");
+        assertThat(fuente.getMessage("despedida", null, Locale.FRENCH)).isEqualTo("Adiós");
+        // Sin argumentos el texto se devuelve tal cual, como hace Spring
+        assertThat(fuente.getMessage("literal", null, espana)).isEqualTo("Sin ''argumentos''");
+        assertThat(fuente.getMessage("literal", new Object[]{1}, espana)).isEqualTo("Sin 'argumentos'");
+        assertThat(fuente.getMessage("inexistente", null, "por defecto", espana)).isEqualTo("por defecto");
+        assertThatThrownBy(() -> fuente.getMessage("inexistente", null, espana))
+                .isInstanceOf(NoSuchMessageException.class);
+    }
+
+    @Test
+    void losLocalesQueCompartenFicherosFormateanCadaUnoConElSuyo() throws Exception {
+        escribir("prueba.properties", "importe={0,number}\n");
+        fuente = nueva(Duration.ZERO);
+        Object[] argumentos = {1234.5};
+
+        assertThat(fuente.getMessage("importe", argumentos, Locale.GERMAN)).isEqualTo("1.234,5");
+        assertThat(fuente.getMessage("importe", argumentos, Locale.ENGLISH)).isEqualTo("1,234.5");
+        // También los locales que ya no caben entre los recordados
+        for (int i = 0; i < FuenteMensajesPrecompilada.LOCALES_MAXIMOS; i++) {
+            fuente.getMessage("importe", argumentos, Locale.of("en", "X" + i));
+        }
+        assertThat(fuente.getMessage("importe", argumentos, Locale.GERMANY)).isEqualTo("1.234,5");
+        assertThat(fuente.getMessage("importe", null, Locale.GERMANY)).isEqualTo("{0,number}");
+    }
+
+    @Test
+    void recargaLosFicherosModificadosSinParar() throws Exception {
+        Path base = escribir("prueba.properties", "saludo=Hola\n");
+        fuente = nueva(Duration.ofMillis(20));
+        Locale espana = Locale.of("es", "ES");
+        assertThat(fuente.getMessage("saludo", null, espana)).isEqualTo("Hola");
+
+        escribir("prueba.properties", "saludo=Hola de nuevo\n");
+        Files.setLastModifiedTime(base, FileTime.from(Instant.now().plusSeconds(5)));
+        escribir("prueba_es.properties", "saludo=Buenas\n");
+
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!fuente.getMessage("saludo", null, espana).equals("Buenas") && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(fuente.getMessage("saludo", null, espana)).isEqualTo("Buenas");
+        assertThat(fuente.getMessage("saludo", null, Locale.ROOT)).isEqualTo("Hola de nuevo");
+    }
+
+    private FuenteMensajesPrecompilada nueva(Duration recarga) {
+        return new FuenteMensajesPrecompilada(List.of(directorio.resolve("prueba").toUri().toString()),
+                StandardCharsets.UTF_8, false, recarga, new DefaultResourceLoader());
+    }
+
+    private Path escribir(String nombre, String contenido) throws Exception {
+        return Files.writeString(directorio.resolve(nombre), contenido, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Comprueba los límites de las grabaciones bajo demanda y que los eventos propios llegan al fichero descargado.
+ */
+class GrabacionesJfrEndpointTest {
+
+    @TempDir
+    Path directorio;
+
+    private GrabacionesJfrEndpoint endpoint;
+
+    @AfterEach
+    void cerrar() {
+        endpoint.close();
+    }
+
+    private JfrProperties propiedades(boolean continuo) {
+        return new JfrProperties(directorio, "default", Duration.ofMinutes(1), DataSize.ofMegabytes(20), 1,
+                new JfrProperties.Continuo(continuo, "default", Duration.ofMinutes(5), DataSize.ofMegabytes(20)));
+    }
+
+    @Test
+    void laDuracionSeAcotaYNoSeSuperanLasGrabacionesSimultaneas() {
+        endpoint = new GrabacionesJfrEndpoint(propiedades(false));
+
+        var grabacion = endpoint.iniciar("prueba", Duration.ofHours(1), null);
+
+        assertThat(grabacion.duracion()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(grabacion.estado()).isEqualTo(RecordingState.RUNNING);
+        assertThatThrownBy(() -> endpoint.iniciar("otra", null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.iniciar("otra", null, "inexistente"))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+
+        assertThat(endpoint.detener(grabacion.id()).estado()).isEqualTo(RecordingState.STOPPED);
+        assertThat(endpoint.iniciar("otra", null, null).estado()).isEqualTo(RecordingState.RUNNING);
+    }
+
+    @Test
+    void unNombreQuePodriaSalirDelDirectorioSeRechaza() {
+        endpoint = new GrabacionesJfrEndpoint(propiedades(false));
+
+        assertThatThrownBy(() -> endpoint.iniciar("../../tmp/x", null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.iniciar("a/b", null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(endpoint.listar()).isEmpty();
+
+        var grabacion = endpoint.iniciar("perfil_lento-1", null, null);
+        endpoint.detener(grabacion.id());
+        assertThat(endpoint.descargar(grabacion.id()).getFilename())
+                .isEqualTo("perfil_lento-1-" + grabacion.id() + ".jfr");
+    }
+
+    @Test
+    void laDescargaIncluyeLosEventosPropios() throws Exception {
+        endpoint = new GrabacionesJfrEndpoint(propiedades(true));
+        var continua = endpoint.listar().stream()
+                .filter(g -> GrabacionesJfrEndpoint.CONTINUA.equals(g.nombre()))
+                .findFirst().orElseThrow();
+
+        EventosJfr.Servicio evento = new EventosJfr.Servicio();
+        evento.begin();
+        evento.clase = "EntidadPadreService";
+        evento.metodo = "findAll";
+        evento.commit();
+
+        Resource descarga = endpoint.descargar(continua.id());
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(descarga.getFile().toPath());
+        assertThat(eventos)
+                .filteredOn(e -> e.getEventType().getName().equals("buenaspracticas.Servicio"))
+                .anySatisfy(e -> assertThat(e.getString("metodo")).isEqualTo("findAll"));
+        assertThat(continua.estado()).isEqualTo(RecordingState.RUNNING);
+    }
+}
@@ -0,0 +1,66 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link InspectorSqlFilter} en modo {@code FALLAR} sobre peticiones simuladas, sin contexto de Spring.
+ */
+class InspectorSqlFilterTest {
+
+    private final InspectorSqlFilter filtro = new InspectorSqlFilter(new InspectorSqlProperties(true,
+            Duration.ofMillis(200), 10, InspectorSqlProperties.ModoPresupuesto.FALLAR, null, Map.of("/entities", 2)),
+            new SimpleMeterRegistry());
+
+    @Test
+    void superarElPresupuestoDescartaLaPaginaAntesDeEnviarla() {
+        var response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> peticion(response, 3)).isInstanceOf(PresupuestoSqlExcedidoException.class);
+
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader("X-Pagina")).isNull();
+    }
+
+    @Test
+    void dentroDelPresupuestoLaPaginaSeEnviaEntera() throws ServletException, IOException {
+        var response = new MockHttpServletResponse();
+
+        peticion(response, 2);
+
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getContentAsString()).isEqualTo("página");
+        assertThat(response.getContentLength()).isEqualTo("página".getBytes(response.getCharacterEncoding()).length);
+        assertThat(response.getHeader("X-Pagina")).isEqualTo("1");
+    }
+
+    /**
+     * Un controlador de {@code /entities} que ejecuta {@code sentencias} sentencias y escribe la página.
+     */
+    private void peticion(MockHttpServletResponse response, int sentencias) throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", "/entities");
+        filtro.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/entities");
+            for (int i = 0; i < sentencias; i++) {
+                ContextoSqlPeticion.actual().registrar("select " + i, 1);
+            }
+            var http = (HttpServletResponse) res;
+            http.setHeader("X-Pagina", "1");
+            http.getWriter().write("página");
+            http.flushBuffer();
+        });
+    }
+}
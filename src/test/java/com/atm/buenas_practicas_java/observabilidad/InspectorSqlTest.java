@@ -0,0 +1,71 @@
+package com.atm.buenas_practicas_java.observabilidad;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadHijaRepository;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Pruebas del inspector SQL con el perfil {@code ci}, en el que superar el presupuesto de sentencias
+ * de un endpoint hace fallar la petición.
+ */
+@Log4j2
+@SpringBootTest
+@ActiveProfiles("ci")
+@TestPropertySource(properties = "app.sql.presupuestos[/entities]=2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMockMvc
+class InspectorSqlTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    EntidadPadreRepository entidadPadreRepository;
+
+    @Autowired
+    EntidadHijaRepository entidadHijaRepository;
+
+    @Test
+    void unaPaginaQueSuperaElPresupuestoFalla() {
+        // Los padres de las hijas se cargan por lotes (@BatchSize), pero /entities sigue necesitando más de dos
+        // sentencias: la posición del flujo de cambios, las hijas y sus padres
+        log.info("Creando padres con hijas para superar el presupuesto de /entities...");
+        for (int i = 0; i < 3; i++) {
+            EntidadPadre entidadPadre = entidadPadreRepository.save(new EntidadPadre("Padre SQL " + i));
+            EntidadHija entidadHija = new EntidadHija("Hija SQL " + i);
+            entidadHija.setEntidadPadre(entidadPadre);
+            entidadHijaRepository.save(entidadHija);
+        }
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/entities")))
+                .satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e))
+                        .isInstanceOf(PresupuestoSqlExcedidoException.class)
+                        .hasMessageContaining("/entities"));
+
+        assertThat(meterRegistry.get("sql.peticion.presupuesto.excedido").tag("endpoint", "/entities")
+                .counter().count()).isPositive();
+        assertThat(meterRegistry.get("sql.peticion.sentencias").tag("endpoint", "/entities")
+                .summary().max()).isGreaterThan(2);
+        log.info("El presupuesto de sentencias de /entities se aplicó correctamente.");
+    }
+}
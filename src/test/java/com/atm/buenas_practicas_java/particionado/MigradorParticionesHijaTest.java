@@ -0,0 +1,110 @@
+package com.atm.buenas_practicas_java.particionado;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reproduce el estado que deja la migración V2 sobre una {@code entidad_hija} con datos y comprueba que la
+ * copia online, con escrituras concurrentes de la aplicación, termina con ambas tablas idénticas.
+ */
+@Log4j2
+@SpringBootTest(properties = "app.sql.habilitado=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MigradorParticionesHijaTest extends PostgreSQLContainerTest {
+
+    private static final int PADRES = 20;
+    private static final int HIJAS = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void laCopiaOnlineConservaLasEscriturasConcurrentes() {
+        prepararTablaSinParticionar();
+        var migrador = new MigradorParticionesHija(jdbcTemplate, transactionTemplate,
+                new ParticionadoProperties(true, 500, Duration.ZERO));
+        assertThat(migrador.pendiente()).isTrue();
+
+        AtomicBoolean copiando = new AtomicBoolean(true);
+        CompletableFuture<Void> escrituras = CompletableFuture.runAsync(() -> {
+            ThreadLocalRandom azar = ThreadLocalRandom.current();
+            while (copiando.get()) {
+                long id = azar.nextLong(1, HIJAS);
+                switch (azar.nextInt(3)) {
+                    case 0 -> jdbcTemplate.update("insert into entidad_hija (nombre, entidad_padre_id) "
+                            + "values ('Nueva', (select min(id) from entidad_padre))");
+                    case 1 -> jdbcTemplate.update("update entidad_hija set nombre = nombre || '*', "
+                            + "entidad_padre_id = (select max(id) from entidad_padre) where id = ?", id);
+                    default -> jdbcTemplate.update("delete from entidad_hija where id = ?", id);
+                }
+            }
+        });
+
+        long recorridas = migrador.copiar();
+        copiando.set(false);
+        escrituras.join();
+        migrador.intercambiar();
+
+        log.info("Recorridas {} filas durante la copia", recorridas);
+        assertThat(migrador.pendiente()).isFalse();
+        assertThat(jdbcTemplate.queryForObject(
+                "select relkind::text from pg_class where relname = 'entidad_hija'", String.class)).isEqualTo("p");
+        String filas = "select id, nombre, entidad_padre_id from %s order by id";
+        List<Map<String, Object>> particionada = jdbcTemplate.queryForList(filas.formatted("entidad_hija"));
+        assertThat(particionada)
+                .hasSizeGreaterThan(HIJAS / 2)
+                .isEqualTo(jdbcTemplate.queryForList(filas.formatted("entidad_hija_sin_particionar")));
+
+        jdbcTemplate.update("insert into entidad_hija (nombre) values ('Tras el intercambio')");
+        assertThat(jdbcTemplate.queryForObject("select max(id) from entidad_hija", Long.class))
+                .isGreaterThan((Long) particionada.getLast().get("id"));
+    }
+
+    /**
+     * Deja {@code entidad_hija} sin particionar (como en V1, con la versión de V5) con datos, la tabla particionada vacía y el trigger
+     * de réplica, que es lo que hace V2 cuando la tabla no está vacía.
+     */
+    private void prepararTablaSinParticionar() {
+        jdbcTemplate.execute("drop table entidad_hija");
+        jdbcTemplate.execute("""
+                create table entidad_hija (
+                    id bigint generated by default as identity,
+                    nombre varchar(255),
+                    entidad_padre_id bigint,
+                    version bigint not null default 0,
+                    constraint entidad_hija_pk primary key (id),
+                    constraint entidad_hija_entidad_padre_fk foreign key (entidad_padre_id) references entidad_padre (id))
+                """);
+        jdbcTemplate.execute("create index entidad_hija_entidad_padre_id_idx on entidad_hija (entidad_padre_id)");
+        jdbcTemplate.execute("create index entidad_hija_nombre_idx on entidad_hija (nombre)");
+        jdbcTemplate.update("insert into entidad_padre (nombre) select 'Padre ' || g from generate_series(1, ?) g",
+                PADRES);
+        jdbcTemplate.update("""
+                insert into entidad_hija (nombre, entidad_padre_id)
+                select 'Hija ' || g, (select min(id) from entidad_padre) + g % ? from generate_series(1, ?) g
+                """, PADRES, HIJAS);
+        jdbcTemplate.execute("select entidad_hija_crear_particionada(4)");
+        jdbcTemplate.execute("""
+                create trigger entidad_hija_replicar after insert or update or delete on entidad_hija
+                for each row execute function entidad_hija_replicar()
+                """);
+    }
+}
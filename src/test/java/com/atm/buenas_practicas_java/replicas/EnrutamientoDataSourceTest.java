@@ -0,0 +1,61 @@
+package com.atm.buenas_practicas_java.replicas;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Comprueba que las lecturas se reparten entre las réplicas disponibles y que las escrituras y las
+ * lecturas sin réplicas disponibles van a la primaria.
+ */
+class EnrutamientoDataSourceTest {
+
+    private final ReplicaLectura replica0 = new ReplicaLectura("replica-0", mock(DataSource.class));
+    private final ReplicaLectura replica1 = new ReplicaLectura("replica-1", mock(DataSource.class));
+    private final EnrutamientoDataSource enrutamiento =
+            new EnrutamientoDataSource(mock(DataSource.class), List.of(replica0, replica1));
+
+    @AfterEach
+    void limpiar() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void lasEscriturasVanSiempreALaPrimaria() {
+        replica0.marcar(true, 0);
+        replica1.marcar(true, 0);
+
+        assertThat(enrutamiento.determineCurrentLookupKey()).isEqualTo(EnrutamientoDataSource.PRIMARIA);
+    }
+
+    @Test
+    void lasLecturasSeRepartenEntreLasReplicasDisponibles() {
+        replica0.marcar(true, 0);
+        replica1.marcar(true, 0.5);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        List<Object> destinos = IntStream.range(0, 4).mapToObj(i -> enrutamiento.determineCurrentLookupKey()).toList();
+
+        assertThat(destinos).containsOnly("replica-0", "replica-1").contains("replica-0", "replica-1");
+    }
+
+    @Test
+    void unaReplicaRetrasadaNoRecibeLecturasYSinReplicasSeLeeDeLaPrimaria() {
+        replica0.marcar(false, 30);
+        replica1.marcar(true, 0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(IntStream.range(0, 4).mapToObj(i -> enrutamiento.determineCurrentLookupKey()))
+                .containsOnly("replica-1");
+
+        replica1.marcar(false, Double.NaN);
+        assertThat(enrutamiento.determineCurrentLookupKey()).isEqualTo(EnrutamientoDataSource.PRIMARIA);
+    }
+}
@@ -5,11 +5,16 @@ import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.atm.buenas_practicas_java.dtos.EntidadHijaResumen;
+import com.atm.buenas_practicas_java.dtos.PaginaHijas;
 import com.atm.buenas_practicas_java.entities.EntidadHija;
+import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import com.atm.buenas_practicas_java.repositories.EntidadPadreRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -38,6 +43,9 @@ class EntidadHijaServiceTest extends PostgreSQLContainerTest {
     @Autowired
     private EntidadHijaService entidadHijaService;
 
+    @Autowired
+    private EntidadPadreRepository entidadPadreRepository;
+
     @Test
     void testFindAllEntidadHija() {
         // Act
@@ -86,6 +94,43 @@ class EntidadHijaServiceTest extends PostgreSQLContainerTest {
         Assertions.assertNotNull(updatedEntidadHija);
         Assertions.assertEquals("Entidad Updated", updatedEntidadHija.getNombre());
     }
-    
-    
+
+    @Test
+    void testPaginaHijasDeUnPadrePorClave() {
+        // Arrange
+        EntidadPadre padre = entidadPadreRepository.save(new EntidadPadre("Padre paginado"));
+        for (int i = 0; i < 5; i++) {
+            EntidadHija hija = new EntidadHija("Hija paginada " + i);
+            hija.setEntidadPadre(padre);
+            entidadHijaService.save(hija);
+        }
+        // Act
+        PaginaHijas primera = entidadHijaService.findResumenByEntidadPadreId(padre.getId(), 0, 3);
+        PaginaHijas segunda = entidadHijaService.findResumenByEntidadPadreId(padre.getId(), primera.siguiente(), 3);
+        // Assert
+        Assertions.assertEquals(3, primera.hijas().size());
+        Assertions.assertEquals(primera.hijas().getLast().id(), primera.siguiente());
+        Assertions.assertEquals(2, segunda.hijas().size());
+        Assertions.assertNull(segunda.siguiente());
+        Assertions.assertTrue(segunda.hijas().getFirst().id() > primera.siguiente());
+        Assertions.assertEquals("Hija paginada 0", primera.hijas().getFirst().nombre());
+    }
+
+    @Test
+    void testHijasDeVariosPadresEnUnaConsulta() {
+        // Arrange
+        EntidadPadre conHijas = entidadPadreRepository.save(new EntidadPadre("Padre lote"));
+        EntidadPadre sinHijas = entidadPadreRepository.save(new EntidadPadre("Padre lote vacío"));
+        EntidadHija hija = new EntidadHija("Hija lote");
+        hija.setEntidadPadre(conHijas);
+        entidadHijaService.save(hija);
+        // Act
+        Map<Long, List<EntidadHijaResumen>> result =
+                entidadHijaService.findResumenByEntidadPadreIds(List.of(sinHijas.getId(), conHijas.getId()));
+        // Assert
+        Assertions.assertEquals(List.of(sinHijas.getId(), conHijas.getId()), List.copyOf(result.keySet()));
+        Assertions.assertTrue(result.get(sinHijas.getId()).isEmpty());
+        Assertions.assertEquals(List.of(new EntidadHijaResumen(hija.getId(), conHijas.getId(), "Hija lote")),
+                result.get(conHijas.getId()));
+    }
 }
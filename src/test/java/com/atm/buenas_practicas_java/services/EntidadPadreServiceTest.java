@@ -2,15 +2,24 @@ package com.atm.buenas_practicas_java.services;
 
 import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
 import com.atm.buenas_practicas_java.entities.EntidadPadre;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 
 /**
@@ -38,6 +47,12 @@ class EntidadPadreServiceTest extends PostgreSQLContainerTest {
     @Autowired
     private EntidadPadreService entidadPadreService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     void testFindAllEntidadPadre() {
         EntidadPadre entidadPadre = new EntidadPadre();
@@ -88,5 +103,98 @@ class EntidadPadreServiceTest extends PostgreSQLContainerTest {
         Assertions.assertEquals("Entidad Updated", updatedEntidadPadre.getNombre());
     }
 
+    @Test
+    void testSaveConVersionAntiguaFalla() {
+        EntidadPadre guardada = entidadPadreService.save(new EntidadPadre("Entidad versionada"));
+        EntidadPadre copiaA = entidadPadreService.findById(guardada.getId()).orElseThrow();
+        EntidadPadre copiaB = entidadPadreService.findById(guardada.getId()).orElseThrow();
+
+        copiaA.setNombre("Cambio A");
+        entidadPadreService.save(copiaA);
+        copiaB.setNombre("Cambio B");
+
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> entidadPadreService.save(copiaB));
+        Assertions.assertEquals("Cambio A", entidadPadreService.findById(guardada.getId()).orElseThrow().getNombre());
+    }
+
+    /**
+     * Cada intento perdido corresponde a la confirmación de otro hilo, así que con tantos hilos como intentos
+     * (5 por defecto) todos los renombrados acaban confirmándose.
+     */
+    @Test
+    void testRenombrarConcurrenteReintentaHastaConfirmarTodos() throws Exception {
+        Long id = entidadPadreService.save(new EntidadPadre("Entidad disputada")).getId();
+        int hilos = 5;
+        CyclicBarrier salida = new CyclicBarrier(hilos);
+        try (ExecutorService executor = Executors.newFixedThreadPool(hilos)) {
+            List<Future<Optional<EntidadPadre>>> resultados = IntStream.range(0, hilos)
+                    .mapToObj(i -> executor.submit(() -> {
+                        salida.await();
+                        return entidadPadreService.renombrar(id, "Renombrada " + i);
+                    }))
+                    .toList();
+            for (Future<Optional<EntidadPadre>> resultado : resultados) {
+                Assertions.assertTrue(resultado.get().isPresent());
+            }
+        }
+        EntidadPadre renombrada = entidadPadreService.findById(id).orElseThrow();
+        Assertions.assertEquals(hilos, renombrada.getVersion());
+        Assertions.assertTrue(renombrada.getNombre().startsWith("Renombrada "));
+    }
+
+    /**
+     * Las lecturas simultáneas del mismo id pueden compartir la consulta, pero cada una recibe su propia entidad:
+     * lo que una modifique no se ve en las demás. Que se agrupen lo comprueba {@code AgrupadorLecturasTest}.
+     */
+    @Test
+    void testFindByIdConcurrenteDevuelveEntidadesIndependientes() throws Exception {
+        Long id = entidadPadreService.save(new EntidadPadre("Entidad muy leída")).getId();
+        int hilos = 8;
+        CyclicBarrier salida = new CyclicBarrier(hilos);
+        List<EntidadPadre> leidas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(hilos)) {
+            List<Future<Optional<EntidadPadre>>> resultados = IntStream.range(0, hilos)
+                    .mapToObj(i -> executor.submit(() -> {
+                        salida.await();
+                        return entidadPadreService.findById(id);
+                    }))
+                    .toList();
+            for (Future<Optional<EntidadPadre>> resultado : resultados) {
+                leidas.add(resultado.get().orElseThrow());
+            }
+        }
+
+        leidas.getFirst().setNombre("Modificada por una petición");
+        for (EntidadPadre leida : leidas.subList(1, hilos)) {
+            Assertions.assertNotSame(leidas.getFirst(), leida);
+            Assertions.assertEquals("Entidad muy leída", leida.getNombre());
+        }
+    }
+
+    /**
+     * Dentro de una transacción de escritura {@code findAll} devuelve las entidades del contexto de persistencia,
+     * sin las pistas de solo lectura: lo que se modifique se guarda al confirmar.
+     */
+    @Test
+    void testFindAllEnTransaccionDeEscrituraGuardaLosCambios() {
+        Long id = entidadPadreService.save(new EntidadPadre("Entidad listada")).getId();
+
+        transactionTemplate.executeWithoutResult(estado -> entidadPadreService.findAll().stream()
+                .filter(entidad -> entidad.getId().equals(id))
+                .findFirst().orElseThrow()
+                .setNombre("Modificada desde el listado"));
 
+        Assertions.assertEquals("Modificada desde el listado",
+                entidadPadreService.findById(id).orElseThrow().getNombre());
+    }
+
+    @Test
+    void testFindAllByIdsEnTransaccionDeEscrituraGuardaLosCambios() {
+        Long id = entidadPadreService.save(new EntidadPadre("Entidad por lotes")).getId();
+
+        transactionTemplate.executeWithoutResult(estado -> entidadPadreService.findAllByIds(List.of(id))
+                .getFirst().setNombre("Modificada desde el lote"));
+
+        Assertions.assertEquals("Modificada desde el lote", entidadPadreService.findById(id).orElseThrow().getNombre());
+    }
 }
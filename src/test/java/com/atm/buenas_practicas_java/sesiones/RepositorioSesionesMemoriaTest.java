@@ -0,0 +1,106 @@
+package com.atm.buenas_practicas_java.sesiones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caducidad, capacidad y acceso concurrente del almacén de sesiones en memoria.
+ */
+class RepositorioSesionesMemoriaTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void lasSesionesCaducadasNoSeDevuelvenYElBarridoLasElimina() {
+        RepositorioSesionesMemoria repositorio = repositorio(100, Duration.ZERO);
+        MapSession caducada = repositorio.createSession();
+        caducada.setLastAccessedTime(Instant.now().minus(Duration.ofMinutes(31)));
+        repositorio.save(caducada);
+        MapSession vigente = repositorio.createSession();
+        vigente.setAttribute("usuario", "user");
+        repositorio.save(vigente);
+
+        assertThat(repositorio.findById(caducada.getId())).isNull();
+        assertThat(repositorio.findById(vigente.getId()).<String>getAttribute("usuario")).isEqualTo("user");
+
+        MapSession otraCaducada = repositorio.createSession();
+        otraCaducada.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repositorio.save(otraCaducada);
+        repositorio.createSession();
+        assertThat(repositorio.tamano()).isEqualTo(1);
+        assertThat(meterRegistry.get("sesiones.caducadas").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void conElAlmacenLlenoSeDesalojanLasMenosUsadasYElCambioDeIdNoDuplica() {
+        RepositorioSesionesMemoria repositorio = repositorio(100, Duration.ofHours(1));
+        Instant inicio = Instant.now().minus(Duration.ofMinutes(10));
+        List<MapSession> guardadas = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            MapSession sesion = repositorio.createSession();
+            sesion.setLastAccessedTime(inicio.plusSeconds(i));
+            repositorio.save(sesion);
+            guardadas.add(sesion);
+        }
+
+        // Cambiar el id (fijación de sesión al autenticarse) sustituye la entrada, no ocupa otra
+        MapSession renovada = repositorio.findById(guardadas.get(50).getId());
+        renovada.changeSessionId();
+        repositorio.save(renovada);
+        assertThat(repositorio.tamano()).isEqualTo(100);
+        assertThat(repositorio.findById(guardadas.get(50).getId())).isNull();
+
+        repositorio.save(repositorio.createSession());
+
+        assertThat(repositorio.tamano()).isEqualTo(100);
+        assertThat(repositorio.findById(guardadas.getFirst().getId())).isNull();
+        assertThat(repositorio.findById(guardadas.getLast().getId())).isNotNull();
+        assertThat(meterRegistry.get("sesiones.desalojadas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void elAccesoConcurrenteRespetaLaCapacidad() throws Exception {
+        int capacidad = 1_000;
+        int hilos = 8;
+        RepositorioSesionesMemoria repositorio = repositorio(capacidad, Duration.ofHours(1));
+        List<Future<?>> tareas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(hilos)) {
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        MapSession sesion = repositorio.createSession();
+                        repositorio.save(sesion);
+                        MapSession leida = repositorio.findById(sesion.getId());
+                        if (leida != null) {
+                            leida.setAttribute("peticiones", i);
+                            repositorio.save(leida);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+        // Varios hilos pueden comprobar la capacidad a la vez antes de guardar
+        assertThat(repositorio.tamano()).isLessThanOrEqualTo(capacidad + hilos);
+    }
+
+    private RepositorioSesionesMemoria repositorio(int capacidad, Duration barrido) {
+        return new RepositorioSesionesMemoria(Duration.ofMinutes(30),
+                new SesionesProperties(SesionesProperties.Almacen.MEMORIA, capacidad, barrido), Clock.systemUTC(),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.atm.buenas_practicas_java.sesiones;
+
+import com.atm.buenas_practicas_java.PostgreSQLContainerTest;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sesiones en PostgreSQL ({@code app.sesiones.almacen=jdbc}) sobre las tablas de la migración V6.
+ */
+@Log4j2
+@SpringBootTest
+@TestPropertySource(properties = "app.sesiones.almacen=jdbc")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SesionesJdbcTest extends PostgreSQLContainerTest {
+
+    @Autowired
+    private SessionRepository<?> sessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lasSesionesSeGuardanEnPostgreSQLIndexadasPorUsuario() {
+        assertThat(sessionRepository).isInstanceOf(JdbcIndexedSessionRepository.class);
+        guardarYLeer((JdbcIndexedSessionRepository) sessionRepository);
+    }
+
+    private <S extends Session> void guardarYLeer(FindByIndexNameSessionRepository<S> repositorio) {
+        S sesion = repositorio.createSession();
+        sesion.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated("user", null, List.of())));
+        sesion.setAttribute("preferencia", "oscuro");
+        repositorio.save(sesion);
+
+        assertThat(repositorio.findByPrincipalName("user")).containsKey(sesion.getId());
+        assertThat(jdbcTemplate.queryForObject("""
+                select count(*) from spring_session_attributes a join spring_session s on s.primary_id = a.session_primary_id
+                where s.session_id = ?""", Integer.class, sesion.getId())).isEqualTo(2);
+
+        // Una petición posterior solo actualiza el último acceso
+        S leida = repositorio.findById(sesion.getId());
+        leida.setLastAccessedTime(Instant.now());
+        repositorio.save(leida);
+        assertThat(repositorio.findById(sesion.getId()).<String>getAttribute("preferencia")).isEqualTo("oscuro");
+    }
+}